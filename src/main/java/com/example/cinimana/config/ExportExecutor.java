@@ -0,0 +1,75 @@
+package com.example.cinimana.config;
+
+import com.example.cinimana.exception.TropDeRequetesException;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exports en flux : écrits par des threads virtuels dédiés, en nombre limité, avec un délai
+ * suffisant pour les gros fichiers. Au-delà de la limite, l'export est refusé tout de suite (429) :
+ * le thread de la requête n'attend jamais qu'un export se termine. Propre aux exports : l'exécuteur
+ * et le délai asynchrones par défaut de Spring MVC (flux SSE des plans de salle...) ne sont pas modifiés.
+ */
+@Component
+public class ExportExecutor {
+
+    @Value("${app.exports.timeout-minutes:10}")
+    private long exportTimeoutMinutes;
+
+    @Value("${app.exports.max-concurrent:4}")
+    private int maxConcurrentExports;
+
+    private SimpleAsyncTaskExecutor executor;
+    private Semaphore exportsEnCours;
+
+    @PostConstruct
+    public void init() {
+        executor = new SimpleAsyncTaskExecutor("export-");
+        executor.setVirtualThreads(true);
+        exportsEnCours = new Semaphore(maxConcurrentExports);
+    }
+
+    /**
+     * Écrit le fichier directement dans la réponse, sur un thread des exports
+     *
+     * @throws TropDeRequetesException si la limite d'exports simultanés est atteinte
+     */
+    public WebAsyncTask<Void> exporter(HttpServletResponse response, HttpHeaders headers,
+                                       StreamingResponseBody contenu) {
+        if (!exportsEnCours.tryAcquire()) {
+            throw new TropDeRequetesException("Trop d'exports en cours, veuillez réessayer dans quelques instants");
+        }
+        // Le jeton est rendu une seule fois : par l'export à la fin de l'écriture, ou à la fin de la
+        // requête si l'export n'a jamais démarré
+        AtomicBoolean demarre = new AtomicBoolean();
+        headers.forEach((nom, valeurs) -> valeurs.forEach(valeur -> response.addHeader(nom, valeur)));
+        WebAsyncTask<Void> task = new WebAsyncTask<>(TimeUnit.MINUTES.toMillis(exportTimeoutMinutes), executor, () -> {
+            if (!demarre.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                contenu.writeTo(response.getOutputStream());
+                response.flushBuffer();
+                return null;
+            } finally {
+                exportsEnCours.release();
+            }
+        });
+        task.onCompletion(() -> {
+            if (demarre.compareAndSet(false, true)) {
+                exportsEnCours.release();
+            }
+        });
+        return task;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.cinimana.config;
+
+import com.example.cinimana.model.SiegeReserve;
+import com.example.cinimana.service.IdGeneratorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Batch JDBC des insertions Hibernate (sièges réservés) et initialisation du générateur d'ID par table.
+ */
+@Configuration
+public class JpaBatchConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(JpaBatchConfig.class);
+
+    @Bean
+    public HibernatePropertiesCustomizer batchPropertiesCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", 50);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+        };
+    }
+
+    /**
+     * Les sièges existants ont été créés en IDENTITY : le générateur démarre au-delà du plus grand ID.
+     * Exécuté après la création du schéma, avant le démarrage du serveur web ; un échec bloque le démarrage.
+     */
+    @Bean
+    public SmartInitializingSingleton siegeReserveIdGeneratorInitializer(JdbcTemplate jdbcTemplate,
+                                                                         IdGeneratorService idGeneratorService) {
+        return () -> {
+            // Ordre des initialisations non garanti : la table peut ne pas encore avoir été créée
+            idGeneratorService.creerTableSiAbsente();
+            try {
+                Long seed = jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(MAX(id), 0) + ? FROM siege_reserve", Long.class,
+                        2L * SiegeReserve.ID_ALLOCATION_SIZE);
+                int updated = jdbcTemplate.update(
+                        "UPDATE id_generator SET gen_value = GREATEST(gen_value, ?) WHERE gen_name = ?",
+                        seed, SiegeReserve.ID_GENERATOR);
+                if (updated == 0) {
+                    jdbcTemplate.update("INSERT INTO id_generator (gen_name, gen_value) VALUES (?, ?)",
+                            SiegeReserve.ID_GENERATOR, seed);
+                }
+                logger.info("✅ Générateur d'ID des sièges positionné au-delà de {}", seed);
+            } catch (Exception e) {
+                // Un générateur resté sous les ID IDENTITY existants ferait échouer chaque insertion de siège
+                throw new IllegalStateException("Initialisation du générateur d'ID des sièges impossible", e);
+            }
+        };
+    }
+}
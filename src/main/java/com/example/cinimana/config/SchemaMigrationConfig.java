@@ -0,0 +1,163 @@
+package com.example.cinimana.config;
+
+import com.example.cinimana.service.JournalActiviteService;
+import com.example.cinimana.service.StatistiqueReservationService;
+import com.example.cinimana.service.ticket.FileSystemTicketStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Reprises de données idempotentes exécutées au démarrage, après la mise à jour du schéma
+ * par Hibernate et avant le démarrage du serveur web.
+ */
+@Configuration
+public class SchemaMigrationConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrationConfig.class);
+
+    private static final String SIEGE_INDEX_UNIQUE = "uk_siege_seance_actif";
+
+    /**
+     * Renseigne seance_id et actif sur les sièges créés avant la dénormalisation. L'index unique créé
+     * par Hibernate est retiré pendant la reprise : les doublons historiques (même siège actif sur deux
+     * réservations) sont résolus en gardant la plus ancienne ligne, puis l'index est recréé.
+     * Un échec arrête le démarrage : sans seance_id, les sièges vendus apparaîtraient libres.
+     */
+    @Bean
+    public SmartInitializingSingleton siegeReserveSeanceBackfill(JdbcTemplate jdbcTemplate) {
+        return () -> {
+            try {
+                Integer aReprendre = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM siege_reserve WHERE seance_id IS NULL", Integer.class);
+                boolean indexPresent = indexExiste(jdbcTemplate, "siege_reserve", SIEGE_INDEX_UNIQUE);
+                if ((aReprendre == null || aReprendre == 0) && indexPresent) {
+                    return;
+                }
+
+                if (indexPresent) {
+                    jdbcTemplate.execute("ALTER TABLE siege_reserve DROP INDEX " + SIEGE_INDEX_UNIQUE);
+                }
+                int updated = jdbcTemplate.update(
+                        "UPDATE siege_reserve sr JOIN reservation r ON r.id = sr.reservation_id " +
+                                "SET sr.seance_id = r.seance_id, " +
+                                "sr.actif = CASE WHEN r.statut <> 'ANNULEE' THEN TRUE ELSE NULL END " +
+                                "WHERE sr.seance_id IS NULL");
+                if (updated > 0) {
+                    logger.info("✅ {} siège(s) réservé(s) complété(s) avec seance_id/actif", updated);
+                }
+
+                int doublons = jdbcTemplate.update(
+                        "UPDATE siege_reserve sr JOIN (" +
+                                "SELECT seance_id, rangee, numero, MIN(id) AS garde FROM siege_reserve " +
+                                "WHERE actif = TRUE GROUP BY seance_id, rangee, numero HAVING COUNT(*) > 1) d " +
+                                "ON d.seance_id = sr.seance_id AND d.rangee = sr.rangee AND d.numero = sr.numero " +
+                                "SET sr.actif = NULL WHERE sr.actif = TRUE AND sr.id <> d.garde");
+                if (doublons > 0) {
+                    logger.warn("⚠️ {} siège(s) réservé(s) en double : seule la plus ancienne réservation garde le siège",
+                            doublons);
+                }
+
+                jdbcTemplate.execute("ALTER TABLE siege_reserve ADD CONSTRAINT " + SIEGE_INDEX_UNIQUE +
+                        " UNIQUE (seance_id, rangee, numero, actif)");
+                logger.info("✅ Index unique {} (re)créé", SIEGE_INDEX_UNIQUE);
+            } catch (Exception e) {
+                throw new IllegalStateException("Reprise seance_id/actif des sièges impossible", e);
+            }
+        };
+    }
+
+    /**
+     * Reprend les anciens codes UUID dans code_binaire (mêmes 16 octets, les billets déjà émis restent
+     * valides), par lots, puis supprime l'ancien index unique VARCHAR de code_reservation.
+     * Un échec arrête le démarrage : les billets non repris seraient introuvables au scan.
+     */
+    @Bean
+    public SmartInitializingSingleton reservationCodeBinaireBackfill(JdbcTemplate jdbcTemplate) {
+        return () -> {
+            try {
+                int total = 0;
+                int updated;
+                do {
+                    updated = jdbcTemplate.update(
+                            "UPDATE reservation SET code_binaire = UNHEX(REPLACE(code_reservation, '-', '')) " +
+                                    "WHERE code_binaire IS NULL AND CHAR_LENGTH(code_reservation) = 36 LIMIT 5000");
+                    total += updated;
+                } while (updated == 5000);
+                if (total > 0) {
+                    logger.info("✅ {} code(s) de réservation repris en BINARY(16)", total);
+                }
+
+                List<String> anciensIndex = jdbcTemplate.queryForList(
+                        "SELECT DISTINCT index_name FROM information_schema.statistics " +
+                                "WHERE table_schema = DATABASE() AND table_name = 'reservation' " +
+                                "AND column_name = 'code_reservation' AND non_unique = 0", String.class);
+                for (String index : anciensIndex) {
+                    jdbcTemplate.execute("ALTER TABLE reservation DROP INDEX `" + index + "`");
+                    logger.info("🗑️ Ancien index unique {} sur code_reservation supprimé", index);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Reprise des codes de réservation impossible", e);
+            }
+        };
+    }
+
+    /**
+     * Construit les statistiques des réservations existantes au premier démarrage.
+     * Un échec arrête le démarrage : les réservations suivantes rempliraient la table, la reprise
+     * (déclenchée sur table vide) ne s'exécuterait plus et les tableaux de bord resteraient partiels.
+     */
+    @Bean
+    public SmartInitializingSingleton statistiqueReservationBackfill(StatistiqueReservationService statistiqueService) {
+        return () -> {
+            try {
+                statistiqueService.initialiserSiVide();
+            } catch (Exception e) {
+                throw new IllegalStateException("Reprise des statistiques des réservations impossible", e);
+            }
+        };
+    }
+
+    /**
+     * Amorce le journal d'activité avec les dernières opérations des tables d'historique
+     */
+    @Bean
+    public SmartInitializingSingleton journalActiviteBackfill(JournalActiviteService journalActiviteService) {
+        return () -> {
+            try {
+                journalActiviteService.initialiserSiVide();
+            } catch (Exception e) {
+                logger.error("❌ Reprise du journal d'activité impossible: {}", e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Indexe les billets de l'ancienne disposition à plat pour que la purge les supprime à expiration
+     */
+    @Bean
+    public SmartInitializingSingleton anciensBilletsIndexation(FileSystemTicketStore ticketStore) {
+        return () -> {
+            try {
+                int indexes = ticketStore.indexerAnciensBillets();
+                if (indexes > 0) {
+                    logger.info("✅ {} ancien(s) billet(s) ajouté(s) à l'index de purge", indexes);
+                }
+            } catch (Exception e) {
+                logger.error("❌ Indexation des anciens billets impossible: {}", e.getMessage());
+            }
+        };
+    }
+
+    private static boolean indexExiste(JdbcTemplate jdbcTemplate, String table, String index) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() " +
+                        "AND table_name = ? AND index_name = ?", Integer.class, table, index);
+        return count != null && count > 0;
+    }
+}
@@ -9,23 +9,38 @@ import com.example.cinimana.service.admin.AdminFilmService;
 import com.example.cinimana.service.admin.AdminSalleService;
 import com.example.cinimana.service.admin.AdminUserService;
 import com.example.cinimana.service.admin.DashboardService;
+import com.example.cinimana.service.admin.HistoriqueQueryService;
 import com.example.cinimana.dto.request.FilmRequestDTO;
 import com.example.cinimana.dto.response.FilmResponseDTO;
 import com.example.cinimana.dto.request.SalleRequestDTO;
 import com.example.cinimana.dto.response.SalleResponseDTO;
 
+import com.example.cinimana.config.ExportExecutor;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.time.format.DateTimeFormatter;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import com.example.cinimana.service.admin.AdminExportService;
+import com.example.cinimana.service.QRCodeService;
+import com.example.cinimana.service.StatistiqueReservationService;
+import com.example.cinimana.service.cache.CatalogueCacheService;
+import com.example.cinimana.service.cache.TtlCache;
+import com.example.cinimana.service.caissier.BilletIndex;
+import com.example.cinimana.service.caissier.BilletIndexStats;
+import com.example.cinimana.service.email.EmailDispatchService;
+import com.example.cinimana.service.job.BulkJobStats;
+import com.example.cinimana.service.job.BulkUpdateJobRunner;
 import com.example.cinimana.dto.response.HistoriqueResponseDTO;
+import com.example.cinimana.dto.response.HistoriquePageDTO;
 import com.example.cinimana.model.Client;
 import com.example.cinimana.model.TypeOperation;
 import com.example.cinimana.model.StatutReservation;
@@ -42,6 +57,14 @@ public class AdminController {
     private final AdminFilmService adminFilmService;
     private final AdminSalleService adminSalleService;
     private final AdminExportService adminExportService;
+    private final CatalogueCacheService catalogueCacheService;
+    private final QRCodeService qrCodeService;
+    private final StatistiqueReservationService statistiqueService;
+    private final HistoriqueQueryService historiqueQueryService;
+    private final BulkUpdateJobRunner bulkUpdateJobRunner;
+    private final EmailDispatchService emailDispatchService;
+    private final BilletIndex billetIndex;
+    private final ExportExecutor exportExecutor;
 
     // CONSULTATION DES UTILISATEURS (Actifs, Inactifs, Tous)
     @GetMapping("/users")
@@ -127,18 +150,93 @@ public class AdminController {
         return ResponseEntity.ok(dashboardService.getFilmSalleStats());
     }
 
+    // Statistiques des caches du catalogue public et des QR codes (taille, hits, miss, évictions)
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<TtlCache.Stats>> getCacheStats() {
+        List<TtlCache.Stats> stats = new java.util.ArrayList<>(catalogueCacheService.stats());
+        stats.addAll(qrCodeService.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    // Métriques des tâches planifiées par lots (lignes modifiées, durée, dernière erreur)
+    @GetMapping("/jobs/stats")
+    public ResponseEntity<List<BulkJobStats>> getJobStats() {
+        return ResponseEntity.ok(bulkUpdateJobRunner.stats());
+    }
+
+    // Index des billets du jour (caisse) : taille, validations par seconde, écritures différées en attente
+    @GetMapping("/billets/index/stats")
+    public ResponseEntity<BilletIndexStats> getBilletIndexStats() {
+        return ResponseEntity.ok(billetIndex.stats());
+    }
+
+    // File d'envoi des emails de rappel : nombre de rappels par statut (ECHEC = abandonnés)
+    @GetMapping("/emails/stats")
+    public ResponseEntity<java.util.Map<com.example.cinimana.model.StatutOutbox, Long>> getEmailStats() {
+        return ResponseEntity.ok(emailDispatchService.stats());
+    }
+
+    // Remet en file les rappels abandonnés après le nombre maximal de tentatives
+    @PostMapping("/emails/echecs/relance")
+    public ResponseEntity<java.util.Map<String, Integer>> relancerEmailsEnEchec() {
+        return ResponseEntity.ok(java.util.Map.of("relances", emailDispatchService.relancerEchecs()));
+    }
+
     @GetMapping("/dashboard/activities")
     public ResponseEntity<List<com.example.cinimana.dto.response.HistoriqueResponseDTO>> getRecentActivities() {
         return ResponseEntity.ok(dashboardService.getRecentActivities());
     }
 
+    // Dernières opérations tous types confondus (100 au plus)
+    @GetMapping("/dashboard/activities/feed")
+    public ResponseEntity<List<com.example.cinimana.dto.response.HistoriqueResponseDTO>> getActivityFeed(
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(dashboardService.getActivityFeed(limit));
+    }
+
     @GetMapping("/dashboard/charts")
     public ResponseEntity<com.example.cinimana.dto.response.DashboardChartsDTO> getDashboardCharts() {
         return ResponseEntity.ok(dashboardService.getDashboardCharts());
     }
 
+    // Reconstruction des statistiques des réservations sur une période (reprise, correction manuelle)
+    @PostMapping("/statistiques/reconstruction")
+    public ResponseEntity<java.util.Map<String, Integer>> reconstruireStatistiques(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate debut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) java.time.LocalDate fin) {
+        return ResponseEntity.ok(java.util.Map.of("lignes", statistiqueService.reconstruire(debut, fin)));
+    }
+
 
     // ENDPOINTS HISTORIQUE AVEC FILTRAGE ET STATISTIQUES
+    // Historique paginé par curseur (users, films, offres, salles, seances)
+    @GetMapping("/historique/{type}/page")
+    public ResponseEntity<HistoriquePageDTO> getHistoryPage(
+            @PathVariable String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<TypeOperation> operations,
+            @RequestParam(required = false) List<com.example.cinimana.model.Role> roles,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return ResponseEntity.ok(historiqueQueryService.page(type,
+                new HistoriqueQueryService.Filtre(search, operations, roles, start, end), cursor, size));
+    }
+
+    // Nombre d'opérations correspondant aux filtres (sans lecture des lignes)
+    @GetMapping("/historique/{type}/count")
+    public ResponseEntity<java.util.Map<String, Long>> countHistory(
+            @PathVariable String type,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<TypeOperation> operations,
+            @RequestParam(required = false) List<com.example.cinimana.model.Role> roles,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return ResponseEntity.ok(java.util.Map.of("total", historiqueQueryService.count(type,
+                new HistoriqueQueryService.Filtre(search, operations, roles, start, end))));
+    }
+
     @GetMapping("/historique/users")
     public ResponseEntity<List<com.example.cinimana.dto.response.HistoriqueResponseDTO>> getFilteredUserHistory(
             @RequestParam(required = false) String search,
@@ -233,86 +331,100 @@ public class AdminController {
     }
 
     // ENDPOINTS EXPORT EXCEL cette methode génère la réponse HTTP pour le téléchargement du fichier Excel
-    private ResponseEntity<byte[]> generateExcelResponse(byte[] content, String entityName) {
+    // Le classeur est écrit directement dans la réponse, sans tableau d'octets intermédiaire, par l'exécuteur des exports
+    private WebAsyncTask<Void> generateExcelResponse(HttpServletResponse response, StreamingResponseBody content,
+                                                     String entityName) {
         String filename = entityName + "_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm"))
                 + ".xlsx";
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .header(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.CONTENT_DISPOSITION)
-                .contentType(
-                        MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))// MIME type pour les fichiers Excel
-                .body(content);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
+        headers.set(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.CONTENT_DISPOSITION);
+        headers.setContentType(
+                MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));// MIME type pour les fichiers Excel
+        return exportExecutor.exporter(response, headers, content);
     }
 
     @GetMapping("/historique/users/export/excel")
-    public ResponseEntity<byte[]> exportUserHistory(
+    public WebAsyncTask<Void> exportUserHistory(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) List<TypeOperation> operations,
             @RequestParam(required = false) List<com.example.cinimana.model.Role> roles,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        List<HistoriqueResponseDTO> data = dashboardService.getFilteredUserHistory(search, operations, roles, start,
-                end);
-        return generateExcelResponse(adminExportService.exportHistoriqueToExcel(data), "HistoriqueUtilisateurs");
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            HttpServletResponse response) {
+        Iterable<HistoriqueResponseDTO> data = historiqueQueryService.stream("users",
+                new HistoriqueQueryService.Filtre(search, operations, roles, start, end));
+        return generateExcelResponse(response, out -> adminExportService.exportHistoriqueToExcel(data, out),
+                "HistoriqueUtilisateurs");
     }
 
     @GetMapping("/historique/films/export/excel")
-    public ResponseEntity<byte[]> exportFilmHistory(
+    public WebAsyncTask<Void> exportFilmHistory(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) List<TypeOperation> operations,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        List<HistoriqueResponseDTO> data = dashboardService.getFilteredFilmHistory(search, operations, start, end);
-        return generateExcelResponse(adminExportService.exportHistoriqueToExcel(data), "HistoriqueFilms");
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            HttpServletResponse response) {
+        Iterable<HistoriqueResponseDTO> data = historiqueQueryService.stream("films",
+                new HistoriqueQueryService.Filtre(search, operations, null, start, end));
+        return generateExcelResponse(response, out -> adminExportService.exportHistoriqueToExcel(data, out), "HistoriqueFilms");
     }
 
     @GetMapping("/historique/offres/export/excel")
-    public ResponseEntity<byte[]> exportOfferHistory(
+    public WebAsyncTask<Void> exportOfferHistory(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) List<TypeOperation> operations,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        List<HistoriqueResponseDTO> data = dashboardService.getFilteredOfferHistory(search, operations, start, end);
-        return generateExcelResponse(adminExportService.exportHistoriqueToExcel(data), "HistoriqueOffres");
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            HttpServletResponse response) {
+        Iterable<HistoriqueResponseDTO> data = historiqueQueryService.stream("offres",
+                new HistoriqueQueryService.Filtre(search, operations, null, start, end));
+        return generateExcelResponse(response, out -> adminExportService.exportHistoriqueToExcel(data, out), "HistoriqueOffres");
     }
 
     @GetMapping("/historique/salles/export/excel")
-    public ResponseEntity<byte[]> exportSalleHistory(
+    public WebAsyncTask<Void> exportSalleHistory(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) List<TypeOperation> operations,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        List<HistoriqueResponseDTO> data = dashboardService.getFilteredSalleHistory(search, operations, start, end);
-        return generateExcelResponse(adminExportService.exportHistoriqueToExcel(data), "HistoriqueSalles");
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            HttpServletResponse response) {
+        Iterable<HistoriqueResponseDTO> data = historiqueQueryService.stream("salles",
+                new HistoriqueQueryService.Filtre(search, operations, null, start, end));
+        return generateExcelResponse(response, out -> adminExportService.exportHistoriqueToExcel(data, out), "HistoriqueSalles");
     }
 
     @GetMapping("/historique/seances/export/excel")
-    public ResponseEntity<byte[]> exportSeanceHistory(
+    public WebAsyncTask<Void> exportSeanceHistory(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) List<TypeOperation> operations,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        List<HistoriqueResponseDTO> data = dashboardService.getFilteredSeanceHistory(search, operations, start, end);
-        return generateExcelResponse(adminExportService.exportHistoriqueToExcel(data), "HistoriqueSeances");
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            HttpServletResponse response) {
+        Iterable<HistoriqueResponseDTO> data = historiqueQueryService.stream("seances",
+                new HistoriqueQueryService.Filtre(search, operations, null, start, end));
+        return generateExcelResponse(response, out -> adminExportService.exportHistoriqueToExcel(data, out), "HistoriqueSeances");
     }
 
     @GetMapping("/historique/reservations/export/excel")
-    public ResponseEntity<byte[]> exportReservationHistory(
+    public WebAsyncTask<Void> exportReservationHistory(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) List<StatutReservation> statuses,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            HttpServletResponse response) {
         List<HistoriqueResponseDTO> data = dashboardService.getFilteredReservations(search, statuses, start, end);
-        return generateExcelResponse(adminExportService.exportReservationHistoriqueToExcel(data),
+        return generateExcelResponse(response, out -> adminExportService.exportReservationHistoriqueToExcel(data, out),
                 "HistoriqueReservations");
     }
 
     @GetMapping("/clients/export/excel")
-    public ResponseEntity<byte[]> exportClients(
+    public WebAsyncTask<Void> exportClients(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            HttpServletResponse response) {
         List<Client> data = dashboardService.getFilteredClients(search, start, end);
-        return generateExcelResponse(adminExportService.exportClientsToExcel(data), "ListeClients");
+        return generateExcelResponse(response, out -> adminExportService.exportClientsToExcel(data, out), "ListeClients");
     }
 }
\ No newline at end of file
@@ -2,15 +2,24 @@ package com.example.cinimana.controller;
 
 import com.example.cinimana.dto.request.ChangePasswordRequest;
 import com.example.cinimana.dto.request.ClientProfileRequest;
+import com.example.cinimana.dto.request.SeatHoldRequest;
+import com.example.cinimana.dto.response.SeatHoldResponse;
 
 import com.example.cinimana.model.Reservation;
 import com.example.cinimana.service.client.ClientService;
+import com.example.cinimana.service.seat.SeatHoldService;
+import com.example.cinimana.service.ticket.TicketStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import com.example.cinimana.dto.response.ReservationResponse;
@@ -25,7 +34,7 @@ public class ClientController {
     // --- PROFIL CLIENT ---
     private final ClientService clientService;
     private final com.example.cinimana.service.ReservationService reservationService;
-    private final com.example.cinimana.service.PDFService pdfService;
+    private final TicketStore ticketStore;
 
     @GetMapping("/reservations")
     public ResponseEntity<List<ReservationResponse>> getMyReservations(
@@ -72,6 +81,31 @@ public class ClientController {
         Reservation reservation = reservationService.createReservation(userDetails.getUsername(), request);
         return ResponseEntity.ok(mapToResponse(reservation));
     }
+
+    // --- PANIER (sièges posés temporairement) ---
+
+    @PostMapping("/seances/{seanceId}/holds")
+    public ResponseEntity<SeatHoldResponse> holdSeats(@AuthenticationPrincipal UserDetails userDetails,
+                                                      @PathVariable Long seanceId,
+                                                      @RequestBody SeatHoldRequest request) {
+        SeatHoldService.SeatHold hold = reservationService.holdSeats(userDetails.getUsername(), seanceId,
+                request.getSieges());
+        List<ReservationResponse.SiegeInfo> sieges = request.getSieges().stream()
+                .map(s -> ReservationResponse.SiegeInfo.builder()
+                        .rangee(s.getRangee())
+                        .numero(s.getNumero())
+                        .build())
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new SeatHoldResponse(hold.holdId(), seanceId, sieges, hold.expiresAt()));
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<?> releaseHold(@AuthenticationPrincipal UserDetails userDetails,
+                                         @PathVariable String holdId) {
+        reservationService.releaseHold(userDetails.getUsername(), holdId);
+        return ResponseEntity.noContent().build();
+    }
+
     // Endpoint pour confirmer la présence (après arrivée au cinéma)
     @PutMapping("/reservations/{code}/confirm-presence")
     public ResponseEntity<?> confirmPresence(@PathVariable String code) {
@@ -88,39 +122,25 @@ public class ClientController {
     }
 
     @GetMapping("/reservations/{code}/ticket.pdf")
-    public ResponseEntity<byte[]> getTicketPdf(@PathVariable String code) {
+    public void getTicketPdf(@PathVariable String code, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
         Reservation reservation = reservationService.getReservationByCode(code);
-
-        byte[] pdfBytes = null;
-
-        // 1. Essayer de lire le fichier depuis le chemin stocké
-        if (reservation.getTicketPdfPath() != null) {
-            try {
-                java.nio.file.Path path = java.nio.file.Paths.get(reservation.getTicketPdfPath());
-                if (java.nio.file.Files.exists(path)) {
-                    pdfBytes = java.nio.file.Files.readAllBytes(path);
-                }
-            } catch (java.io.IOException e) {
-                // Log error
-                System.err.println("Erreur lecture PDF stocké: " + e.getMessage());
-                // Fallback will generate it
-            }
+        Path ticket = ticketStore.getOrRender(reservation);
+        long size = Files.size(ticket);
+
+        response.setContentType(org.springframework.http.MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=ticket-" + code + ".pdf");
+        response.setContentLengthLong(size);
+
+        // Tomcat envoie le fichier directement depuis le noyau (sendfile) quand le connecteur le permet
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", ticket.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", size);
+            return;
         }
-
-        // 2. Fallback: générer à la volée
-        if (pdfBytes == null || pdfBytes.length == 0) {
-            try {
-                pdfBytes = pdfService.generateReservationTicket(reservation);
-            } catch (Exception e) {
-                throw new RuntimeException("Erreur génération PDF à la volée: " + e.getMessage(), e);
-            }
-        }
-
-        return ResponseEntity.ok()
-                .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=ticket-" + code + ".pdf")
-                .contentType(org.springframework.http.MediaType.APPLICATION_PDF)
-                .body(pdfBytes);
+        ticketStore.transferTo(ticket, response.getOutputStream());
     }
 
     // Mapper simple Entity -> DTO
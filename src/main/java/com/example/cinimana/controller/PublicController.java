@@ -1,11 +1,15 @@
 package com.example.cinimana.controller;
 
 import com.example.cinimana.dto.response.FilmResponseDTO;
+import com.example.cinimana.dto.response.OffreResponseDTO;
 import com.example.cinimana.dto.response.SeanceResponseDTO;
 import com.example.cinimana.service.client.PublicService;
+import com.example.cinimana.service.seat.SeatMapStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -17,6 +21,7 @@ import java.util.List;
 public class PublicController {
 
     private final PublicService publicService;
+    private final SeatMapStreamService seatMapStreamService;
 
     @GetMapping("/films")
     public ResponseEntity<List<FilmResponseDTO>> getAllActiveFilms() {
@@ -47,8 +52,14 @@ public class PublicController {
         return ResponseEntity.ok(publicService.getReservedSeatsForSeance(id));
     }
 
+    // Flux SSE du plan de salle : événement "snapshot" puis événements "delta"
+    @GetMapping(value = "/seances/{id}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeats(@PathVariable Long id) {
+        return seatMapStreamService.subscribe(id);
+    }
+
     @GetMapping("/offres/applicable")
-    public ResponseEntity<List<com.example.cinimana.model.Offre>> getApplicableOffers(
+    public ResponseEntity<List<OffreResponseDTO>> getApplicableOffers(
             @RequestParam int nbPersonnes,
             @RequestParam(required = false) String date,
             @RequestParam(required = false) Long seanceId) {
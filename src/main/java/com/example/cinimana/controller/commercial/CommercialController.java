@@ -1,14 +1,18 @@
 package com.example.cinimana.controller.commercial;
 
+import com.example.cinimana.config.ExportExecutor;
 import com.example.cinimana.dto.commercial.request.SeanceRequestDTO;
 import com.example.cinimana.dto.commercial.response.*;
 import com.example.cinimana.dto.response.FilmResponseDTO;
 import com.example.cinimana.dto.response.SalleResponseDTO;
+import com.example.cinimana.model.StatutReservation;
 import com.example.cinimana.service.commercial.CommercialSeanceService;
+import com.example.cinimana.service.commercial.ProgrammeImportService;
 import com.example.cinimana.service.commercial.SeanceExcelExportService;
 import com.example.cinimana.service.commercial.SeancePdfExportService;
 import com.example.cinimana.service.commercial.ReservationExcelExportService;
 import com.example.cinimana.service.commercial.ReservationPdfExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -20,6 +24,9 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -40,6 +47,8 @@ public class CommercialController {
     private final SeancePdfExportService seancePdfExportService;
     private final ReservationExcelExportService reservationExcelExportService;
     private final ReservationPdfExportService reservationPdfExportService;
+    private final ProgrammeImportService programmeImportService;
+    private final ExportExecutor exportExecutor;
 
     // ==================== GESTION DES SÉANCES ====================
 
@@ -53,6 +62,22 @@ public class CommercialController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Importer un programme de séances (Excel ou CSV) ; simulation=true valide sans rien créer
+     */
+    @PostMapping(value = "/seances/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProgrammeImportResultDTO> importerProgramme(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean simulation) {
+        logger.info("POST /api/commercial/seances/import - Import du programme {} (simulation={})",
+                file.getOriginalFilename(), simulation);
+        ProgrammeImportResultDTO response = programmeImportService.importer(file, simulation);
+        if (!response.erreurs().isEmpty()) {
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.status(simulation ? HttpStatus.OK : HttpStatus.CREATED).body(response);
+    }
+
     /**
      * Modifier une séance existante
      */
@@ -167,6 +192,19 @@ public class CommercialController {
         return ResponseEntity.ok(seanceService.getActiveSalles());
     }
 
+    /**
+     * Prochains créneaux libres d'une salle pour un film (filmId) ou une durée en minutes
+     */
+    @GetMapping("/salles/{salleId}/creneaux-libres")
+    public ResponseEntity<List<CreneauLibreDTO>> getCreneauxLibres(
+            @PathVariable String salleId,
+            @RequestParam(required = false) String filmId,
+            @RequestParam(required = false) Integer duree,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime apres,
+            @RequestParam(defaultValue = "5") int nombre) {
+        return ResponseEntity.ok(seanceService.getCreneauxLibres(salleId, filmId, duree, apres, nombre));
+    }
+
     @GetMapping("/categories")
     public ResponseEntity<List<CategorieSimpleDTO>> getAllCategories() {
         return ResponseEntity.ok(seanceService.getAllCategories());
@@ -179,25 +217,39 @@ public class CommercialController {
         return ResponseEntity.ok(seanceService.getAllReservations());
     }
 
+    /**
+     * Réservations paginées par curseur : passer le nextCursor de la réponse pour obtenir la page suivante
+     */
+    @GetMapping("/reservations/page")
+    public ResponseEntity<ReservationPageDTO> getReservationsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) List<StatutReservation> statuts,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFin) {
+        return ResponseEntity.ok(seanceService.getReservationsPage(cursor, size, statuts, dateDebut, dateFin));
+    }
+
     // ==================== EXPORTS ====================
 
     @GetMapping("/seances/export/excel")
-    public ResponseEntity<byte[]> exportSeancesExcel(
+    public WebAsyncTask<Void> exportSeancesExcel(
             @RequestParam(required = false) String filmId,
             @RequestParam(required = false) String salleId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateDebut,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFin) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFin,
+            HttpServletResponse response) {
 
         List<SeanceResponseDTO> seances = seanceService.getSeances(filmId,
                 salleId, dateDebut, dateFin);
-        byte[] excelContent = seanceExcelExportService.exportSeancesToExcel(seances);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(
                 MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "programme_seances.xlsx");
 
-        return new ResponseEntity<>(excelContent, headers, HttpStatus.OK);
+        StreamingResponseBody body = out -> seanceExcelExportService.exportSeancesToExcel(seances, out);
+        return exportExecutor.exporter(response, headers, body);
     }
 
     @GetMapping("/seances/export/pdf")
@@ -219,17 +271,22 @@ public class CommercialController {
     }
 
     @GetMapping("/reservations/export/excel")
-    public ResponseEntity<byte[]> exportReservationsExcel() {
-        List<ReservationSimpleDTO> reservations = seanceService
-                .getAllReservations();
-        byte[] excelContent = reservationExcelExportService.exportReservationsToExcel(reservations);
+    public WebAsyncTask<Void> exportReservationsExcel(
+            @RequestParam(required = false) List<StatutReservation> statuts,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFin,
+            HttpServletResponse response) {
+        // Les réservations sont lues page par page pendant l'écriture du fichier
+        Iterable<ReservationSimpleDTO> reservations = seanceService.getReservationsForExport(statuts, dateDebut,
+                dateFin);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(
                 MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", "rapport_reservations.xlsx");
 
-        return new ResponseEntity<>(excelContent, headers, HttpStatus.OK);
+        StreamingResponseBody body = out -> reservationExcelExportService.exportReservationsToExcel(reservations, out);
+        return exportExecutor.exporter(response, headers, body);
     }
 
     @GetMapping("/reservations/export/pdf")
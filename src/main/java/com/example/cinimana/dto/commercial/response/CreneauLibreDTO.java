@@ -0,0 +1,13 @@
+package com.example.cinimana.dto.commercial.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * Créneau libre proposé pour programmer une séance
+ */
+public record CreneauLibreDTO(
+        String salleId,
+        String salleNom,
+        LocalDateTime debut,
+        LocalDateTime fin) {
+}
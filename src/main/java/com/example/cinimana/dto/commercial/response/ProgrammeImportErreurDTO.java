@@ -0,0 +1,9 @@
+package com.example.cinimana.dto.commercial.response;
+
+/**
+ * Erreur de validation d'une ligne du programme importé (ligne 0 : fichier entier)
+ */
+public record ProgrammeImportErreurDTO(
+        int ligne,
+        String message) {
+}
@@ -0,0 +1,13 @@
+package com.example.cinimana.dto.commercial.response;
+
+import java.util.List;
+
+/**
+ * Résultat d'un import de programme : rien n'est créé si au moins une ligne est en erreur
+ */
+public record ProgrammeImportResultDTO(
+        int lignesLues,
+        int seancesCreees,
+        boolean simulation,
+        List<ProgrammeImportErreurDTO> erreurs) {
+}
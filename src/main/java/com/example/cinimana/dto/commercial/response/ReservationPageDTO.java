@@ -0,0 +1,12 @@
+package com.example.cinimana.dto.commercial.response;
+
+import java.util.List;
+
+/**
+ * Page de réservations paginée par curseur : nextCursor est à renvoyer pour obtenir la page suivante
+ */
+public record ReservationPageDTO(
+        List<ReservationSimpleDTO> items,
+        String nextCursor,
+        boolean hasMore) {
+}
@@ -9,6 +9,7 @@ public class ReservationRequest {
     private Integer nombrePlaces;
     private Long offreId;
     private List<SiegeRequest> sieges;
+    private String holdId; // Panier de sièges obtenu via /api/client/seances/{id}/holds (optionnel)
     // Snacks removed from reservation flow
 
 }
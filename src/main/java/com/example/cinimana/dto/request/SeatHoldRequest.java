@@ -0,0 +1,9 @@
+package com.example.cinimana.dto.request;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SeatHoldRequest {
+    private List<SiegeRequest> sieges;
+}
@@ -0,0 +1,12 @@
+package com.example.cinimana.dto.response;
+
+import java.util.List;
+
+/**
+ * Page d'historique paginée par curseur : nextCursor est à renvoyer pour obtenir la page suivante
+ */
+public record HistoriquePageDTO(
+        List<HistoriqueResponseDTO> items,
+        String nextCursor,
+        boolean hasMore) {
+}
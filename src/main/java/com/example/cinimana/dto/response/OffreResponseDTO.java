@@ -0,0 +1,14 @@
+package com.example.cinimana.dto.response;
+
+import java.time.LocalDate;
+
+public record OffreResponseDTO(
+        Long id,
+        String titre,
+        String description,
+        double prix,
+        LocalDate dateDebut,
+        LocalDate dateFin,
+        boolean actif
+) {
+}
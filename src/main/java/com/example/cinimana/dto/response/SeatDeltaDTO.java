@@ -0,0 +1,15 @@
+package com.example.cinimana.dto.response;
+
+import java.util.List;
+
+/**
+ * Modification du plan de salle poussée aux clients : type = CLAIMED, RELEASED ou EXPIRED
+ */
+public record SeatDeltaDTO(
+        Long seanceId,
+        String type,
+        List<SiegeInfo> sieges) {
+
+    public record SiegeInfo(int rangee, int numero) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.cinimana.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record SeatHoldResponse(
+        String holdId,
+        Long seanceId,
+        List<ReservationResponse.SiegeInfo> sieges,
+        LocalDateTime expiresAt) {
+}
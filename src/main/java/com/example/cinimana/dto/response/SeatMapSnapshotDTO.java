@@ -0,0 +1,14 @@
+package com.example.cinimana.dto.response;
+
+/**
+ * État complet du plan de salle, envoyé à l'ouverture du flux.
+ * bitmap : Base64, bit i (poids faible en premier dans chaque octet) = siège d'index i occupé,
+ * avec index = (rangee - 1) * siegesParRangee + (numero - 1).
+ */
+public record SeatMapSnapshotDTO(
+        Long seanceId,
+        int nombreRangees,
+        int siegesParRangee,
+        int occupes,
+        String bitmap) {
+}
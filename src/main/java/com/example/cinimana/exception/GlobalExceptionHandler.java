@@ -29,6 +29,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    /**
+     * Gère les refus pour capacité atteinte (exports simultanés...)
+     */
+    @ExceptionHandler(TropDeRequetesException.class)
+    public ResponseEntity<Map<String, String>> handleTropDeRequetes(TropDeRequetesException e) {
+        logger.warn("TropDeRequetesException: {}", e.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+
     /**
      * Gère les mauvais identifiants (login incorrect)
      */
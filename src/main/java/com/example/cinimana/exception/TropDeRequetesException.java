@@ -0,0 +1,11 @@
+package com.example.cinimana.exception;
+
+/**
+ * Capacité atteinte (exports en cours...) : la requête est refusée tout de suite (429) au lieu d'attendre
+ */
+public class TropDeRequetesException extends RuntimeException {
+
+    public TropDeRequetesException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.cinimana.model;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Codes de réservation compacts : 128 bits stockés en BINARY(16) (48 bits d'horodatage en ms
+ * puis 80 bits aléatoires, donc insertions en fin d'index), affichés en 26 caractères base32
+ * Crockford suivis d'un caractère de contrôle (Luhn mod 32). Le texte n'utilise que des
+ * majuscules et des chiffres : le QR code est encodé en mode alphanumérique.
+ * Les anciens codes UUID restent lisibles : ils correspondent aux mêmes 16 octets.
+ */
+public final class CodeReservation {
+
+    public static final int LONGUEUR = 27;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] VALEURS = new byte[128];
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    static {
+        java.util.Arrays.fill(VALEURS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALEURS[ALPHABET[i]] = (byte) i;
+            VALEURS[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        // Caractères ambigus acceptés à la saisie (Crockford)
+        VALEURS['O'] = VALEURS['o'] = 0;
+        VALEURS['I'] = VALEURS['i'] = VALEURS['L'] = VALEURS['l'] = 1;
+    }
+
+    private CodeReservation() {
+    }
+
+    /**
+     * Nouveau code : horodatage en tête, puis aléa
+     */
+    public static byte[] nouveau() {
+        byte[] code = new byte[16];
+        RANDOM.nextBytes(code);
+        long millis = System.currentTimeMillis();
+        for (int i = 0; i < 6; i++) {
+            code[i] = (byte) (millis >>> (40 - 8 * i));
+        }
+        return code;
+    }
+
+    /**
+     * Forme affichée (billet, QR code, email, lien de confirmation)
+     */
+    public static String formater(byte[] code) {
+        long hi = toLong(code, 0);
+        long lo = toLong(code, 8);
+        char[] texte = new char[LONGUEUR];
+        for (int i = 0; i < LONGUEUR - 1; i++) {
+            int shift = 125 - 5 * i; // 130 bits affichés, les 2 premiers à zéro
+            int valeur;
+            if (shift >= 64) {
+                valeur = (int) (hi >>> (shift - 64)) & 31;
+            } else if (shift <= 59) {
+                valeur = (int) (lo >>> shift) & 31;
+            } else {
+                valeur = (int) ((lo >>> shift) | (hi << (64 - shift))) & 31;
+            }
+            texte[i] = ALPHABET[valeur];
+        }
+        texte[LONGUEUR - 1] = ALPHABET[controle(texte, LONGUEUR - 1)];
+        return new String(texte);
+    }
+
+    /**
+     * Lit un code saisi ou scanné : format compact (tirets, espaces et casse ignorés) ou ancien UUID
+     *
+     * @return les 16 octets du code, ou null si le texte n'est pas un code valide
+     */
+    public static byte[] lire(String texte) {
+        if (texte == null) {
+            return null;
+        }
+        String valeur = texte.trim();
+        if (valeur.length() == 36 && valeur.charAt(8) == '-') {
+            return lireUuid(valeur);
+        }
+
+        char[] normalise = new char[LONGUEUR];
+        int n = 0;
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (n == LONGUEUR || c >= 128 || VALEURS[c] < 0) {
+                return null;
+            }
+            normalise[n++] = ALPHABET[VALEURS[c]];
+        }
+        if (n != LONGUEUR || VALEURS[normalise[0]] > 7
+                || controle(normalise, LONGUEUR - 1) != VALEURS[normalise[LONGUEUR - 1]]) {
+            return null;
+        }
+
+        long hi = 0;
+        long lo = 0;
+        for (int i = 0; i < LONGUEUR - 1; i++) {
+            hi = (hi << 5) | (lo >>> 59);
+            lo = (lo << 5) | VALEURS[normalise[i]];
+        }
+        byte[] code = new byte[16];
+        fromLong(hi, code, 0);
+        fromLong(lo, code, 8);
+        return code;
+    }
+
+    private static byte[] lireUuid(String valeur) {
+        try {
+            UUID uuid = UUID.fromString(valeur);
+            byte[] code = new byte[16];
+            fromLong(uuid.getMostSignificantBits(), code, 0);
+            fromLong(uuid.getLeastSignificantBits(), code, 8);
+            return code;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Luhn mod 32 : détecte toute erreur sur un caractère et la plupart des inversions
+    private static int controle(char[] texte, int longueur) {
+        int facteur = 2;
+        int somme = 0;
+        for (int i = longueur - 1; i >= 0; i--) {
+            int produit = facteur * VALEURS[texte[i]];
+            somme += produit / 32 + produit % 32;
+            facteur = facteur == 2 ? 1 : 2;
+        }
+        return (32 - somme % 32) % 32;
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void fromLong(long value, byte[] bytes, int offset) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.cinimana.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * File d'envoi persistante des emails de rappel (3h avant la séance). La contrainte unique sur
+ * la réservation garantit un seul rappel par réservation, même si la mise en file est rejouée.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "email_rappel", indexes = {
+        @Index(name = "idx_email_rappel_statut_prochaine", columnList = "statut, prochaine_tentative")
+})
+public class EmailRappel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false, unique = true)
+    private Long reservationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatutOutbox statut; // ECHEC : file des rappels abandonnés (relance manuelle)
+
+    @Column(nullable = false)
+    private int tentatives;
+
+    @Column(name = "prochaine_tentative", nullable = false)
+    private LocalDateTime prochaineTentative;
+
+    private LocalDateTime verrouilleLe;
+
+    @Column(name = "verrouille_par", length = 100)
+    private String verrouillePar; // Instance qui détient le bail
+
+    @Column(name = "bail_expire_le")
+    private LocalDateTime bailExpireLe; // Prolongé tant que l'envoi est en cours, remis en file une fois dépassé
+
+    @Column(length = 1000)
+    private String derniereErreur;
+
+    @Column(nullable = false)
+    private LocalDateTime dateCreation;
+
+    private LocalDateTime dateTraitement;
+
+    @PrePersist
+    public void prePersist() {
+        if (dateCreation == null) {
+            dateCreation = LocalDateTime.now();
+        }
+        if (prochaineTentative == null) {
+            prochaineTentative = dateCreation;
+        }
+        if (statut == null) {
+            statut = StatutOutbox.EN_ATTENTE;
+        }
+    }
+}
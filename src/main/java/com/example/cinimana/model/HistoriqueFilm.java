@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "historique_film")
+@Table(name = "historique_film", indexes = {
+        @Index(name = "idx_historique_film_date_id", columnList = "date_operation, id"),
+        @Index(name = "idx_historique_film_operation_date", columnList = "operation, date_operation")
+})
 public class HistoriqueFilm {
 
     @Id
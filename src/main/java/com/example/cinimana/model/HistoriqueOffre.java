@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "historique_offre")
+@Table(name = "historique_offre", indexes = {
+        @Index(name = "idx_historique_offre_date_id", columnList = "date_operation, id"),
+        @Index(name = "idx_historique_offre_operation_date", columnList = "operation, date_operation")
+})
 public class HistoriqueOffre {
 
     @Id
@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "historique_salle")
+@Table(name = "historique_salle", indexes = {
+        @Index(name = "idx_historique_salle_date_id", columnList = "date_operation, id"),
+        @Index(name = "idx_historique_salle_operation_date", columnList = "operation, date_operation")
+})
 public class HistoriqueSalle {
 
     @Id
@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "historique_seance")
+@Table(name = "historique_seance", indexes = {
+        @Index(name = "idx_historique_seance_date_id", columnList = "date_operation, id"),
+        @Index(name = "idx_historique_seance_operation_date", columnList = "operation, date_operation")
+})
 public class HistoriqueSeance {
 
     @Id
@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "historique_utilisateur")
+@Table(name = "historique_utilisateur", indexes = {
+        @Index(name = "idx_historique_utilisateur_date_id", columnList = "date_operation, id"),
+        @Index(name = "idx_historique_utilisateur_operation_date", columnList = "operation, date_operation")
+})
 public class HistoriqueUtilisateur {
 
     @Id
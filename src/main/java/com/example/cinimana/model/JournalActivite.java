@@ -0,0 +1,51 @@
+package com.example.cinimana.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Journal d'activité unifié (ajout seul) : une ligne par opération tracée (historiques admin et commercial,
+ * réservations, inscriptions), dénormalisée pour être affichée sans jointure ni chargement des entités liées.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "journal_activite", indexes = {
+        // Dernière opération par type (GROUP BY entite_type + MAX(id)) en parcours d'index
+        @Index(name = "idx_journal_type_id", columnList = "entite_type, id")
+})
+public class JournalActivite {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entite_type", nullable = false, length = 30)
+    private String entiteType; // Utilisateur, Film, Salle, Séance, Réservation, Client, Offre
+
+    @Column(name = "source_id")
+    private Long sourceId; // Id de la ligne d'historique, de la réservation ou du client
+
+    @Column(name = "entite_id", length = 50)
+    private String entiteId;
+
+    @Column(name = "entite_nom")
+    private String entiteNom;
+
+    @Column(nullable = false, length = 50)
+    private String operation;
+
+    @Column(name = "date_operation", nullable = false)
+    private LocalDateTime dateOperation;
+
+    private String auteur;
+
+    private Double montant;
+
+    @Column(name = "info_supplementaire")
+    private String infoSupplementaire;
+}
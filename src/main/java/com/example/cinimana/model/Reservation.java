@@ -8,21 +8,29 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 @Entity
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        // Liste back-office paginée par curseur (dateReservation, id), avec ou sans filtre de statut
+        @Index(name = "idx_reservation_date_id", columnList = "date_reservation, id"),
+        @Index(name = "idx_reservation_statut_date_id", columnList = "statut, date_reservation, id")
+})
 public class Reservation extends BaseEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
-    private String codeReservation; // UUID pour QR code et identification
+    @Column(nullable = false, length = 36)
+    private String codeReservation; // Forme affichée du code (QR code, billet, email), voir CodeReservation
+
+    // Clé de recherche du code : 16 octets sous index unique (anciens codes UUID repris au démarrage)
+    @Column(name = "code_binaire", unique = true, columnDefinition = "BINARY(16)")
+    private byte[] codeBinaire;
 
     @Column(nullable = false)
     private Integer nombrePlace;
@@ -81,8 +89,12 @@ public class Reservation extends BaseEntity {
         if (statut == null) {
             statut = StatutReservation.EN_ATTENTE;
         }
-        if (codeReservation == null) {
-            codeReservation = UUID.randomUUID().toString();
+        if (codeBinaire == null && codeReservation != null) {
+            codeBinaire = CodeReservation.lire(codeReservation);
+        }
+        if (codeBinaire == null) {
+            codeBinaire = CodeReservation.nouveau();
+            codeReservation = CodeReservation.formater(codeBinaire);
         }
     }
 
@@ -92,4 +104,10 @@ public class Reservation extends BaseEntity {
         siege.setReservation(this);
     }
 
+    // Annule la réservation et libère ses sièges dans l'index unique (seance_id, rangee, numero, actif)
+    public void annuler() {
+        statut = StatutReservation.ANNULEE;
+        sieges.forEach(siege -> siege.setActif(null));
+    }
+
 }
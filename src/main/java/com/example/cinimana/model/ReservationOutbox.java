@@ -0,0 +1,70 @@
+package com.example.cinimana.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox transactionnelle : une ligne par réservation à finaliser (billet PDF + email),
+ * écrite dans la même transaction que la réservation et traitée après le commit.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reservation_outbox", indexes = {
+        @Index(name = "idx_outbox_statut_prochaine", columnList = "statut, prochaine_tentative")
+})
+public class ReservationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatutOutbox statut;
+
+    @Column(nullable = false)
+    private int tentatives;
+
+    @Column(name = "prochaine_tentative", nullable = false)
+    private LocalDateTime prochaineTentative;
+
+    private LocalDateTime verrouilleLe; // Début du traitement en cours
+
+    @Column(name = "verrouille_par", length = 100)
+    private String verrouillePar; // Instance qui détient le bail
+
+    @Column(name = "bail_expire_le")
+    private LocalDateTime bailExpireLe; // Prolongé tant que le worker est en vie, remis en file une fois dépassé
+
+    @Column(name = "envoye_le")
+    private LocalDateTime envoyeLe; // Email envoyé : un nouvel essai ne le renvoie pas
+
+    @Column(length = 1000)
+    private String derniereErreur;
+
+    @Column(nullable = false)
+    private LocalDateTime dateCreation;
+
+    private LocalDateTime dateTraitement;
+
+    @PrePersist
+    public void prePersist() {
+        if (dateCreation == null) {
+            dateCreation = LocalDateTime.now();
+        }
+        if (prochaineTentative == null) {
+            prochaineTentative = dateCreation;
+        }
+        if (statut == null) {
+            statut = StatutOutbox.EN_ATTENTE;
+        }
+    }
+}
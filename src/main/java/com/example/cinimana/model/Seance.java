@@ -14,6 +14,11 @@ import java.util.Set;
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_seance_film_actif_date", columnList = "film_id, actif, date_heure"),
+        @Index(name = "idx_seance_salle_date", columnList = "salle_id, date_heure"),
+        @Index(name = "idx_seance_date", columnList = "date_heure")
+})
 public class Seance extends BaseEntity {
 
     @Id
@@ -59,22 +64,4 @@ public class Seance extends BaseEntity {
             return 10.0;
         }
     }
-
-    /**
-     * Calcule les places disponibles en comptant les sièges réservés
-     */
-    @Transient
-    @com.fasterxml.jackson.annotation.JsonIgnore
-    public int getPlacesDisponibles() {
-        if (salle == null)
-            return 0;
-
-        if (reservations == null)
-            return salle.getCapacite(); // Safety
-
-        return salle.getCapacite() - (int) reservations.stream()
-                .filter(r -> r.getStatut() != StatutReservation.ANNULEE)
-                .mapToLong(r -> r.getSieges() != null ? r.getSieges().size() : 0)
-                .sum();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.cinimana.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Compteurs d'occupation matérialisés d'une séance, tenus à jour à chaque changement de statut
+ * d'une réservation (et recalculés périodiquement par le job de réconciliation).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "seance_occupation")
+public class SeanceOccupation {
+
+    @Id
+    @Column(name = "seance_id")
+    private Long seanceId;
+
+    @Column(name = "places_reservees", nullable = false)
+    private int placesReservees; // Toutes les réservations non annulées
+
+    @Column(name = "places_en_attente", nullable = false)
+    private int placesEnAttente; // EN_ATTENTE + CONFIRMEE_CLIENT
+
+    @Column(name = "places_validees", nullable = false)
+    private int placesValidees; // VALIDEE (entrée scannée à la caisse)
+
+    @Column(nullable = false)
+    private double revenu; // Montant des réservations validées
+
+    @Column(name = "date_mise_a_jour")
+    private LocalDateTime dateMiseAJour;
+}
@@ -9,10 +9,20 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+// actif vaut TRUE ou NULL : MySQL accepte plusieurs NULL dans un index unique,
+// donc un siège annulé peut être réservé à nouveau, mais jamais deux fois en même temps
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_siege_seance_actif",
+        columnNames = { "seance_id", "rangee", "numero", "actif" }))
 public class SiegeReserve {
 
+    public static final String ID_GENERATOR = "siege_reserve";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Générateur par table avec allocation par blocs : IDENTITY empêche le batch JDBC des insertions
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "siege_reserve_gen")
+    @TableGenerator(name = "siege_reserve_gen", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = ID_GENERATOR, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne
@@ -20,9 +30,17 @@ public class SiegeReserve {
     @com.fasterxml.jackson.annotation.JsonIgnore
     private Reservation reservation;
 
+    // Dénormalisé depuis la réservation : recherches de sièges sans jointure
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "seance_id")
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private Seance seance;
+
     @Column(nullable = false)
     private Integer rangee;
 
     @Column(nullable = false)
     private Integer numero;
+
+    private Boolean actif; // TRUE tant que la réservation n'est pas annulée, NULL sinon
 }
@@ -0,0 +1,60 @@
+package com.example.cinimana.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Agrégat horaire des réservations : une ligne par (jour, heure de réservation, film, salle, catégorie, statut).
+ * Tenue à jour à chaque changement de statut (delta -1 sur l'ancien statut, +1 sur le nouveau) et reconstruite
+ * par plage de dates ; les vues par jour ou par genre se lisent en regroupant ces lignes.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "statistique_reservation", uniqueConstraints = {
+        // Clé du delta (INSERT ... ON DUPLICATE KEY) ; commence par jour pour les lectures par période
+        @UniqueConstraint(name = "uk_statistique_reservation",
+                columnNames = { "jour", "heure", "film_id", "salle_id", "categorie_id", "statut" })
+})
+public class StatistiqueReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate jour; // Date de la réservation
+
+    @Column(nullable = false)
+    private int heure; // Heure de la réservation (0-23)
+
+    @Column(name = "film_id", nullable = false, length = 10)
+    private String filmId;
+
+    @Column(name = "salle_id", nullable = false, length = 10)
+    private String salleId;
+
+    @Column(name = "categorie_id", nullable = false)
+    private Long categorieId; // 0 si la séance n'a pas de catégorie
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private StatutReservation statut;
+
+    @Column(name = "nombre_reservations", nullable = false)
+    private long nombreReservations;
+
+    @Column(nullable = false)
+    private long places;
+
+    @Column(nullable = false)
+    private double montant;
+
+    @Column(name = "date_mise_a_jour")
+    private LocalDateTime dateMiseAJour;
+}
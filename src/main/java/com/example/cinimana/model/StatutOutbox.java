@@ -0,0 +1,8 @@
+package com.example.cinimana.model;
+
+public enum StatutOutbox {
+    EN_ATTENTE, // À traiter (première tentative ou nouvel essai planifié)
+    EN_COURS, // Pris en charge par un worker
+    TRAITE, // Billet généré et email envoyé
+    ECHEC // Nombre maximal de tentatives atteint
+}
@@ -0,0 +1,40 @@
+package com.example.cinimana.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Index des billets PDF stockés sur disque : la purge parcourt l'index par date d'expiration
+ * au lieu de lister le répertoire.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ticket_fichier", indexes = {
+        @Index(name = "idx_ticket_fichier_expiration", columnList = "date_expiration")
+})
+public class TicketFichier {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "code_reservation", nullable = false, unique = true)
+    private String codeReservation;
+
+    @Column(nullable = false)
+    private String chemin;
+
+    @Column(nullable = false)
+    private long taille;
+
+    @Column(name = "date_creation", nullable = false)
+    private LocalDateTime dateCreation;
+
+    @Column(name = "date_expiration", nullable = false)
+    private LocalDateTime dateExpiration;
+}
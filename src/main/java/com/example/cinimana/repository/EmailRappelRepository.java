@@ -0,0 +1,75 @@
+package com.example.cinimana.repository;
+
+import com.example.cinimana.model.EmailRappel;
+import com.example.cinimana.service.email.RappelEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailRappelRepository extends JpaRepository<EmailRappel, Long> {
+
+    // Mise en file ensembliste des rappels dont la séance commence dans la fenêtre ;
+    // INSERT IGNORE sur la clé unique reservation_id : un rappel déjà en file n'est pas dupliqué
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO email_rappel (reservation_id, statut, tentatives, prochaine_tentative, date_creation) " +
+            "SELECT r.id, 'EN_ATTENTE', 0, :now, :now FROM reservation r JOIN seance s ON s.id = r.seance_id " +
+            "WHERE r.statut = 'EN_ATTENTE' AND r.date_confirmation_email IS NULL " +
+            "AND s.date_heure BETWEEN :debut AND :fin", nativeQuery = true)
+    int enfiler(@Param("now") LocalDateTime now, @Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
+
+    // Lot de rappels dus, verrouillé : plusieurs instances de l'application ne prennent pas les mêmes lignes
+    @Query(value = "SELECT e.id FROM email_rappel e WHERE e.statut = 'EN_ATTENTE' AND e.prochaine_tentative <= :now " +
+            "ORDER BY e.prochaine_tentative LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDueIds(@Param("now") LocalDateTime now, @Param("limite") int limite);
+
+    @Modifying
+    @Query("UPDATE EmailRappel e SET e.statut = 'EN_COURS', e.verrouilleLe = :now, e.verrouillePar = :worker, " +
+            "e.bailExpireLe = :expire WHERE e.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("worker") String worker, @Param("now") LocalDateTime now,
+              @Param("expire") LocalDateTime expire);
+
+    // Battement de cœur : prolonge les baux encore détenus par cette instance
+    @Modifying
+    @Query("UPDATE EmailRappel e SET e.bailExpireLe = :expire " +
+            "WHERE e.id IN :ids AND e.statut = 'EN_COURS' AND e.verrouillePar = :worker")
+    int prolonger(@Param("ids") Collection<Long> ids, @Param("worker") String worker,
+                  @Param("expire") LocalDateTime expire);
+
+    // Rappels encore utiles : réservation toujours en attente, pas encore notifiée, séance à venir
+    @Query("SELECT new com.example.cinimana.service.email.RappelEmail(e.id, r.id, c.email, c.prenom, c.nom, " +
+            "f.titre, s.dateHeure, sa.nom, r.nombrePlace, r.codeReservation) " +
+            "FROM EmailRappel e JOIN Reservation r ON r.id = e.reservationId " +
+            "JOIN r.client c JOIN r.seance s JOIN s.film f JOIN s.salle sa " +
+            "WHERE e.id IN :ids AND r.statut = 'EN_ATTENTE' AND r.dateConfirmationEmail IS NULL " +
+            "AND s.dateHeure > :now")
+    List<RappelEmail> findAEnvoyer(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Idempotent : seuls les rappels encore pris en charge par cette instance passent à TRAITE
+    @Modifying
+    @Query("UPDATE EmailRappel e SET e.statut = 'TRAITE', e.dateTraitement = :now, e.derniereErreur = null, " +
+            "e.verrouillePar = null, e.tentatives = e.tentatives + 1 " +
+            "WHERE e.id IN :ids AND e.statut = 'EN_COURS' AND e.verrouillePar = :worker")
+    int marquerTraites(@Param("ids") Collection<Long> ids, @Param("worker") String worker,
+                       @Param("now") LocalDateTime now);
+
+    // Remet en file les envois dont le bail a expiré (arrêt de l'application, instance disparue)
+    @Modifying
+    @Query("UPDATE EmailRappel e SET e.statut = 'EN_ATTENTE', e.verrouillePar = null " +
+            "WHERE e.statut = 'EN_COURS' AND (e.bailExpireLe IS NULL OR e.bailExpireLe < :now)")
+    int releaseStale(@Param("now") LocalDateTime now);
+
+    // Relance manuelle de la file des rappels abandonnés
+    @Modifying
+    @Query("UPDATE EmailRappel e SET e.statut = 'EN_ATTENTE', e.tentatives = 0, e.prochaineTentative = :now " +
+            "WHERE e.statut = 'ECHEC'")
+    int relancerEchecs(@Param("now") LocalDateTime now);
+
+    @Query("SELECT e.statut, COUNT(e) FROM EmailRappel e GROUP BY e.statut")
+    List<Object[]> countByStatut();
+}
@@ -24,4 +24,8 @@ public interface FilmRepository extends JpaRepository<Film, String> {
     List<Film> findFilmsAvecSeancesDisponibles();
 
     boolean existsByTitre(String titre);
+
+    // Borne de recherche des séances en cours : aucune ne commence plus tôt que maintenant - durée max
+    @Query("SELECT COALESCE(MAX(f.duree), 0) FROM Film f")
+    int findDureeMax();
 }
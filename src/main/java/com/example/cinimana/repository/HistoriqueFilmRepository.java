@@ -29,16 +29,4 @@ public interface HistoriqueFilmRepository extends JpaRepository<HistoriqueFilm,
                                                     @Param("fin") LocalDateTime fin);
 
     List<HistoriqueFilm> findTop5ByOrderByDateOperationDesc();
-
-    @Query("SELECT h FROM HistoriqueFilm h WHERE " +
-            "(:search IS NULL OR LOWER(h.admin.nom) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(h.admin.prenom) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(h.film.titre) LIKE LOWER(CONCAT('%', :search, '%'))) AND "
-            +
-            "((:operations) IS NULL OR h.operation IN (:operations)) AND " +
-            "(cast(:debut as timestamp) IS NULL OR h.dateOperation >= :debut) AND " +
-            "(cast(:fin as timestamp) IS NULL OR h.dateOperation <= :fin) " +
-            "ORDER BY h.dateOperation DESC")
-    List<HistoriqueFilm> findFiltered(@Param("search") String search,
-                                      @Param("operations") List<TypeOperation> operations,
-                                      @Param("debut") LocalDateTime debut,
-                                      @Param("fin") LocalDateTime fin);
-}
\ No newline at end of file
+}
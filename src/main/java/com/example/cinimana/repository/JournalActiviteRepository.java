@@ -0,0 +1,20 @@
+package com.example.cinimana.repository;
+
+import com.example.cinimana.model.JournalActivite;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface JournalActiviteRepository extends JpaRepository<JournalActivite, Long> {
+
+    // Dernière opération de chaque type, en une requête couverte par idx_journal_type_id
+    @Query("SELECT j FROM JournalActivite j WHERE j.id IN " +
+            "(SELECT MAX(j2.id) FROM JournalActivite j2 GROUP BY j2.entiteType) " +
+            "ORDER BY j.dateOperation DESC")
+    List<JournalActivite> findDernierParType();
+
+    List<JournalActivite> findAllByOrderByIdDesc(Pageable pageable);
+}
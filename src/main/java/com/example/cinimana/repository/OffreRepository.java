@@ -2,6 +2,9 @@ package com.example.cinimana.repository;
 
 import com.example.cinimana.model.Offre;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,5 +15,13 @@ public interface OffreRepository extends JpaRepository<Offre, Long> {
 
     List<Offre> findByActifFalse();
 
-    List<Offre> findByActifTrueAndDateFinBefore(java.time.LocalDate date);
+    // Lot d'offres actives arrivées à échéance
+    @Query(value = "SELECT o.id FROM offre o WHERE o.actif = TRUE AND o.date_fin < :date " +
+            "ORDER BY o.id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockExpiredIds(@Param("date") java.time.LocalDate date, @Param("limite") int limite);
+
+    @Modifying
+    @Query("UPDATE Offre o SET o.actif = false, o.updatedAt = :maintenant WHERE o.id IN :ids")
+    int desactiverParIds(@Param("ids") java.util.Collection<Long> ids,
+                         @Param("maintenant") java.time.LocalDateTime maintenant);
 }
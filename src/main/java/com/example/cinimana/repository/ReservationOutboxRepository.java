@@ -0,0 +1,45 @@
+package com.example.cinimana.repository;
+
+import com.example.cinimana.model.ReservationOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReservationOutboxRepository extends JpaRepository<ReservationOutbox, Long> {
+
+    @Query("SELECT o.id FROM ReservationOutbox o WHERE o.statut = 'EN_ATTENTE' " +
+            "AND o.prochaineTentative <= :now ORDER BY o.prochaineTentative")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Prise en charge atomique avec bail : un seul worker obtient 1
+    @Modifying
+    @Query("UPDATE ReservationOutbox o SET o.statut = 'EN_COURS', o.verrouilleLe = :now, " +
+            "o.verrouillePar = :worker, o.bailExpireLe = :expire " +
+            "WHERE o.id = :id AND o.statut = 'EN_ATTENTE'")
+    int claim(@Param("id") Long id, @Param("worker") String worker, @Param("now") LocalDateTime now,
+              @Param("expire") LocalDateTime expire);
+
+    // Battement de cœur : prolonge les baux encore détenus par cette instance
+    @Modifying
+    @Query("UPDATE ReservationOutbox o SET o.bailExpireLe = :expire " +
+            "WHERE o.id IN :ids AND o.statut = 'EN_COURS' AND o.verrouillePar = :worker")
+    int prolonger(@Param("ids") Collection<Long> ids, @Param("worker") String worker,
+                  @Param("expire") LocalDateTime expire);
+
+    @Modifying
+    @Query("UPDATE ReservationOutbox o SET o.envoyeLe = :now WHERE o.id = :id AND o.envoyeLe IS NULL")
+    int marquerEnvoye(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Remet en file les traitements dont le bail a expiré (arrêt de l'application, worker disparu)
+    @Modifying
+    @Query("UPDATE ReservationOutbox o SET o.statut = 'EN_ATTENTE', o.verrouillePar = NULL " +
+            "WHERE o.statut = 'EN_COURS' AND (o.bailExpireLe IS NULL OR o.bailExpireLe < :now)")
+    int releaseStale(@Param("now") LocalDateTime now);
+}
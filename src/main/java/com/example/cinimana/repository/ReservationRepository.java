@@ -1,15 +1,24 @@
 package com.example.cinimana.repository;
 
+import com.example.cinimana.dto.commercial.response.ReservationSimpleDTO;
+import com.example.cinimana.model.CodeReservation;
 import com.example.cinimana.model.Reservation;
 import com.example.cinimana.model.Client;
 import com.example.cinimana.model.Seance;
 import com.example.cinimana.model.StatutReservation;
+import com.example.cinimana.service.caissier.BilletLigne;
+import com.example.cinimana.service.event.ReservationAnnulee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
@@ -83,31 +92,155 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
 
     // --- NOUVELLES QUERIES POUR SYSTÈME DE RÉSERVATION ---
 
-    // Trouver par code de réservation (pour QR code scan)
-    Reservation findByCodeReservation(String codeReservation);
-
-    // Trouver les réservations nécessitant un email de confirmation (3h avant
-    // séance)
-    @Query("SELECT r FROM Reservation r WHERE " +
-            "r.statut = 'EN_ATTENTE' AND " +
-            "r.dateConfirmationEmail IS NULL AND " +
-            "r.seance.dateHeure BETWEEN :debut AND :fin")
-    List<Reservation> findReservationsNeedingConfirmationEmail(
-            @Param("debut") LocalDateTime debut,
-            @Param("fin") LocalDateTime fin);
-
-    @Query("SELECT r FROM Reservation r WHERE " +
-            "r.statut = 'EN_ATTENTE' AND " +
-            "r.dateConfirmationEmail IS NOT NULL AND " +
-            "r.dateConfirmationClient IS NULL AND " +
-            "r.dateConfirmationEmail < :dateLimit")
-    List<Reservation> findReservationsToCancel(@Param("dateLimit") LocalDateTime dateLimit);
-
-    @Query("SELECT r FROM Reservation r WHERE (r.statut = 'EN_ATTENTE' OR r.statut = 'CONFIRMEE_CLIENT') AND r.seance.dateHeure < :threshold")
-    List<Reservation> findNoShowReservations(@Param("threshold") LocalDateTime threshold);
+    // Trouver par code de réservation (pour QR code scan), sur l'index unique BINARY(16)
+    Reservation findByCodeBinaire(byte[] codeBinaire);
+
+    // Accepte le code compact comme les anciens codes UUID
+    default Reservation findByCodeReservation(String codeReservation) {
+        byte[] code = CodeReservation.lire(codeReservation);
+        return code != null ? findByCodeBinaire(code) : null;
+    }
+
+    // ==================== CONTRÔLE EN CAISSE ====================
+    // Billet complet en une requête, sans parcours paresseux des associations
+
+    String BILLET_SELECT = "SELECT new com.example.cinimana.service.caissier.BilletLigne(r.id, r.codeReservation, " +
+            "r.statut, c.nom, c.prenom, c.email, f.titre, s.dateHeure, sa.nom, r.nombrePlace, r.montantTotal, " +
+            "r.dateReservation, r.dateValidation, ca.nom, ca.prenom, o.titre, o.prix, cat.nom, cat.prixBase) " +
+            "FROM Reservation r JOIN r.client c JOIN r.seance s JOIN s.film f JOIN s.salle sa " +
+            "LEFT JOIN r.caissier ca LEFT JOIN r.offre o LEFT JOIN s.categorie cat ";
+
+    // Billets des séances d'une journée d'exploitation (index de la caisse)
+    @Query(BILLET_SELECT + "WHERE s.dateHeure >= :debut AND s.dateHeure < :fin")
+    List<BilletLigne> findBilletsBySeanceBetween(@Param("debut") LocalDateTime debut,
+                                                 @Param("fin") LocalDateTime fin);
+
+    @Query(BILLET_SELECT + "WHERE r.codeBinaire = :code")
+    Optional<BilletLigne> findBilletByCodeBinaire(@Param("code") byte[] code);
+
+    @Query(BILLET_SELECT + "WHERE r.id = :id")
+    Optional<BilletLigne> findBilletById(@Param("id") Long id);
+
+    // Marquage idempotent de l'envoi du rappel : seule la première date d'envoi est conservée
+    @Modifying
+    @Query("UPDATE Reservation r SET r.dateConfirmationEmail = :date " +
+            "WHERE r.id IN :ids AND r.dateConfirmationEmail IS NULL")
+    int marquerEmailConfirmationEnvoye(@Param("ids") Collection<Long> ids, @Param("date") LocalDateTime date);
+
+    // ==================== TRAITEMENTS DE MASSE (par lots) ====================
+    // Sélection verrouillée d'un lot : SKIP LOCKED laisse les réservations en cours de modification
+    // (validation caisse, confirmation client) au passage suivant au lieu de les attendre
+
+    // Email de confirmation envoyé il y a plus d'une heure, sans confirmation du client
+    @Query(value = "SELECT r.id FROM reservation r WHERE r.statut = 'EN_ATTENTE' " +
+            "AND r.date_confirmation_email IS NOT NULL AND r.date_confirmation_client IS NULL " +
+            "AND r.date_confirmation_email < :dateLimit " +
+            "ORDER BY r.id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockReservationsToCancel(@Param("dateLimit") LocalDateTime dateLimit, @Param("limite") int limite);
+
+    // Séance commencée depuis le seuil sans passage en caisse
+    @Query(value = "SELECT r.id FROM reservation r JOIN seance s ON s.id = r.seance_id " +
+            "WHERE r.statut IN ('EN_ATTENTE', 'CONFIRMEE_CLIENT') AND s.date_heure < :threshold " +
+            "ORDER BY r.id LIMIT :limite FOR UPDATE OF r SKIP LOCKED", nativeQuery = true)
+    List<Long> lockNoShowReservations(@Param("threshold") LocalDateTime threshold, @Param("limite") int limite);
+
+    @Query("SELECT new com.example.cinimana.service.event.ReservationAnnulee(r.id, s.id, f.id, sa.id, " +
+            "COALESCE(c.id, 0L), r.nombrePlace, r.montantTotal, r.dateReservation, r.statut) " +
+            "FROM Reservation r JOIN r.seance s JOIN s.film f JOIN s.salle sa LEFT JOIN s.categorie c " +
+            "WHERE r.id IN :ids")
+    List<ReservationAnnulee> findAnnulables(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Reservation r SET r.statut = com.example.cinimana.model.StatutReservation.ANNULEE, " +
+            "r.updatedAt = :maintenant WHERE r.id IN :ids")
+    int annulerParIds(@Param("ids") Collection<Long> ids, @Param("maintenant") LocalDateTime maintenant);
+
+    @Query("SELECT r.statut FROM Reservation r WHERE r.id = :id")
+    Optional<StatutReservation> findStatutById(@Param("id") Long id);
+
+    // Validation à l'entrée : n'aboutit que si le statut lu est toujours celui en BDD (0 ligne sinon)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.statut = com.example.cinimana.model.StatutReservation.VALIDEE, " +
+            "r.dateValidation = :date, r.caissier = :caissier, r.updatedAt = :date " +
+            "WHERE r.id = :id AND r.statut = :ancien")
+    int validerSiStatut(@Param("id") Long id, @Param("ancien") StatutReservation ancien,
+                        @Param("caissier") com.example.cinimana.model.Caissier caissier,
+                        @Param("date") LocalDateTime date);
 
     long countByStatutNot(StatutReservation statut);
 
+    // Chemin du billet seul : une réservation détachée ne doit pas écraser le reste de la ligne
+    @Modifying
+    @Query("UPDATE Reservation r SET r.ticketPdfPath = :chemin WHERE r.id = :id")
+    int majTicketPdfPath(@Param("id") Long id, @Param("chemin") String chemin);
+
+    @Modifying
+    @Query("UPDATE Reservation r SET r.ticketPdfPath = NULL WHERE r.codeBinaire IN :codes")
+    int clearTicketPdfPathByCodeBinaire(@Param("codes") Collection<byte[]> codes);
+
+    default int clearTicketPdfPath(Collection<String> codes) {
+        List<byte[]> codesBinaires = codes.stream().map(CodeReservation::lire).filter(Objects::nonNull).toList();
+        return codesBinaires.isEmpty() ? 0 : clearTicketPdfPathByCodeBinaire(codesBinaires);
+    }
+
+    // Billets écrits avant l'index ticket_fichier (ancienne disposition à plat) : [id, code, chemin]
+    @Query("SELECT r.id, r.codeReservation, r.ticketPdfPath FROM Reservation r " +
+            "WHERE r.ticketPdfPath IS NOT NULL AND r.id > :apresId AND NOT EXISTS " +
+            "(SELECT t.id FROM TicketFichier t WHERE t.codeReservation = r.codeReservation) ORDER BY r.id")
+    List<Object[]> findTicketsHorsIndex(@Param("apresId") Long apresId, Pageable pageable);
+
+    // Compteurs d'occupation par séance : [seanceId, réservées, en attente, validées, revenu validé]
+    String OCCUPATION_SELECT = "SELECT r.seance.id, " +
+            "COALESCE(SUM(CASE WHEN r.statut <> 'ANNULEE' THEN r.nombrePlace ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN r.statut IN ('EN_ATTENTE', 'CONFIRMEE_CLIENT') THEN r.nombrePlace ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN r.statut = 'VALIDEE' THEN r.nombrePlace ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN r.statut = 'VALIDEE' THEN r.montantTotal ELSE 0 END), 0) " +
+            "FROM Reservation r ";
+
+    /**
+     * Projection des réservations pour le back-office : client, séance et film joints dans la même requête
+     */
+    String SIMPLE_DTO_SELECT = "SELECT new com.example.cinimana.dto.commercial.response.ReservationSimpleDTO(" +
+            "r.id, r.nombrePlace, r.dateReservation, r.statut, r.montantTotal, r.ticketPdfUrl, r.dateValidation, " +
+            "COALESCE(c.id, 0L), COALESCE(c.nom, 'Inconnu'), COALESCE(c.prenom, 'Inconnu'), COALESCE(c.email, 'N/A'), " +
+            "COALESCE(s.id, 0L), s.dateHeure, COALESCE(f.titre, 'Inconnu')) " +
+            "FROM Reservation r LEFT JOIN r.client c LEFT JOIN r.seance s LEFT JOIN s.film f ";
+
+    String SIMPLE_DTO_FILTER = "WHERE ((:statuts) IS NULL OR r.statut IN (:statuts)) AND " +
+            "(cast(:debut as timestamp) IS NULL OR r.dateReservation >= :debut) AND " +
+            "(cast(:fin as timestamp) IS NULL OR r.dateReservation <= :fin) ";
+
+    String SIMPLE_DTO_ORDER = "ORDER BY r.dateReservation DESC, r.id DESC";
+
+    /**
+     * Première page de la liste paginée par curseur (dateReservation, id)
+     */
+    @Query(SIMPLE_DTO_SELECT + SIMPLE_DTO_FILTER + SIMPLE_DTO_ORDER)
+    List<ReservationSimpleDTO> findSimpleFirstPage(@Param("statuts") Collection<StatutReservation> statuts,
+                                                   @Param("debut") LocalDateTime debut,
+                                                   @Param("fin") LocalDateTime fin,
+                                                   Pageable pageable);
+
+    /**
+     * Page suivant le curseur : lignes strictement plus anciennes que (apresDate, apresId),
+     * lues sur l'index (date_reservation, id) sans OFFSET
+     */
+    @Query(SIMPLE_DTO_SELECT + SIMPLE_DTO_FILTER +
+            "AND (r.dateReservation < :apresDate OR (r.dateReservation = :apresDate AND r.id < :apresId)) " +
+            SIMPLE_DTO_ORDER)
+    List<ReservationSimpleDTO> findSimplePageAfter(@Param("statuts") Collection<StatutReservation> statuts,
+                                                   @Param("debut") LocalDateTime debut,
+                                                   @Param("fin") LocalDateTime fin,
+                                                   @Param("apresDate") LocalDateTime apresDate,
+                                                   @Param("apresId") Long apresId,
+                                                   Pageable pageable);
+
+    @Query(OCCUPATION_SELECT + "WHERE r.seance.id IN :seanceIds GROUP BY r.seance.id")
+    List<Object[]> aggregateOccupationBySeanceIds(@Param("seanceIds") Collection<Long> seanceIds);
+
+    @Query(OCCUPATION_SELECT + "GROUP BY r.seance.id")
+    List<Object[]> aggregateOccupationAll();
+
     @Query("SELECT COALESCE(SUM(r.nombrePlace), 0) FROM Reservation r WHERE r.seance.id = :seanceId AND r.statut <> :statutExclude")
     Integer sumNombrePlacesBySeanceIdAndStatutNot(@Param("seanceId") Long seanceId,
                                                   @Param("statutExclude") StatutReservation statutExclude);
@@ -2,6 +2,8 @@ package com.example.cinimana.repository;
 
 import com.example.cinimana.model.Salle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -18,4 +20,8 @@ public interface SalleRepository extends JpaRepository<Salle, String> { // <-- S
     long countByActifTrue();
     List<Salle> findByActif(boolean actif);
     long countByActif(boolean actif);
+
+    // Verrou de la salle : sérialise les écritures de séances d'une même salle (contrôle des chevauchements)
+    @Query(value = "SELECT id FROM salle WHERE id = :id FOR UPDATE", nativeQuery = true)
+    String verrouiller(@Param("id") String id);
 }
@@ -0,0 +1,59 @@
+package com.example.cinimana.repository;
+
+import com.example.cinimana.model.SeanceOccupation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SeanceOccupationRepository extends JpaRepository<SeanceOccupation, Long> {
+
+    // Incrément atomique (verrou de ligne) : pas de mise à jour perdue entre transactions concurrentes
+    @Modifying
+    @Query("UPDATE SeanceOccupation o SET " +
+            "o.placesReservees = o.placesReservees + :reservees, " +
+            "o.placesEnAttente = o.placesEnAttente + :enAttente, " +
+            "o.placesValidees = o.placesValidees + :validees, " +
+            "o.revenu = o.revenu + :revenu, " +
+            "o.dateMiseAJour = CURRENT_TIMESTAMP " +
+            "WHERE o.seanceId = :seanceId")
+    int applyDelta(@Param("seanceId") Long seanceId,
+                   @Param("reservees") int reservees,
+                   @Param("enAttente") int enAttente,
+                   @Param("validees") int validees,
+                   @Param("revenu") double revenu);
+
+    // Lecture verrouillante (réconciliation) : les deltas concurrents attendent la correction
+    @Query(value = "SELECT * FROM seance_occupation WHERE seance_id = :seanceId FOR UPDATE", nativeQuery = true)
+    Optional<SeanceOccupation> lockById(@Param("seanceId") Long seanceId);
+
+    // Écrase les compteurs (initialisation et réconciliation)
+    @Modifying
+    @Query(value = "INSERT INTO seance_occupation " +
+            "(seance_id, places_reservees, places_en_attente, places_validees, revenu, date_mise_a_jour) " +
+            "VALUES (:seanceId, :reservees, :enAttente, :validees, :revenu, NOW()) " +
+            "ON DUPLICATE KEY UPDATE places_reservees = VALUES(places_reservees), " +
+            "places_en_attente = VALUES(places_en_attente), places_validees = VALUES(places_validees), " +
+            "revenu = VALUES(revenu), date_mise_a_jour = NOW()", nativeQuery = true)
+    int upsert(@Param("seanceId") Long seanceId,
+               @Param("reservees") int reservees,
+               @Param("enAttente") int enAttente,
+               @Param("validees") int validees,
+               @Param("revenu") double revenu);
+
+    // Crée la ligne si elle n'existe pas encore (sans toucher une ligne existante)
+    @Modifying
+    @Query(value = "INSERT INTO seance_occupation " +
+            "(seance_id, places_reservees, places_en_attente, places_validees, revenu, date_mise_a_jour) " +
+            "VALUES (:seanceId, :reservees, :enAttente, :validees, :revenu, NOW()) " +
+            "ON DUPLICATE KEY UPDATE seance_id = seance_id", nativeQuery = true)
+    int insertIfAbsent(@Param("seanceId") Long seanceId,
+                       @Param("reservees") int reservees,
+                       @Param("enAttente") int enAttente,
+                       @Param("validees") int validees,
+                       @Param("revenu") double revenu);
+}
@@ -3,7 +3,12 @@ package com.example.cinimana.repository;
 import com.example.cinimana.model.Seance;
 import com.example.cinimana.model.Film;
 import com.example.cinimana.model.Salle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,13 +16,27 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface SeanceRepository extends JpaRepository<Seance, Long> {
+public interface SeanceRepository extends JpaRepository<Seance, Long>, JpaSpecificationExecutor<Seance> {
+
+    /**
+     * Recherche par critères (voir SeanceSpecifications), film, salle et catégorie chargés dans la même requête
+     */
+    @Override
+    @EntityGraph(attributePaths = { "film", "salle", "categorie" })
+    List<Seance> findAll(Specification<Seance> spec, Sort sort);
+
     List<Seance> findByFilm(Film film);
 
     List<Seance> findBySalle(Salle salle);
 
     List<Seance> findByDateHeureBetween(LocalDateTime debut, LocalDateTime fin);// Rechercher les séances entre deux dates
 
+    // [jour, nombre de séances, capacité cumulée des salles] pour le dashboard commercial
+    @Query("SELECT CAST(s.dateHeure AS LocalDate), COUNT(s), COALESCE(SUM(sa.capacite), 0) " +
+            "FROM Seance s LEFT JOIN s.salle sa WHERE s.dateHeure BETWEEN :debut AND :fin " +
+            "GROUP BY CAST(s.dateHeure AS LocalDate)")
+    List<Object[]> countSeancesParJour(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
+
     @Query("SELECT s FROM Seance s WHERE s.dateHeure >= :maintenant ORDER BY s.dateHeure ASC")
     List<Seance> findSeancesDisponibles(@Param("maintenant") LocalDateTime maintenant);
 
@@ -25,11 +44,19 @@ public interface SeanceRepository extends JpaRepository<Seance, Long> {
     List<Seance> findSeancesByFilmIdAfterDate(@Param("filmId") String filmId,
                                               @Param("maintenant") LocalDateTime maintenant);
 
-    @Query("SELECT s FROM Seance s WHERE s.salle.id = :salleId AND " +
-            "s.dateHeure BETWEEN :debut AND :fin")
-    List<Seance> findSeancesBySalleAndDateHeureBetween(@Param("salleId") String salleId,
-                                                       @Param("debut") LocalDateTime debut,
-                                                       @Param("fin") LocalDateTime fin);
+    // [id, salle, film, début, durée du film] des séances actives (index du planning des salles)
+    @Query("SELECT s.id, s.salle.id, s.film.id, s.dateHeure, s.film.duree FROM Seance s " +
+            "WHERE s.actif = true AND s.dateHeure >= :depuis")
+    List<Object[]> findCreneauxActifsDepuis(@Param("depuis") LocalDateTime depuis);
+
+    // [id, début, durée du film] des séances actives d'une salle commençant dans [debut, fin), en lecture
+    // verrouillante : voit les dernières séances validées même dans une transaction déjà commencée
+    @Query(value = "SELECT s.id, s.date_heure, f.duree FROM seance s JOIN film f ON f.id = s.film_id " +
+            "WHERE s.salle_id = :salleId AND s.actif = TRUE AND s.date_heure >= :debut AND s.date_heure < :fin " +
+            "ORDER BY s.date_heure LOCK IN SHARE MODE", nativeQuery = true)
+    List<Object[]> findCreneauxActifsBySalle(@Param("salleId") String salleId,
+                                             @Param("debut") LocalDateTime debut,
+                                             @Param("fin") LocalDateTime fin);
 
     @Query("SELECT SUM(r.montantTotal) FROM Seance s JOIN s.reservations r " +
             "WHERE s.dateHeure BETWEEN :debut AND :fin AND r.statut = 'VALIDEE'")
@@ -38,7 +65,14 @@ public interface SeanceRepository extends JpaRepository<Seance, Long> {
 
     long countByActifTrue();
 
-    List<Seance> findByActifTrueAndDateHeureBefore(LocalDateTime maintenant);
+    // Lot de séances commencées encore actives (SKIP LOCKED : une séance en cours de modification attend le passage suivant)
+    @Query(value = "SELECT s.id FROM seance s WHERE s.actif = TRUE AND s.date_heure < :maintenant " +
+            "ORDER BY s.id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockExpiredIds(@Param("maintenant") LocalDateTime maintenant, @Param("limite") int limite);
+
+    @Modifying
+    @Query("UPDATE Seance s SET s.actif = false, s.updatedAt = :maintenant WHERE s.id IN :ids")
+    int desactiverParIds(@Param("ids") java.util.Collection<Long> ids, @Param("maintenant") LocalDateTime maintenant);
 
     boolean existsByFilmAndActifTrue(Film film);
 
@@ -0,0 +1,59 @@
+package com.example.cinimana.repository;
+
+import com.example.cinimana.model.Seance;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Critères dynamiques sur les séances. Un critère sans valeur ne filtre rien : les combinaisons
+ * (film, salle, période, actives) produisent une seule requête couverte par les index
+ * (film_id, actif, date_heure) et (salle_id, date_heure).
+ */
+public final class SeanceSpecifications {
+
+    private SeanceSpecifications() {
+    }
+
+    public static Specification<Seance> deFilm(String filmId) {
+        return (root, query, cb) -> filmId == null || filmId.isEmpty()
+                ? null
+                : cb.equal(root.get("film").get("id"), filmId);
+    }
+
+    public static Specification<Seance> deSalle(String salleId) {
+        return (root, query, cb) -> salleId == null || salleId.isEmpty()
+                ? null
+                : cb.equal(root.get("salle").get("id"), salleId);
+    }
+
+    /**
+     * Séances dont la date est dans [debut, fin] (bornes facultatives)
+     */
+    public static Specification<Seance> entre(LocalDateTime debut, LocalDateTime fin) {
+        return (root, query, cb) -> {
+            if (debut != null && fin != null) {
+                return cb.between(root.get("dateHeure"), debut, fin);
+            }
+            if (debut != null) {
+                return cb.greaterThanOrEqualTo(root.get("dateHeure"), debut);
+            }
+            return fin != null ? cb.lessThanOrEqualTo(root.get("dateHeure"), fin) : null;
+        };
+    }
+
+    /**
+     * Séances commençant strictement après la date donnée
+     */
+    public static Specification<Seance> apres(LocalDateTime date) {
+        return (root, query, cb) -> cb.greaterThan(root.get("dateHeure"), date);
+    }
+
+    public static Specification<Seance> active() {
+        return (root, query, cb) -> cb.isTrue(root.get("actif"));
+    }
+
+    public static Specification<Seance> filmActif() {
+        return (root, query, cb) -> cb.isTrue(root.get("film").get("actif"));
+    }
+}
@@ -2,33 +2,48 @@ package com.example.cinimana.repository;
 
 import com.example.cinimana.model.SiegeReserve;
 import com.example.cinimana.model.Reservation;
+import com.example.cinimana.service.event.SiegeLibere;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface SiegeReserveRepository extends JpaRepository<SiegeReserve, Long> {
+public interface SiegeReserveRepository extends JpaRepository<SiegeReserve, Long>, JpaSpecificationExecutor<SiegeReserve> {
 
     List<SiegeReserve> findByReservation(Reservation reservation);
 
+    @Query("SELECT new com.example.cinimana.service.event.SiegeLibere(sr.seance.id, sr.rangee, sr.numero) " +
+            "FROM SiegeReserve sr WHERE sr.reservation.id IN :reservationIds AND sr.actif = true")
+    List<SiegeLibere> findActifsByReservationIds(@Param("reservationIds") Collection<Long> reservationIds);
+
+    // Sièges de plusieurs réservations en une requête : [reservationId, rangee, numero]
+    @Query("SELECT sr.reservation.id, sr.rangee, sr.numero FROM SiegeReserve sr " +
+            "WHERE sr.reservation.id IN :reservationIds ORDER BY sr.rangee, sr.numero")
+    List<Object[]> findPlacesByReservationIds(@Param("reservationIds") Collection<Long> reservationIds);
+
+    // Libère les sièges des réservations annulées (voir Reservation.annuler)
+    @Modifying
+    @Query("UPDATE SiegeReserve sr SET sr.actif = NULL WHERE sr.reservation.id IN :reservationIds")
+    int desactiverByReservationIds(@Param("reservationIds") Collection<Long> reservationIds);
+
     // Trouver les sièges réservés pour une séance spécifique
     @Query("SELECT sr FROM SiegeReserve sr " +
-            "JOIN sr.reservation r " +
-            "WHERE r.seance.id = :seanceId " +
-            "AND r.statut != 'ANNULEE'")
+            "WHERE sr.seance.id = :seanceId " +
+            "AND sr.actif = true")
     List<SiegeReserve> findReservedSeatsForSeance(@Param("seanceId") Long seanceId);
-    // Trouver les sièges réservés pour une séance spécifique
 
     // Vérifier si un siège spécifique est déjà réservé pour une séance
     @Query("SELECT COUNT(sr) > 0 FROM SiegeReserve sr " +
-            "JOIN sr.reservation r " +
-            "WHERE r.seance.id = :seanceId " +
+            "WHERE sr.seance.id = :seanceId " +
             "AND sr.rangee = :rangee " +
             "AND sr.numero = :numero " +
-            "AND r.statut != 'ANNULEE'")
+            "AND sr.actif = true")
     boolean isSeatReserved(@Param("seanceId") Long seanceId,
                            @Param("rangee") Integer rangee,
                            @Param("numero") Integer numero);
@@ -0,0 +1,34 @@
+package com.example.cinimana.repository;
+
+import com.example.cinimana.dto.request.SiegeRequest;
+import com.example.cinimana.model.SiegeReserve;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Critères sur les sièges réservés. Les paires (rangée, numéro) sont comparées exactement :
+ * forme portable du (rangee, numero) IN ((..), (..)), que MySQL résout par des accès à l'index
+ * (seance_id, rangee, numero, actif).
+ */
+public final class SiegeReserveSpecifications {
+
+    private SiegeReserveSpecifications() {
+    }
+
+    /**
+     * Sièges actifs de la séance parmi les places demandées
+     */
+    public static Specification<SiegeReserve> reservesParmi(Long seanceId, Collection<SiegeRequest> sieges) {
+        return (root, query, cb) -> {
+            Predicate[] paires = sieges.stream()
+                    .map(siege -> cb.and(cb.equal(root.get("rangee"), siege.getRangee()),
+                            cb.equal(root.get("numero"), siege.getNumero())))
+                    .toArray(Predicate[]::new);
+            return cb.and(cb.equal(root.get("seance").get("id"), seanceId),
+                    cb.isTrue(root.get("actif")),
+                    cb.or(paires));
+        };
+    }
+}
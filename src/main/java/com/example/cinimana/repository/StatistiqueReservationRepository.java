@@ -0,0 +1,84 @@
+package com.example.cinimana.repository;
+
+import com.example.cinimana.model.StatistiqueReservation;
+import com.example.cinimana.model.StatutReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StatistiqueReservationRepository extends JpaRepository<StatistiqueReservation, Long> {
+
+    // Delta atomique sur une ligne d'agrégat (créée au premier passage)
+    @Modifying
+    @Query(value = "INSERT INTO statistique_reservation " +
+            "(jour, heure, film_id, salle_id, categorie_id, statut, nombre_reservations, places, montant, date_mise_a_jour) " +
+            "VALUES (:jour, :heure, :filmId, :salleId, :categorieId, :statut, :nombre, :places, :montant, NOW()) " +
+            "ON DUPLICATE KEY UPDATE nombre_reservations = nombre_reservations + VALUES(nombre_reservations), " +
+            "places = places + VALUES(places), montant = montant + VALUES(montant), date_mise_a_jour = NOW()",
+            nativeQuery = true)
+    int applyDelta(@Param("jour") LocalDate jour,
+                   @Param("heure") int heure,
+                   @Param("filmId") String filmId,
+                   @Param("salleId") String salleId,
+                   @Param("categorieId") Long categorieId,
+                   @Param("statut") String statut,
+                   @Param("nombre") int nombre,
+                   @Param("places") int places,
+                   @Param("montant") double montant);
+
+    @Modifying
+    @Query("DELETE FROM StatistiqueReservation s WHERE s.jour >= :debut AND s.jour < :fin")
+    int deletePeriode(@Param("debut") LocalDate debut, @Param("fin") LocalDate fin);
+
+    // Recalcul ensembliste depuis les réservations de [debut, fin[
+    @Modifying
+    @Query(value = "INSERT INTO statistique_reservation " +
+            "(jour, heure, film_id, salle_id, categorie_id, statut, nombre_reservations, places, montant, date_mise_a_jour) " +
+            "SELECT DATE(r.date_reservation), HOUR(r.date_reservation), s.film_id, s.salle_id, " +
+            "COALESCE(s.categorie_id, 0), r.statut, COUNT(*), SUM(r.nombre_place), SUM(r.montant_total), NOW() " +
+            "FROM reservation r JOIN seance s ON s.id = r.seance_id " +
+            "WHERE r.date_reservation >= :debut AND r.date_reservation < :fin " +
+            "GROUP BY DATE(r.date_reservation), HOUR(r.date_reservation), s.film_id, s.salle_id, " +
+            "COALESCE(s.categorie_id, 0), r.statut", nativeQuery = true)
+    int insertFromReservations(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin);
+
+    // ==================== LECTURES DASHBOARD ====================
+
+    // [jour, statut, nombre, places, montant]
+    @Query("SELECT s.jour, s.statut, SUM(s.nombreReservations), SUM(s.places), SUM(s.montant) " +
+            "FROM StatistiqueReservation s WHERE s.jour BETWEEN :debut AND :fin " +
+            "GROUP BY s.jour, s.statut ORDER BY s.jour")
+    List<Object[]> sumByJourAndStatut(@Param("debut") LocalDate debut, @Param("fin") LocalDate fin);
+
+    @Query("SELECT s.statut, SUM(s.nombreReservations) FROM StatistiqueReservation s " +
+            "GROUP BY s.statut HAVING SUM(s.nombreReservations) > 0")
+    List<Object[]> countByStatut();
+
+    @Query("SELECT f.titre, SUM(s.nombreReservations) FROM StatistiqueReservation s JOIN Film f ON f.id = s.filmId " +
+            "GROUP BY f.titre HAVING SUM(s.nombreReservations) > 0 ORDER BY SUM(s.nombreReservations) DESC")
+    List<Object[]> countByFilmTitre(Pageable pageable);
+
+    @Query("SELECT s.heure, SUM(s.nombreReservations) FROM StatistiqueReservation s " +
+            "GROUP BY s.heure HAVING SUM(s.nombreReservations) > 0 ORDER BY s.heure")
+    List<Object[]> countByHeure();
+
+    // Genre lu sur le film au moment de la requête : un changement de genre n'impose pas de reconstruction
+    @Query("SELECT f.genre, SUM(s.nombreReservations) FROM StatistiqueReservation s JOIN Film f ON f.id = s.filmId " +
+            "GROUP BY f.genre HAVING SUM(s.nombreReservations) > 0")
+    List<Object[]> countByGenre();
+
+    @Query("SELECT s.jour, SUM(s.montant) FROM StatistiqueReservation s " +
+            "WHERE s.statut = :statut AND s.jour >= :debut GROUP BY s.jour ORDER BY s.jour")
+    List<Object[]> sumMontantByJour(@Param("statut") StatutReservation statut, @Param("debut") LocalDate debut);
+
+    @Query("SELECT s.jour, s.statut, SUM(s.nombreReservations) FROM StatistiqueReservation s " +
+            "WHERE s.jour >= :debut GROUP BY s.jour, s.statut HAVING SUM(s.nombreReservations) > 0 ORDER BY s.jour")
+    List<Object[]> countByJourAndStatut(@Param("debut") LocalDate debut);
+}
@@ -0,0 +1,27 @@
+package com.example.cinimana.repository;
+
+import com.example.cinimana.model.TicketFichier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TicketFichierRepository extends JpaRepository<TicketFichier, Long> {
+
+    List<TicketFichier> findByDateExpirationBefore(LocalDateTime date, Pageable pageable);
+
+    // Deux premiers téléchargements simultanés : la seconde insertion est ignorée
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO ticket_fichier (code_reservation, chemin, taille, date_creation, date_expiration) " +
+            "VALUES (:code, :chemin, :taille, :dateCreation, :dateExpiration)", nativeQuery = true)
+    int insertIfAbsent(@Param("code") String codeReservation,
+                       @Param("chemin") String chemin,
+                       @Param("taille") long taille,
+                       @Param("dateCreation") LocalDateTime dateCreation,
+                       @Param("dateExpiration") LocalDateTime dateExpiration);
+}
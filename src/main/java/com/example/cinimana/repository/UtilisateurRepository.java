@@ -31,5 +31,31 @@ public interface UtilisateurRepository extends JpaRepository<Utilisateur, String
             "(:role IS NULL OR u.role = :role)")// Requête dynamique pour filtrer par actif et rôle
     List<Utilisateur> findUsersByFilters(@Param("actif") Boolean actif, @Param("role") Role role);
 
+    /**
+     * Compte d'authentification (admin, commercial, caissier ou client) trouvé par email
+     */
+    interface AuthAccount {
+        String getEmail();
+
+        String getMotDePasse();
+
+        String getRole();
+
+        Integer getActif(); // 1 = actif, 0 = désactivé
+    }
+
+    // Recherche polymorphe en une seule requête, même priorité que l'ordre historique : admin, personnel, client
+    @Query(value = "SELECT x.email AS email, x.mot_de_passe AS motDePasse, x.role AS role, x.actif AS actif FROM (" +
+            "SELECT a.email, a.mot_de_passe, 'ADMIN' AS role, 1 AS actif, 1 AS priorite " +
+            "FROM admin a WHERE a.email = :email " +
+            "UNION ALL " +
+            "SELECT u.email, u.mot_de_passe, u.role, CASE WHEN u.actif THEN 1 ELSE 0 END, 2 AS priorite " +
+            "FROM utilisateur u WHERE u.email = :email AND u.role IN ('COMMERCIAL', 'CAISSIER') " +
+            "UNION ALL " +
+            "SELECT c.email, c.mot_de_passe, 'CLIENT' AS role, 1 AS actif, 3 AS priorite " +
+            "FROM client c WHERE c.email = :email" +
+            ") x ORDER BY x.priorite LIMIT 1", nativeQuery = true)
+    Optional<AuthAccount> findAuthAccountByEmail(@Param("email") String email);
+
 
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import com.example.cinimana.security.auth.dto.AuthResponse;
 import com.example.cinimana.security.auth.dto.RegisterRequest;
 import com.example.cinimana.security.jwt.JwtService;
 import com.example.cinimana.security.user.CustomUserDetailsService;
+import com.example.cinimana.service.JournalActiviteService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +34,7 @@ public class AuthServiceImpl implements AuthService {
     private final ClientRepository clientRepository;
     private final AdminRepository adminRepository;
     private final UtilisateurRepository utilisateurRepository;
+    private final JournalActiviteService journalActivite;
 
     // Login client uniquement
     @Override
@@ -156,6 +158,7 @@ public class AuthServiceImpl implements AuthService {
         client.setDateNaissance(request.dateNaissance());
         client.setRole(Role.CLIENT);
         clientRepository.save(client); //Persistance via Spring Data JPA.
+        journalActivite.enregistrer(client);
 
         logger.info("Nouvel utilisateur client enregistré avec email: {}", request.email());
         AuthResponse response = loginClient(new AuthRequest(request.email(), request.motDePasse()));
@@ -1,6 +1,8 @@
 // src/main/java/com/example/cinimana/security/jwt/JwtAuthenticationFilter.java
 package com.example.cinimana.security.jwt;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,6 +32,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final JwtPrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -44,19 +47,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String token = authHeader.substring(7);
-        //  email sera NULL si le token est invalide/expiré/mauvaise signature
-        String email = jwtService.extractUsername(token);
+
+        // Une seule vérification de signature par requête (parser réutilisé)
+        final Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Token invalide/expiré/mauvaise signature : contexte non établi
+            logger.debug("Token JWT présent mais invalide/expiré. Contexte non établi: {}", e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String email = claims.getSubject();
 
         // 2. Vérification et chargement de l'utilisateur
         // On procède SEULEMENT si l'email a été extrait ET qu'aucun utilisateur n'est dans le contexte
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // NOTE : Vous devez gérer ici si loadUserByUsername lève une exception (Utilisateur non trouvé)
-            // Pour le moment, nous laissons la méthode la gérer.
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            // Utilisateur mis en cache par jti : pas de requête en base pour les requêtes suivantes du même token
+            UserDetails userDetails = principalCache.get(claims.getId(),
+                    () -> userDetailsService.loadUserByUsername(email));
 
             // 3. Validation et Authentification
-            if (jwtService.isTokenValid(token, userDetails)) {
+            if (jwtService.isTokenValid(claims, userDetails)) {
 
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -68,10 +81,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             } else {
                 logger.warn("Tentative d'accès avec token invalide ou expiré pour email: {}", email);
             }
-
-        } else if (email == null && authHeader != null) {
-            // Le token était présent mais invalide/expiré (loggué dans JwtService)
-            logger.debug("Token JWT présent mais invalide/expiré. Contexte non établi.");
         }
 
         // 4. Continuation de la chaîne de filtres
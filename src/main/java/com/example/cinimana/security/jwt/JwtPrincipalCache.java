@@ -0,0 +1,42 @@
+package com.example.cinimana.security.jwt;
+
+import com.example.cinimana.service.cache.TtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Cache des utilisateurs authentifiés, indexé par l'identifiant unique du token (jti).
+ * Évite de recharger l'utilisateur en base à chaque requête ; la durée de vie courte borne
+ * le délai de prise en compte d'une désactivation non signalée.
+ */
+@Component
+public class JwtPrincipalCache {
+
+    private final TtlCache<String, UserDetails> principals;
+
+    public JwtPrincipalCache(@Value("${app.cache.principals.max-size:10000}") int maxSize,
+                             @Value("${app.cache.principals.ttl-seconds:300}") long ttlSeconds) {
+        this.principals = new TtlCache<>("auth.principals", maxSize, ttlSeconds);
+    }
+
+    public UserDetails get(String jti, Supplier<UserDetails> loader) {
+        if (jti == null) {
+            return loader.get(); // Ancien token sans jti : pas de mise en cache
+        }
+        return principals.get(jti, key -> loader.get());
+    }
+
+    /**
+     * À appeler quand un compte est désactivé ou modifié
+     */
+    public void invalidateUser(String email) {
+        principals.invalidateIf((jti, user) -> user.getUsername().equalsIgnoreCase(email));
+    }
+
+    public TtlCache.Stats stats() {
+        return principals.stats();
+    }
+}
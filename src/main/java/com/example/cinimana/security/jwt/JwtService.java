@@ -2,8 +2,10 @@ package com.example.cinimana.security.jwt;
 
 import com.example.cinimana.config.JwtConfig;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -21,9 +23,21 @@ public class JwtService {
     @Autowired
     private JwtConfig jwtConfig;
 
+    // Clé et parser construits une seule fois (thread-safe, réutilisés à chaque requête)
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));//UTF_8 pour éviter les problèmes d'encodage
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     // Clé de signature HS256
     private SecretKey getSigningKey() {//HS256 nécessite une clé secrète
-        return Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));//UTF_8 pour éviter les problèmes d'encodage
+        return signingKey;
     }
 
     // Génération du token avec role, iat, exp, jti
@@ -49,19 +63,20 @@ public class JwtService {
 
     // Vérification token
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    // Vérification à partir des claims déjà extraits (une seule vérification de signature par requête)
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Vérifie la signature et l'expiration puis retourne les claims
+     *
+     * @throws io.jsonwebtoken.JwtException si le token est invalide ou expiré
+     */
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 }
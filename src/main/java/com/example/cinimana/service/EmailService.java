@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -264,27 +265,46 @@ public class EmailService {
             String codeReservation,
             String confirmationLink) {
 
-        String destinationEmail = isValidEmail(toEmail) ? toEmail : FALLBACK_EMAIL;
-
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setTo(destinationEmail);
-            helper.setSubject("⏰ CINÉMANA : Votre séance commence bientôt !");
-
-            String htmlContent = buildPresenceConfirmationHtml(clientName, filmTitle, seanceDateTime, salleName,
-                    nombrePlaces, codeReservation, confirmationLink);
-            helper.setText(htmlContent, true);
+            MimeMessage message = buildReservationConfirmationMessage(toEmail, clientName, filmTitle, seanceDateTime,
+                    salleName, nombrePlaces, codeReservation, confirmationLink);
 
             mailSender.send(message);
-            logger.info("✅ Email HTML de rappel (3h) envoyé à: {} pour code: {}", destinationEmail, codeReservation);
+            logger.info("✅ Email HTML de rappel (3h) envoyé pour code: {}", codeReservation);
 
         } catch (Exception e) {
             logger.error("❌ Erreur envoi email rappel (HTML): {}", e.getMessage());
         }
     }
 
+    /**
+     * Prépare l'email de rappel (3h avant la séance) sans l'envoyer : utilisé par l'envoi groupé
+     * des rappels, qui transmet plusieurs messages sur une même connexion SMTP
+     */
+    public MimeMessage buildReservationConfirmationMessage(
+            String toEmail,
+            String clientName,
+            String filmTitle,
+            String seanceDateTime,
+            String salleName,
+            int nombrePlaces,
+            String codeReservation,
+            String confirmationLink) throws MessagingException {
+
+        String destinationEmail = isValidEmail(toEmail) ? toEmail : FALLBACK_EMAIL;
+
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setTo(destinationEmail);
+        helper.setSubject("⏰ CINÉMANA : Votre séance commence bientôt !");
+
+        String htmlContent = buildPresenceConfirmationHtml(clientName, filmTitle, seanceDateTime, salleName,
+                nombrePlaces, codeReservation, confirmationLink);
+        helper.setText(htmlContent, true);
+        return message;
+    }
+
     private String buildPresenceConfirmationHtml(String clientName, String filmTitle, String seanceDateTime,
                                                  String salleName, int nombrePlaces, String codeReservation, String confirmationLink) {
         return "<!DOCTYPE html>" +
@@ -369,8 +389,8 @@ public class EmailService {
 
         } catch (Exception e) {
             logger.error("❌ Erreur envoi email succès réservation (HTML): {}", e.getMessage());
-            // Fallback sur l'email simple si l'HTML échoue (optionnel, mais ici on log
-            // juste)
+            // Propagé pour que la finalisation de la réservation planifie un nouvel essai
+            throw new RuntimeException("Échec de l'envoi de l'email: " + e.getMessage(), e);
         }
     }
 
@@ -1,55 +1,171 @@
 package com.example.cinimana.service;
 
-import com.example.cinimana.repository.UtilisateurRepository;
-import com.example.cinimana.repository.SalleRepository;
-import com.example.cinimana.repository.FilmRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.security.SecureRandom;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-// Service for generating unique IDs for different entities
-@Service
-@RequiredArgsConstructor
-public class IdGeneratorService {
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-    private final UtilisateurRepository utilisateurRepository;
-    private final SalleRepository salleRepository;
-    private final FilmRepository filmRepository;
+/**
+ * Identifiants de 10 caractères (A-Z, 0-9) pour les utilisateurs, salles et films, alloués par blocs.
+ * Chaque bloc est réservé en une requête sur la table id_generator (compteur par type, partagé par
+ * toutes les instances), puis distribué en mémoire : aucune requête par entité créée.
+ * Le compteur passe par une bijection de [0, 36^10) : les identifiants ne se suivent pas visuellement
+ * et ne peuvent pas se répéter. Les identifiants aléatoires créés avant les blocs sont écartés
+ * à l'allocation (une requête par bloc). La table id_generator est créée au démarrage si besoin
+ * (elle est partagée avec le générateur des sièges réservés).
+ */
+@Service
+public class IdGeneratorService implements SmartInitializingSingleton {
 
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
     private static final int ID_LENGTH = 10;
-    private final SecureRandom random = new SecureRandom();
+    private static final BigInteger ESPACE = BigInteger.valueOf(36).pow(ID_LENGTH);
+    // Premier avec 2 et 3, donc inversible modulo 36^10
+    private static final BigInteger MULTIPLICATEUR = BigInteger.valueOf(2_654_435_761L);
+    private static final BigInteger DECALAGE = BigInteger.valueOf(1_234_567_890_123L);
+
+    private enum Sequence {
+        UTILISATEUR("utilisateur_id", "utilisateur"),
+        SALLE("salle_id", "salle"),
+        FILM("film_id", "film");
+
+        private final String genName;
+        private final String table;
+
+        Sequence(String genName, String table) {
+            this.genName = genName;
+            this.table = table;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate nouvelleTransaction;
+    private final int tailleBloc;
+    private final Map<Sequence, Deque<String>> blocs = new EnumMap<>(Sequence.class);
+
+    public IdGeneratorService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              @Value("${app.ids.taille-bloc:100}") int tailleBloc) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Allocation validée indépendamment de la transaction de l'appelant (même en cas de rollback)
+        this.nouvelleTransaction = new TransactionTemplate(transactionManager);
+        this.nouvelleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tailleBloc = tailleBloc;
+        for (Sequence sequence : Sequence.values()) {
+            blocs.put(sequence, new ArrayDeque<>());
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        creerTableSiAbsente();
+    }
 
-    private String generateRandomId() {
-        return IntStream.range(0, ID_LENGTH)
-                .mapToObj(i -> CHARACTERS.charAt(random.nextInt(CHARACTERS.length())))
-                .map(Object::toString)
-                .collect(Collectors.joining());
+    /**
+     * Crée la table des compteurs si elle n'existe pas, puis vérifie sa clé primaire (sans elle,
+     * INSERT IGNORE créerait un compteur en double). Idempotent ; un échec bloque le démarrage.
+     */
+    public void creerTableSiAbsente() {
+        Integer cle;
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_generator (" +
+                    "gen_name VARCHAR(255) NOT NULL, gen_value BIGINT, PRIMARY KEY (gen_name))");
+            cle = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() " +
+                            "AND table_name = 'id_generator' AND index_name = 'PRIMARY' AND column_name = 'gen_name'",
+                    Integer.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Initialisation de la table id_generator impossible", e);
+        }
+        if (cle == null || cle == 0) {
+            throw new IllegalStateException("La table id_generator n'a pas de clé primaire sur gen_name");
+        }
     }
 
     public String generateUniqueIdForUtilisateur() {
-        String id;
-        do {
-            id = generateRandomId();
-        } while (utilisateurRepository.existsById(id));
-        return id;
+        return next(Sequence.UTILISATEUR);
     }
 
     public String generateUniqueIdForSalle() {
-        String id;
-        do {
-            id = generateRandomId();
-        } while (salleRepository.existsById(id));
-        return id;
+        return next(Sequence.SALLE);
     }
 
     public String generateUniqueIdForFilm() {
-        String id;
-        do {
-            id = generateRandomId();
-        } while (filmRepository.existsById(id));
-        return id;
+        return next(Sequence.FILM);
+    }
+
+    private String next(Sequence sequence) {
+        Deque<String> bloc = blocs.get(sequence);
+        synchronized (bloc) {
+            while (bloc.isEmpty()) {
+                bloc.addAll(allouerBloc(sequence));
+            }
+            return bloc.poll();
+        }
+    }
+
+    private List<String> allouerBloc(Sequence sequence) {
+        List<String> ids = nouvelleTransaction.execute(status -> {
+            long fin = reserver(sequence);
+            List<String> bloc = new ArrayList<>(tailleBloc);
+            for (long valeur = fin - tailleBloc; valeur < fin; valeur++) {
+                bloc.add(encode(valeur));
+            }
+            bloc.removeAll(existants(sequence, bloc));
+            return bloc;
+        });
+        return ids != null ? ids : List.of();
+    }
+
+    /**
+     * Avance le compteur d'un bloc et renvoie sa nouvelle valeur (borne exclue du bloc)
+     */
+    private long reserver(Sequence sequence) {
+        int updated = jdbcTemplate.update(
+                "UPDATE id_generator SET gen_value = LAST_INSERT_ID(gen_value + ?) WHERE gen_name = ?",
+                tailleBloc, sequence.genName);
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT IGNORE INTO id_generator (gen_name, gen_value) VALUES (?, 0)",
+                    sequence.genName);
+            jdbcTemplate.update(
+                    "UPDATE id_generator SET gen_value = LAST_INSERT_ID(gen_value + ?) WHERE gen_name = ?",
+                    tailleBloc, sequence.genName);
+        }
+        Long fin = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        if (fin == null || fin < tailleBloc) {
+            throw new IllegalStateException("Allocation d'identifiants impossible pour " + sequence.table);
+        }
+        return fin;
+    }
+
+    // Anciens identifiants aléatoires tombant dans le bloc
+    private Set<String> existants(Sequence sequence, List<String> bloc) {
+        String placeholders = String.join(",", Collections.nCopies(bloc.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM " + sequence.table + " WHERE id IN (" + placeholders + ")",
+                String.class, bloc.toArray()));
+    }
+
+    static String encode(long valeur) {
+        long n = BigInteger.valueOf(valeur).multiply(MULTIPLICATEUR).add(DECALAGE).mod(ESPACE).longValue();
+        char[] id = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            id[i] = CHARACTERS.charAt((int) (n % CHARACTERS.length()));
+            n /= CHARACTERS.length();
+        }
+        return new String(id);
     }
 }
@@ -0,0 +1,298 @@
+package com.example.cinimana.service;
+
+import com.example.cinimana.dto.response.HistoriqueResponseDTO;
+import com.example.cinimana.model.*;
+import com.example.cinimana.repository.*;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal d'activité unifié alimenté par tous les écrivains d'historique.
+ * Le fil du dashboard admin se lit en une requête ; les dernières opérations sont en plus gardées
+ * en mémoire (tampon circulaire + dernière opération par type), mises à jour après chaque commit.
+ * La mémoire ne voit que les écritures de cette instance : taille 0 pour la désactiver en multi-instance.
+ * L'entrée est préparée dans la transaction de l'appelant puis écrite après son commit, dans une
+ * transaction séparée : un échec du journal ne peut pas faire annuler l'opération journalisée.
+ */
+@Service
+@RequiredArgsConstructor
+public class JournalActiviteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalActiviteService.class);
+
+    private static final int LIMITE_FIL = 100;
+
+    private final JournalActiviteRepository journalRepository;
+    private final HistoriqueUtilisateurRepository historiqueUtilisateurRepository;
+    private final HistoriqueFilmRepository historiqueFilmRepository;
+    private final HistoriqueSalleRepository historiqueSalleRepository;
+    private final HistoriqueSeanceRepository historiqueSeanceRepository;
+    private final HistoriqueOffreRepository historiqueOffreRepository;
+    private final ReservationRepository reservationRepository;
+    private final ClientRepository clientRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.activites.memoire-taille:100}")
+    private int tailleMemoire;
+
+    // Accès protégés par le verrou de l'instance
+    private final ArrayDeque<JournalActivite> dernieres = new ArrayDeque<>();
+    private final Map<String, JournalActivite> dernierParType = new HashMap<>();
+    private boolean memoireChargee;
+
+    private TransactionTemplate nouvelleTransaction;
+
+    @PostConstruct
+    public void init() {
+        nouvelleTransaction = new TransactionTemplate(transactionManager);
+        nouvelleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ==================== ÉCRITURE ====================
+
+    public void enregistrer(HistoriqueUtilisateur h) {
+        Utilisateur u = h.getUtilisateur();
+        ajouter("Utilisateur", h.getId(), u.getId(), u.getNom() + " " + u.getPrenom(), h.getOperation().name(),
+                h.getDateOperation(), nomComplet(h.getAdmin()), null, null);
+    }
+
+    public void enregistrer(HistoriqueFilm h) {
+        ajouter("Film", h.getId(), h.getFilm().getId(), h.getFilm().getTitre(), h.getOperation().name(),
+                h.getDateOperation(), nomComplet(h.getAdmin()), null, null);
+    }
+
+    public void enregistrer(HistoriqueSalle h) {
+        ajouter("Salle", h.getId(), h.getSalle().getId(), h.getSalle().getNom(), h.getOperation().name(),
+                h.getDateOperation(), nomComplet(h.getAdmin()), null, null);
+    }
+
+    public void enregistrer(HistoriqueSeance h) {
+        Seance seance = h.getSeance();
+        ajouter("Séance", h.getId(), String.valueOf(seance.getId()),
+                seance.getFilm().getTitre() + " (" + seance.getDateHeure() + ")", h.getOperation().name(),
+                h.getDateOperation(), h.getCommercial().getNom() + " " + h.getCommercial().getPrenom(),
+                null, seance.getDateHeure().toString());
+    }
+
+    /**
+     * Import de programme : une seule entrée pour le lot, le détail par séance est dans historique_seance
+     */
+    public void enregistrerImportSeances(Commercial commercial, int nombre, LocalDateTime premiere,
+                                         LocalDateTime derniere, LocalDateTime dateOperation) {
+        ajouter("Séance", null, null, "Import du programme : " + nombre + " séance(s)",
+                TypeOperation.CREATION.name(), dateOperation, commercial.getNom() + " " + commercial.getPrenom(),
+                null, premiere + " - " + derniere);
+    }
+
+    public void enregistrer(HistoriqueOffre h) {
+        ajouter("Offre", h.getId(), String.valueOf(h.getOffre().getId()), h.getOffre().getTitre(),
+                h.getOperation().name(), h.getDateOperation(), nomComplet(h.getAdmin()), null, null);
+    }
+
+    public void enregistrer(Reservation r) {
+        ajouter("Réservation", r.getId(), String.valueOf(r.getId()),
+                r.getSeance().getFilm().getTitre() + " - " + r.getNombrePlace() + " places", r.getStatut().name(),
+                r.getDateReservation(), r.getClient().getNom() + " " + r.getClient().getPrenom(),
+                r.getMontantTotal(), r.getSeance().getDateHeure().toString());
+    }
+
+    public void enregistrer(Client c) {
+        ajouter("Client", c.getId(), String.valueOf(c.getId()), c.getNom() + " " + c.getPrenom(), "INSCRIPTION",
+                c.getCreatedAt() != null ? c.getCreatedAt() : LocalDateTime.now(), "Client Lui-même", null, null);
+    }
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Dernière opération de chaque type d'entité, la plus récente en premier
+     */
+    @Transactional(readOnly = true)
+    public List<HistoriqueResponseDTO> getDernieresParType() {
+        if (tailleMemoire <= 0) {
+            return journalRepository.findDernierParType().stream().map(this::toDTO).toList();
+        }
+        List<JournalActivite> snapshot;
+        synchronized (this) {
+            chargerMemoire();
+            snapshot = new ArrayList<>(dernierParType.values());
+        }
+        return snapshot.stream()
+                .sorted(Comparator.comparing(JournalActivite::getDateOperation).reversed())
+                .map(this::toDTO)
+                .toList();
+    }
+
+    /**
+     * Dernières opérations, tous types confondus
+     */
+    @Transactional(readOnly = true)
+    public List<HistoriqueResponseDTO> getFil(int limit) {
+        int taille = Math.max(1, Math.min(limit, LIMITE_FIL));
+        if (taille <= tailleMemoire) {
+            List<JournalActivite> snapshot;
+            synchronized (this) {
+                chargerMemoire();
+                snapshot = new ArrayList<>(dernieres);
+            }
+            return snapshot.stream()
+                    .sorted(Comparator.comparing(JournalActivite::getId).reversed())
+                    .limit(taille)
+                    .map(this::toDTO)
+                    .toList();
+        }
+        return journalRepository.findAllByOrderByIdDesc(PageRequest.of(0, taille)).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    /**
+     * Reprise initiale : amorce le journal avec les 5 dernières opérations de chaque source
+     * (l'historique complet reste consultable dans les tables Historique*)
+     */
+    @Transactional
+    public void initialiserSiVide() {
+        if (journalRepository.count() > 0) {
+            return;
+        }
+        List<JournalActivite> reprise = new ArrayList<>();
+        historiqueUtilisateurRepository.findTop5ByOrderByDateOperationDesc().forEach(h -> reprise.add(
+                entree("Utilisateur", h.getId(), h.getUtilisateur().getId(),
+                        h.getUtilisateur().getNom() + " " + h.getUtilisateur().getPrenom(), h.getOperation().name(),
+                        h.getDateOperation(), nomComplet(h.getAdmin()), null, null)));
+        historiqueFilmRepository.findTop5ByOrderByDateOperationDesc().forEach(h -> reprise.add(
+                entree("Film", h.getId(), h.getFilm().getId(), h.getFilm().getTitre(), h.getOperation().name(),
+                        h.getDateOperation(), nomComplet(h.getAdmin()), null, null)));
+        historiqueSalleRepository.findTop5ByOrderByDateOperationDesc().forEach(h -> reprise.add(
+                entree("Salle", h.getId(), h.getSalle().getId(), h.getSalle().getNom(), h.getOperation().name(),
+                        h.getDateOperation(), nomComplet(h.getAdmin()), null, null)));
+        historiqueSeanceRepository.findTop5ByOrderByDateOperationDesc().forEach(h -> reprise.add(
+                entree("Séance", h.getId(), String.valueOf(h.getSeance().getId()),
+                        h.getSeance().getFilm().getTitre() + " (" + h.getSeance().getDateHeure() + ")",
+                        h.getOperation().name(), h.getDateOperation(),
+                        h.getCommercial().getNom() + " " + h.getCommercial().getPrenom(), null,
+                        h.getSeance().getDateHeure().toString())));
+        historiqueOffreRepository.findTop5ByOrderByDateOperationDesc().forEach(h -> reprise.add(
+                entree("Offre", h.getId(), String.valueOf(h.getOffre().getId()), h.getOffre().getTitre(),
+                        h.getOperation().name(), h.getDateOperation(), nomComplet(h.getAdmin()), null, null)));
+        reservationRepository.findTop5ByOrderByDateReservationDesc().forEach(r -> reprise.add(
+                entree("Réservation", r.getId(), String.valueOf(r.getId()),
+                        r.getSeance().getFilm().getTitre() + " - " + r.getNombrePlace() + " places",
+                        r.getStatut().name(), r.getDateReservation(),
+                        r.getClient().getNom() + " " + r.getClient().getPrenom(), r.getMontantTotal(),
+                        r.getSeance().getDateHeure().toString())));
+        clientRepository.findTop5ByOrderByCreatedAtDesc().forEach(c -> reprise.add(
+                entree("Client", c.getId(), String.valueOf(c.getId()), c.getNom() + " " + c.getPrenom(),
+                        "INSCRIPTION", c.getCreatedAt(), "Client Lui-même", null, null)));
+
+        // Ids croissants dans l'ordre chronologique
+        reprise.sort(Comparator.comparing(JournalActivite::getDateOperation));
+        journalRepository.saveAll(reprise);
+        logger.info("✅ Journal d'activité initialisé avec {} opération(s)", reprise.size());
+    }
+
+    // ==================== INTERNE ====================
+
+    private void ajouter(String entiteType, Long sourceId, String entiteId, String entiteNom, String operation,
+                         LocalDateTime dateOperation, String auteur, Double montant, String info) {
+        JournalActivite entree = entree(entiteType, sourceId, entiteId, entiteNom, operation, dateOperation,
+                auteur, montant, info);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ecrire(entree);
+                }
+            });
+        } else {
+            ecrire(entree);
+        }
+    }
+
+    // Après le commit de l'appelant : nouvelle transaction obligatoire (REQUIRES_NEW)
+    private void ecrire(JournalActivite entree) {
+        try {
+            nouvelleTransaction.executeWithoutResult(status -> journalRepository.save(entree));
+        } catch (RuntimeException e) {
+            logger.error("❌ Écriture du journal d'activité impossible ({} {}): {}", entree.getEntiteType(),
+                    entree.getEntiteNom(), e.getMessage());
+            return;
+        }
+        if (tailleMemoire > 0) {
+            memoriser(entree);
+        }
+    }
+
+    private JournalActivite entree(String entiteType, Long sourceId, String entiteId, String entiteNom,
+                                   String operation, LocalDateTime dateOperation, String auteur, Double montant,
+                                   String info) {
+        JournalActivite entree = new JournalActivite();
+        entree.setEntiteType(entiteType);
+        entree.setSourceId(sourceId);
+        entree.setEntiteId(entiteId);
+        entree.setEntiteNom(entiteNom);
+        entree.setOperation(operation);
+        entree.setDateOperation(dateOperation != null ? dateOperation : LocalDateTime.now());
+        entree.setAuteur(auteur);
+        entree.setMontant(montant);
+        entree.setInfoSupplementaire(info);
+        return entree;
+    }
+
+    private synchronized void memoriser(JournalActivite entree) {
+        if (!memoireChargee) {
+            return; // Sera lue avec le reste au premier chargement
+        }
+        if (dernieres.stream().anyMatch(j -> j.getId().equals(entree.getId()))) {
+            return; // Déjà lue par le chargement (commit entre la requête et ce rappel)
+        }
+        dernieres.addLast(entree);
+        while (dernieres.size() > tailleMemoire) {
+            dernieres.removeFirst();
+        }
+        dernierParType.merge(entree.getEntiteType(), entree,
+                (actuelle, nouvelle) -> nouvelle.getId() > actuelle.getId() ? nouvelle : actuelle);
+    }
+
+    // Premier accès : deux requêtes, ensuite la mémoire suit les commits
+    private void chargerMemoire() {
+        if (memoireChargee) {
+            return;
+        }
+        List<JournalActivite> recentes = new ArrayList<>(
+                journalRepository.findAllByOrderByIdDesc(PageRequest.of(0, tailleMemoire)));
+        recentes.sort(Comparator.comparing(JournalActivite::getId));
+        dernieres.clear();
+        dernieres.addAll(recentes);
+        dernierParType.clear();
+        journalRepository.findDernierParType().forEach(j -> dernierParType.put(j.getEntiteType(), j));
+        memoireChargee = true;
+    }
+
+    private String nomComplet(Admin admin) {
+        return admin.getNom() + " " + admin.getPrenom();
+    }
+
+    private HistoriqueResponseDTO toDTO(JournalActivite j) {
+        return new HistoriqueResponseDTO(j.getSourceId(), j.getEntiteType(), j.getEntiteId(), j.getEntiteNom(),
+                j.getOperation(), j.getDateOperation(), j.getAuteur(), j.getMontant(), j.getInfoSupplementaire());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.cinimana.service;
 
+import com.example.cinimana.dto.response.OffreResponseDTO;
 import com.example.cinimana.model.Offre;
 import com.example.cinimana.repository.OffreRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +20,23 @@ public class OffreService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private com.example.cinimana.service.cache.CatalogueCacheService catalogueCache;
+
+    @Autowired
+    private JournalActiviteService journalActivite;
+
+    private OffreResponseDTO mapToDTO(Offre offre) {
+        return new OffreResponseDTO(
+                offre.getId(),
+                offre.getTitre(),
+                offre.getDescription(),
+                offre.getPrix(),
+                offre.getDateDebut(),
+                offre.getDateFin(),
+                offre.isActif());
+    }
+
     private void logHistory(Offre offre, com.example.cinimana.model.TypeOperation operation) {
         try {
             com.example.cinimana.model.Admin currentAdmin = userService.getCurrentAdmin();
@@ -28,6 +46,7 @@ public class OffreService {
             history.setOperation(operation);
             history.setDateOperation(java.time.LocalDateTime.now());
             historiqueOffreRepository.save(history);
+            journalActivite.enregistrer(history);
         } catch (Exception e) {
             // Log error but don't fail the main operation if history logging fails
             System.err.println("Failed to log offer history: " + e.getMessage());
@@ -52,6 +71,7 @@ public class OffreService {
 
     public Offre createOffre(Offre offre) {
         Offre savedOffre = offreRepository.save(offre);
+        catalogueCache.invalidateOffres();
         logHistory(savedOffre, com.example.cinimana.model.TypeOperation.CREATION);
         return savedOffre;
     }
@@ -65,6 +85,7 @@ public class OffreService {
         offre.setDateFin(offreDetails.getDateFin());
         offre.setActif(offreDetails.isActif());
         Offre updatedOffre = offreRepository.save(offre);
+        catalogueCache.invalidateOffres();
         logHistory(updatedOffre, com.example.cinimana.model.TypeOperation.MODIFICATION);
         return updatedOffre;
     }
@@ -73,6 +94,7 @@ public class OffreService {
         Offre offre = getOffreById(id);
         offre.setActif(false);
         offreRepository.save(offre);
+        catalogueCache.invalidateOffres();
         logHistory(offre, com.example.cinimana.model.TypeOperation.SUPPRESSION);
     }
 
@@ -80,6 +102,7 @@ public class OffreService {
         Offre offre = getOffreById(id);
         offre.setActif(true);
         offreRepository.save(offre);
+        catalogueCache.invalidateOffres();
         logHistory(offre, com.example.cinimana.model.TypeOperation.ACTIVATION);
     }
 //
@@ -90,8 +113,10 @@ public class OffreService {
      * @param date        Date de la séance (pour vérifier le jour de la semaine)
      * @return Liste des offres applicables
      */
-    public List<Offre> getApplicableOffers(int nbPersonnes, java.time.LocalDateTime date) {
-        List<Offre> activeOffres = offreRepository.findByActifTrue();
+    public List<OffreResponseDTO> getApplicableOffers(int nbPersonnes, java.time.LocalDateTime date) {
+        // Offres actives lues depuis le cache du catalogue (DTO immuables, jamais d'entité partagée)
+        List<OffreResponseDTO> activeOffres = catalogueCache.activeOffres().get("actives",
+                key -> offreRepository.findByActifTrue().stream().map(this::mapToDTO).toList());
 
         // Filtrage en mémoire pour l'instant (peut être déplacé en DB si complexe)
         return activeOffres.stream()
@@ -99,10 +124,10 @@ public class OffreService {
                 .collect(java.util.stream.Collectors.toList());
     }
 
-    private boolean isOffreApplicable(Offre offre, int nbPersonnes, java.time.LocalDateTime date) {
+    private boolean isOffreApplicable(OffreResponseDTO offre, int nbPersonnes, java.time.LocalDateTime date) {
         // Logique spécifique par titre/description (idéalement utiliserait un type
         // d'offre ou tags)
-        String titreLower = offre.getTitre().toLowerCase();
+        String titreLower = offre.titre().toLowerCase();
 
         // Offre Famille : 4 personnes
         if (titreLower.contains("famille") && nbPersonnes == 4) {
@@ -1,6 +1,7 @@
 package com.example.cinimana.service;
 
 import com.example.cinimana.model.Reservation;
+import com.example.cinimana.service.ticket.TicketTemplateRenderer;
 import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
@@ -13,6 +14,8 @@ import com.itextpdf.layout.element.*;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
@@ -23,7 +26,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PDFService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PDFService.class);
+
     private final QRCodeService qrCodeService;
+    private final TicketTemplateRenderer ticketTemplateRenderer;
 
     private static final DeviceRgb RED_COLOR = new DeviceRgb(220, 38, 38); // Rouge Cinémana
     private static final DeviceRgb DARK_RED = new DeviceRgb(153, 27, 27);
@@ -32,9 +38,23 @@ public class PDFService {
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
 
     /**
-     * Génère un PDF de billet de réservation "Premium Edition"
+     * Génère un PDF de billet de réservation "Premium Edition" à partir du gabarit pré-compilé
      */
     public byte[] generateReservationTicket(Reservation reservation) {
+        try {
+            return ticketTemplateRenderer.render(reservation);
+        } catch (Exception e) {
+            logger.warn("⚠️ Rendu par gabarit impossible pour {}, mise en page complète: {}",
+                    reservation.getCodeReservation(), e.getMessage());
+            return generateFlowLayoutTicket(reservation);
+        }
+    }
+
+    /**
+     * Mise en page complète du billet (tous les éléments recalculés à chaque appel).
+     * Conservée comme solution de repli et comme référence pour le benchmark du gabarit.
+     */
+    public byte[] generateFlowLayoutTicket(Reservation reservation) {
         try {
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream(); // Create OutputStream
             PdfWriter writer = new PdfWriter(outputStream); // Create PDF Writer
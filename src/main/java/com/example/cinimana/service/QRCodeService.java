@@ -1,19 +1,32 @@
 package com.example.cinimana.service;
 
-import com.google.zxing.BarcodeFormat;
+import com.example.cinimana.service.cache.TtlCache;
+import com.example.cinimana.service.qr.QrMatrix;
+import com.example.cinimana.service.qr.QrPngEncoder;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.Base64;
+import java.util.List;
 
+/**
+ * Génération des QR codes de réservation. La matrice de modules est calculée une fois par code
+ * et gardée en cache, de même que les derniers PNG produits : un billet re-téléchargé ou un
+ * écran caissier réaffiché ne ré-encode ni ne re-rastérise le même code.
+ */
 @Service
 public class QRCodeService {
 
+    private final TtlCache<String, QrMatrix> matrices;
+    private final TtlCache<String, byte[]> pngs;
+
+    public QRCodeService(@Value("${app.cache.qr.max-size:2000}") int maxSize,
+                         @Value("${app.cache.qr.ttl-seconds:3600}") long ttlSeconds) {
+        this.matrices = new TtlCache<>("qr.matrices", maxSize, ttlSeconds);
+        this.pngs = new TtlCache<>("qr.png", maxSize, ttlSeconds);
+    }
+
     /**
      * Génère un QR code à partir d'un code de réservation
      *
@@ -23,23 +36,7 @@ public class QRCodeService {
      * @return QR code en format Base64 (pour affichage direct ou PDF)
      */
     public String generateQRCode(String codeReservation, int width, int height) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode( // Génération de la matrice du QR code
-                    codeReservation, // Contenu du QR code
-                    BarcodeFormat.QR_CODE, // Format du code
-                    width,
-                    height);
-
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(); // Flux de sortie pour stocker l'image
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream); // Écriture de l'image PNG dans le flux
-            byte[] qrCodeBytes = outputStream.toByteArray(); // Récupération des bytes de l'image
-
-            return Base64.getEncoder().encodeToString(qrCodeBytes); //L’image est encodée en Base64 pour lenvoyer facilement via api
-
-        } catch (WriterException | IOException e) {
-            throw new RuntimeException("Erreur lors de la génération du QR code", e);
-        }
+        return Base64.getEncoder().encodeToString(png(codeReservation, width, height)); //L’image est encodée en Base64 pour lenvoyer facilement via api
     }
 
     /**
@@ -50,23 +47,33 @@ public class QRCodeService {
     }
 
     /**
-     * Génère un QR code et retourne les bytes directement (pour PDF)
+     * Génère un QR code et retourne les bytes directement (pour PDF).
+     * Copie du PNG en cache : l'appelant peut la modifier sans altérer les billets suivants.
      */
     public byte[] generateQRCodeBytes(String codeReservation, int width, int height) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(
-                    codeReservation,
-                    BarcodeFormat.QR_CODE,
-                    width,
-                    height);
+        return png(codeReservation, width, height).clone();
+    }
+
+    // PNG partagé par le cache : lecture seule
+    private byte[] png(String codeReservation, int width, int height) {
+        return pngs.get(codeReservation + '|' + width + 'x' + height,
+                key -> QrPngEncoder.encode(getMatrix(codeReservation), width, height));
+    }
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-            return outputStream.toByteArray();
+    /**
+     * Modules du QR code (pour un tracé vectoriel)
+     */
+    public QrMatrix getMatrix(String codeReservation) {
+        return matrices.get(codeReservation, code -> {
+            try {
+                return QrMatrix.encode(code);
+            } catch (WriterException e) {
+                throw new RuntimeException("Erreur lors de la génération du QR code", e);
+            }
+        });
+    }
 
-        } catch (WriterException | IOException e) {
-            throw new RuntimeException("Erreur lors de la génération du QR code", e);
-        }
+    public List<TtlCache.Stats> stats() {
+        return List.of(matrices.stats(), pngs.stats());
     }
 }
@@ -0,0 +1,264 @@
+package com.example.cinimana.service;
+
+import com.example.cinimana.model.Reservation;
+import com.example.cinimana.model.ReservationOutbox;
+import com.example.cinimana.model.StatutOutbox;
+import com.example.cinimana.model.StatutReservation;
+import com.example.cinimana.repository.ReservationOutboxRepository;
+import com.example.cinimana.repository.ReservationRepository;
+import com.example.cinimana.service.ticket.TicketStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finalisation des réservations hors transaction : génération du billet PDF, écriture sur disque
+ * et envoi de l'email. La réservation enregistre une ligne d'outbox, traitée après le commit par
+ * un pool de workers borné, avec nouvel essai (backoff exponentiel) en cas d'échec SMTP ou PDF.
+ * Une tâche prise en charge porte un bail (instance, expiration) prolongé tant que le worker
+ * travaille : seule une tâche dont le bail a expiré est reprise. L'envoi est noté (envoye_le)
+ * avant la clôture, un nouvel essai ne renvoie donc pas l'email.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationFulfilmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationFulfilmentService.class);
+
+    private final ReservationOutboxRepository outboxRepository;
+    private final ReservationRepository reservationRepository;
+    private final TicketStore ticketStore;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.fulfilment.workers:4}")
+    private int workers;
+
+    @Value("${app.fulfilment.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${app.fulfilment.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.fulfilment.backoff-seconds:30}")
+    private long backoffSeconds;
+
+    @Value("${app.fulfilment.lease-seconds:120}")
+    private long leaseSeconds;
+
+    // Identifiant de l'instance (pid@hôte) inscrit dans verrouille_par
+    private final String worker = ManagementFactory.getRuntimeMXBean().getName();
+    // Tâches en cours dans cette instance, dont le bail est prolongé
+    private final Set<Long> enCours = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Données nécessaires à l'email, extraites dans la transaction de génération du billet
+     */
+    private record TicketMail(String email, String clientName, String filmTitle, String seanceDateTime,
+                              String codeReservation, byte[] pdf) {
+    }
+
+    private static final TicketMail DEJA_ENVOYE = new TicketMail(null, null, null, null, null, null);
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        // File bornée : si elle est pleine, la tâche reste en BDD et sera reprise par le poller
+        executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "reservation-fulfilment-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * À appeler dans la transaction de réservation : la finalisation démarre après le commit
+     */
+    public void enqueue(Reservation reservation) {
+        ReservationOutbox outbox = new ReservationOutbox();
+        outbox.setReservationId(reservation.getId());
+        Long outboxId = outboxRepository.save(outbox).getId();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(outboxId);
+                }
+            });
+        } else {
+            submit(outboxId);
+        }
+    }
+
+    /**
+     * Reprend les tâches dues : nouveaux essais, file pleine, redémarrage de l'application
+     */
+    @Scheduled(fixedDelayString = "${app.fulfilment.poll-ms:30000}")
+    public void pollPending() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer stale = transactionTemplate.execute(status -> outboxRepository.releaseStale(now));
+        if (stale != null && stale > 0) {
+            logger.warn("⚠️ {} finalisation(s) interrompue(s) (bail expiré) remise(s) en file", stale);
+        }
+
+        List<Long> due = outboxRepository.findDueIds(now, PageRequest.of(0, queueCapacity));
+        due.forEach(this::submit);
+    }
+
+    /**
+     * Battement de cœur : prolonge le bail des tâches en cours dans cette instance
+     */
+    @Scheduled(fixedDelayString = "${app.fulfilment.heartbeat-ms:30000}")
+    public void heartbeat() {
+        if (enCours.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(enCours);
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.prolonger(ids, worker, LocalDateTime.now().plusSeconds(leaseSeconds)));
+    }
+
+    private void submit(Long outboxId) {
+        try {
+            executor.execute(() -> process(outboxId));
+        } catch (RejectedExecutionException e) {
+            logger.warn("File de finalisation pleine, tâche {} reprise au prochain passage", outboxId);
+        }
+    }
+
+    private void process(Long outboxId) {
+        LocalDateTime now = LocalDateTime.now();
+        ReservationOutbox outbox = transactionTemplate.execute(status ->
+                outboxRepository.claim(outboxId, worker, now, now.plusSeconds(leaseSeconds)) == 1
+                        ? outboxRepository.findById(outboxId).orElse(null)
+                        : null);
+        if (outbox == null) {
+            return; // Déjà pris en charge par un autre worker
+        }
+
+        enCours.add(outboxId);
+        try {
+            TicketMail mail = renderTicket(outboxId, outbox.getReservationId());
+            if (mail != null && mail != DEJA_ENVOYE) {
+                // Bail perdu (expiré puis repris ailleurs) : l'autre worker se charge de l'envoi
+                Integer detenu = transactionTemplate.execute(status -> outboxRepository.prolonger(
+                        List.of(outboxId), worker, LocalDateTime.now().plusSeconds(leaseSeconds)));
+                if (detenu == null || detenu == 0) {
+                    logger.warn("⚠️ Bail perdu pour la finalisation {}, envoi abandonné", outboxId);
+                    return;
+                }
+                // Envoi SMTP hors transaction : aucune connexion BDD retenue pendant l'envoi
+                emailService.sendReservationSuccessEmailWithAttachment(mail.email(), mail.clientName(),
+                        mail.filmTitle(), mail.seanceDateTime(), mail.codeReservation(), mail.pdf());
+                transactionTemplate.executeWithoutResult(status ->
+                        outboxRepository.marquerEnvoye(outboxId, LocalDateTime.now()));
+            }
+            markDone(outboxId);
+        } catch (Exception e) {
+            markFailed(outboxId, e);
+        } finally {
+            enCours.remove(outboxId);
+        }
+    }
+
+    /**
+     * Génère le billet au besoin (une seule fois, même en cas de nouvel essai de l'email).
+     * La réservation est lue dans une transaction courte, le PDF est rendu hors transaction.
+     */
+    private TicketMail renderTicket(Long outboxId, Long reservationId) {
+        if (outboxRepository.findById(outboxId).map(ReservationOutbox::getEnvoyeLe).isPresent()) {
+            return DEJA_ENVOYE; // Email parti lors d'un essai précédent, seule la clôture manquait
+        }
+        Reservation reservation = transactionTemplate.execute(status -> reservationRepository.findById(reservationId)
+                .map(r -> {
+                    org.hibernate.Hibernate.initialize(r.getSieges()); // Sièges imprimés sur le billet
+                    return r;
+                })
+                .orElse(null));
+        if (reservation == null || reservation.getStatut() == StatutReservation.ANNULEE) {
+            return null; // Rien à envoyer
+        }
+
+        byte[] pdfContent = ticketStore.readOrRender(reservation);
+
+        String clientName = reservation.getClient().getPrenom() + " " + reservation.getClient().getNom();
+        String seanceDateTime = reservation.getSeance().getDateHeure()
+                .format(DateTimeFormatter.ofPattern("dd MMMM yyyy 'à' HH:mm"));
+
+        return new TicketMail(reservation.getClient().getEmail(), clientName,
+                reservation.getSeance().getFilm().getTitre(), seanceDateTime,
+                reservation.getCodeReservation(), pdfContent);
+    }
+
+    private void markDone(Long outboxId) {
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.findById(outboxId)
+                .filter(this::detenu)
+                .ifPresent(o -> {
+                    o.setStatut(StatutOutbox.TRAITE);
+                    o.setVerrouillePar(null);
+                    o.setTentatives(o.getTentatives() + 1);
+                    o.setDateTraitement(LocalDateTime.now());
+                    o.setDerniereErreur(null);
+                }));
+    }
+
+    private void markFailed(Long outboxId, Exception e) {
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.findById(outboxId)
+                .filter(this::detenu)
+                .ifPresent(o -> {
+                    o.setVerrouillePar(null);
+                    int tentatives = o.getTentatives() + 1;
+                    o.setTentatives(tentatives);
+                    String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    o.setDerniereErreur(message.length() > 1000 ? message.substring(0, 1000) : message);
+
+                    if (tentatives >= maxAttempts) {
+                        o.setStatut(StatutOutbox.ECHEC);
+                        logger.error("❌ Finalisation de la réservation {} abandonnée après {} tentatives: {}",
+                                o.getReservationId(), tentatives, message);
+                    } else {
+                        // 30s, 1min, 2min, 4min... plafonné à 1h
+                        long delay = Math.min(backoffSeconds << (tentatives - 1), 3600);
+                        o.setStatut(StatutOutbox.EN_ATTENTE);
+                        o.setProchaineTentative(LocalDateTime.now().plusSeconds(delay));
+                        logger.warn("⚠️ Finalisation de la réservation {} en échec (tentative {}), nouvel essai dans {}s: {}",
+                                o.getReservationId(), tentatives, delay, message);
+                    }
+                }));
+    }
+
+    // Une tâche reprise par une autre instance après expiration du bail n'est pas clôturée ici
+    private boolean detenu(ReservationOutbox outbox) {
+        return outbox.getStatut() == StatutOutbox.EN_COURS && worker.equals(outbox.getVerrouillePar());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -5,8 +5,11 @@ import com.example.cinimana.dto.request.SiegeRequest;
 
 import com.example.cinimana.model.*;
 import com.example.cinimana.repository.*;
+import com.example.cinimana.service.seat.SeatHoldService;
+import com.example.cinimana.service.seat.SeatMapService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,8 +29,12 @@ public class ReservationService {
 
     private final SiegeReserveRepository siegeReserveRepository;
 
-    private final EmailService emailService;
-    private final PDFService pdfService;
+    private final SeatMapService seatMapService;
+    private final SeatHoldService seatHoldService;
+
+    private final ReservationFulfilmentService fulfilmentService;
+    private final SeanceOccupationService occupationService;
+    private final JournalActiviteService journalActivite;
 
     @Value("${app.frontend.url:http://localhost:5173}")
     private String frontendUrl;
@@ -48,16 +55,16 @@ public class ReservationService {
                     "Les réservations ne sont plus possibles pour cette séance (délai de 3h dépassé)");
         }
 
-        // 3. Valider la disponibilité des sièges
-        for (SiegeRequest siegeReq : request.getSieges()) {
-            boolean isReserved = siegeReserveRepository.isSeatReserved(
-                    seance.getId(),
-                    siegeReq.getRangee(),
-                    siegeReq.getNumero());
-            if (isReserved) {
-                throw new RuntimeException("Le siège Rangée " + siegeReq.getRangee() + " Numéro " + siegeReq.getNumero()
-                        + " est déjà réservé");
-            }
+        int nombreSieges = request.getSieges() != null ? request.getSieges().size() : 0;
+        seatHoldService.verifierNombreSieges(Math.max(nombreSieges,
+                request.getNombrePlaces() != null ? request.getNombrePlaces() : 0));
+
+        // 3. Réserver les sièges dans le plan de salle en mémoire (tout-ou-rien, sans requête par siège).
+        // Si le client a un panier, ses sièges sont déjà posés. Ils sont relâchés si la transaction échoue.
+        if (request.getHoldId() != null && !request.getHoldId().isBlank()) {
+            seatHoldService.consume(request.getHoldId(), clientEmail, seance.getId(), request.getSieges());
+        } else {
+            seatMapService.claim(seance, request.getSieges());
         }
 
         // 4. Créer la réservation
@@ -103,67 +110,80 @@ public class ReservationService {
 
         reservation.setMontantTotal(montantTotalSpectateurs);
 
-        // Sauvegarder la réservation pour générer l'ID et le Code UUID
+        // Sauvegarder la réservation pour générer l'ID et le code (voir CodeReservation)
+        occupationService.beforeCreate(seance.getId());
         reservation = reservationRepository.save(reservation);
+        occupationService.afterCreate(reservation);
+        journalActivite.enregistrer(reservation);
 
-        // 7. Sauvegarder les sièges
-        List<SiegeReserve> sieges = new ArrayList<>();
+        // 7. Contrôle BDD de tous les sièges en une requête (filet de sécurité si le plan en mémoire
+        // n'est pas à jour, ex: plusieurs instances), puis insertion groupée en un seul batch JDBC
+        checkSeatsStillFree(seance.getId(), request.getSieges());
+
+        List<SiegeReserve> sieges = new ArrayList<>(request.getSieges().size());
         for (SiegeRequest siegeReq : request.getSieges()) {
             SiegeReserve siege = new SiegeReserve();
             siege.setReservation(reservation);
             siege.setRangee(siegeReq.getRangee());
             siege.setNumero(siegeReq.getNumero());
-            sieges.add(siegeReserveRepository.save(siege));
+            siege.setSeance(seance);
+            siege.setActif(true);
+            sieges.add(siege);
+        }
+        try {
+            // Flush immédiat : l'index unique (seance_id, rangee, numero, actif) refuse une double réservation
+            sieges = siegeReserveRepository.saveAllAndFlush(sieges);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Un ou plusieurs sièges sélectionnés viennent d'être réservés");
         }
         reservation.setSieges(sieges);
 
 
 
-        // 9. Générer URL PDF et STOCKER LE CONTENU PDF EN BASE
+        // 9. URL du billet (servi à la volée tant que le fichier n'est pas encore généré)
         reservation.setTicketPdfUrl("/api/client/reservations/" + reservation.getCodeReservation() + "/ticket.pdf");
+        reservation = reservationRepository.save(reservation);
 
-        // Générer le PDF maintenant
-        byte[] pdfContent = null;
-        try {
-            pdfContent = pdfService.generateReservationTicket(reservation);
+        // 10. Billet PDF, stockage disque et email traités après le commit (outbox + workers)
+        fulfilmentService.enqueue(reservation);
 
-            // Définir le répertoire de stockage
-            String uploadDir = "tickets";
-            java.nio.file.Path uploadPath = java.nio.file.Paths.get(uploadDir); // relatif au répertoire de travail
-            if (!java.nio.file.Files.exists(uploadPath)) {
-                java.nio.file.Files.createDirectories(uploadPath); // Créer le répertoire s'il n'existe pas
-            }
+        return reservation;
+    }
 
-            // Nom du fichier unique
-            String fileName = "ticket_" + reservation.getCodeReservation() + ".pdf";
-            java.nio.file.Path filePath = uploadPath.resolve(fileName); // Chemin complet du fichier
+    // Tous les sièges demandés vérifiés en une requête, sur les paires (rangée, numéro) exactes
+    private void checkSeatsStillFree(Long seanceId, List<SiegeRequest> demandes) {
+        if (demandes == null || demandes.isEmpty()) {
+            return;
+        }
+        siegeReserveRepository.findAll(SiegeReserveSpecifications.reservesParmi(seanceId, demandes)).stream()
+                .findFirst()
+                .ifPresent(reserve -> {
+                    throw new RuntimeException("Le siège Rangée " + reserve.getRangee() + " Numéro "
+                            + reserve.getNumero() + " est déjà réservé");
+                });
+    }
 
-            // Écriture du fichier sur le disque
-            java.nio.file.Files.write(filePath, pdfContent);
+    /**
+     * Pose temporairement des sièges (panier) le temps que le client finalise sa réservation
+     */
+    @Transactional(readOnly = true)
+    public SeatHoldService.SeatHold holdSeats(String clientEmail, Long seanceId, List<SiegeRequest> sieges) {
+        clientRepository.findByEmail(clientEmail)
+                .orElseThrow(() -> new RuntimeException("Client non trouvé"));
 
-            // Stocker le chemin relatif dans la base
-            reservation.setTicketPdfPath(filePath.toString());
+        Seance seance = seanceRepository.findById(seanceId)
+                .orElseThrow(() -> new RuntimeException("Séance non trouvée"));
 
-        } catch (Exception e) {
-            throw new RuntimeException("Erreur lors de la génération/stockage du PDF: " + e.getMessage(), e);
+        if (seance.getDateHeure().isBefore(LocalDateTime.now().plusHours(3))) {
+            throw new RuntimeException(
+                    "Les réservations ne sont plus possibles pour cette séance (délai de 3h dépassé)");
         }
 
-        reservation = reservationRepository.save(reservation);
-
-        // 10. Envoyer email de succès avec le billet PDF en pièce jointe
-        String clientName = client.getPrenom() + " " + client.getNom();
-        String seanceDateTime = seance.getDateHeure()
-                .format(java.time.format.DateTimeFormatter.ofPattern("dd MMMM yyyy 'à' HH:mm"));
-
-        emailService.sendReservationSuccessEmailWithAttachment(
-                client.getEmail(),
-                clientName,
-                seance.getFilm().getTitre(),
-                seanceDateTime,
-                reservation.getCodeReservation(),
-                pdfContent);
+        return seatHoldService.hold(clientEmail, seance, sieges);
+    }
 
-        return reservation;
+    public void releaseHold(String clientEmail, String holdId) {
+        seatHoldService.release(holdId, clientEmail);
     }
 
     @Transactional
@@ -181,7 +201,7 @@ public class ReservationService {
             throw new RuntimeException("Cette réservation est déjà confirmée.");
         }
 
-        reservation.setStatut(StatutReservation.CONFIRMEE_CLIENT);
+        occupationService.changerStatut(reservation, StatutReservation.CONFIRMEE_CLIENT);
         reservation.setDateConfirmationClient(LocalDateTime.now());
         reservationRepository.save(reservation);
     }
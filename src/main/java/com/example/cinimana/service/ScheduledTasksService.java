@@ -1,20 +1,24 @@
 package com.example.cinimana.service;
 
-import com.example.cinimana.model.Reservation;
-import com.example.cinimana.model.StatutReservation;
 import com.example.cinimana.repository.ReservationRepository;
 import com.example.cinimana.repository.OffreRepository;
-import com.example.cinimana.model.Offre;
+import com.example.cinimana.repository.SiegeReserveRepository;
+import com.example.cinimana.service.email.EmailDispatchService;
+import com.example.cinimana.service.event.OffresDesactiveesEvent;
+import com.example.cinimana.service.event.ReservationAnnulee;
+import com.example.cinimana.service.event.ReservationsAnnuleesEvent;
+import com.example.cinimana.service.event.SiegeLibere;
+import com.example.cinimana.service.job.BulkUpdateJobRunner;
+import com.example.cinimana.service.ticket.TicketStore;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @Service
@@ -22,21 +26,20 @@ import java.util.List;
 public class ScheduledTasksService {
     //
     private static final Logger logger = LoggerFactory.getLogger(ScheduledTasksService.class);
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd MMMM yyyy à HH:mm");
 
     private final ReservationRepository reservationRepository;
+    private final SiegeReserveRepository siegeReserveRepository;
     private final OffreRepository offreRepository;
-    private final EmailService emailService;
-
-    @Value("${app.frontend.url:http://localhost:5173}")
-    private String frontendUrl;
+    private final EmailDispatchService emailDispatchService;
+    private final TicketStore ticketStore;
+    private final BulkUpdateJobRunner jobRunner;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Tâche planifiée : Envoyer les emails de confirmation 3h avant la séance
      * S'exécute toutes les 10 minutes
      */
     @Scheduled(fixedRate = 600000) // 10 minutes = 600000 ms
-    @Transactional
     public void sendConfirmationEmails() {
         logger.info("🔄 Démarrage de la tâche d'envoi d'emails de confirmation...");
 
@@ -44,50 +47,11 @@ public class ScheduledTasksService {
         LocalDateTime threeHoursLater = now.plusHours(3);
         LocalDateTime threeHoursAndTenMinutesLater = now.plusHours(3).plusMinutes(10);
 
-        // Trouver les réservations dont la séance commence dans 3h (±10 min)
-        List<Reservation> reservations = reservationRepository
-                .findReservationsNeedingConfirmationEmail(threeHoursLater, threeHoursAndTenMinutesLater);
-
-        logger.info("📧 {} réservation(s) nécessitent un email de confirmation", reservations.size());
-
-        int successCount = 0;
-        int errorCount = 0;
-
-        for (Reservation reservation : reservations) {
-            try {
-                // Construire le lien de confirmation
-                String confirmationLink = String.format(
-                        "%s/client/reservations/confirm/%s",
-                        frontendUrl,
-                        reservation.getCodeReservation());
-
-                // Envoyer l'email
-                String clientName = reservation.getClient().getPrenom() + " " + reservation.getClient().getNom();
-                emailService.sendReservationConfirmationEmail(
-                        reservation.getClient().getEmail(),
-                        clientName,
-                        reservation.getSeance().getFilm().getTitre(),
-                        reservation.getSeance().getDateHeure().format(DATE_TIME_FORMATTER),
-                        reservation.getSeance().getSalle().getNom(),
-                        reservation.getNombrePlace(),
-                        reservation.getCodeReservation(),
-                        confirmationLink);
-
-                // Mettre à jour la date d'envoi de l'email
-                reservation.setDateConfirmationEmail(now);
-                reservationRepository.save(reservation);
-
-                successCount++;
-                logger.info("✅ Email envoyé pour réservation: {}", reservation.getCodeReservation());
-
-            } catch (Exception e) {
-                errorCount++;
-                logger.error("❌ Erreur envoi email pour réservation {}: {}",
-                        reservation.getCodeReservation(), e.getMessage());
-            }
-        }
+        // Mise en file des réservations dont la séance commence dans 3h (±10 min) ;
+        // l'envoi se fait en arrière-plan (EmailDispatchService)
+        int enFile = emailDispatchService.enfilerRappels(threeHoursLater, threeHoursAndTenMinutesLater);
 
-        logger.info("✅ Tâche terminée: {} succès, {} erreurs", successCount, errorCount);
+        logger.info("📧 {} email(s) de confirmation mis en file d'envoi", enFile);
     }
 
     /**
@@ -95,44 +59,20 @@ public class ScheduledTasksService {
      * S'exécute toutes les 5 minutes
      */
     @Scheduled(fixedRate = 300000) // 5 minutes = 300000 ms
-    @Transactional
     public void cancelUnconfirmedReservations() {
         logger.info("🔄 Démarrage de la tâche d'annulation des réservations non confirmées...");
 
+        // Email envoyé il y a plus d'1h et réservation non confirmée par le client
         LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
 
-        // Trouver les réservations dont l'email a été envoyé il y a plus d'1h
-        // et qui n'ont pas été confirmées par le client
-        List<Reservation> reservationsToCancel = reservationRepository
-                .findReservationsToCancel(oneHourAgo);
-
-        logger.info("🚫 {} réservation(s) à annuler", reservationsToCancel.size());
-
-        int cancelledCount = 0;
+        long cancelled = jobRunner.run("annulation-non-confirmees",
+                limite -> annulerLot(reservationRepository.lockReservationsToCancel(oneHourAgo, limite)));
 
-        for (Reservation reservation : reservationsToCancel) {
-            try {
-                reservation.setStatut(StatutReservation.ANNULEE);
-                reservationRepository.save(reservation);
-
-                cancelledCount++;
-                logger.info("🚫 Réservation annulée: {} (non confirmée dans le délai)",
-                        reservation.getCodeReservation());
-
-                // Optionnel : Envoyer un email d'annulation au client
-                // emailService.sendCancellationEmail(...);
-
-            } catch (Exception e) {
-                logger.error("❌ Erreur annulation réservation {}: {}",
-                        reservation.getCodeReservation(), e.getMessage());
-            }
-        }
-
-        logger.info("✅ Tâche terminée: {} réservation(s) annulée(s)", cancelledCount);
+        logger.info("✅ Tâche terminée: {} réservation(s) annulée(s)", cancelled);
     }
 
     /**
-     * Tâche planifiée : Nettoyer les anciens billets PDF du disque
+     * Tâche planifiée : Nettoyer les billets PDF expirés (d'après l'index ticket_fichier)
      * S'exécute tous les jours à 3h du matin
      */
     @Scheduled(cron = "0 0 3 * * *")
@@ -140,25 +80,10 @@ public class ScheduledTasksService {
         logger.info("🧹 Démarrage du nettoyage des anciens billets PDF sur le disque...");
 
         try {
-            java.nio.file.Path uploadPath = java.nio.file.Paths.get("tickets");
-            if (!java.nio.file.Files.exists(uploadPath))
-                return;
-
-            long now = System.currentTimeMillis();
-            long thirtyDaysMs = 30L * 24 * 60 * 60 * 1000;
-
-            java.nio.file.Files.list(uploadPath).forEach(path -> {
-                try {
-                    long lastModified = java.nio.file.Files.getLastModifiedTime(path).toMillis();
-                    if (now - lastModified > thirtyDaysMs) {
-                        java.nio.file.Files.delete(path);
-                        logger.info("🗑️ Billet supprimé (plus de 30 jours): {}", path.getFileName());
-                    }
-                } catch (Exception e) {
-                    logger.error("❌ Impossible de supprimer le fichier {}: {}", path, e.getMessage());
-                }
-            });
-
+            int deleted = ticketStore.purgeExpired();
+            if (deleted > 0) {
+                logger.info("🗑️ {} billet(s) expiré(s) supprimé(s)", deleted);
+            }
         } catch (Exception e) {
             logger.error("❌ Erreur lors du nettoyage du dossier tickets: {}", e.getMessage());
         }
@@ -190,26 +115,15 @@ public class ScheduledTasksService {
      * S'exécute toutes les 15 minutes
      */
     @Scheduled(fixedRate = 900000) // 15 minutes = 900000 ms
-    @Transactional
     public void cancelNoShowReservations() {
         logger.info("🔄 Démarrage de la tâche d'annulation des No-Shows (30 min après début)...");
 
         LocalDateTime threshold = LocalDateTime.now().minusMinutes(30);
 
-        List<Reservation> noShows = reservationRepository.findNoShowReservations(threshold);
+        long cancelled = jobRunner.run("annulation-no-show",
+                limite -> annulerLot(reservationRepository.lockNoShowReservations(threshold, limite)));
 
-        if (!noShows.isEmpty()) {
-            logger.info("🚫 {} réservation(s) No-Show détectée(s)", noShows.size());
-            for (Reservation reservation : noShows) {
-                reservation.setStatut(StatutReservation.ANNULEE);
-                reservationRepository.save(reservation);
-                logger.info("🚫 Réservation {} annulée (No-Show pour séance de {})",
-                        reservation.getCodeReservation(),
-                        reservation.getSeance().getDateHeure());
-            }
-        }
-
-        logger.info("✅ Tâche No-Show terminée");
+        logger.info("✅ Tâche No-Show terminée: {} réservation(s) annulée(s)", cancelled);
     }
 
     /**
@@ -217,21 +131,36 @@ public class ScheduledTasksService {
      * S'exécute chaque jour à minuit
      */
     @Scheduled(cron = "0 0 0 * * *")
-    @Transactional
     public void deactivateExpiredOffres() {
         java.time.LocalDate today = java.time.LocalDate.now();
         logger.info("🔄 Vérification des offres expirées... Date: {}", today);
 
-        List<Offre> expiredOffres = offreRepository.findByActifTrueAndDateFinBefore(today);
-
-        if (!expiredOffres.isEmpty()) {
-            logger.info("🚫 {} offre(s) expirée(s) détectée(s)", expiredOffres.size());
-            for (Offre offre : expiredOffres) {
-                offre.setActif(false);
-                offreRepository.save(offre);
-                logger.info("🚫 Offre '{}' (ID: {}) désactivée", offre.getTitre(), offre.getId());
+        jobRunner.run("desactivation-offres", limite -> {
+            List<Long> ids = offreRepository.lockExpiredIds(today, limite);
+            if (ids.isEmpty()) {
+                return 0;
             }
-            offreRepository.flush();
+            offreRepository.desactiverParIds(ids, LocalDateTime.now());
+            eventPublisher.publishEvent(new OffresDesactiveesEvent(ids));
+            return ids.size();
+        });
+    }
+
+    /**
+     * Annule un lot de réservations verrouillées : UPDATE ensembliste des réservations et de leurs sièges,
+     * puis événement pour les compteurs d'occupation, les statistiques et les plans de salle
+     */
+    private int annulerLot(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
         }
+        List<ReservationAnnulee> reservations = reservationRepository.findAnnulables(ids);
+        List<SiegeLibere> sieges = siegeReserveRepository.findActifsByReservationIds(ids);
+
+        reservationRepository.annulerParIds(ids, LocalDateTime.now());
+        siegeReserveRepository.desactiverByReservationIds(ids);
+
+        eventPublisher.publishEvent(new ReservationsAnnuleesEvent(reservations, sieges));
+        return ids.size();
     }
 }
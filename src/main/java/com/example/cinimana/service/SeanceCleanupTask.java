@@ -1,13 +1,14 @@
 package com.example.cinimana.service;
 
-import com.example.cinimana.model.Seance;
 import com.example.cinimana.repository.SeanceRepository;
+import com.example.cinimana.service.event.SeancesDesactiveesEvent;
+import com.example.cinimana.service.job.BulkUpdateJobRunner;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,25 +22,27 @@ public class SeanceCleanupTask {
 
     private static final Logger logger = LoggerFactory.getLogger(SeanceCleanupTask.class);
     private final SeanceRepository seanceRepository;
+    private final BulkUpdateJobRunner jobRunner;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Désactive les séances qui ont déjà commencé.
+     * Désactive les séances qui ont déjà commencé, par lots (UPDATE ensembliste, un commit par lot).
      * S'exécute toutes les 5 minutes (300 000 ms).
      */
     @Scheduled(fixedRate = 300000) // Toutes les 5 minutes
-    @Transactional
     public void deactivateExpiredSeances() {
         LocalDateTime now = LocalDateTime.now();
         logger.debug("Vérification des séances expirées à {}", now);
 
-        List<Seance> expiredSeances = seanceRepository.findByActifTrueAndDateHeureBefore(now);
-
-        if (!expiredSeances.isEmpty()) {
-            logger.info("Désactivation de {} séances expirées", expiredSeances.size());
-            for (Seance seance : expiredSeances) {
-                seance.setActif(false);
+        // Cache du catalogue et plans de salle mis à jour par les écouteurs de SeancesDesactiveesEvent
+        jobRunner.run("desactivation-seances", limite -> {
+            List<Long> ids = seanceRepository.lockExpiredIds(now, limite);
+            if (ids.isEmpty()) {
+                return 0;
             }
-            seanceRepository.saveAll(expiredSeances);
-        }
+            seanceRepository.desactiverParIds(ids, now);
+            eventPublisher.publishEvent(new SeancesDesactiveesEvent(ids));
+            return ids.size();
+        });
     }
 }
@@ -0,0 +1,282 @@
+package com.example.cinimana.service;
+
+import com.example.cinimana.model.Reservation;
+import com.example.cinimana.model.SeanceOccupation;
+import com.example.cinimana.model.StatutReservation;
+import com.example.cinimana.repository.ReservationRepository;
+import com.example.cinimana.repository.SeanceOccupationRepository;
+import com.example.cinimana.service.event.ReservationAnnulee;
+import com.example.cinimana.service.event.ReservationsAnnuleesEvent;
+import com.example.cinimana.service.event.StatutReservationModifie;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compteurs d'occupation matérialisés par séance (places réservées, en attente, validées, revenu).
+ * Chaque changement de statut d'une réservation applique un delta dans la même transaction ;
+ * la lecture se fait par clé primaire, sans agrégat sur les réservations. Les agrégats des dashboards
+ * (StatistiqueReservationService) suivent les mêmes transitions, publiées aussi en événement
+ * (StatutReservationModifie) pour les index en mémoire.
+ */
+@Service
+@RequiredArgsConstructor
+public class SeanceOccupationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeanceOccupationService.class);
+
+    private final SeanceOccupationRepository occupationRepository;
+    private final ReservationRepository reservationRepository;
+    private final StatistiqueReservationService statistiqueService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * À appeler avant d'enregistrer une nouvelle réservation
+     */
+    @Transactional
+    public void beforeCreate(Long seanceId) {
+        ensureInitialized(seanceId);
+    }
+
+    /**
+     * À appeler une fois la nouvelle réservation enregistrée
+     */
+    @Transactional
+    public void afterCreate(Reservation reservation) {
+        applyTransition(reservation, null, reservation.getStatut());
+    }
+
+    /**
+     * Change le statut d'une réservation et met à jour les compteurs de sa séance
+     */
+    @Transactional
+    public void changerStatut(Reservation reservation, StatutReservation nouveau) {
+        ensureInitialized(reservation.getSeance().getId());
+
+        StatutReservation ancien = reservation.getStatut();
+        if (nouveau == StatutReservation.ANNULEE) {
+            reservation.annuler();
+        } else {
+            reservation.setStatut(nouveau);
+        }
+        applyTransition(reservation, ancien, nouveau);
+    }
+
+    /**
+     * Met à jour les compteurs d'une réservation dont le statut a déjà été changé en BDD
+     * (UPDATE conditionnel, ex. validation à l'entrée)
+     */
+    @Transactional
+    public void enregistrerTransition(Reservation reservation, StatutReservation ancien, StatutReservation nouveau) {
+        ensureInitialized(reservation.getSeance().getId());
+        applyTransition(reservation, ancien, nouveau);
+    }
+
+    /**
+     * Annulations de masse : un delta par séance, dans la transaction du lot.
+     * Une séance sans ligne de compteur n'est pas touchée (UPDATE sans effet) : elle est calculée
+     * à la lecture depuis les réservations, déjà à jour.
+     */
+    @EventListener
+    public void onReservationsAnnulees(ReservationsAnnuleesEvent event) {
+        Map<Long, double[]> deltas = new HashMap<>(); // [réservées, en attente, validées, revenu]
+        for (ReservationAnnulee r : event.reservations()) {
+            int places = r.nombrePlace() != null ? r.nombrePlace() : 0;
+            double[] delta = deltas.computeIfAbsent(r.seanceId(), id -> new double[4]);
+            if (actif(r.ancienStatut())) {
+                delta[0] -= places;
+            }
+            if (enAttente(r.ancienStatut())) {
+                delta[1] -= places;
+            }
+            if (r.ancienStatut() == StatutReservation.VALIDEE) {
+                delta[2] -= places;
+                delta[3] -= r.montantTotal() != null ? r.montantTotal() : 0.0;
+            }
+        }
+        deltas.forEach((seanceId, d) -> occupationRepository.applyDelta(seanceId,
+                (int) d[0], (int) d[1], (int) d[2], d[3]));
+    }
+
+    @Transactional(readOnly = true)
+    public SeanceOccupation getOccupation(Long seanceId) {
+        return getOccupations(List.of(seanceId)).get(seanceId);
+    }
+
+    /**
+     * Compteurs de plusieurs séances en une requête.
+     * Les séances sans compteur (jamais modifiées depuis la mise en place) sont calculées en un seul agrégat ;
+     * leur ligne est créée au prochain changement de statut ou par la réconciliation.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, SeanceOccupation> getOccupations(Collection<Long> seanceIds) {
+        Map<Long, SeanceOccupation> result = new HashMap<>();
+        if (seanceIds.isEmpty()) {
+            return result;
+        }
+        occupationRepository.findAllById(seanceIds).forEach(o -> result.put(o.getSeanceId(), o));
+
+        Set<Long> missing = new HashSet<>(seanceIds);
+        missing.removeAll(result.keySet());
+        if (!missing.isEmpty()) {
+            Map<Long, SeanceOccupation> computed = compute(missing);
+            missing.forEach(id -> result.put(id, computed.getOrDefault(id, empty(id))));
+        }
+        return result;
+    }
+
+    /**
+     * Réconciliation : recalcule les compteurs depuis les réservations et corrige les écarts.
+     * Un premier passage sans verrou repère les séances en écart ; chacune est ensuite recalculée
+     * dans sa propre transaction, ligne de compteur verrouillée (FOR UPDATE) avant l'agrégat :
+     * un delta concurrent est soit déjà compté, soit appliqué après la correction.
+     * S'exécute chaque nuit à 4h
+     */
+    @Scheduled(cron = "0 0 4 * * *")
+    public void reconcile() {
+        logger.info("🔄 Démarrage de la réconciliation des compteurs d'occupation...");
+
+        Map<Long, SeanceOccupation> expected = new HashMap<>();
+        for (Object[] row : reservationRepository.aggregateOccupationAll()) {
+            SeanceOccupation occupation = fromAggregate(row);
+            expected.put(occupation.getSeanceId(), occupation);
+        }
+
+        Set<Long> suspects = new HashSet<>();
+        for (SeanceOccupation current : occupationRepository.findAll()) {
+            SeanceOccupation target = expected.remove(current.getSeanceId());
+            if (!sameCounters(current, target != null ? target : empty(current.getSeanceId()))) {
+                suspects.add(current.getSeanceId());
+            }
+        }
+        // Séances avec réservations mais sans compteur
+        suspects.addAll(expected.keySet());
+
+        int corrected = 0;
+        int created = 0;
+        for (Long seanceId : suspects) {
+            try {
+                Boolean cree = transactionTemplate.execute(status -> reconcilier(seanceId));
+                if (cree == null) {
+                    continue;
+                }
+                if (cree) {
+                    created++;
+                } else {
+                    corrected++;
+                }
+            } catch (Exception e) {
+                logger.error("❌ Réconciliation impossible pour la séance {}: {}", seanceId, e.getMessage());
+            }
+        }
+
+        logger.info("✅ Réconciliation terminée: {} écart(s) corrigé(s), {} compteur(s) créé(s)",
+                corrected, created);
+    }
+
+    /**
+     * @return true si le compteur a été créé, false s'il a été corrigé, null s'il était juste
+     */
+    private Boolean reconcilier(Long seanceId) {
+        // Verrou posé avant la première lecture : l'agrégat ci-dessous voit tout delta déjà validé
+        SeanceOccupation current = occupationRepository.lockById(seanceId).orElse(null);
+        SeanceOccupation target = compute(List.of(seanceId)).getOrDefault(seanceId, empty(seanceId));
+        if (current == null) {
+            upsert(target);
+            return true;
+        }
+        if (sameCounters(current, target)) {
+            return null; // Écart résorbé depuis le premier passage
+        }
+        logger.warn("⚠️ Écart d'occupation corrigé pour la séance {}: {} place(s) au lieu de {}",
+                seanceId, current.getPlacesReservees(), target.getPlacesReservees());
+        upsert(target);
+        return false;
+    }
+
+    // Crée la ligne depuis les réservations existantes avant d'y appliquer un premier delta
+    private void ensureInitialized(Long seanceId) {
+        if (!occupationRepository.existsById(seanceId)) {
+            SeanceOccupation occupation = compute(List.of(seanceId)).getOrDefault(seanceId, empty(seanceId));
+            occupationRepository.insertIfAbsent(seanceId, occupation.getPlacesReservees(),
+                    occupation.getPlacesEnAttente(), occupation.getPlacesValidees(), occupation.getRevenu());
+        }
+    }
+
+    private void applyTransition(Reservation reservation, StatutReservation ancien, StatutReservation nouveau) {
+        if (ancien == nouveau) {
+            return;
+        }
+        int places = reservation.getNombrePlace() != null ? reservation.getNombrePlace() : 0;
+        double montant = reservation.getMontantTotal() != null ? reservation.getMontantTotal() : 0.0;
+
+        int reservees = (actif(nouveau) ? places : 0) - (actif(ancien) ? places : 0);
+        int enAttente = (enAttente(nouveau) ? places : 0) - (enAttente(ancien) ? places : 0);
+        int validees = (nouveau == StatutReservation.VALIDEE ? places : 0)
+                - (ancien == StatutReservation.VALIDEE ? places : 0);
+        double revenu = (nouveau == StatutReservation.VALIDEE ? montant : 0)
+                - (ancien == StatutReservation.VALIDEE ? montant : 0);
+
+        occupationRepository.applyDelta(reservation.getSeance().getId(), reservees, enAttente, validees, revenu);
+        statistiqueService.applyTransition(reservation, ancien, nouveau);
+        eventPublisher.publishEvent(new StatutReservationModifie(reservation.getId(), nouveau));
+    }
+
+    private boolean actif(StatutReservation statut) {
+        return statut != null && statut != StatutReservation.ANNULEE;
+    }
+
+    private boolean enAttente(StatutReservation statut) {
+        return statut == StatutReservation.EN_ATTENTE || statut == StatutReservation.CONFIRMEE_CLIENT;
+    }
+
+    private Map<Long, SeanceOccupation> compute(Collection<Long> seanceIds) {
+        Map<Long, SeanceOccupation> computed = new HashMap<>();
+        for (Object[] row : reservationRepository.aggregateOccupationBySeanceIds(seanceIds)) {
+            SeanceOccupation occupation = fromAggregate(row);
+            computed.put(occupation.getSeanceId(), occupation);
+        }
+        return computed;
+    }
+
+    private SeanceOccupation fromAggregate(Object[] row) {
+        SeanceOccupation occupation = empty((Long) row[0]);
+        occupation.setPlacesReservees(((Number) row[1]).intValue());
+        occupation.setPlacesEnAttente(((Number) row[2]).intValue());
+        occupation.setPlacesValidees(((Number) row[3]).intValue());
+        occupation.setRevenu(((Number) row[4]).doubleValue());
+        return occupation;
+    }
+
+    private SeanceOccupation empty(Long seanceId) {
+        SeanceOccupation occupation = new SeanceOccupation();
+        occupation.setSeanceId(seanceId);
+        return occupation;
+    }
+
+    private boolean sameCounters(SeanceOccupation a, SeanceOccupation b) {
+        return a.getPlacesReservees() == b.getPlacesReservees()
+                && a.getPlacesEnAttente() == b.getPlacesEnAttente()
+                && a.getPlacesValidees() == b.getPlacesValidees()
+                && Math.abs(a.getRevenu() - b.getRevenu()) < 0.005;
+    }
+
+    private void upsert(SeanceOccupation occupation) {
+        occupationRepository.upsert(occupation.getSeanceId(), occupation.getPlacesReservees(),
+                occupation.getPlacesEnAttente(), occupation.getPlacesValidees(), occupation.getRevenu());
+    }
+}
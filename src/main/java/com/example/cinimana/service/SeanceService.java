@@ -2,12 +2,14 @@ package com.example.cinimana.service;
 
 import com.example.cinimana.model.Seance;
 import com.example.cinimana.repository.SeanceRepository;
+import com.example.cinimana.repository.SeanceSpecifications;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -29,21 +31,15 @@ public class SeanceService {
      * Règle métier : Seuls les séances commençant dans plus de 4 heures sont
      * disponibles
      */
-    public List<Seance> getAvailableSeancesForFilm(Long filmId) {
+    public List<Seance> getAvailableSeancesForFilm(String filmId) {
         LocalDateTime minStartTime = LocalDateTime.now().plusHours(4);
 
-        // Supposons une méthode findByFilmId dans le repository, sinon on filtre tout
-        // Idéalement: seanceRepository.findByFilmIdAndDateHeureAfter(filmId,
-        // minStartTime)
-
-        List<Seance> allSeances = seanceRepository.findAll(); // Optimiser avec une requête personnalisée
-
-        return allSeances.stream()
-                .filter(seance -> seance.getFilm().getId().equals(filmId))
-                .filter(seance -> seance.getDateHeure().isAfter(minStartTime))
-                .filter(seance -> seance.getFilm().isActif()) // Vérifier si le film est actif
-                .filter(Seance::isActif) // Vérifier si la séance est active
-                .collect(Collectors.toList());
+        // Couvert par l'index (film_id, actif, date_heure)
+        return seanceRepository.findAll(Specification.allOf(
+                SeanceSpecifications.deFilm(filmId),
+                SeanceSpecifications.active(),
+                SeanceSpecifications.apres(minStartTime),
+                SeanceSpecifications.filmActif()), Sort.by("dateHeure"));
     }
 
     /**
@@ -53,10 +49,9 @@ public class SeanceService {
     public List<Seance> getAvailableSeances() {
         LocalDateTime minStartTime = LocalDateTime.now().plusHours(4);
 
-        return seanceRepository.findAll().stream()
-                .filter(seance -> seance.getDateHeure().isAfter(minStartTime))
-                .filter(seance -> seance.getFilm().isActif())
-                .filter(Seance::isActif) // Vérifier si la séance est active
-                .collect(Collectors.toList());
+        return seanceRepository.findAll(Specification.allOf(
+                SeanceSpecifications.active(),
+                SeanceSpecifications.apres(minStartTime),
+                SeanceSpecifications.filmActif()), Sort.by("dateHeure"));
     }
 }
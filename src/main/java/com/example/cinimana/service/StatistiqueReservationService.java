@@ -0,0 +1,134 @@
+package com.example.cinimana.service;
+
+import com.example.cinimana.model.Reservation;
+import com.example.cinimana.model.Seance;
+import com.example.cinimana.model.StatutReservation;
+import com.example.cinimana.repository.StatistiqueReservationRepository;
+import com.example.cinimana.service.event.ReservationAnnulee;
+import com.example.cinimana.service.event.ReservationsAnnuleesEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Agrégats horaires des réservations (table statistique_reservation) pour les dashboards.
+ * Mis à jour par delta dans la transaction de chaque changement de statut, reconstruits par
+ * plage de dates (reprise initiale, réconciliation nocturne des derniers jours, demande admin).
+ */
+@Service
+@RequiredArgsConstructor
+public class StatistiqueReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatistiqueReservationService.class);
+
+    private static final LocalDate DEBUT_HISTORIQUE = LocalDate.of(1970, 1, 1);
+
+    private final StatistiqueReservationRepository statistiqueRepository;
+
+    @Value("${app.statistiques.reconciliation-jours:7}")
+    private int reconciliationJours;
+
+    /**
+     * Déplace la réservation de l'agrégat de son ancien statut vers celui du nouveau
+     * (ancien null pour une création)
+     */
+    @Transactional
+    public void applyTransition(Reservation reservation, StatutReservation ancien, StatutReservation nouveau) {
+        if (ancien == nouveau) {
+            return;
+        }
+        int places = reservation.getNombrePlace() != null ? reservation.getNombrePlace() : 0;
+        double montant = reservation.getMontantTotal() != null ? reservation.getMontantTotal() : 0.0;
+
+        if (ancien != null) {
+            applyDelta(reservation, ancien, -1, -places, -montant);
+        }
+        if (nouveau != null) {
+            applyDelta(reservation, nouveau, 1, places, montant);
+        }
+    }
+
+    /**
+     * Annulations de masse : agrégées par ligne de statistique avant écriture, dans la transaction du lot
+     */
+    @EventListener
+    public void onReservationsAnnulees(ReservationsAnnuleesEvent event) {
+        record Cle(LocalDate jour, int heure, String filmId, String salleId, Long categorieId, StatutReservation statut) {
+        }
+        Map<Cle, double[]> deltas = new HashMap<>(); // [nombre, places, montant]
+        for (ReservationAnnulee r : event.reservations()) {
+            int places = r.nombrePlace() != null ? r.nombrePlace() : 0;
+            double montant = r.montantTotal() != null ? r.montantTotal() : 0.0;
+            LocalDateTime date = r.dateReservation();
+            for (StatutReservation statut : new StatutReservation[] { r.ancienStatut(), StatutReservation.ANNULEE }) {
+                int signe = statut == StatutReservation.ANNULEE ? 1 : -1;
+                double[] delta = deltas.computeIfAbsent(new Cle(date.toLocalDate(), date.getHour(), r.filmId(),
+                        r.salleId(), r.categorieId(), statut), cle -> new double[3]);
+                delta[0] += signe;
+                delta[1] += signe * places;
+                delta[2] += signe * montant;
+            }
+        }
+        deltas.forEach((cle, d) -> statistiqueRepository.applyDelta(cle.jour(), cle.heure(), cle.filmId(),
+                cle.salleId(), cle.categorieId(), cle.statut().name(), (int) d[0], (int) d[1], d[2]));
+    }
+
+    /**
+     * Recalcule les agrégats des réservations faites entre debut et fin (inclus)
+     *
+     * @return nombre de lignes d'agrégat écrites
+     */
+    @Transactional
+    public int reconstruire(LocalDate debut, LocalDate fin) {
+        if (fin.isBefore(debut)) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure à la date de début");
+        }
+        LocalDate finExclue = fin.plusDays(1);
+        statistiqueRepository.deletePeriode(debut, finExclue);
+        int lignes = statistiqueRepository.insertFromReservations(debut.atStartOfDay(), finExclue.atStartOfDay());
+        logger.info("✅ Statistiques des réservations reconstruites du {} au {}: {} ligne(s)", debut, fin, lignes);
+        return lignes;
+    }
+
+    /**
+     * Reprise initiale : construit les agrégats de tout l'historique si la table est vide
+     */
+    @Transactional
+    public void initialiserSiVide() {
+        if (statistiqueRepository.count() == 0) {
+            reconstruire(DEBUT_HISTORIQUE, LocalDate.now().plusDays(1));
+        }
+    }
+
+    /**
+     * Réconciliation : recalcule les derniers jours (séance déplacée, écriture hors service...)
+     * S'exécute chaque nuit à 4h30, après celle des compteurs d'occupation
+     */
+    @Scheduled(cron = "0 30 4 * * *")
+    @Transactional
+    public void reconcile() {
+        logger.info("🔄 Réconciliation des statistiques des réservations ({} derniers jours)...", reconciliationJours);
+        LocalDate aujourdhui = LocalDate.now();
+        reconstruire(aujourdhui.minusDays(reconciliationJours), aujourdhui);
+    }
+
+    private void applyDelta(Reservation reservation, StatutReservation statut, int nombre, int places,
+                            double montant) {
+        LocalDateTime date = reservation.getDateReservation();
+        Seance seance = reservation.getSeance();
+        Long categorieId = seance.getCategorie() != null ? seance.getCategorie().getId() : 0L;
+
+        statistiqueRepository.applyDelta(date.toLocalDate(), date.getHour(), seance.getFilm().getId(),
+                seance.getSalle().getId(), categorieId, statut.name(), nombre, places, montant);
+    }
+}
@@ -2,17 +2,17 @@ package com.example.cinimana.service.admin;
 
 import com.example.cinimana.dto.response.HistoriqueResponseDTO;
 import com.example.cinimana.model.Client;
+import com.example.cinimana.service.export.ExcelStreamWriter;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -25,10 +25,9 @@ public class AdminExportService {
      * Export historique WITHOUT Montant column (for Users, Films, Offres, Salles,
      * Seances)
      */
-    public byte[] exportHistoriqueToExcel(List<HistoriqueResponseDTO> entries) {
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream(); // Create OutputStream
-            Sheet sheet = workbook.createSheet("Historique"); // Create Sheet
+    public void exportHistoriqueToExcel(Iterable<HistoriqueResponseDTO> entries, OutputStream out) {
+        try (ExcelStreamWriter writer = new ExcelStreamWriter("Historique")) {
+            SXSSFWorkbook workbook = writer.getWorkbook();
 
             // Header Style
             CellStyle headerStyle = workbook.createCellStyle();
@@ -38,7 +37,7 @@ public class AdminExportService {
             headerStyle.setBorderBottom(BorderStyle.THIN);
 
             // Create Header Row WITHOUT Montant
-            Row headerRow = sheet.createRow(0);
+            Row headerRow = writer.nextRow();
             String[] headers = { "ID Op", "Type Entité", "ID Entité", "Nom Entité", "Opération", "Date", "Admin",
                     "Infos" };
             for (int i = 0; i < headers.length; i++) { // Create cells
@@ -46,11 +45,11 @@ public class AdminExportService {
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerStyle);
             }
+            writer.setColumnWidths(10, 14, 14, 28, 16, 18, 24, 48);
 
             // Fill Data WITHOUT Montant
-            int rowNum = 1;
             for (HistoriqueResponseDTO entry : entries) {
-                Row row = sheet.createRow(rowNum++);
+                Row row = writer.nextRow();
                 row.createCell(0).setCellValue(entry.idOperation() != null ? entry.idOperation().toString() : "");
                 row.createCell(1).setCellValue(entry.entiteType() != null ? entry.entiteType() : "");
                 row.createCell(2).setCellValue(entry.entiteId() != null ? entry.entiteId() : "");
@@ -62,13 +61,7 @@ public class AdminExportService {
                 row.createCell(7).setCellValue(entry.infoSupplementaire() != null ? entry.infoSupplementaire() : "");
             }
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(baos); // Write to OutputStream
-            return baos.toByteArray();
+            writer.writeTo(out);
         } catch (IOException e) {
             logger.error("Error generating Excel for history: {}", e.getMessage());
             throw new RuntimeException("Erreur lors de la génération du fichier Excel", e);
@@ -78,10 +71,9 @@ public class AdminExportService {
     /**
      * Export historique WITH Montant column (for Reservations only)
      */
-    public byte[] exportReservationHistoriqueToExcel(List<HistoriqueResponseDTO> entries) {
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Sheet sheet = workbook.createSheet("Historique");
+    public void exportReservationHistoriqueToExcel(Iterable<HistoriqueResponseDTO> entries, OutputStream out) {
+        try (ExcelStreamWriter writer = new ExcelStreamWriter("Historique")) {
+            SXSSFWorkbook workbook = writer.getWorkbook();
 
             // Header Style
             CellStyle headerStyle = workbook.createCellStyle();
@@ -91,7 +83,7 @@ public class AdminExportService {
             headerStyle.setBorderBottom(BorderStyle.THIN);
 
             // Create Header Row WITH Montant
-            Row headerRow = sheet.createRow(0);
+            Row headerRow = writer.nextRow();
             String[] headers = { "ID Op", "Type Entité", "ID Entité", "Nom Entité", "Opération", "Date", "Admin",
                     "Montant", "Infos" };
             for (int i = 0; i < headers.length; i++) {
@@ -99,11 +91,11 @@ public class AdminExportService {
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerStyle);
             }
+            writer.setColumnWidths(10, 14, 14, 28, 16, 18, 24, 12, 48);
 
             // Fill Data WITH Montant
-            int rowNum = 1;
             for (HistoriqueResponseDTO entry : entries) {
-                Row row = sheet.createRow(rowNum++);
+                Row row = writer.nextRow();
                 row.createCell(0).setCellValue(entry.idOperation() != null ? entry.idOperation().toString() : "");
                 row.createCell(1).setCellValue(entry.entiteType() != null ? entry.entiteType() : "");
                 row.createCell(2).setCellValue(entry.entiteId() != null ? entry.entiteId() : "");
@@ -116,23 +108,16 @@ public class AdminExportService {
                 row.createCell(8).setCellValue(entry.infoSupplementaire() != null ? entry.infoSupplementaire() : "");
             }
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(baos);
-            return baos.toByteArray();
+            writer.writeTo(out);
         } catch (IOException e) {
             logger.error("Error generating Excel for reservation history: {}", e.getMessage());
             throw new RuntimeException("Erreur lors de la génération du fichier Excel", e);
         }
     }
 
-    public byte[] exportClientsToExcel(List<Client> clients) {
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Sheet sheet = workbook.createSheet("Clients");
+    public void exportClientsToExcel(Iterable<Client> clients, OutputStream out) {
+        try (ExcelStreamWriter writer = new ExcelStreamWriter("Clients")) {
+            SXSSFWorkbook workbook = writer.getWorkbook();
 
             // Header Style
             CellStyle headerStyle = workbook.createCellStyle();
@@ -142,18 +127,18 @@ public class AdminExportService {
             headerStyle.setBorderBottom(BorderStyle.THIN);
 
             // Create Header Row
-            Row headerRow = sheet.createRow(0);
+            Row headerRow = writer.nextRow();
             String[] headers = { "ID", "Nom", "Prénom", "Email", "Téléphone", "Date Naissance" };
             for (int i = 0; i < headers.length; i++) {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerStyle);
             }
+            writer.setColumnWidths(8, 18, 18, 32, 16, 16);
 
             // Fill Data
-            int rowNum = 1;
             for (Client client : clients) {
-                Row row = sheet.createRow(rowNum++);
+                Row row = writer.nextRow();
                 row.createCell(0).setCellValue(client.getId() != null ? client.getId().toString() : "");
                 row.createCell(1).setCellValue(client.getNom() != null ? client.getNom() : "");
                 row.createCell(2).setCellValue(client.getPrenom() != null ? client.getPrenom() : "");
@@ -163,13 +148,7 @@ public class AdminExportService {
                         .setCellValue(client.getDateNaissance() != null ? client.getDateNaissance().toString() : "");
             }
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(baos);
-            return baos.toByteArray();
+            writer.writeTo(out);
         } catch (IOException e) {
             logger.error("Error generating Excel for clients: {}", e.getMessage());
             throw new RuntimeException("Erreur lors de la génération du fichier Excel", e);
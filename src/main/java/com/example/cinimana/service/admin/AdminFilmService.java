@@ -7,8 +7,12 @@ import com.example.cinimana.repository.FilmRepository;
 import com.example.cinimana.repository.HistoriqueFilmRepository;
 import com.example.cinimana.repository.SeanceRepository;
 import com.example.cinimana.service.IdGeneratorService;
+import com.example.cinimana.service.JournalActiviteService;
 import com.example.cinimana.service.UserService;
+import com.example.cinimana.service.cache.CatalogueCacheService;
+import com.example.cinimana.service.event.DureeFilmModifieeEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,9 +25,12 @@ public class AdminFilmService {
 
     private final FilmRepository filmRepository;
     private final HistoriqueFilmRepository historiqueFilmRepository;
+    private final JournalActiviteService journalActivite;
     private final SeanceRepository seanceRepository;
     private final UserService userService;
     private final IdGeneratorService idGeneratorService;
+    private final CatalogueCacheService catalogueCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     private FilmResponseDTO mapToDTO(Film film) {
         return new FilmResponseDTO(
@@ -58,12 +65,14 @@ public class AdminFilmService {
         film.setActif(true);
 
         filmRepository.save(film);
+        catalogueCache.invalidateFilms();
 
         HistoriqueFilm h = new HistoriqueFilm();
         h.setFilm(film);
         h.setAdmin(userService.getCurrentAdmin());
         h.setOperation(TypeOperation.CREATION);
         historiqueFilmRepository.save(h);
+        journalActivite.enregistrer(h);
 
         return mapToDTO(film);
     }
@@ -72,6 +81,7 @@ public class AdminFilmService {
     public FilmResponseDTO modifierFilm(String id, FilmRequestDTO dto) {
         Film film = filmRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Film non trouvé"));
+        boolean dureeModifiee = film.getDuree() != dto.duree();
         film.setTitre(dto.titre());
         film.setDescription(dto.description());
         film.setDuree(dto.duree());
@@ -82,12 +92,18 @@ public class AdminFilmService {
         film.setAgeLimite(dto.ageLimite() != null ? dto.ageLimite() : film.getAgeLimite());
 
         filmRepository.save(film);
+        catalogueCache.invalidateFilms();
+        if (dureeModifiee) {
+            // Fins des séances programmées recalculées dans le planning des salles
+            eventPublisher.publishEvent(new DureeFilmModifieeEvent(film.getId(), film.getDuree()));
+        }
 
         HistoriqueFilm h = new HistoriqueFilm();
         h.setFilm(film);
         h.setAdmin(userService.getCurrentAdmin());
         h.setOperation(TypeOperation.MODIFICATION);
         historiqueFilmRepository.save(h);
+        journalActivite.enregistrer(h);
 
         return mapToDTO(film);
     }
@@ -105,12 +121,14 @@ public class AdminFilmService {
 
         film.setActif(actif);
         filmRepository.save(film);
+        catalogueCache.invalidateFilms();
 
         HistoriqueFilm h = new HistoriqueFilm();
         h.setFilm(film);
         h.setAdmin(userService.getCurrentAdmin());
         h.setOperation(actif ? TypeOperation.ACTIVATION : TypeOperation.SUPPRESSION);
         historiqueFilmRepository.save(h);
+        journalActivite.enregistrer(h);
     }
 
     @Transactional(readOnly = true)
@@ -7,7 +7,10 @@ import com.example.cinimana.repository.HistoriqueSalleRepository;
 import com.example.cinimana.repository.SalleRepository;
 import com.example.cinimana.repository.SeanceRepository;
 import com.example.cinimana.service.IdGeneratorService;
+import com.example.cinimana.service.JournalActiviteService;
 import com.example.cinimana.service.UserService;
+import com.example.cinimana.service.cache.CatalogueCacheService;
+import com.example.cinimana.service.seat.SeatMapService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,9 +24,12 @@ public class AdminSalleService {
 
     private final SalleRepository salleRepository;
     private final HistoriqueSalleRepository historiqueSalleRepository;
+    private final JournalActiviteService journalActivite;
     private final SeanceRepository seanceRepository;
     private final UserService userService;
     private final IdGeneratorService idGeneratorService;
+    private final SeatMapService seatMapService;
+    private final CatalogueCacheService catalogueCache;
 
     private SalleResponseDTO mapToDTO(Salle salle) { // Mapper from Salle entity to SalleResponseDTO
         return new SalleResponseDTO(
@@ -52,6 +58,7 @@ public class AdminSalleService {
         salle.setActif(true);
 
         salleRepository.save(salle);
+        catalogueCache.invalidateSeances(); // Les séances affichent le nom et la configuration de la salle
 
         // Historique
         HistoriqueSalle h = new HistoriqueSalle();
@@ -59,6 +66,7 @@ public class AdminSalleService {
         h.setAdmin(userService.getCurrentAdmin());
         h.setOperation(TypeOperation.CREATION);
         historiqueSalleRepository.save(h);
+        journalActivite.enregistrer(h);
 
         return mapToDTO(salle);
     }
@@ -74,12 +82,17 @@ public class AdminSalleService {
         salle.setSiegesParRangee(dto.siegesParRangee());
 
         salleRepository.save(salle);
+        catalogueCache.invalidateSeances(); // Les séances affichent le nom et la configuration de la salle
+
+        // La configuration des sièges a pu changer : les plans en mémoire seront reconstruits après le commit
+        seatMapService.evictSalle(id);
 
         HistoriqueSalle h = new HistoriqueSalle();
         h.setSalle(salle);
         h.setAdmin(userService.getCurrentAdmin());
         h.setOperation(TypeOperation.MODIFICATION);
         historiqueSalleRepository.save(h);
+        journalActivite.enregistrer(h);
 
         return mapToDTO(salle);
     }
@@ -98,12 +111,14 @@ public class AdminSalleService {
 
         salle.setActif(actif);
         salleRepository.save(salle);
+        catalogueCache.invalidateSeances(); // Les séances affichent le nom et la configuration de la salle
 
         HistoriqueSalle h = new HistoriqueSalle();
         h.setSalle(salle);
         h.setAdmin(userService.getCurrentAdmin());
         h.setOperation(actif ? TypeOperation.ACTIVATION : TypeOperation.SUPPRESSION);
         historiqueSalleRepository.save(h);
+        journalActivite.enregistrer(h);
     }
 
     @Transactional(readOnly = true)
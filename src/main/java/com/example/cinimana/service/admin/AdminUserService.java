@@ -6,6 +6,8 @@ import com.example.cinimana.exception.NotFoundException;
 import com.example.cinimana.model.*;
 import com.example.cinimana.repository.UtilisateurRepository;
 import com.example.cinimana.repository.HistoriqueUtilisateurRepository;
+import com.example.cinimana.security.jwt.JwtPrincipalCache;
+import com.example.cinimana.service.JournalActiviteService;
 import com.example.cinimana.service.UserService;
 import com.example.cinimana.service.EmailService;
 import com.example.cinimana.service.PasswordGeneratorService;
@@ -33,10 +35,12 @@ public class AdminUserService {
 
     private final UtilisateurRepository utilisateurRepository;
     private final HistoriqueUtilisateurRepository historiqueUtilisateurRepository;
+    private final JournalActiviteService journalActivite;
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
     private final PasswordGeneratorService passwordGeneratorService;
+    private final JwtPrincipalCache principalCache;
 
     // --- UTILS : LOG & MAPPING ---
     private void logHistorique(Utilisateur user, TypeOperation operation) {// Méthode utilitaire pour logger l'historique des opérations
@@ -46,6 +50,7 @@ public class AdminUserService {
         historique.setAdmin(currentAdmin);
         historique.setOperation(operation);
         historiqueUtilisateurRepository.save(historique);
+        journalActivite.enregistrer(historique);
     }
 
     private UtilisateurResponseDTO mapToUtilisateurResponseDTO(Utilisateur user) {
@@ -148,6 +153,9 @@ public class AdminUserService {
         user.setDateNaissance(dto.dateNaissance());
         user.setDateEmbauche(dto.dateEmbauche());
 
+        // Rôle ou email modifié : les tokens en cours rechargent l'utilisateur
+        principalCache.invalidateUser(user.getEmail());
+
         // Modification de l'email si différent
         if (!user.getEmail().equals(dto.email())) {
             if (utilisateurRepository.existsByEmail(dto.email())) {
@@ -182,6 +190,7 @@ public class AdminUserService {
 
         if (user.isActif() != nouvelEtat) {
             user.setActif(nouvelEtat);
+            principalCache.invalidateUser(user.getEmail()); // Désactivation effective dès la requête suivante
 
             if (nouvelEtat) {
                 // Réactivation : générer un nouveau mot de passe et envoyer par email
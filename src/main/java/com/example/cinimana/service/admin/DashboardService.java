@@ -65,136 +65,33 @@ public class DashboardService {
     private final com.example.cinimana.repository.HistoriqueSalleRepository historiqueSalleRepository;
     private final com.example.cinimana.repository.HistoriqueSeanceRepository historiqueSeanceRepository;
     private final com.example.cinimana.repository.ReservationRepository reservationRepository;
+    private final com.example.cinimana.repository.StatistiqueReservationRepository statistiqueRepository;
+    private final com.example.cinimana.service.JournalActiviteService journalActiviteService;
+    private final HistoriqueQueryService historiqueQueryService;
 
+    // Une requête sur le journal d'activité unifié (ou aucune une fois sa mémoire chargée)
     public java.util.List<com.example.cinimana.dto.response.HistoriqueResponseDTO> getRecentActivities() {
-        java.util.List<com.example.cinimana.dto.response.HistoriqueResponseDTO> activities = new java.util.ArrayList<>();
-
-        // 1. Historique Utilisateurs
-        historiqueUtilisateurRepository.findTop5ByOrderByDateOperationDesc()
-                .forEach(h -> activities
-                        .add(new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                                h.getId(),
-                                "Utilisateur",
-                                h.getUtilisateur().getId(),
-                                h.getUtilisateur().getNom() + " "
-                                        + h.getUtilisateur().getPrenom(),
-                                h.getOperation().name(),
-                                h.getDateOperation(),
-                                h.getAdmin().getNom() + " "
-                                        + h.getAdmin().getPrenom(),
-                                null, null)));
-
-        // 2. Historique Films
-        historiqueFilmRepository.findTop5ByOrderByDateOperationDesc()
-                .forEach(h -> activities
-                        .add(new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                                h.getId(),
-                                "Film",
-                                String.valueOf(h.getFilm().getId()),
-                                h.getFilm().getTitre(),
-                                h.getOperation().name(),
-                                h.getDateOperation(),
-                                h.getAdmin().getNom() + " "
-                                        + h.getAdmin().getPrenom(),
-                                null, null)));
-
-        // 3. Historique Salles
-        historiqueSalleRepository.findTop5ByOrderByDateOperationDesc()
-                .forEach(h -> activities
-                        .add(new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                                h.getId(),
-                                "Salle",
-                                String.valueOf(h.getSalle().getId()),
-                                h.getSalle().getNom(),
-                                h.getOperation().name(),
-                                h.getDateOperation(),
-                                h.getAdmin().getNom() + " "
-                                        + h.getAdmin().getPrenom(),
-                                null, null)));
-
-        // 4. Historique Séances
-        historiqueSeanceRepository.findTop5ByOrderByDateOperationDesc()
-                .forEach(h -> activities
-                        .add(new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                                h.getId(),
-                                "Séance",
-                                String.valueOf(h.getSeance().getId()),
-                                h.getSeance().getFilm().getTitre() + " ("
-                                        + h.getSeance().getDateHeure() + ")",
-                                h.getOperation().name(),
-                                h.getDateOperation(),
-                                h.getCommercial().getNom() + " "
-                                        + h.getCommercial().getPrenom(),
-                                null, h.getSeance().getDateHeure().toString())));
-
-        // 5. Historique Réservations
-        reservationRepository.findTop5ByOrderByDateReservationDesc()
-                .forEach(r -> activities
-                        .add(new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                                r.getId(),
-                                "Réservation",
-                                String.valueOf(r.getId()),
-                                r.getSeance().getFilm().getTitre() + " - "
-                                        + r.getNombrePlace() + " places",
-                                r.getStatut().name(),
-                                r.getDateReservation(),
-                                r.getClient().getNom() + " "
-                                        + r.getClient().getPrenom(),
-                                r.getMontantTotal(),
-                                r.getSeance().getDateHeure().toString())));
-
-        // 6. Historique Clients (Nouveaux Inscrits)
-        clientRepository.findTop5ByOrderByCreatedAtDesc()
-                .forEach(c -> activities
-                        .add(new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                                c.getId(),
-                                "Client",
-                                String.valueOf(c.getId()),
-                                c.getNom() + " " + c.getPrenom(),
-                                "INSCRIPTION",
-                                c.getCreatedAt(),
-                                "Client Lui-même", null, null)));
-
-        // 7. Historique Offres
-        historiqueOffreRepository.findTop5ByOrderByDateOperationDesc()
-                .forEach(h -> activities
-                        .add(new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                                h.getId(),
-                                "Offre",
-                                String.valueOf(h.getOffre().getId()),
-                                h.getOffre().getTitre(),
-                                h.getOperation().name(),
-                                h.getDateOperation(),
-                                h.getAdmin().getNom() + " "
-                                        + h.getAdmin().getPrenom(),
-                                null, null)));
-
-        // Grouper par type et garder uniquement la plus récente pour chaque type
-        return activities.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        com.example.cinimana.dto.response.HistoriqueResponseDTO::entiteType,
-                        java.util.stream.Collectors.collectingAndThen(
-                                java.util.stream.Collectors
-                                        .maxBy(java.util.Comparator.comparing(
-                                                com.example.cinimana.dto.response.HistoriqueResponseDTO::dateOperation)),
-                                java.util.Optional::get)))
-                .values().stream()
-                .sorted(java.util.Comparator.comparing(
-                                com.example.cinimana.dto.response.HistoriqueResponseDTO::dateOperation)
-                        .reversed())
-                .collect(java.util.stream.Collectors.toList());
+        return journalActiviteService.getDernieresParType();
+    }
+
+    public java.util.List<com.example.cinimana.dto.response.HistoriqueResponseDTO> getActivityFeed(int limit) {
+        return journalActiviteService.getFil(limit);
     }
 
+    /**
+     * Graphiques lus dans les agrégats horaires (statistique_reservation) : quelques centaines de lignes
+     * regroupées, sans parcourir la table des réservations
+     */
     public com.example.cinimana.dto.response.DashboardChartsDTO getDashboardCharts() {
         // 1. Statut des réservations
         java.util.Map<String, Long> statusStats = new java.util.HashMap<>();
-        reservationRepository.countReservationsByStatut().forEach(obj -> {
+        statistiqueRepository.countByStatut().forEach(obj -> {
             statusStats.put(((com.example.cinimana.model.StatutReservation) obj[0]).name(), (Long) obj[1]);
         });
 
         // 2. Top 5 Films
         java.util.List<com.example.cinimana.dto.response.DashboardChartsDTO.TopFilmDTO> topFilms = new java.util.ArrayList<>();
-        reservationRepository.findTopFilmsByReservationCount().stream().limit(5).forEach(obj -> {
+        statistiqueRepository.countByFilmTitre(org.springframework.data.domain.PageRequest.of(0, 5)).forEach(obj -> {
             topFilms.add(new com.example.cinimana.dto.response.DashboardChartsDTO.TopFilmDTO(
                     (String) obj[0],
                     (Long) obj[1]));
@@ -202,27 +99,27 @@ public class DashboardService {
 
         // 3. Heures de pointe
         java.util.Map<Integer, Long> peakHours = new java.util.TreeMap<>();
-        reservationRepository.countReservationsByHour().forEach(obj -> {
+        statistiqueRepository.countByHeure().forEach(obj -> {
             peakHours.put((Integer) obj[0], (Long) obj[1]);
         });
 
         // 4. Revenus des 7 derniers jours
         java.util.Map<String, Double> dailyRevenue = new java.util.LinkedHashMap<>();
-        java.time.LocalDateTime sevenDaysAgo = java.time.LocalDateTime.now().minusDays(7).withHour(0)
-                .withMinute(0);
-        reservationRepository.getDailyRevenue(sevenDaysAgo).forEach(obj -> {
-            dailyRevenue.put(obj[0].toString(), (Double) obj[1]);
-        });
+        java.time.LocalDate sevenDaysAgo = java.time.LocalDate.now().minusDays(7);
+        statistiqueRepository.sumMontantByJour(com.example.cinimana.model.StatutReservation.VALIDEE, sevenDaysAgo)
+                .forEach(obj -> {
+                    dailyRevenue.put(obj[0].toString(), (Double) obj[1]);
+                });
 
         // 5. Répartition par genre
         java.util.Map<String, Long> genreDistribution = new java.util.HashMap<>();
-        reservationRepository.countReservationsByGenre().forEach(obj -> {
+        statistiqueRepository.countByGenre().forEach(obj -> {
             genreDistribution.put((String) obj[0], (Long) obj[1]);
         });
 
         // 6. Tendances des statuts (7 jours)
         java.util.Map<String, java.util.Map<String, Long>> dailyStatusStats = new java.util.LinkedHashMap<>();
-        reservationRepository.getDailyStatusStats(sevenDaysAgo).forEach(obj -> {
+        statistiqueRepository.countByJourAndStatut(sevenDaysAgo).forEach(obj -> {
             String dateStr = obj[0].toString();
             String statusStr = ((com.example.cinimana.model.StatutReservation) obj[1]).name();
             Long count = (Long) obj[2];
@@ -241,34 +138,15 @@ public class DashboardService {
             java.util.List<com.example.cinimana.model.Role> roles,
             java.time.LocalDateTime start,
             java.time.LocalDateTime end) {
-        return historiqueUtilisateurRepository.findFiltered(search, operations, roles, start, end).stream()
-                .map(h -> new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                        h.getId(), h.getUtilisateur().getRole().name(), // Mapping to Role
-                        h.getUtilisateur().getId(),
-                        h.getUtilisateur().getNom() + " " + h.getUtilisateur().getPrenom(),
-                        h.getOperation().name(), h.getDateOperation(),
-                        h.getAdmin().getNom() + " " + h.getAdmin().getPrenom(), null, null))
-                .collect(java.util.stream.Collectors.toList());
+        return historiqueQueryService.list("users",
+                new HistoriqueQueryService.Filtre(search, operations, roles, start, end));
     }
 
     public java.util.List<com.example.cinimana.dto.response.HistoriqueResponseDTO> getFilteredOfferHistory(
             String search, java.util.List<TypeOperation> operations, java.time.LocalDateTime start,
             java.time.LocalDateTime end) {
-        return historiqueOffreRepository.findAll().stream()
-                .filter(h -> (search == null || h.getOffre().getTitre().toLowerCase()
-                        .contains(search.toLowerCase())))
-                .filter(h -> (operations == null || operations.contains(h.getOperation())))
-                .filter(h -> (start == null || h.getDateOperation().isAfter(start)))
-                .filter(h -> (end == null || h.getDateOperation().isBefore(end)))
-                .map(h -> new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                        h.getId(), "Offre", String.valueOf(h.getOffre().getId()),
-                        h.getOffre().getTitre(),
-                        h.getOperation().name(), h.getDateOperation(),
-                        h.getAdmin().getNom() + " " + h.getAdmin().getPrenom(), null, null))
-                .sorted(java.util.Comparator.comparing(
-                                com.example.cinimana.dto.response.HistoriqueResponseDTO::dateOperation)
-                        .reversed())
-                .collect(java.util.stream.Collectors.toList());
+        return historiqueQueryService.list("offres",
+                new HistoriqueQueryService.Filtre(search, operations, null, start, end));
     }
 
     public java.util.Map<String, Long> getGlobalOfferHistoryStats() {
@@ -282,13 +160,8 @@ public class DashboardService {
     public java.util.List<com.example.cinimana.dto.response.HistoriqueResponseDTO> getFilteredFilmHistory(
             String search, java.util.List<TypeOperation> operations, java.time.LocalDateTime start,
             java.time.LocalDateTime end) {
-        return historiqueFilmRepository.findFiltered(search, operations, start, end).stream()
-                .map(h -> new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                        h.getId(), "Film", String.valueOf(h.getFilm().getId()),
-                        h.getFilm().getTitre(),
-                        h.getOperation().name(), h.getDateOperation(),
-                        h.getAdmin().getNom() + " " + h.getAdmin().getPrenom(), null, null))
-                .collect(java.util.stream.Collectors.toList());
+        return historiqueQueryService.list("films",
+                new HistoriqueQueryService.Filtre(search, operations, null, start, end));
     }
 
     public java.util.Map<String, Long> getGlobalFilmHistoryStats() {
@@ -302,13 +175,8 @@ public class DashboardService {
     public java.util.List<com.example.cinimana.dto.response.HistoriqueResponseDTO> getFilteredSalleHistory(
             String search, java.util.List<TypeOperation> operations, java.time.LocalDateTime start,
             java.time.LocalDateTime end) {
-        return historiqueSalleRepository.findFiltered(search, operations, start, end).stream()
-                .map(h -> new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                        h.getId(), "Salle", String.valueOf(h.getSalle().getId()),
-                        h.getSalle().getNom(),
-                        h.getOperation().name(), h.getDateOperation(),
-                        h.getAdmin().getNom() + " " + h.getAdmin().getPrenom(), null, null))
-                .collect(java.util.stream.Collectors.toList());
+        return historiqueQueryService.list("salles",
+                new HistoriqueQueryService.Filtre(search, operations, null, start, end));
     }
 
     public java.util.Map<String, Long> getGlobalSalleHistoryStats() {
@@ -322,15 +190,8 @@ public class DashboardService {
     public java.util.List<com.example.cinimana.dto.response.HistoriqueResponseDTO> getFilteredSeanceHistory(
             String search, java.util.List<TypeOperation> operations, java.time.LocalDateTime start,
             java.time.LocalDateTime end) {
-        return historiqueSeanceRepository.findFiltered(search, operations, start, end).stream()
-                .map(h -> new com.example.cinimana.dto.response.HistoriqueResponseDTO(
-                        h.getId(), "Séance", String.valueOf(h.getSeance().getId()), // entiteId
-                        h.getSeance().getFilm().getTitre() + " (" + h.getSeance().getDateHeure()
-                                + ")",
-                        h.getOperation().name(), h.getDateOperation(),
-                        h.getCommercial().getNom() + " " + h.getCommercial().getPrenom(), null,
-                        h.getSeance().getDateHeure().toString()))
-                .collect(java.util.stream.Collectors.toList());
+        return historiqueQueryService.list("seances",
+                new HistoriqueQueryService.Filtre(search, operations, null, start, end));
     }
 
     public java.util.Map<String, Long> getGlobalSeanceHistoryStats() {
@@ -0,0 +1,221 @@
+package com.example.cinimana.service.admin;
+
+import com.example.cinimana.dto.response.HistoriquePageDTO;
+import com.example.cinimana.dto.response.HistoriqueResponseDTO;
+import com.example.cinimana.model.*;
+import com.example.cinimana.service.export.PageCursor;
+import com.example.cinimana.service.export.PagedRows;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Moteur de requêtes commun aux tables Historique* : filtres (recherche, opérations, rôles, période)
+ * appliqués en base, projection directe vers HistoriqueResponseDTO (sans charger les entités liées),
+ * pagination par curseur (dateOperation, id), comptage sans lecture des lignes et parcours paginé pour les exports.
+ */
+@Service
+@RequiredArgsConstructor
+public class HistoriqueQueryService {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final EntityManager entityManager;
+
+    /**
+     * Critères de filtrage, tous facultatifs (roles ne s'applique qu'à l'historique des utilisateurs)
+     */
+    public record Filtre(String search, List<TypeOperation> operations, List<Role> roles,
+                         LocalDateTime debut, LocalDateTime fin) {
+    }
+
+    /**
+     * Description d'une table d'historique : chemins recherchés, colonnes projetées et mise en forme.
+     * Colonnes communes : id, entiteId, nom de l'entité, opération, date, nom et prénom de l'auteur ;
+     * les suivantes sont propres à la table.
+     */
+    private record Source(Class<?> entite, List<String> recherche, List<String> colonnes, String role,
+                          Function<Object[], HistoriqueResponseDTO> mapper) {
+    }
+
+    private static final Map<String, Source> SOURCES = Map.of(
+            "users", new Source(HistoriqueUtilisateur.class,
+                    List.of("admin.nom", "admin.prenom", "utilisateur.nom", "utilisateur.prenom"),
+                    List.of("id", "utilisateur.id", "utilisateur.nom", "operation", "dateOperation",
+                            "admin.nom", "admin.prenom", "utilisateur.prenom", "utilisateur.role"),
+                    "utilisateur.role",
+                    row -> dto(row, ((Role) row[8]).name(), row[2] + " " + row[7], null)),
+            "films", new Source(HistoriqueFilm.class,
+                    List.of("admin.nom", "admin.prenom", "film.titre"),
+                    List.of("id", "film.id", "film.titre", "operation", "dateOperation", "admin.nom", "admin.prenom"),
+                    null,
+                    row -> dto(row, "Film", (String) row[2], null)),
+            "salles", new Source(HistoriqueSalle.class,
+                    List.of("admin.nom", "admin.prenom", "salle.nom"),
+                    List.of("id", "salle.id", "salle.nom", "operation", "dateOperation", "admin.nom", "admin.prenom"),
+                    null,
+                    row -> dto(row, "Salle", (String) row[2], null)),
+            "offres", new Source(HistoriqueOffre.class,
+                    List.of("admin.nom", "admin.prenom", "offre.titre"),
+                    List.of("id", "offre.id", "offre.titre", "operation", "dateOperation", "admin.nom", "admin.prenom"),
+                    null,
+                    row -> dto(row, "Offre", (String) row[2], null)),
+            "seances", new Source(HistoriqueSeance.class,
+                    List.of("commercial.nom", "commercial.prenom", "seance.film.titre"),
+                    List.of("id", "seance.id", "seance.film.titre", "operation", "dateOperation",
+                            "commercial.nom", "commercial.prenom", "seance.dateHeure"),
+                    null,
+                    row -> dto(row, "Séance", row[2] + " (" + row[7] + ")", String.valueOf(row[7]))));
+
+    /**
+     * Page suivant le curseur (null pour la première page), la plus récente opération en premier
+     */
+    @Transactional(readOnly = true)
+    public HistoriquePageDTO page(String type, Filtre filtre, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor apres = PageCursor.decode(cursor);
+
+        // Une ligne de plus pour savoir s'il reste une page, sans COUNT
+        List<HistoriqueResponseDTO> items = new ArrayList<>(find(type, filtre, apres, pageSize + 1));
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items.remove(pageSize);
+        }
+        String nextCursor = hasMore ? curseur(items.get(items.size() - 1)).encode() : null;
+        return new HistoriquePageDTO(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Toutes les opérations correspondant au filtre (écrans existants non paginés)
+     */
+    @Transactional(readOnly = true)
+    public List<HistoriqueResponseDTO> list(String type, Filtre filtre) {
+        return find(type, filtre, null, null);
+    }
+
+    /**
+     * Nombre d'opérations correspondant au filtre, sans lire les lignes
+     */
+    @Transactional(readOnly = true)
+    public long count(String type, Filtre filtre) {
+        Source source = source(type);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<?> root = query.from(source.entite());
+        Joins joins = new Joins(root);
+        query.select(cb.count(root)).where(predicates(cb, joins, source, filtre, null));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Parcours paginé pour les exports : une page en mémoire à la fois
+     */
+    public Iterable<HistoriqueResponseDTO> stream(String type, Filtre filtre) {
+        source(type); // Type inconnu refusé avant l'écriture de la réponse
+        return new PagedRows<>(PagedRows.DEFAULT_PAGE_SIZE,
+                last -> find(type, filtre, last != null ? curseur(last) : null, PagedRows.DEFAULT_PAGE_SIZE));
+    }
+
+    private List<HistoriqueResponseDTO> find(String type, Filtre filtre, PageCursor apres, Integer limit) {
+        Source source = source(type);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<?> root = query.from(source.entite());
+        Joins joins = new Joins(root);
+
+        query.multiselect(source.colonnes().stream().<Selection<?>>map(joins::path).toList())
+                .where(predicates(cb, joins, source, filtre, apres))
+                .orderBy(cb.desc(root.get("dateOperation")), cb.desc(root.get("id")));
+
+        var typedQuery = entityManager.createQuery(query);
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList().stream().map(source.mapper()).toList();
+    }
+
+    private Predicate[] predicates(CriteriaBuilder cb, Joins joins, Source source, Filtre filtre,
+                                   PageCursor apres) {
+        List<Predicate> predicates = new ArrayList<>();
+        Path<LocalDateTime> date = joins.path("dateOperation");
+
+        if (filtre.search() != null && !filtre.search().isBlank()) {
+            String motif = "%" + filtre.search().trim().toLowerCase() + "%";
+            predicates.add(cb.or(source.recherche().stream()
+                    .map(chemin -> cb.like(cb.lower(joins.<String>path(chemin)), motif))
+                    .toArray(Predicate[]::new)));
+        }
+        if (filtre.operations() != null && !filtre.operations().isEmpty()) {
+            predicates.add(joins.path("operation").in(filtre.operations()));
+        }
+        if (source.role() != null && filtre.roles() != null && !filtre.roles().isEmpty()) {
+            predicates.add(joins.path(source.role()).in(filtre.roles()));
+        }
+        if (filtre.debut() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, filtre.debut()));
+        }
+        if (filtre.fin() != null) {
+            predicates.add(cb.lessThanOrEqualTo(date, filtre.fin()));
+        }
+        if (apres != null) {
+            // Curseur (dateOperation, id) décroissant : couvert par l'index (date_operation, id)
+            Path<Long> id = joins.path("id");
+            predicates.add(cb.or(cb.lessThan(date, apres.date()),
+                    cb.and(cb.equal(date, apres.date()), cb.lessThan(id, apres.id()))));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    private static Source source(String type) {
+        Source source = type != null ? SOURCES.get(type) : null;
+        if (source == null) {
+            throw new IllegalArgumentException("Type d'historique inconnu: " + type);
+        }
+        return source;
+    }
+
+    private static HistoriqueResponseDTO dto(Object[] row, String entiteType, String entiteNom, String info) {
+        return new HistoriqueResponseDTO((Long) row[0], entiteType, String.valueOf(row[1]), entiteNom,
+                ((TypeOperation) row[3]).name(), (LocalDateTime) row[4], row[5] + " " + row[6], null, info);
+    }
+
+    private static PageCursor curseur(HistoriqueResponseDTO operation) {
+        return new PageCursor(operation.dateOperation(), operation.idOperation());
+    }
+
+    /**
+     * Jointures internes partagées par les chemins d'une même requête (h.admin, h.seance.film...)
+     */
+    private static final class Joins {
+        private final Root<?> root;
+        private final Map<String, From<?, ?>> joins = new HashMap<>();
+
+        Joins(Root<?> root) {
+            this.root = root;
+        }
+
+        <T> Path<T> path(String chemin) {
+            int dot = chemin.lastIndexOf('.');
+            From<?, ?> from = dot < 0 ? root : join(chemin.substring(0, dot));
+            return from.get(chemin.substring(dot + 1));
+        }
+
+        private From<?, ?> join(String association) {
+            From<?, ?> existing = joins.get(association);
+            if (existing != null) {
+                return existing;
+            }
+            int dot = association.lastIndexOf('.');
+            From<?, ?> parent = dot < 0 ? root : join(association.substring(0, dot));
+            From<?, ?> join = parent.join(association.substring(dot + 1));
+            joins.put(association, join);
+            return join;
+        }
+    }
+}
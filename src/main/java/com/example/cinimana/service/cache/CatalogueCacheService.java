@@ -0,0 +1,122 @@
+package com.example.cinimana.service.cache;
+
+import com.example.cinimana.dto.response.FilmResponseDTO;
+import com.example.cinimana.dto.response.OffreResponseDTO;
+import com.example.cinimana.dto.response.SeanceResponseDTO;
+import com.example.cinimana.service.event.OffresDesactiveesEvent;
+import com.example.cinimana.service.event.SeancesDesactiveesEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Caches du catalogue public (films, séances, offres).
+ * Les données ne changent que lors d'une modification par un admin ou un commercial :
+ * les services d'écriture invalident explicitement la région concernée.
+ */
+@Service
+public class CatalogueCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogueCacheService.class);
+
+    private final TtlCache<String, List<FilmResponseDTO>> activeFilms;
+    private final TtlCache<String, FilmResponseDTO> filmDetails;
+    private final TtlCache<String, List<SeanceResponseDTO>> futureSeancesByFilm;
+    private final TtlCache<Long, SeanceResponseDTO> seanceDetails;
+    private final TtlCache<String, List<OffreResponseDTO>> activeOffres;
+
+    public CatalogueCacheService(@Value("${app.cache.catalogue.max-size:1000}") int maxSize,
+                                 @Value("${app.cache.catalogue.ttl-seconds:300}") long ttlSeconds,
+                                 @Value("${app.cache.seances.ttl-seconds:60}") long seancesTtlSeconds) {
+        this.activeFilms = new TtlCache<>("films.actifs", 1, ttlSeconds);
+        this.filmDetails = new TtlCache<>("films.details", maxSize, ttlSeconds);
+        // TTL plus court : la liste des séances futures dépend de l'heure courante
+        this.futureSeancesByFilm = new TtlCache<>("seances.parFilm", maxSize, seancesTtlSeconds);
+        this.seanceDetails = new TtlCache<>("seances.details", maxSize, ttlSeconds);
+        this.activeOffres = new TtlCache<>("offres.actives", 1, ttlSeconds);
+    }
+
+    public TtlCache<String, List<FilmResponseDTO>> activeFilms() {
+        return activeFilms;
+    }
+
+    public TtlCache<String, FilmResponseDTO> filmDetails() {
+        return filmDetails;
+    }
+
+    public TtlCache<String, List<SeanceResponseDTO>> futureSeancesByFilm() {
+        return futureSeancesByFilm;
+    }
+
+    public TtlCache<Long, SeanceResponseDTO> seanceDetails() {
+        return seanceDetails;
+    }
+
+    public TtlCache<String, List<OffreResponseDTO>> activeOffres() {
+        return activeOffres;
+    }
+
+    /**
+     * Film créé, modifié ou (dés)activé : les séances affichent aussi le film
+     */
+    public void invalidateFilms() {
+        invalidate(() -> {
+            activeFilms.invalidateAll();
+            filmDetails.invalidateAll();
+            futureSeancesByFilm.invalidateAll();
+            seanceDetails.invalidateAll();
+        });
+    }
+
+    /**
+     * Séance créée, modifiée ou désactivée (ou salle modifiée)
+     */
+    public void invalidateSeances() {
+        invalidate(() -> {
+            futureSeancesByFilm.invalidateAll();
+            seanceDetails.invalidateAll();
+        });
+    }
+
+    public void invalidateOffres() {
+        invalidate(activeOffres::invalidateAll);
+    }
+
+    @EventListener
+    public void onSeancesDesactivees(SeancesDesactiveesEvent event) {
+        invalidateSeances();
+    }
+
+    @EventListener
+    public void onOffresDesactivees(OffresDesactiveesEvent event) {
+        invalidateOffres();
+    }
+
+    public List<TtlCache.Stats> stats() {
+        return List.of(activeFilms.stats(), filmDetails.stats(), futureSeancesByFilm.stats(),
+                seanceDetails.stats(), activeOffres.stats());
+    }
+
+    /**
+     * Invalide tout de suite, puis à nouveau après le commit : une lecture concurrente
+     * ne peut pas remettre en cache l'état d'avant la modification
+     */
+    private void invalidate(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+        logger.debug("Cache du catalogue invalidé");
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.cinimana.service.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache en lecture traversante borné en taille (LRU) et en durée de vie (TTL), avec compteurs de hits/miss.
+ * Le chargement se fait hors verrou ; une valeur chargée pendant une invalidation n'est pas conservée.
+ */
+public final class TtlCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long generation; // Incrémenté à chaque invalidation (sous verrou)
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    /**
+     * Statistiques d'un cache (exposées aux admins)
+     */
+    public record Stats(String name, int size, int maxSize, long hits, long misses, long evictions, double hitRate) {
+    }
+
+    public TtlCache(String name, int maxSize, long ttlSeconds) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        // Ordre d'accès : l'entrée la moins récemment lue est évincée en premier
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.expiresAt() < 0) {
+                    hits.incrementAndGet();
+                    return entry.value();
+                }
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+            loadGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        V value = loader.apply(key);
+
+        if (value != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(java.util.function.BiPredicate<K, V> predicate) {
+        generation++;
+        entries.entrySet().removeIf(e -> predicate.test(e.getKey(), e.getValue().value()));
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        long h = hits.get();
+        long m = misses.get();
+        double hitRate = h + m == 0 ? 0.0 : (double) h / (h + m);
+        return new Stats(name, size, maxSize, h, m, evictions.get(), hitRate);
+    }
+}
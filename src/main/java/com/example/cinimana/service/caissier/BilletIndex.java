@@ -0,0 +1,281 @@
+package com.example.cinimana.service.caissier;
+
+import com.example.cinimana.model.CodeReservation;
+import com.example.cinimana.model.StatutReservation;
+import com.example.cinimana.repository.CaissierRepository;
+import com.example.cinimana.repository.ReservationRepository;
+import com.example.cinimana.repository.SiegeReserveRepository;
+import com.example.cinimana.service.event.ReservationAnnulee;
+import com.example.cinimana.service.event.ReservationsAnnuleesEvent;
+import com.example.cinimana.service.event.StatutReservationModifie;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Index en mémoire des billets de la journée d'exploitation, par code : la vérification du scan
+ * à l'entrée ne touche pas la BDD. Chaque billet porte une vue immuable (affichage) et un état
+ * (statut, validation) en lecture seule : la BDD fait foi, l'état n'est mis à jour qu'après le
+ * commit des changements de statut (validation en caisse, client, tâches planifiées, annulation).
+ * Un code absent de l'index est lu en BDD puis ajouté. L'index est indexé par la forme compacte
+ * du code : un billet se retrouve qu'il soit scanné ou saisi en forme compacte ou en ancien UUID.
+ */
+@Component
+@RequiredArgsConstructor
+public class BilletIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(BilletIndex.class);
+    private static final int TAILLE_LOT_SIEGES = 1000;
+
+    /**
+     * État courant d'un billet, remplacé en bloc à chaque changement
+     */
+    public record EtatBillet(StatutReservation statut, LocalDateTime dateValidation, String validePar) {
+    }
+
+    public static final class Billet {
+        private final BilletVue vue;
+        private final AtomicReference<EtatBillet> etat;
+
+        private Billet(BilletVue vue, EtatBillet etat) {
+            this.vue = vue;
+            this.etat = new AtomicReference<>(etat);
+        }
+
+        public BilletVue vue() {
+            return vue;
+        }
+
+        public EtatBillet etat() {
+            return etat.get();
+        }
+    }
+
+    private record Index(LocalDate jour, Map<String, Billet> parCode, Map<Long, Billet> parId) {
+    }
+
+    private final ReservationRepository reservationRepo;
+    private final SiegeReserveRepository siegeReserveRepo;
+    private final CaissierRepository caissierRepo;
+
+    @Value("${app.caissier.index.heure-debut-journee:6}")
+    private int heureDebutJournee;
+
+    private volatile Index index = new Index(null, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    private final Map<String, String> nomsCaissiers = new ConcurrentHashMap<>();
+    private final AtomicLong verifications = new AtomicLong();
+    private final AtomicLong chargementsBdd = new AtomicLong();
+    private final AtomicLong validations = new AtomicLong();
+    private final DebitParSeconde debit = new DebitParSeconde();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            recharger();
+        } catch (RuntimeException e) {
+            // Sans index, les billets sont lus en BDD au premier scan
+            logger.error("❌ Chargement de l'index des billets impossible: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recharge l'index au début de chaque journée d'exploitation (séances de 6h à 6h le lendemain par défaut)
+     */
+    @Scheduled(cron = "0 0 ${app.caissier.index.heure-debut-journee:6} * * *")
+    public void recharger() {
+        long debutChargement = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate jour = now.getHour() < heureDebutJournee ? now.toLocalDate().minusDays(1) : now.toLocalDate();
+        LocalDateTime debut = jour.atTime(heureDebutJournee, 0);
+
+        List<BilletLigne> lignes = reservationRepo.findBilletsBySeanceBetween(debut, debut.plusDays(1));
+        Map<Long, List<String>> sieges = chargerSieges(lignes.stream().map(BilletLigne::id).toList());
+
+        Map<String, Billet> parCode = new ConcurrentHashMap<>(lignes.size() * 2);
+        Map<Long, Billet> parId = new ConcurrentHashMap<>(lignes.size() * 2);
+        for (BilletLigne ligne : lignes) {
+            Billet billet = creer(ligne, sieges.getOrDefault(ligne.id(), List.of()));
+            parCode.put(cle(ligne.code()), billet);
+            parId.put(ligne.id(), billet);
+        }
+
+        index = new Index(jour, parCode, parId);
+        logger.info("✅ Index des billets du {} chargé: {} billet(s) en {} ms", jour, parCode.size(),
+                System.currentTimeMillis() - debutChargement);
+    }
+
+    public Billet trouver(String code) {
+        verifications.incrementAndGet();
+        byte[] codeBinaire = CodeReservation.lire(code);
+        if (codeBinaire == null) {
+            return null;
+        }
+        Billet billet = index.parCode().get(CodeReservation.formater(codeBinaire));
+        if (billet != null) {
+            return billet;
+        }
+        chargementsBdd.incrementAndGet();
+        return reservationRepo.findBilletByCodeBinaire(codeBinaire).map(this::ajouter).orElse(null);
+    }
+
+    public Billet trouver(Long reservationId) {
+        Billet billet = index.parId().get(reservationId);
+        if (billet != null) {
+            return billet;
+        }
+        chargementsBdd.incrementAndGet();
+        return reservationRepo.findBilletById(reservationId).map(this::ajouter).orElse(null);
+    }
+
+    /**
+     * Validation enregistrée en BDD par la caisse : reportée dans l'index après le commit
+     */
+    public void enregistrerValidation(Long reservationId, LocalDateTime dateValidation, String caissierEmail) {
+        apresCommit(() -> {
+            Billet billet = index.parId().get(reservationId);
+            if (billet != null) {
+                billet.etat.set(new EtatBillet(StatutReservation.VALIDEE, dateValidation, nomCaissier(caissierEmail)));
+            }
+            validations.incrementAndGet();
+            debit.enregistrer();
+        });
+    }
+
+    @EventListener
+    public void onStatutModifie(StatutReservationModifie event) {
+        apresCommit(() -> majStatut(event.reservationId(), event.statut()));
+    }
+
+    @EventListener
+    public void onReservationsAnnulees(ReservationsAnnuleesEvent event) {
+        List<Long> ids = event.reservations().stream().map(ReservationAnnulee::id).toList();
+        apresCommit(() -> ids.forEach(id -> majStatut(id, StatutReservation.ANNULEE)));
+    }
+
+    public BilletIndexStats stats() {
+        Index courant = index;
+        int[] fenetre = debit.fenetre();
+        return new BilletIndexStats(courant.jour(), courant.parCode().size(), verifications.get(),
+                chargementsBdd.get(), validations.get(), fenetre[0] / 60.0, fenetre[1]);
+    }
+
+    private void majStatut(Long reservationId, StatutReservation statut) {
+        Billet billet = index.parId().get(reservationId);
+        if (billet == null) {
+            return;
+        }
+        billet.etat.updateAndGet(actuel -> {
+            if (actuel.statut() == statut) {
+                return actuel;
+            }
+            return new EtatBillet(statut, actuel.dateValidation(), actuel.validePar());
+        });
+    }
+
+    private Billet ajouter(BilletLigne ligne) {
+        Index courant = index;
+        Billet billet = creer(ligne, chargerSieges(List.of(ligne.id())).getOrDefault(ligne.id(), List.of()));
+        Billet existant = courant.parId().putIfAbsent(ligne.id(), billet);
+        if (existant != null) {
+            return existant;
+        }
+        courant.parCode().put(cle(ligne.code()), billet);
+        return billet;
+    }
+
+    // Forme compacte du code, y compris pour les réservations encore affichées en ancien UUID
+    private static String cle(String code) {
+        byte[] codeBinaire = CodeReservation.lire(code);
+        return codeBinaire != null ? CodeReservation.formater(codeBinaire) : code;
+    }
+
+    private Billet creer(BilletLigne ligne, List<String> sieges) {
+        String validePar = ligne.caissierNom() != null ? ligne.caissierNom() + " " + ligne.caissierPrenom() : null;
+        return new Billet(BilletVue.of(ligne, sieges), new EtatBillet(ligne.statut(), ligne.dateValidation(), validePar));
+    }
+
+    private Map<Long, List<String>> chargerSieges(List<Long> reservationIds) {
+        Map<Long, List<String>> sieges = new HashMap<>();
+        for (int i = 0; i < reservationIds.size(); i += TAILLE_LOT_SIEGES) {
+            Collection<Long> lot = reservationIds.subList(i, Math.min(i + TAILLE_LOT_SIEGES, reservationIds.size()));
+            for (Object[] row : siegeReserveRepo.findPlacesByReservationIds(lot)) {
+                sieges.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add("R" + row[1] + "-N" + row[2]);
+            }
+        }
+        return sieges;
+    }
+
+    private String nomCaissier(String email) {
+        if (email == null) {
+            return null;
+        }
+        return nomsCaissiers.computeIfAbsent(email, e -> caissierRepo.findByEmail(e)
+                .map(c -> c.getNom() + " " + c.getPrenom())
+                .orElse(null));
+    }
+
+    private void apresCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Validations par seconde sur la dernière minute (60 compteurs d'une seconde)
+     */
+    private static final class DebitParSeconde {
+        private final long[] secondes = new long[60];
+        private final int[] comptes = new int[60];
+
+        synchronized void enregistrer() {
+            long seconde = System.currentTimeMillis() / 1000;
+            int i = (int) (seconde % 60);
+            if (secondes[i] != seconde) {
+                secondes[i] = seconde;
+                comptes[i] = 0;
+            }
+            comptes[i]++;
+        }
+
+        /**
+         * @return [total sur 60 s, maximum sur une seconde]
+         */
+        synchronized int[] fenetre() {
+            long maintenant = System.currentTimeMillis() / 1000;
+            int total = 0;
+            int pic = 0;
+            for (int i = 0; i < 60; i++) {
+                if (maintenant - secondes[i] < 60) {
+                    total += comptes[i];
+                    pic = Math.max(pic, comptes[i]);
+                }
+            }
+            return new int[] { total, pic };
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.cinimana.service.caissier;
+
+import java.time.LocalDate;
+
+/**
+ * Indicateurs de l'index des billets du jour (endpoint d'administration)
+ */
+public record BilletIndexStats(LocalDate jour, int billets, long verifications, long chargementsBdd,
+                               long validations, double validationsParSeconde, int picValidationsParSeconde) {
+}
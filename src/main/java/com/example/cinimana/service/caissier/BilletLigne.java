@@ -0,0 +1,15 @@
+package com.example.cinimana.service.caissier;
+
+import com.example.cinimana.model.StatutReservation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de billet lue en une seule requête (réservation, client, séance, film, salle, offre, catégorie)
+ */
+public record BilletLigne(Long id, String code, StatutReservation statut, String clientNom, String clientPrenom,
+                          String clientEmail, String film, LocalDateTime dateHeure, String salle, Integer places,
+                          Double montant, LocalDateTime dateReservation, LocalDateTime dateValidation,
+                          String caissierNom, String caissierPrenom, String offreTitre, Double offrePrix,
+                          String categorie, Double prixUnitaire) {
+}
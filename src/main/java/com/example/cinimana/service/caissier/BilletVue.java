@@ -0,0 +1,23 @@
+package com.example.cinimana.service.caissier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Vue immuable d'un billet pour le contrôle en caisse : tout ce qu'affiche l'écran de scan,
+ * sans entité ni chargement paresseux
+ */
+public record BilletVue(Long id, String code, String client, String clientEmail, String film,
+                        LocalDateTime dateHeure, String salle, int places, double montant,
+                        LocalDateTime dateReservation, List<String> sieges, String offreTitre, Double offrePrix,
+                        String categorie, double prixUnitaire) {
+
+    static BilletVue of(BilletLigne ligne, List<String> sieges) {
+        return new BilletVue(ligne.id(), ligne.code(), ligne.clientNom() + " " + ligne.clientPrenom(),
+                ligne.clientEmail(), ligne.film(), ligne.dateHeure(), ligne.salle(),
+                ligne.places() != null ? ligne.places() : 0, ligne.montant() != null ? ligne.montant() : 0.0,
+                ligne.dateReservation(), List.copyOf(sieges), ligne.offreTitre(), ligne.offrePrix(),
+                ligne.categorie() != null ? ligne.categorie() : "Standard",
+                ligne.prixUnitaire() != null ? ligne.prixUnitaire() : 0.0);
+    }
+}
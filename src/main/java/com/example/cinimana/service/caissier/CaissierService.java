@@ -5,6 +5,8 @@ import com.example.cinimana.model.Reservation;
 import com.example.cinimana.model.StatutReservation;
 import com.example.cinimana.repository.CaissierRepository;
 import com.example.cinimana.repository.ReservationRepository;
+import com.example.cinimana.service.SeanceOccupationService;
+import com.example.cinimana.service.seat.SeatMapService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,18 +28,22 @@ public class CaissierService {
 
     private final ReservationRepository reservationRepo;
     private final CaissierRepository caissierRepo;
+    private final SeatMapService seatMapService;
+    private final SeanceOccupationService occupationService;
+    private final BilletIndex billetIndex;
 
     /**
      * ÉTAPE 1 : VÉRIFIER (sans modifier la BDD)
+     * Lecture dans l'index des billets du jour (BDD seulement pour un billet hors index)
      */
     public Map<String, Object> verifierBillet(String code) {
-        logger.info("Vérification du billet avec le code: {}", code);
+        logger.debug("Vérification du billet avec le code: {}", code);
         Map<String, Object> response = new HashMap<>();
 
         // 1. Chercher la réservation
-        Reservation resa = reservationRepo.findByCodeReservation(code);
+        BilletIndex.Billet billet = code != null ? billetIndex.trouver(code) : null;
 
-        if (resa == null) {
+        if (billet == null) {
             response.put("success", false);
             response.put("canValidate", false);
             response.put("message", "❌ Réservation introuvable");
@@ -45,32 +51,35 @@ public class CaissierService {
             return response;
         }
 
+        BilletVue vue = billet.vue();
+        BilletIndex.EtatBillet etat = billet.etat();
+
         // 2. Vérifier le statut
-        if (resa.getStatut() == StatutReservation.VALIDEE) {
+        if (etat.statut() == StatutReservation.VALIDEE) {
             response.put("success", false);
             response.put("canValidate", false);
             response.put("message", "❌ Billet déjà utilisé");
             response.put("errorType", "ALREADY_VALIDATED");
-            response.put("dateValidation", resa.getDateValidation());
-            if (resa.getCaissier() != null) {
-                response.put("validePar", resa.getCaissier().getNom() + " " + resa.getCaissier().getPrenom());
+            response.put("dateValidation", etat.dateValidation());
+            if (etat.validePar() != null) {
+                response.put("validePar", etat.validePar());
             }
-            addReservationInfo(response, resa);
+            addReservationInfo(response, vue, etat);
             return response;
         }
 
-        if (resa.getStatut() == StatutReservation.ANNULEE) {
+        if (etat.statut() == StatutReservation.ANNULEE) {
             response.put("success", false);
             response.put("canValidate", false);
             response.put("message", "❌ Réservation annulée");
             response.put("errorType", "CANCELLED");
-            addReservationInfo(response, resa);
+            addReservationInfo(response, vue, etat);
             return response;
         }
 
         // 3. Vérifier l'horaire de la séance
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime seanceDebut = resa.getSeance().getDateHeure();
+        LocalDateTime seanceDebut = vue.dateHeure();
 
         String warningMessage = null;
 
@@ -88,66 +97,80 @@ public class CaissierService {
         response.put("success", true);
         response.put("canValidate", true);
         response.put("message", "✅ Billet valide - Prêt à valider");
-        response.put("reservationId", resa.getId());
-        response.put("code", resa.getCodeReservation());
+        response.put("reservationId", vue.id());
+        response.put("code", vue.code());
 
         if (warningMessage != null) {
             response.put("warning", warningMessage);
         }
 
-        addReservationInfo(response, resa);
+        addReservationInfo(response, vue, etat);
 
         return response;
     }
 
     /**
      * ÉTAPE 2 : VALIDER définitivement
+     * UPDATE conditionnel sur le statut : un seul caissier peut réussir, la BDD fait foi.
+     * L'index des billets n'est mis à jour qu'après le commit.
      */
     @Transactional
     public Map<String, Object> validerEntree(Long reservationId, String username) {
-        logger.info("Validation de l'entrée pour la réservation ID: {} par {}", reservationId, username);
+        logger.debug("Validation de l'entrée pour la réservation ID: {} par {}", reservationId, username);
         Map<String, Object> response = new HashMap<>();
 
-        // 1. Récupérer la réservation
-        Optional<Reservation> optResa = reservationRepo.findById(reservationId);
+        // 1. Récupérer le statut en BDD
+        Optional<StatutReservation> statut = reservationRepo.findStatutById(reservationId);
 
-        if (optResa.isEmpty()) {
+        if (statut.isEmpty()) {
             response.put("success", false);
             response.put("message", "❌ Réservation introuvable");
             return response;
         }
 
-        Reservation resa = optResa.get();
+        // 2. Double vérification et 3. VALIDATION DÉFINITIVE
+        Caissier caissier = username != null ? caissierRepo.findByEmail(username).orElse(null) : null;
+        LocalDateTime maintenant = LocalDateTime.now();
+        StatutReservation ancien = statut.get();
+        int lignes = 0;
+        // Un second essai si le client a confirmé entre la lecture et l'UPDATE
+        for (int essai = 0; essai < 2 && lignes == 0 && validable(ancien); essai++) {
+            lignes = reservationRepo.validerSiStatut(reservationId, ancien, caissier, maintenant);
+            if (lignes == 0) {
+                ancien = reservationRepo.findStatutById(reservationId).orElse(StatutReservation.ANNULEE);
+            }
+        }
 
-        // 2. Double vérification
-        if (resa.getStatut() == StatutReservation.VALIDEE) {
+        if (lignes == 0) {
             response.put("success", false);
-            response.put("message", "❌ Déjà validé par " +
-                    (resa.getCaissier() != null ? (resa.getCaissier().getNom() + " " + resa.getCaissier().getPrenom())
-                            : "un autre caissier"));
+            if (ancien == StatutReservation.ANNULEE) {
+                response.put("message", "❌ Réservation annulée");
+            } else {
+                String validePar = reservationRepo.findById(reservationId)
+                        .map(Reservation::getCaissier)
+                        .map(c -> c.getNom() + " " + c.getPrenom())
+                        .orElse("un autre caissier");
+                response.put("message", "❌ Déjà validé par " + validePar);
+            }
             return response;
         }
 
-        // 3. VALIDATION DÉFINITIVE
-        resa.setStatut(StatutReservation.VALIDEE);
-        resa.setDateValidation(LocalDateTime.now());
-
-        // Associer le caissier
-        if (username != null) {
-            Optional<Caissier> caissier = caissierRepo.findByEmail(username);
-            caissier.ifPresent(resa::setCaissier);
-        }
-
-        reservationRepo.save(resa);
+        Reservation resa = reservationRepo.findById(reservationId).orElseThrow();
+        occupationService.enregistrerTransition(resa, ancien, StatutReservation.VALIDEE);
+        billetIndex.enregistrerValidation(reservationId, maintenant, username);
 
         // 4. Confirmation
         response.put("success", true);
         response.put("message", "✅ Entrée validée avec succès !");
-        response.put("validationTime", resa.getDateValidation());
+        response.put("validationTime", maintenant);
 
         return response;
     }
 
+    private boolean validable(StatutReservation statut) {
+        return statut == StatutReservation.EN_ATTENTE || statut == StatutReservation.CONFIRMEE_CLIENT;
+    }
+
     /**
      * ÉTAPE 3 : ANNULER la réservation
      */
@@ -175,7 +198,7 @@ public class CaissierService {
         }
 
         // 3. ANNULATION
-        resa.setStatut(StatutReservation.ANNULEE);
+        occupationService.changerStatut(resa, StatutReservation.ANNULEE);
 
         // Associer le caissier qui annule
         if (username != null) {
@@ -184,6 +207,7 @@ public class CaissierService {
         }
 
         reservationRepo.save(resa);
+        seatMapService.releaseAfterCommit(resa);
 
         // 4. Confirmation
         response.put("success", true);
@@ -249,39 +273,31 @@ public class CaissierService {
         return stats;
     }
 
-    private void addReservationInfo(Map<String, Object> response, Reservation resa) {
-        response.put("client", resa.getClient().getNom() + " " + resa.getClient().getPrenom());
-        response.put("clientEmail", resa.getClient().getEmail());
-        response.put("film", resa.getSeance().getFilm().getTitre());
-        response.put("horaire", resa.getSeance().getDateHeure().toLocalTime().toString());
-        response.put("dateSeance", resa.getSeance().getDateHeure().toLocalDate().toString());
-        response.put("salle", resa.getSeance().getSalle().getNom());
-        response.put("places", resa.getNombrePlace());
-        response.put("montant", resa.getMontantTotal());
-        response.put("dateReservation", resa.getDateReservation());
-        response.put("statutActuel", resa.getStatut());
+    private void addReservationInfo(Map<String, Object> response, BilletVue vue, BilletIndex.EtatBillet etat) {
+        response.put("client", vue.client());
+        response.put("clientEmail", vue.clientEmail());
+        response.put("film", vue.film());
+        response.put("horaire", vue.dateHeure().toLocalTime().toString());
+        response.put("dateSeance", vue.dateHeure().toLocalDate().toString());
+        response.put("salle", vue.salle());
+        response.put("places", vue.places());
+        response.put("montant", vue.montant());
+        response.put("dateReservation", vue.dateReservation());
+        response.put("statutActuel", etat.statut());
 
         // Liste des sièges
-        List<String> siegeStrList = resa.getSieges().stream()
-                .map(s -> "R" + s.getRangee() + "-N" + s.getNumero())
-                .toList();
-        response.put("sieges", siegeStrList);
+        response.put("sieges", vue.sieges());
 
         // Détails de l'offre
-        if (resa.getOffre() != null) {
+        if (vue.offreTitre() != null) {
             Map<String, Object> offreInfo = new HashMap<>();
-            offreInfo.put("titre", resa.getOffre().getTitre());
-            offreInfo.put("prixApplique", resa.getOffre().getPrix());
+            offreInfo.put("titre", vue.offreTitre());
+            offreInfo.put("prixApplique", vue.offrePrix());
             response.put("offre", offreInfo);
         }
 
         // Intégration de la catégorie comme demandé
-        if (resa.getSeance().getCategorie() != null) {
-            response.put("categorie", resa.getSeance().getCategorie().getNom());
-            response.put("prixUnitaire", resa.getSeance().getCategorie().getPrixBase());
-        } else {
-            response.put("categorie", "Standard");
-            response.put("prixUnitaire", 0.0);
-        }
+        response.put("categorie", vue.categorie());
+        response.put("prixUnitaire", vue.prixUnitaire());
     }
 }
@@ -1,11 +1,15 @@
 package com.example.cinimana.service.client;
 
 import com.example.cinimana.dto.response.FilmResponseDTO;
+import com.example.cinimana.dto.response.OffreResponseDTO;
 import com.example.cinimana.dto.response.SeanceResponseDTO;
 import com.example.cinimana.model.Film;
 import com.example.cinimana.model.Seance;
 import com.example.cinimana.repository.FilmRepository;
 import com.example.cinimana.repository.SeanceRepository;
+import com.example.cinimana.service.cache.CatalogueCacheService;
+import com.example.cinimana.service.seat.SeatMap;
+import com.example.cinimana.service.seat.SeatMapService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,8 +24,9 @@ public class PublicService {
 
     private final FilmRepository filmRepository;
     private final SeanceRepository seanceRepository;
-    private final com.example.cinimana.repository.SiegeReserveRepository siegeReserveRepository;
+    private final SeatMapService seatMapService;
     private final com.example.cinimana.service.OffreService offreService;
+    private final CatalogueCacheService catalogueCache;
 
     private FilmResponseDTO mapFilmToDTO(Film film) {// Mapper simple Film -> FilmResponseDTO
         return new FilmResponseDTO(
@@ -86,43 +91,63 @@ public class PublicService {
         }
     }
 
+    // Lectures du catalogue servies depuis le cache (invalidé par les services d'écriture)
     @Transactional(readOnly = true)
     public List<FilmResponseDTO> getAllActiveFilms() {
-        return filmRepository.findByActif(true)
+        return catalogueCache.activeFilms().get("all", key -> filmRepository.findByActif(true)
                 .stream()// Transforme la liste des entités Film en flux (Stream) pour pouvoir les traiter facilement.
                 .map(this::mapFilmToDTO)// Chaque entité Film est convertie en FilmResponseDTO.
-                .collect(Collectors.toList()); // Retourner la liste des DTOs
+                .toList()); // Liste immuable : partagée entre les requêtes
     }
 
     @Transactional(readOnly = true)
     public FilmResponseDTO getFilmDetails(String id) {
-        Film film = filmRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Film non trouvé"));
-        return mapFilmToDTO(film);
+        return catalogueCache.filmDetails().get(id, key -> {
+            Film film = filmRepository.findById(key)
+                    .orElseThrow(() -> new RuntimeException("Film non trouvé"));
+            return mapFilmToDTO(film);
+        });
     }
 
     @Transactional(readOnly = true)
     public List<SeanceResponseDTO> getFutureSeancesByFilm(String filmId) {
-        return seanceRepository.findSeancesByFilmIdAfterDate(filmId, LocalDateTime.now())
-                .stream()
-                .map(this::mapSeanceToDTO)
-                .collect(Collectors.toList());
+        return catalogueCache.futureSeancesByFilm().get(filmId, key ->
+                seanceRepository.findSeancesByFilmIdAfterDate(key, LocalDateTime.now())
+                        .stream()
+                        .map(this::mapSeanceToDTO)
+                        .toList());
     }
 
     @Transactional(readOnly = true)
     public SeanceResponseDTO getSeanceDetails(Long id) {
-        Seance seance = seanceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Séance non trouvée"));
-        return mapSeanceToDTO(seance);
+        return catalogueCache.seanceDetails().get(id, key -> {
+            Seance seance = seanceRepository.findById(key)
+                    .orElseThrow(() -> new RuntimeException("Séance non trouvée"));
+            return mapSeanceToDTO(seance);
+        });
     }
 
+    /**
+     * Sièges occupés d'une séance : réservés ou dans un panier en cours.
+     * Lu depuis le plan de salle en mémoire (pas de requête après le premier chargement).
+     */
     @Transactional(readOnly = true)
     public List<com.example.cinimana.model.SiegeReserve> getReservedSeatsForSeance(Long seanceId) {
-        return siegeReserveRepository.findReservedSeatsForSeance(seanceId);
+        SeatMap seatMap = seatMapService.getSeatMap(seanceId);
+        List<com.example.cinimana.model.SiegeReserve> occupied = new java.util.ArrayList<>();
+        for (int index = 0; index < seatMap.getCapacite(); index++) {
+            if (seatMap.isTaken(index)) {
+                com.example.cinimana.model.SiegeReserve siege = new com.example.cinimana.model.SiegeReserve();
+                siege.setRangee(seatMap.rangeeOf(index));
+                siege.setNumero(seatMap.numeroOf(index));
+                occupied.add(siege);
+            }
+        }
+        return occupied;
     }
 
     @Transactional(readOnly = true)
-    public List<com.example.cinimana.model.Offre> getApplicableOffers(int nbPersonnes, String dateStr, Long seanceId) {
+    public List<OffreResponseDTO> getApplicableOffers(int nbPersonnes, String dateStr, Long seanceId) {
         // Check if seance is Standard category (offers only apply to Standard)
         if (seanceId != null) {
             try {
@@ -5,9 +5,20 @@ import com.example.cinimana.dto.commercial.response.*;
 import com.example.cinimana.exception.NotFoundException;
 import com.example.cinimana.model.*;
 import com.example.cinimana.repository.*;
+import com.example.cinimana.service.JournalActiviteService;
+import com.example.cinimana.service.SeanceOccupationService;
+import com.example.cinimana.service.cache.CatalogueCacheService;
+import com.example.cinimana.service.export.PageCursor;
+import com.example.cinimana.service.export.PagedRows;
+import com.example.cinimana.service.planning.Creneaux;
+import com.example.cinimana.service.planning.PlanningSalles;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +35,7 @@ import java.util.stream.Collectors;
 public class CommercialSeanceService {
 
     private static final Logger logger = LoggerFactory.getLogger(CommercialSeanceService.class);
+    private static final int MAX_PAGE_SIZE = 200;
 
     private final SeanceRepository seanceRepository;
     private final FilmRepository filmRepository;
@@ -32,6 +44,11 @@ public class CommercialSeanceService {
     private final ReservationRepository reservationRepository;
     private final HistoriqueSeanceRepository historiqueSeanceRepository;
     private final CommercialRepository commercialRepository;
+    private final SeanceOccupationService occupationService;
+    private final CatalogueCacheService catalogueCache;
+    private final StatistiqueReservationRepository statistiqueRepository;
+    private final JournalActiviteService journalActivite;
+    private final PlanningSalles planning;
 
     // ==================== CRUD OPERATIONS ====================
 
@@ -59,7 +76,7 @@ public class CommercialSeanceService {
         validateNotPast(dto.dateHeure());
 
         // VALIDATION CRITIQUE: Vérifier la disponibilité de la salle
-        validateSalleAvailability(dto.salleId(), dto.dateHeure(), film.getDuree(), null);
+        validateSalleAvailability(salle, dto.dateHeure(), film.getDuree(), null);
 
         // Créer la séance
         Seance seance = new Seance();
@@ -69,6 +86,8 @@ public class CommercialSeanceService {
         seance.setCategorie(categorie);
 
         Seance savedSeance = seanceRepository.save(seance);
+        planning.occuper(savedSeance);
+        catalogueCache.invalidateSeances();
 
         // Enregistrer dans l'historique
         logHistorique(savedSeance, TypeOperation.CREATION);
@@ -107,7 +126,7 @@ public class CommercialSeanceService {
 
         // VALIDATION CRITIQUE: Vérifier la disponibilité de la salle (sauf pour la
         // séance actuelle)
-        validateSalleAvailability(dto.salleId(), dto.dateHeure(), film.getDuree(), id);
+        validateSalleAvailability(salle, dto.dateHeure(), film.getDuree(), id);
 
         // Mettre à jour les champs
         seance.setDateHeure(dto.dateHeure());
@@ -116,6 +135,8 @@ public class CommercialSeanceService {
         seance.setCategorie(categorie);
 
         Seance updatedSeance = seanceRepository.save(seance);
+        planning.occuper(updatedSeance);
+        catalogueCache.invalidateSeances();
 
         // Enregistrer dans l'historique
         logHistorique(updatedSeance, TypeOperation.MODIFICATION);
@@ -140,31 +161,13 @@ public class CommercialSeanceService {
     public List<SeanceResponseDTO> getSeances(String filmId, String salleId,
                                               LocalDateTime dateDebut, LocalDateTime dateFin) {
 
-        List<Seance> seances;
+        // Filtres appliqués en base (index film/salle + date), seules les séances correspondantes sont lues
+        Specification<Seance> criteres = Specification.allOf(
+                SeanceSpecifications.deFilm(filmId),
+                SeanceSpecifications.deSalle(salleId),
+                SeanceSpecifications.entre(dateDebut, dateFin));
 
-        if (dateDebut != null && dateFin != null) {
-            seances = seanceRepository.findByDateHeureBetween(dateDebut, dateFin);
-        } else if (dateDebut != null) {
-            seances = seanceRepository.findSeancesDisponibles(dateDebut);
-        } else {
-            seances = seanceRepository.findAll();
-        }
-
-        return seances.stream()
-                .filter(s -> (filmId == null || filmId.isEmpty()) || s.getFilm().getId().equals(filmId))
-                .filter(s -> (salleId == null || salleId.isEmpty())
-                        || s.getSalle().getId().equals(salleId))
-                .map(seance -> {
-                    try {
-                        return mapToSeanceResponseDTO(seance);
-                    } catch (Exception e) {
-                        logger.error("Erreur de mapping pour la séance ID {}: {}",
-                                seance.getId(), e.getMessage());
-                        return null;
-                    }
-                })
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toList());
+        return mapToSeanceResponseDTOs(seanceRepository.findAll(criteres, Sort.by("dateHeure")));
     }
 
     // ==================== RESERVATIONS ====================
@@ -185,10 +188,51 @@ public class CommercialSeanceService {
      * Lister toutes les réservations (pour le mode Read-Only global)
      */
     public List<ReservationSimpleDTO> getAllReservations() {
-        return reservationRepository.findAll().stream()
-                .sorted(java.util.Comparator.comparing(Reservation::getDateReservation).reversed())
-                .map(this::mapToReservationSimpleDTO)
-                .collect(Collectors.toList());
+        return reservationRepository.findSimpleFirstPage(null, null, null, Pageable.unpaged());
+    }
+
+    /**
+     * Liste paginée par curseur (dateReservation, id), de la plus récente à la plus ancienne.
+     * Une seule requête par page (projection), sans OFFSET : le coût ne dépend pas de la position.
+     */
+    @Transactional(readOnly = true)
+    public ReservationPageDTO getReservationsPage(String cursor, int size, List<StatutReservation> statuts,
+                                                  LocalDateTime dateDebut, LocalDateTime dateFin) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor after = PageCursor.decode(cursor);
+
+        // Une ligne de plus pour savoir s'il reste une page
+        List<ReservationSimpleDTO> rows = findReservationsAfter(after, statuts, dateDebut, dateFin, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ReservationSimpleDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? curseur(items.get(items.size() - 1)).encode() : null;
+        return new ReservationPageDTO(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Réservations pour l'export, lues page par page (projection, sans entités en mémoire)
+     */
+    public Iterable<ReservationSimpleDTO> getReservationsForExport(List<StatutReservation> statuts,
+                                                                   LocalDateTime dateDebut, LocalDateTime dateFin) {
+        return new PagedRows<>(PagedRows.DEFAULT_PAGE_SIZE,
+                last -> findReservationsAfter(last != null ? curseur(last) : null, statuts, dateDebut, dateFin,
+                        PagedRows.DEFAULT_PAGE_SIZE));
+    }
+
+    private List<ReservationSimpleDTO> findReservationsAfter(PageCursor last, List<StatutReservation> statuts,
+                                                             LocalDateTime dateDebut, LocalDateTime dateFin,
+                                                             int limit) {
+        List<StatutReservation> filtreStatuts = statuts == null || statuts.isEmpty() ? null : statuts;
+        Pageable pageable = PageRequest.of(0, limit);
+        if (last == null) {
+            return reservationRepository.findSimpleFirstPage(filtreStatuts, dateDebut, dateFin, pageable);
+        }
+        return reservationRepository.findSimplePageAfter(filtreStatuts, dateDebut, dateFin,
+                last.date(), last.id(), pageable);
+    }
+
+    private static PageCursor curseur(ReservationSimpleDTO reservation) {
+        return new PageCursor(reservation.dateReservation(), reservation.id());
     }
 
     /**
@@ -202,9 +246,10 @@ public class CommercialSeanceService {
 
         int nombreReservations = reservations.size();
 
-        int totalPlacesReservees = seance.getSalle().getCapacite() - seance.getPlacesDisponibles();
-        int placesDisponibles = seance.getPlacesDisponibles();
+        SeanceOccupation occupation = occupationService.getOccupation(seanceId);
         int capaciteTotale = seance.getSalle().getCapacite();
+        int totalPlacesReservees = occupation.getPlacesReservees();
+        int placesDisponibles = Math.max(0, capaciteTotale - totalPlacesReservees);
 
         double tauxRemplissage = capaciteTotale > 0
                 ? (double) totalPlacesReservees / capaciteTotale * 100
@@ -222,10 +267,7 @@ public class CommercialSeanceService {
                 .filter(r -> r.getStatut() == StatutReservation.ANNULEE)
                 .count();
 
-        double revenuTotal = reservations.stream()
-                .filter(r -> r.getStatut() == StatutReservation.VALIDEE)
-                .mapToDouble(Reservation::getMontantTotal)
-                .sum();
+        double revenuTotal = occupation.getRevenu();
 
         return new SeanceStatsDTO(
                 seanceId,
@@ -248,34 +290,19 @@ public class CommercialSeanceService {
         }
     }
 
-    private void validateSalleAvailability(String salleId, LocalDateTime dateHeure,
+    /**
+     * Pré-contrôle dans le planning en mémoire des salles, puis confirmation en BDD sous verrou de la
+     * salle (autres instances, écritures hors de ce service). À appeler avant l'enregistrement.
+     */
+    private void validateSalleAvailability(Salle salle, LocalDateTime dateHeure,
                                            int dureeFilm, Long excludeSeanceId) {
         LocalDateTime finSeance = dateHeure.plusMinutes(dureeFilm);
-
-        Salle salle = salleRepository.findById(salleId)
-                .orElseThrow(() -> new NotFoundException("Salle non trouvée: " + salleId));
-
-        List<Seance> seancesExistantes = seanceRepository.findSeancesBySalleAndDateHeureBetween(
-                salle.getId(),
-                dateHeure.minusHours(5),
-                dateHeure.plusHours(5));
-
-        for (Seance s : seancesExistantes) {
-            if (excludeSeanceId != null && s.getId().equals(excludeSeanceId)) {
-                continue;
-            }
-
-            LocalDateTime finSeanceExistante = s.getDateHeure().plusMinutes(s.getFilm().getDuree());
-
-            boolean chevauchement = (dateHeure.isBefore(finSeanceExistante)
-                    && finSeance.isAfter(s.getDateHeure()));
-
-            if (chevauchement) {
-                throw new RuntimeException(
-                        String.format("La salle %s est déjà occupée de %s à %s (séance ID: %d)",
-                                salle.getNom(), s.getDateHeure(), finSeanceExistante,
-                                s.getId()));
-            }
+        PlanningSalles.Creneau conflit = planning.conflit(salle.getId(), dateHeure, finSeance, excludeSeanceId);
+        if (conflit == null) {
+            conflit = planning.confirmer(salle.getId(), dateHeure, finSeance, excludeSeanceId);
+        }
+        if (conflit != null) {
+            throw new RuntimeException(Creneaux.salleOccupee(salle.getNom(), conflit));
         }
     }
 
@@ -303,6 +330,7 @@ public class CommercialSeanceService {
             historique.setDateOperation(LocalDateTime.now());
 
             historiqueSeanceRepository.save(historique);
+            journalActivite.enregistrer(historique);
         } catch (Exception e) {
             logger.error("Erreur lors de l'enregistrement de l'historique: {}", e.getMessage());
         }
@@ -325,22 +353,79 @@ public class CommercialSeanceService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public SeanceResponseDTO toggleSeanceStatus(Long id) {
         Seance seance = seanceRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Séance non trouvée avec ID: " + id));
 
         boolean nowActif = !seance.isActif();
+        if (nowActif) {
+            // Le créneau a pu être repris pendant la désactivation
+            validateSalleAvailability(seance.getSalle(), seance.getDateHeure(), seance.getFilm().getDuree(), id);
+        }
         seance.setActif(nowActif);
         Seance updatedSeance = seanceRepository.save(seance);
+        planning.occuper(updatedSeance);
+        catalogueCache.invalidateSeances();
 
         logHistorique(updatedSeance, nowActif ? TypeOperation.ACTIVATION : TypeOperation.SUPPRESSION);
 
         return mapToSeanceResponseDTO(updatedSeance);
     }
 
+    /**
+     * Prochains créneaux libres d'une salle pour un film (ou une durée en minutes)
+     */
+    public List<CreneauLibreDTO> getCreneauxLibres(String salleId, String filmId, Integer duree,
+                                                   LocalDateTime apres, int nombre) {
+        Salle salle = salleRepository.findById(salleId)
+                .orElseThrow(() -> new NotFoundException("Salle non trouvée avec ID: " + salleId));
+        int dureeSeance;
+        if (filmId != null) {
+            dureeSeance = filmRepository.findById(filmId)
+                    .orElseThrow(() -> new NotFoundException("Film non trouvé avec ID: " + filmId))
+                    .getDuree();
+        } else if (duree != null && duree > 0) {
+            dureeSeance = duree;
+        } else {
+            throw new RuntimeException("Indiquez un film ou une durée positive.");
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        LocalDateTime debut = apres != null && apres.isAfter(maintenant) ? apres : maintenant;
+        return planning.creneauxLibres(salle.getId(), debut, dureeSeance, Math.max(1, Math.min(nombre, 20)))
+                .stream()
+                .map(c -> new CreneauLibreDTO(salle.getId(), salle.getNom(), c.debut(), c.fin()))
+                .toList();
+    }
+
     // ==================== MAPPING ====================
 
     private SeanceResponseDTO mapToSeanceResponseDTO(Seance seance) {
+        return mapToSeanceResponseDTO(seance, occupationService.getOccupation(seance.getId()));
+    }
+
+    /**
+     * Mapping d'une liste de séances : compteurs d'occupation chargés en une seule requête
+     */
+    private List<SeanceResponseDTO> mapToSeanceResponseDTOs(List<Seance> seances) {
+        java.util.Map<Long, SeanceOccupation> occupations = occupationService.getOccupations(
+                seances.stream().map(Seance::getId).toList());
+        return seances.stream()
+                .map(seance -> {
+                    try {
+                        return mapToSeanceResponseDTO(seance, occupations.get(seance.getId()));
+                    } catch (Exception e) {
+                        logger.error("Erreur de mapping pour la séance ID {}: {}",
+                                seance.getId(), e.getMessage());
+                        return null;
+                    }
+                })
+                .filter(java.util.Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private SeanceResponseDTO mapToSeanceResponseDTO(Seance seance, SeanceOccupation occupation) {
 
         String filmTitre = "Film Inconnu";
         String filmGenre = "N/A";
@@ -362,9 +447,8 @@ public class CommercialSeanceService {
             salleCapacite = seance.getSalle().getCapacite();
         }
 
-        // FIX: Calculate places directly from DB to avoid lazy loading issues
-        int placesReservees = reservationRepository.sumNombrePlacesBySeanceIdAndStatutNot(seance.getId(),
-                StatutReservation.ANNULEE);
+        // Compteur matérialisé (pas d'agrégat par séance)
+        int placesReservees = occupation != null ? occupation.getPlacesReservees() : 0;
         int placesDispo = Math.max(0, salleCapacite - placesReservees);
 
         String catNom = "Standard";
@@ -444,64 +528,43 @@ public class CommercialSeanceService {
         LocalDateTime dateDebut = debut.atStartOfDay();
         LocalDateTime dateFin = fin.atTime(23, 59, 59);
 
-        List<Seance> seancesPeriode = seanceRepository.findByDateHeureBetween(dateDebut, dateFin);
-        List<Reservation> reservationsPeriode = reservationRepository.findReservationsBetweenDates(dateDebut,
-                dateFin);
+        // Séances par jour (agrégat SQL) et réservations par jour/statut (agrégats horaires pré-calculés)
+        java.util.Map<java.time.LocalDate, long[]> seancesParJour = new java.util.HashMap<>();
+        for (Object[] row : seanceRepository.countSeancesParJour(dateDebut, dateFin)) {
+            seancesParJour.put((java.time.LocalDate) row[0],
+                    new long[] { ((Number) row[1]).longValue(), ((Number) row[2]).longValue() });
+        }
+
+        // [réservations non annulées, places non annulées, revenu validé] par jour
+        java.util.Map<java.time.LocalDate, double[]> reservationsParJour = new java.util.HashMap<>();
+        for (Object[] row : statistiqueRepository.sumByJourAndStatut(debut, fin)) {
+            StatutReservation statut = (StatutReservation) row[1];
+            double[] totaux = reservationsParJour.computeIfAbsent((java.time.LocalDate) row[0], d -> new double[3]);
+            if (statut != StatutReservation.ANNULEE) {
+                totaux[0] += ((Number) row[2]).longValue();
+                totaux[1] += ((Number) row[3]).longValue();
+            }
+            if (statut == StatutReservation.VALIDEE) {
+                totaux[2] += ((Number) row[4]).doubleValue();
+            }
+        }
 
         long totalSeances = seanceRepository.countByActifTrue();
         long totalReservations = reservationRepository.countByStatutNot(StatutReservation.ANNULEE);
 
-        double revenuTotal = reservationsPeriode.stream()
-                .filter(r -> r.getStatut() == StatutReservation.VALIDEE)
-                .mapToDouble(r -> r.getMontantTotal() != null ? r.getMontantTotal() : 0.0)
-                .sum();
-
-        long totalCapacite = seancesPeriode.stream()
-                .mapToLong(s -> s.getSalle() != null ? s.getSalle().getCapacite() : 0)
-                .sum();
-
-        long totalSiegesReserves = reservationsPeriode.stream()
-                .filter(r -> r.getStatut() != StatutReservation.ANNULEE)
-                .mapToLong(r -> r.getSieges() != null ? r.getSieges().size() : 0)
-                .sum();
-
-        if (totalSiegesReserves == 0 && totalReservations > 0) {
-            totalSiegesReserves = reservationsPeriode.stream()
-                    .filter(r -> r.getStatut() != StatutReservation.ANNULEE)
-                    .mapToLong(Reservation::getNombrePlace)
-                    .sum();
-        }
+        double revenuTotal = reservationsParJour.values().stream().mapToDouble(t -> t[2]).sum();
+        long totalCapacite = seancesParJour.values().stream().mapToLong(j -> j[1]).sum();
+        long totalSiegesReserves = reservationsParJour.values().stream().mapToLong(t -> (long) t[1]).sum();
 
         double tauxRemplissageGlobal = totalCapacite > 0 ? (double) totalSiegesReserves / totalCapacite * 100
                 : 0.0;
 
         List<DailyStatsDTO> statsParJour = new java.util.ArrayList<>();
-        java.time.LocalDate currentDate = debut;
-
-        while (!currentDate.isAfter(fin)) {
-            final java.time.LocalDate thisDay = currentDate;
-
-            long dailySeancesCount = seancesPeriode.stream()
-                    .filter(s -> s.getDateHeure().toLocalDate().equals(thisDay))
-                    .count();
-
-            List<Reservation> dailyRes = reservationsPeriode.stream()
-                    .filter(r -> r.getDateReservation().toLocalDate().equals(thisDay))
-                    .collect(Collectors.toList());
-
-            int dailyReservationsCount = (int) dailyRes.stream()
-                    .filter(r -> r.getStatut() != StatutReservation.ANNULEE)
-                    .count();
-
-            double dailyRevenu = dailyRes.stream()
-                    .filter(r -> r.getStatut() == StatutReservation.VALIDEE)
-                    .mapToDouble(r -> r.getMontantTotal() != null ? r.getMontantTotal() : 0.0)
-                    .sum();
-
+        for (java.time.LocalDate jour = debut; !jour.isAfter(fin); jour = jour.plusDays(1)) {
+            long[] seances = seancesParJour.getOrDefault(jour, new long[2]);
+            double[] reservations = reservationsParJour.getOrDefault(jour, new double[3]);
             statsParJour.add(new DailyStatsDTO(
-                    thisDay, (int) dailySeancesCount, dailyReservationsCount, dailyRevenu));
-
-            currentDate = currentDate.plusDays(1);
+                    jour, (int) seances[0], (int) reservations[0], reservations[2]));
         }
 
         LocalDateTime now = LocalDateTime.now();
@@ -513,17 +576,7 @@ public class CommercialSeanceService {
 
         List<Reservation> lastReservations = reservationRepository.findTop5ByOrderByDateReservationDesc();
 
-        List<SeanceResponseDTO> upcomingSeances = nextSeances.stream()
-                .map(s -> {
-                    try {
-                        return mapToSeanceResponseDTO(s);
-                    } catch (Exception e) {
-                        logger.error("Error mapping seance for dashboard: {}", e.getMessage());
-                        return null;
-                    }
-                })
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toList());
+        List<SeanceResponseDTO> upcomingSeances = mapToSeanceResponseDTOs(nextSeances);
 
         List<ReservationSimpleDTO> recentReservations = lastReservations.stream()
                 .map(r -> {
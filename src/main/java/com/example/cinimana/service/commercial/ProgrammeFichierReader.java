@@ -0,0 +1,247 @@
+package com.example.cinimana.service.commercial;
+
+import org.apache.poi.ss.usermodel.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Lecture d'un programme de séances au format Excel (.xlsx/.xls) ou CSV (séparateur ; ou ,).
+ * Les colonnes sont repérées par leur en-tête : date et heure (ou date_heure), salle, film et
+ * catégorie, par identifiant ou par nom ; les autres colonnes sont ignorées.
+ */
+final class ProgrammeFichierReader {
+
+    private static final DateTimeFormatter HEURE = DateTimeFormatter.ofPattern("HH:mm");
+    // Texte entre guillemets, caractères échappés, couleurs et locales ([Red], [$-40C]) ; [h] est gardé
+    private static final Pattern FORMAT_LITTERAUX = Pattern.compile("\"[^\"]*\"|\\\\.|_.|\\[(?![hHmMsS]+\\])[^\\]]*\\]");
+
+    private static final int DATE = 0;
+    private static final int HEURE_COL = 1;
+    private static final int DATE_HEURE = 2;
+    private static final int SALLE = 3;
+    private static final int FILM = 4;
+    private static final int CATEGORIE = 5;
+
+    /**
+     * Ligne brute du programme ; numero est le numéro de ligne dans le fichier (en-tête = 1).
+     * heure est null quand la date et l'heure sont dans la même colonne.
+     */
+    record LigneProgramme(int numero, String date, String heure, String salle, String film, String categorie) {
+    }
+
+    private ProgrammeFichierReader() {
+    }
+
+    static List<LigneProgramme> lire(MultipartFile fichier, int maxLignes) throws IOException {
+        String nom = fichier.getOriginalFilename() != null
+                ? fichier.getOriginalFilename().toLowerCase(Locale.ROOT)
+                : "";
+        try (InputStream in = fichier.getInputStream()) {
+            return nom.endsWith(".xlsx") || nom.endsWith(".xls")
+                    ? lireExcel(in, maxLignes)
+                    : lireCsv(in, maxLignes);
+        }
+    }
+
+    // ==================== EXCEL ====================
+
+    private static List<LigneProgramme> lireExcel(InputStream in, int maxLignes) throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(in)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            DataFormatter formatter = new DataFormatter(Locale.FRANCE);
+            FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+
+            int premiere = sheet.getFirstRowNum();
+            Row entete = sheet.getRow(premiere);
+            if (entete == null) {
+                throw new IllegalArgumentException("Le fichier est vide");
+            }
+            List<String> titres = new ArrayList<>();
+            for (int c = 0; c < entete.getLastCellNum(); c++) {
+                titres.add(texte(entete.getCell(c), formatter, evaluator));
+            }
+            int[] colonnes = colonnes(titres);
+
+            List<LigneProgramme> lignes = new ArrayList<>();
+            for (int r = premiere + 1; r <= sheet.getLastRowNum(); r++) {
+                Row row = sheet.getRow(r);
+                if (row == null) {
+                    continue;
+                }
+                String[] valeurs = new String[titres.size()];
+                for (int c = 0; c < valeurs.length; c++) {
+                    valeurs[c] = texte(row.getCell(c), formatter, evaluator);
+                }
+                ajouter(lignes, r + 1, valeurs, colonnes, maxLignes);
+            }
+            return lignes;
+        }
+    }
+
+    /**
+     * Valeur texte d'une cellule ; les cellules au format date deviennent yyyy-MM-dd, HH:mm
+     * ou yyyy-MM-ddTHH:mm selon que leur format affiche une date, une heure ou les deux
+     * (une séance à minuit pile garde donc son heure)
+     */
+    private static String texte(Cell cell, DataFormatter formatter, FormulaEvaluator evaluator) {
+        if (cell == null) {
+            return "";
+        }
+        CellType type = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+        if (type == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
+            double valeur = cell.getNumericCellValue();
+            LocalDateTime dateHeure = cell.getLocalDateTimeCellValue().withSecond(0).withNano(0);
+            String format = FORMAT_LITTERAUX.matcher(cell.getCellStyle().getDataFormatString())
+                    .replaceAll("").toLowerCase(Locale.ROOT);
+            boolean avecDate = format.indexOf('y') >= 0 || format.indexOf('d') >= 0;
+            boolean avecHeure = format.indexOf('h') >= 0 || format.indexOf('s') >= 0;
+            if (!avecDate && !avecHeure) {
+                // Format sans jeton reconnaissable : déduit de la valeur
+                avecDate = valeur >= 1;
+                avecHeure = valeur != Math.floor(valeur);
+            }
+            if (!avecDate) {
+                return dateHeure.toLocalTime().format(HEURE);
+            }
+            return avecHeure ? dateHeure.toString() : dateHeure.toLocalDate().toString();
+        }
+        return formatter.formatCellValue(cell, evaluator).trim();
+    }
+
+    // ==================== CSV ====================
+
+    private static List<LigneProgramme> lireCsv(InputStream in, int maxLignes) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String entete = reader.readLine();
+        if (entete == null) {
+            throw new IllegalArgumentException("Le fichier est vide");
+        }
+        if (entete.startsWith("\uFEFF")) {
+            entete = entete.substring(1); // BOM ajouté par Excel
+        }
+        char separateur = entete.indexOf(';') >= 0 ? ';' : ',';
+        int[] colonnes = colonnes(decouper(entete, separateur));
+
+        List<LigneProgramme> lignes = new ArrayList<>();
+        int numero = 1;
+        String ligne;
+        while ((ligne = reader.readLine()) != null) {
+            numero++;
+            if (!ligne.isBlank()) {
+                ajouter(lignes, numero, decouper(ligne, separateur).toArray(String[]::new), colonnes, maxLignes);
+            }
+        }
+        return lignes;
+    }
+
+    /**
+     * Découpe une ligne CSV ; les champs entre guillemets peuvent contenir le séparateur ("" = guillemet)
+     */
+    private static List<String> decouper(String ligne, char separateur) {
+        List<String> champs = new ArrayList<>();
+        StringBuilder champ = new StringBuilder();
+        boolean guillemets = false;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            if (guillemets) {
+                if (c == '"' && i + 1 < ligne.length() && ligne.charAt(i + 1) == '"') {
+                    champ.append('"');
+                    i++;
+                } else if (c == '"') {
+                    guillemets = false;
+                } else {
+                    champ.append(c);
+                }
+            } else if (c == '"') {
+                guillemets = true;
+            } else if (c == separateur) {
+                champs.add(champ.toString().trim());
+                champ.setLength(0);
+            } else {
+                champ.append(c);
+            }
+        }
+        champs.add(champ.toString().trim());
+        return champs;
+    }
+
+    // ==================== COMMUN ====================
+
+    private static int[] colonnes(List<String> titres) {
+        int[] colonnes = new int[6];
+        Arrays.fill(colonnes, -1);
+        for (int i = 0; i < titres.size(); i++) {
+            int cle = switch (normaliser(titres.get(i))) {
+                case "date", "jour" -> DATE;
+                case "heure", "horaire" -> HEURE_COL;
+                case "dateheure" -> DATE_HEURE;
+                case "salle", "salleid" -> SALLE;
+                case "film", "filmid", "titre" -> FILM;
+                case "categorie", "categorieid" -> CATEGORIE;
+                default -> -1;
+            };
+            if (cle >= 0 && colonnes[cle] < 0) {
+                colonnes[cle] = i;
+            }
+        }
+
+        List<String> manquantes = new ArrayList<>();
+        if (colonnes[DATE_HEURE] < 0 && (colonnes[DATE] < 0 || colonnes[HEURE_COL] < 0)) {
+            manquantes.add("date et heure (ou date_heure)");
+        }
+        if (colonnes[SALLE] < 0) {
+            manquantes.add("salle");
+        }
+        if (colonnes[FILM] < 0) {
+            manquantes.add("film");
+        }
+        if (colonnes[CATEGORIE] < 0) {
+            manquantes.add("categorie");
+        }
+        if (!manquantes.isEmpty()) {
+            throw new IllegalArgumentException("Colonne(s) absente(s) de l'en-tête: " + String.join(", ", manquantes));
+        }
+        return colonnes;
+    }
+
+    private static void ajouter(List<LigneProgramme> lignes, int numero, String[] valeurs, int[] colonnes,
+                                int maxLignes) {
+        if (Arrays.stream(valeurs).allMatch(v -> v == null || v.isBlank())) {
+            return;
+        }
+        if (lignes.size() >= maxLignes) {
+            throw new IllegalArgumentException("Le programme dépasse " + maxLignes + " séances");
+        }
+        boolean colonneUnique = colonnes[DATE_HEURE] >= 0;
+        lignes.add(new LigneProgramme(numero,
+                valeur(valeurs, colonneUnique ? colonnes[DATE_HEURE] : colonnes[DATE]),
+                colonneUnique ? null : valeur(valeurs, colonnes[HEURE_COL]),
+                valeur(valeurs, colonnes[SALLE]),
+                valeur(valeurs, colonnes[FILM]),
+                valeur(valeurs, colonnes[CATEGORIE])));
+    }
+
+    private static String valeur(String[] valeurs, int index) {
+        return index < valeurs.length && valeurs[index] != null ? valeurs[index].trim() : "";
+    }
+
+    private static String normaliser(String titre) {
+        return Normalizer.normalize(titre, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z]", "");
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.cinimana.service.commercial;
+
+import com.example.cinimana.dto.commercial.response.ProgrammeImportErreurDTO;
+import com.example.cinimana.dto.commercial.response.ProgrammeImportResultDTO;
+import com.example.cinimana.model.*;
+import com.example.cinimana.repository.*;
+import com.example.cinimana.service.JournalActiviteService;
+import com.example.cinimana.service.cache.CatalogueCacheService;
+import com.example.cinimana.service.commercial.ProgrammeFichierReader.LigneProgramme;
+import com.example.cinimana.service.planning.Creneaux;
+import com.example.cinimana.service.planning.IntervalTree;
+import com.example.cinimana.service.planning.PlanningSalles;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalQuery;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Import d'un programme de séances (semaine d'un multiplexe) en une seule requête.
+ * Toutes les lignes sont validées en mémoire avant toute écriture : références, dates passées
+ * et chevauchements, contrôlés contre le planning des salles et, avec un arbre d'intervalles
+ * par salle, contre les autres lignes du fichier. Sans erreur, les
+ * séances et leur historique sont insérés par lots JDBC ; sinon rien n'est écrit.
+ * Lecture et validation se font hors transaction : seuls le contrôle sous verrou des salles
+ * et les insertions occupent une connexion.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProgrammeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgrammeImportService.class);
+
+    private static final int MAX_LIGNES = 5000;
+    private static final int TAILLE_LOT = 500;
+
+    private static final List<DateTimeFormatter> FORMATS_DATE = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("d/M/yyyy"),
+            DateTimeFormatter.ofPattern("d-M-yyyy"));
+    private static final List<DateTimeFormatter> FORMATS_HEURE = List.of(
+            DateTimeFormatter.ofPattern("H:mm"),
+            DateTimeFormatter.ofPattern("H:mm:ss"),
+            DateTimeFormatter.ofPattern("H'h'mm"),
+            DateTimeFormatter.ofPattern("H'h'"));
+
+    private static final String INSERT_SEANCE = "INSERT INTO seance " +
+            "(date_heure, actif, film_id, salle_id, categorie_id, created_at, updated_at) " +
+            "VALUES (?, TRUE, ?, ?, ?, ?, ?)";
+    private static final String INSERT_HISTORIQUE = "INSERT INTO historique_seance " +
+            "(seance_id, commercial_id, operation, date_operation) VALUES (?, ?, ?, ?)";
+
+    private final FilmRepository filmRepository;
+    private final SalleRepository salleRepository;
+    private final CategorieRepository categorieRepository;
+    private final CommercialRepository commercialRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogueCacheService catalogueCache;
+    private final JournalActiviteService journalActivite;
+    private final PlanningSalles planning;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Ligne validée, prête à être insérée
+     */
+    private record SeanceImportee(int ligne, LocalDateTime dateHeure, LocalDateTime fin, Film film, Salle salle,
+                                  Categorie categorie) {
+    }
+
+    /**
+     * Valide et, hors simulation, crée toutes les séances du fichier (tout ou rien)
+     */
+    public ProgrammeImportResultDTO importer(MultipartFile fichier, boolean simulation) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        Commercial commercial = commercialRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Commercial non trouvé: " + email));
+
+        List<LigneProgramme> lignes;
+        try {
+            lignes = ProgrammeFichierReader.lire(fichier, MAX_LIGNES);
+        } catch (IllegalArgumentException e) {
+            return echec(0, simulation, List.of(new ProgrammeImportErreurDTO(0, e.getMessage())));
+        } catch (IOException | RuntimeException e) {
+            logger.error("❌ Lecture du programme impossible: {}", e.getMessage());
+            return echec(0, simulation, List.of(new ProgrammeImportErreurDTO(0,
+                    "Fichier illisible : Excel (.xlsx, .xls) ou CSV attendu")));
+        }
+        logger.info("🔄 Import de programme par {} : {} ligne(s), simulation={}", email, lignes.size(), simulation);
+
+        List<Film> films = filmRepository.findAll();
+        List<ProgrammeImportErreurDTO> erreurs = new ArrayList<>();
+        List<SeanceImportee> seances = resoudre(lignes, films, erreurs);
+        verifierChevauchements(seances, erreurs);
+
+        if (!erreurs.isEmpty()) {
+            erreurs.sort(Comparator.comparingInt(ProgrammeImportErreurDTO::ligne));
+            logger.warn("⚠️ Import de programme refusé : {} erreur(s)", erreurs.size());
+            return echec(lignes.size(), simulation, erreurs);
+        }
+        if (simulation || seances.isEmpty()) {
+            return new ProgrammeImportResultDTO(lignes.size(), 0, simulation, List.of());
+        }
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        LocalDateTime premiere = seances.stream().map(SeanceImportee::dateHeure).min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDateTime derniere = seances.stream().map(SeanceImportee::dateHeure).max(Comparator.naturalOrder())
+                .orElseThrow();
+        List<Long> ids = transactionTemplate.execute(status -> {
+            // Contrôle faisant foi sous verrou des salles : écritures d'autres instances depuis la validation
+            confirmerEnBase(seances, erreurs);
+            if (!erreurs.isEmpty()) {
+                return null;
+            }
+            List<Long> inserees = insererSeances(seances, maintenant);
+            insererHistorique(inserees, commercial, maintenant);
+            planning.occuper(creees(seances, inserees));
+            journalActivite.enregistrerImportSeances(commercial, inserees.size(), premiere, derniere, maintenant);
+            return inserees;
+        });
+        if (ids == null) {
+            logger.warn("⚠️ Import de programme refusé : {} séance(s) programmée(s) entre-temps", erreurs.size());
+            return echec(lignes.size(), false, erreurs);
+        }
+        catalogueCache.invalidateSeances();
+
+        logger.info("✅ Programme importé : {} séance(s) créée(s) du {} au {}", ids.size(), premiere, derniere);
+        return new ProgrammeImportResultDTO(lignes.size(), ids.size(), false, List.of());
+    }
+
+    // ==================== VALIDATION ====================
+
+    /**
+     * Résout film, salle et catégorie (identifiant ou nom, sans casse) et la date de chaque ligne
+     */
+    private List<SeanceImportee> resoudre(List<LigneProgramme> lignes, List<Film> films,
+                                          List<ProgrammeImportErreurDTO> erreurs) {
+        List<Salle> salles = salleRepository.findAll();
+        List<Categorie> categories = categorieRepository.findAll();
+
+        Map<String, Film> filmsParId = parId(films, Film::getId);
+        Map<String, List<Film>> filmsParTitre = parNom(films, Film::getTitre);
+        Map<String, Salle> sallesParId = parId(salles, Salle::getId);
+        Map<String, List<Salle>> sallesParNom = parNom(salles, Salle::getNom);
+        Map<String, Categorie> categoriesParId = parId(categories, c -> String.valueOf(c.getId()));
+        Map<String, List<Categorie>> categoriesParNom = parNom(categories, Categorie::getNom);
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<SeanceImportee> seances = new ArrayList<>(lignes.size());
+        for (LigneProgramme ligne : lignes) {
+            try {
+                Film film = trouver(ligne.film(), filmsParId, filmsParTitre, "Film");
+                Salle salle = trouver(ligne.salle(), sallesParId, sallesParNom, "Salle");
+                Categorie categorie = trouver(ligne.categorie(), categoriesParId, categoriesParNom, "Catégorie");
+                if (!film.isActif()) {
+                    throw new IllegalArgumentException("Le film " + film.getTitre() + " est désactivé");
+                }
+                if (!salle.isActif()) {
+                    throw new IllegalArgumentException("La salle " + salle.getNom() + " est désactivée");
+                }
+
+                LocalDateTime dateHeure = dateHeure(ligne);
+                if (dateHeure.isBefore(maintenant)) {
+                    throw new IllegalArgumentException("Impossible de programmer une séance dans le passé.");
+                }
+                seances.add(new SeanceImportee(ligne.numero(), dateHeure, dateHeure.plusMinutes(film.getDuree()),
+                        film, salle, categorie));
+            } catch (IllegalArgumentException e) {
+                erreurs.add(new ProgrammeImportErreurDTO(ligne.numero(), e.getMessage()));
+            }
+        }
+        return seances;
+    }
+
+    /**
+     * Chevauchements dans chaque salle, contre les séances actives (planning en mémoire) puis entre
+     * lignes du fichier (l'erreur est portée par la dernière des deux lignes en conflit)
+     */
+    private void verifierChevauchements(List<SeanceImportee> seances, List<ProgrammeImportErreurDTO> erreurs) {
+        Map<String, IntervalTree<SeanceImportee>> fichier = new HashMap<>();
+        for (SeanceImportee seance : seances) {
+            PlanningSalles.Creneau existant = planning.conflit(seance.salle().getId(), seance.dateHeure(),
+                    seance.fin(), null);
+            if (existant != null) {
+                erreurs.add(new ProgrammeImportErreurDTO(seance.ligne(),
+                        Creneaux.salleOccupee(seance.salle().getNom(), existant)));
+                continue;
+            }
+
+            IntervalTree<SeanceImportee> occupations = fichier.computeIfAbsent(seance.salle().getId(),
+                    id -> new IntervalTree<>());
+            long debutSeance = Creneaux.minutes(seance.dateHeure());
+            long finSeance = Creneaux.minutes(seance.fin());
+            IntervalTree.Intervalle<SeanceImportee> conflit = occupations.premierChevauchement(debutSeance, finSeance);
+            if (conflit == null) {
+                occupations.ajouter(debutSeance, finSeance, seance);
+                continue;
+            }
+            SeanceImportee autre = conflit.valeur();
+            erreurs.add(new ProgrammeImportErreurDTO(seance.ligne(),
+                    Creneaux.salleOccupee(seance.salle().getNom(), autre.dateHeure(), autre.fin(), autre.ligne())));
+        }
+    }
+
+    /**
+     * Relit en BDD, salle par salle (verrous pris dans l'ordre des identifiants), les séances actives
+     * de la période importée
+     */
+    private void confirmerEnBase(List<SeanceImportee> seances, List<ProgrammeImportErreurDTO> erreurs) {
+        Map<String, List<SeanceImportee>> parSalle = seances.stream()
+                .collect(Collectors.groupingBy(s -> s.salle().getId(), TreeMap::new, Collectors.toList()));
+        for (Map.Entry<String, List<SeanceImportee>> salle : parSalle.entrySet()) {
+            List<SeanceImportee> aPlacer = salle.getValue();
+            LocalDateTime debut = aPlacer.stream().map(SeanceImportee::dateHeure).min(Comparator.naturalOrder())
+                    .orElseThrow();
+            LocalDateTime fin = aPlacer.stream().map(SeanceImportee::fin).max(Comparator.naturalOrder())
+                    .orElseThrow();
+
+            IntervalTree<PlanningSalles.Creneau> existantes = new IntervalTree<>();
+            for (PlanningSalles.Creneau creneau : planning.verrouillerEtLire(salle.getKey(), debut, fin)) {
+                existantes.ajouter(Creneaux.minutes(creneau.debut()), Creneaux.minutes(creneau.fin()), creneau);
+            }
+            for (SeanceImportee seance : aPlacer) {
+                IntervalTree.Intervalle<PlanningSalles.Creneau> conflit = existantes.premierChevauchement(
+                        Creneaux.minutes(seance.dateHeure()), Creneaux.minutes(seance.fin()));
+                if (conflit != null) {
+                    erreurs.add(new ProgrammeImportErreurDTO(seance.ligne(),
+                            Creneaux.salleOccupee(seance.salle().getNom(), conflit.valeur())));
+                }
+            }
+        }
+    }
+
+    // ==================== ÉCRITURE ====================
+
+    /**
+     * Insertion JDBC par lots (identifiants IDENTITY : Hibernate n'y regrouperait pas les INSERT)
+     */
+    private List<Long> insererSeances(List<SeanceImportee> seances, LocalDateTime maintenant) {
+        Timestamp horodatage = Timestamp.valueOf(maintenant);
+        List<Long> ids = new ArrayList<>(seances.size());
+        for (int debut = 0; debut < seances.size(); debut += TAILLE_LOT) {
+            List<SeanceImportee> lot = seances.subList(debut, Math.min(debut + TAILLE_LOT, seances.size()));
+            KeyHolder cles = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SEANCE, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            SeanceImportee seance = lot.get(i);
+                            ps.setTimestamp(1, Timestamp.valueOf(seance.dateHeure()));
+                            ps.setString(2, seance.film().getId());
+                            ps.setString(3, seance.salle().getId());
+                            ps.setLong(4, seance.categorie().getId());
+                            ps.setTimestamp(5, horodatage);
+                            ps.setTimestamp(6, horodatage);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return lot.size();
+                        }
+                    }, cles);
+            for (Map<String, Object> cle : cles.getKeyList()) {
+                ids.add(((Number) cle.values().iterator().next()).longValue());
+            }
+        }
+        return ids;
+    }
+
+    private void insererHistorique(List<Long> seanceIds, Commercial commercial, LocalDateTime maintenant) {
+        Timestamp horodatage = Timestamp.valueOf(maintenant);
+        jdbcTemplate.batchUpdate(INSERT_HISTORIQUE, seanceIds, TAILLE_LOT, (ps, seanceId) -> {
+            ps.setLong(1, seanceId);
+            ps.setString(2, commercial.getId());
+            ps.setString(3, TypeOperation.CREATION.name());
+            ps.setTimestamp(4, horodatage);
+        });
+    }
+
+    /**
+     * Séances insérées, pour le planning des salles (entités non gérées)
+     */
+    private static List<Seance> creees(List<SeanceImportee> seances, List<Long> ids) {
+        List<Seance> creees = new ArrayList<>(seances.size());
+        for (int i = 0; i < seances.size(); i++) {
+            SeanceImportee importee = seances.get(i);
+            Seance seance = new Seance();
+            seance.setId(ids.get(i));
+            seance.setDateHeure(importee.dateHeure());
+            seance.setFilm(importee.film());
+            seance.setSalle(importee.salle());
+            seance.setCategorie(importee.categorie());
+            creees.add(seance);
+        }
+        return creees;
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    private static ProgrammeImportResultDTO echec(int lignes, boolean simulation,
+                                                  List<ProgrammeImportErreurDTO> erreurs) {
+        return new ProgrammeImportResultDTO(lignes, 0, simulation, erreurs);
+    }
+
+    private static LocalDateTime dateHeure(LigneProgramme ligne) {
+        String date = ligne.date();
+        String heure = ligne.heure();
+        if (heure == null) {
+            // Colonne unique : "2025-06-14T20:30", "14/06/2025 20:30"...
+            int separation = Math.max(date.indexOf('T'), date.indexOf(' '));
+            if (separation < 0) {
+                throw new IllegalArgumentException("Date et heure invalides: " + date);
+            }
+            heure = date.substring(separation + 1).trim();
+            date = date.substring(0, separation).trim();
+        }
+        return LocalDateTime.of(parser(date, FORMATS_DATE, LocalDate::from, "Date"),
+                parser(heure.toLowerCase(Locale.ROOT), FORMATS_HEURE, LocalTime::from, "Heure"));
+    }
+
+    private static <T> T parser(String valeur, List<DateTimeFormatter> formats,
+                                TemporalQuery<T> type, String libelle) {
+        for (DateTimeFormatter format : formats) {
+            try {
+                return format.parse(valeur, type);
+            } catch (DateTimeParseException e) {
+                // Format suivant
+            }
+        }
+        throw new IllegalArgumentException(libelle + " invalide: " + (valeur.isEmpty() ? "(vide)" : valeur));
+    }
+
+    private static <T> T trouver(String valeur, Map<String, T> parId, Map<String, List<T>> parNom,
+                                 String libelle) {
+        if (valeur.isEmpty()) {
+            throw new IllegalArgumentException(libelle + " non renseigné(e)");
+        }
+        T entite = parId.get(valeur);
+        if (entite != null) {
+            return entite;
+        }
+        List<T> candidats = parNom.getOrDefault(cle(valeur), List.of());
+        if (candidats.size() == 1) {
+            return candidats.get(0);
+        }
+        throw new IllegalArgumentException(candidats.isEmpty()
+                ? libelle + " non trouvé(e): " + valeur
+                : libelle + " ambigu(ë): " + valeur + " (utilisez l'identifiant)");
+    }
+
+    private static <T> Map<String, T> parId(List<T> entites, Function<T, String> id) {
+        return entites.stream().collect(Collectors.toMap(id, e -> e, (a, b) -> a));
+    }
+
+    private static <T> Map<String, List<T>> parNom(List<T> entites, Function<T, String> nom) {
+        return entites.stream()
+                .filter(e -> nom.apply(e) != null)
+                .collect(Collectors.groupingBy(e -> cle(nom.apply(e))));
+    }
+
+    private static String cle(String nom) {
+        return nom.trim().toLowerCase(Locale.ROOT);
+    }
+}
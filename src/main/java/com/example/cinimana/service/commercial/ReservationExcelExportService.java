@@ -1,18 +1,19 @@
 package com.example.cinimana.service.commercial;
 
 import com.example.cinimana.dto.commercial.response.ReservationSimpleDTO;
+import com.example.cinimana.model.StatutReservation;
+import com.example.cinimana.service.export.ExcelStreamWriter;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFFont;
 
@@ -23,12 +24,15 @@ public class ReservationExcelExportService {
     private static final Logger logger = LoggerFactory.getLogger(ReservationExcelExportService.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
-    public byte[] exportReservationsToExcel(List<ReservationSimpleDTO> reservations) {
-        logger.info("Export Excel Prestige de {} réservations", reservations.size());
+    /**
+     * Écrit l'export directement dans le flux de sortie (lignes lues et écrites au fil de l'eau)
+     */
+    public void exportReservationsToExcel(Iterable<ReservationSimpleDTO> reservations, OutputStream out) {
+        logger.info("Export Excel Prestige des réservations (flux)");
 
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Sheet sheet = workbook.createSheet("Réservations");
+        try (ExcelStreamWriter writer = new ExcelStreamWriter("Réservations")) {
+            SXSSFWorkbook workbook = writer.getWorkbook();
+            Sheet sheet = writer.getSheet();
 
             // --- Couleurs Custom (Premium) ---
             byte[] deepRedRgb = { (byte) 139, (byte) 0, (byte) 0 };
@@ -45,7 +49,7 @@ public class ReservationExcelExportService {
 
             // 1. Title Style
             CellStyle titleStyle = workbook.createCellStyle();
-            XSSFFont titleFont = workbook.createFont();
+            XSSFFont titleFont = (XSSFFont) workbook.createFont();
             titleFont.setBold(true);
             titleFont.setFontHeightInPoints((short) 20);
             titleFont.setColor(deepRed);
@@ -54,7 +58,7 @@ public class ReservationExcelExportService {
 
             // 2. Header Style
             CellStyle headerStyle = workbook.createCellStyle();
-            XSSFFont headerFont = workbook.createFont();
+            XSSFFont headerFont = (XSSFFont) workbook.createFont();
             headerFont.setBold(true);
             headerFont.setColor(IndexedColors.WHITE.getIndex());
             headerStyle.setFont(headerFont);
@@ -76,37 +80,58 @@ public class ReservationExcelExportService {
             cellStyleAlt.setBorderBottom(BorderStyle.HAIR);
 
             // 4. Specific Fonts for status
-            XSSFFont goldFont = workbook.createFont();
+            XSSFFont goldFont = (XSSFFont) workbook.createFont();
             goldFont.setColor(gold);
             goldFont.setBold(true);
 
-            XSSFFont greenFont = workbook.createFont();
+            XSSFFont greenFont = (XSSFFont) workbook.createFont();
             greenFont.setColor(validatedGreen);
             greenFont.setBold(true);
 
-            XSSFFont redFont = workbook.createFont();
+            XSSFFont redFont = (XSSFFont) workbook.createFont();
             redFont.setColor(deepRed);
             redFont.setBold(true);
 
+            // Styles dérivés créés une seule fois (et non par ligne) : [0] = ligne claire, [1] = ligne alternée
+            CellStyle[] baseStyles = { cellStyleNormal, cellStyleAlt };
+            short amountFormat = workbook.createDataFormat().getFormat("#,##0.00 \"DHS\"");
+            XSSFFont defaultFont = (XSSFFont) workbook.getFontAt(0);
+            StatutReservation[] statuts = StatutReservation.values();
+            CellStyle[][] statusStyles = new CellStyle[2][statuts.length];
+            CellStyle[] amountStyles = new CellStyle[2];
+            for (int alt = 0; alt < 2; alt++) {
+                for (StatutReservation statut : statuts) {
+                    CellStyle statusStyle = workbook.createCellStyle();
+                    statusStyle.cloneStyleFrom(baseStyles[alt]);
+                    statusStyle.setFont(getStatusFont(statut.toString(), greenFont, redFont, goldFont, defaultFont));
+                    statusStyles[alt][statut.ordinal()] = statusStyle;
+                }
+                CellStyle mStyle = workbook.createCellStyle();
+                mStyle.cloneStyleFrom(baseStyles[alt]);
+                mStyle.setFont(goldFont);
+                mStyle.setDataFormat(amountFormat);
+                amountStyles[alt] = mStyle;
+            }
+
             // --- Content ---
 
             // Brand Headers
-            Row titleRow = sheet.createRow(0);
+            Row titleRow = writer.nextRow();
             Cell titleCell = titleRow.createCell(0);
             titleCell.setCellValue("C I N E M A N A");
             titleCell.setCellStyle(titleStyle);
             sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, 6));
 
-            Row subtitleRow = sheet.createRow(1);
+            Row subtitleRow = writer.nextRow();
             Cell subtitleCell = subtitleRow.createCell(0);
             subtitleCell
                     .setCellValue("LISTE DES RÉSERVATIONS - GÉNÉRÉ LE " + LocalDateTime.now().format(DATE_FORMATTER));
             sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(1, 1, 0, 6));
 
-            int rowNum = 3;
+            writer.skipRows(1);
 
             // Create Header Row
-            Row headerRow = sheet.createRow(rowNum++);
+            Row headerRow = writer.nextRow();
             String[] headers = { "ID", "Date de Réservation", "Client", "Film", "Date Séance", "Statut",
                     "Montant (MAD)" };
             for (int i = 0; i < headers.length; i++) {
@@ -114,12 +139,13 @@ public class ReservationExcelExportService {
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerStyle);
             }
+            writer.setColumnWidths(10, 20, 28, 36, 18, 18, 16);
 
             // Fill Data
-            boolean isLight = true;
+            int alt = 0;
             for (ReservationSimpleDTO res : reservations) {
-                Row row = sheet.createRow(rowNum++);
-                CellStyle currentStyle = isLight ? cellStyleNormal : cellStyleAlt;
+                Row row = writer.nextRow();
+                CellStyle currentStyle = baseStyles[alt];
 
                 createCell(row, 0, String.valueOf(res.id()), currentStyle);
                 String dateResaStr = (res.dateReservation() != null) ? res.dateReservation().format(DATE_FORMATTER)
@@ -134,32 +160,18 @@ public class ReservationExcelExportService {
                 // Statut with custom colorFont
                 Cell statusCell = row.createCell(5);
                 statusCell.setCellValue(res.statut().toString());
-                CellStyle statusStyle = workbook.createCellStyle();
-                statusStyle.cloneStyleFrom(currentStyle);
-                statusStyle.setFont(getStatusFont(res.statut().toString(), greenFont, redFont, goldFont,
-                        (XSSFFont) workbook.getFontAt(0)));
-                statusCell.setCellStyle(statusStyle);
+                statusCell.setCellStyle(statusStyles[alt][res.statut().ordinal()]);
 
                 // Montant
                 Cell amountCell = row.createCell(6);
                 amountCell.setCellValue(res.montantTotal());
-                CellStyle mStyle = workbook.createCellStyle();
-                mStyle.cloneStyleFrom(currentStyle);
-                mStyle.setFont(goldFont);
-                mStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00 \"DHS\""));
-                amountCell.setCellStyle(mStyle);
-
-                isLight = !isLight;
-            }
+                amountCell.setCellStyle(amountStyles[alt]);
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+                alt ^= 1;
             }
 
-            workbook.write(baos);
-            logger.info("Export Excel Prestige Réservations terminé avec succès");
-            return baos.toByteArray();
+            writer.writeTo(out);
+            logger.info("Export Excel Prestige Réservations terminé avec succès ({} lignes)", writer.getDataRowCount(4));
         } catch (IOException e) {
             logger.error("Erreur export Excel réservations", e);
             throw new RuntimeException("Erreur export Excel", e);
@@ -1,18 +1,18 @@
 package com.example.cinimana.service.commercial;
 
 import com.example.cinimana.dto.commercial.response.SeanceResponseDTO;
+import com.example.cinimana.service.export.ExcelStreamWriter;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFFont;
 
@@ -23,12 +23,15 @@ public class SeanceExcelExportService {
     private static final Logger logger = LoggerFactory.getLogger(SeanceExcelExportService.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
-    public byte[] exportSeancesToExcel(List<SeanceResponseDTO> seances) {
-        logger.info("Export Excel Prestige de {} séances", seances.size());
+    /**
+     * Écrit l'export directement dans le flux de sortie
+     */
+    public void exportSeancesToExcel(Iterable<SeanceResponseDTO> seances, OutputStream out) {
+        logger.info("Export Excel Prestige des séances (flux)");
 
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Sheet sheet = workbook.createSheet("Séances");
+        try (ExcelStreamWriter writer = new ExcelStreamWriter("Séances")) {
+            SXSSFWorkbook workbook = writer.getWorkbook();
+            Sheet sheet = writer.getSheet();
 
             // --- Couleurs Custom (Premium) ---
             byte[] deepRedRgb = { (byte) 139, (byte) 0, (byte) 0 };
@@ -43,7 +46,7 @@ public class SeanceExcelExportService {
 
             // 1. Title Style (Brand Header)
             CellStyle titleStyle = workbook.createCellStyle();
-            XSSFFont titleFont = workbook.createFont();
+            XSSFFont titleFont = (XSSFFont) workbook.createFont();
             titleFont.setBold(true);
             titleFont.setFontHeightInPoints((short) 20);
             titleFont.setColor(deepRed);
@@ -52,7 +55,7 @@ public class SeanceExcelExportService {
 
             // 2. Header Style
             CellStyle headerStyle = workbook.createCellStyle();
-            XSSFFont headerFont = workbook.createFont();
+            XSSFFont headerFont = (XSSFFont) workbook.createFont();
             headerFont.setBold(true);
             headerFont.setColor(IndexedColors.WHITE.getIndex());
             headerStyle.setFont(headerFont);
@@ -73,29 +76,41 @@ public class SeanceExcelExportService {
             cellStyleAlt.setFillPattern(FillPatternType.SOLID_FOREGROUND);
             cellStyleAlt.setBorderBottom(BorderStyle.HAIR);
 
-            XSSFFont priceFont = workbook.createFont();
+            XSSFFont priceFont = (XSSFFont) workbook.createFont();
             priceFont.setColor(gold);
             priceFont.setBold(true);
 
+            // Style prix créé une seule fois par couleur de ligne (et non par ligne)
+            CellStyle[] baseStyles = { cellStyleNormal, cellStyleAlt };
+            short priceFormat = workbook.createDataFormat().getFormat("#,##0.00 \"DHS\"");
+            CellStyle[] priceStyles = new CellStyle[2];
+            for (int alt = 0; alt < 2; alt++) {
+                CellStyle pStyle = workbook.createCellStyle();
+                pStyle.cloneStyleFrom(baseStyles[alt]);
+                pStyle.setFont(priceFont);
+                pStyle.setDataFormat(priceFormat);
+                priceStyles[alt] = pStyle;
+            }
+
             // --- Create Content ---
 
             // Brand Header Rows
-            Row titleRow = sheet.createRow(0);
+            Row titleRow = writer.nextRow();
             Cell titleCell = titleRow.createCell(0);
             titleCell.setCellValue("C I N E M A N A");
             titleCell.setCellStyle(titleStyle);
             sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, 9));
 
-            Row subtitleRow = sheet.createRow(1);
+            Row subtitleRow = writer.nextRow();
             Cell subtitleCell = subtitleRow.createCell(0);
             subtitleCell.setCellValue("PROGRAMME COMMERCIAL - GÉNÉRÉ LE " + LocalDateTime.now().format(DATE_FORMATTER));
             sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(1, 1, 0, 9));
 
             // Space
-            int rowNum = 3;
+            writer.skipRows(1);
 
             // Create Header Row
-            Row headerRow = sheet.createRow(rowNum++);
+            Row headerRow = writer.nextRow();
             String[] headers = { "ID", "Date & Heure", "Film", "Genre", "Salle", "Catégorie", "Prix (MAD)", "Réservées",
                     "Disponibles", "Statut" };
             for (int i = 0; i < headers.length; i++) {
@@ -103,12 +118,13 @@ public class SeanceExcelExportService {
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerStyle);
             }
+            writer.setColumnWidths(8, 18, 32, 16, 18, 16, 14, 12, 13, 10);
 
             // Fill Data
-            boolean isLight = true;
+            int alt = 0;
             for (SeanceResponseDTO seance : seances) {
-                Row row = sheet.createRow(rowNum++);
-                CellStyle currentStyle = isLight ? cellStyleNormal : cellStyleAlt;
+                Row row = writer.nextRow();
+                CellStyle currentStyle = baseStyles[alt];
 
                 createStyledCell(row, 0, String.valueOf(seance.id()), currentStyle);
                 String dateStr = (seance.dateHeure() != null) ? seance.dateHeure().format(DATE_FORMATTER) : "N/A";
@@ -120,27 +136,17 @@ public class SeanceExcelExportService {
 
                 Cell pCell = row.createCell(6);
                 pCell.setCellValue(seance.prixTicket());
-                CellStyle pStyle = workbook.createCellStyle();
-                pStyle.cloneStyleFrom(currentStyle);
-                pStyle.setFont(priceFont);
-                pStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00 \"DHS\""));
-                pCell.setCellStyle(pStyle);
+                pCell.setCellStyle(priceStyles[alt]);
 
                 createStyledCell(row, 7, String.valueOf(seance.placesReservees()), currentStyle);
                 createStyledCell(row, 8, String.valueOf(seance.placesDisponibles()), currentStyle);
                 createStyledCell(row, 9, seance.active() ? "Active" : "Inactive", currentStyle);
 
-                isLight = !isLight;
-            }
-
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+                alt ^= 1;
             }
 
-            workbook.write(baos);
-            logger.info("Export Excel Prestige terminé avec succès");
-            return baos.toByteArray();
+            writer.writeTo(out);
+            logger.info("Export Excel Prestige terminé avec succès ({} lignes)", writer.getDataRowCount(4));
 
         } catch (IOException e) {
             logger.error("Erreur lors de l'export Excel: {}", e.getMessage(), e);
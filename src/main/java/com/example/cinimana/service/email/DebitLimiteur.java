@@ -0,0 +1,38 @@
+package com.example.cinimana.service.email;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limiteur de débit (seau à jetons) pour un fournisseur de messagerie. Chaque appel réserve
+ * le prochain créneau libre puis attend hors verrou : l'attente ne bloque que le thread virtuel
+ * appelant. Une seconde d'inactivité autorise une rafale d'une seconde de débit.
+ */
+final class DebitLimiteur {
+
+    private final long intervalleNanos;
+    private final long rafaleNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long prochainCreneau = System.nanoTime();
+
+    DebitLimiteur(double parSeconde) {
+        this.intervalleNanos = (long) (1_000_000_000L / Math.max(parSeconde, 0.01));
+        this.rafaleNanos = TimeUnit.SECONDS.toNanos(1) - intervalleNanos;
+    }
+
+    void acquerir() throws InterruptedException {
+        long attente;
+        lock.lock();
+        try {
+            long maintenant = System.nanoTime();
+            prochainCreneau = Math.max(prochainCreneau, maintenant - Math.max(rafaleNanos, 0));
+            attente = prochainCreneau - maintenant;
+            prochainCreneau += intervalleNanos;
+        } finally {
+            lock.unlock();
+        }
+        if (attente > 0) {
+            TimeUnit.NANOSECONDS.sleep(attente);
+        }
+    }
+}
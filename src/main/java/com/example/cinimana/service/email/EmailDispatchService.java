@@ -0,0 +1,344 @@
+package com.example.cinimana.service.email;
+
+import com.example.cinimana.model.StatutOutbox;
+import com.example.cinimana.repository.EmailRappelRepository;
+import com.example.cinimana.repository.ReservationRepository;
+import com.example.cinimana.service.EmailService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Envoi des emails de rappel depuis la file persistante email_rappel. Les rappels dus sont pris
+ * par lots (SKIP LOCKED), regroupés par fournisseur du destinataire puis envoyés par des threads
+ * virtuels : chaque lot part sur une seule connexion SMTP, le nombre de connexions simultanées
+ * et le débit par fournisseur sont bornés. Un rappel en échec est retenté avec backoff, puis
+ * placé en ECHEC (relance manuelle depuis l'administration).
+ * Un lot pris en charge porte un bail (instance, expiration) prolongé pendant l'envoi : seuls les
+ * rappels dont le bail a expiré sont remis en file, un envoi lent n'est donc pas doublé.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmailDispatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatchService.class);
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd MMMM yyyy à HH:mm");
+
+    private final EmailRappelRepository rappelRepository;
+    private final ReservationRepository reservationRepository;
+    private final EmailService emailService;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.frontend.url:http://localhost:5173}")
+    private String frontendUrl;
+
+    @Value("${app.email.connexions-max:8}")
+    private int connexionsMax;
+
+    @Value("${app.email.messages-par-connexion:25}")
+    private int messagesParConnexion;
+
+    @Value("${app.email.debit-par-fournisseur:10}")
+    private double debitParFournisseur;
+
+    // Durée du bail d'un lot pris en charge (prolongé par le battement de cœur)
+    @Value("${app.email.bail-secondes:120}")
+    private long bailSecondes;
+
+    @Value("${app.email.taille-lot:500}")
+    private int tailleLot;
+
+    @Value("${app.email.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.email.backoff-seconds:30}")
+    private long backoffSeconds;
+
+    // Identifiant de l'instance (pid@hôte) inscrit dans verrouille_par
+    private final String worker = ManagementFactory.getRuntimeMXBean().getName();
+    // Rappels en cours d'envoi dans cette instance, dont le bail est prolongé
+    private final Set<Long> enEnvoi = ConcurrentHashMap.newKeySet();
+    private final Map<String, DebitLimiteur> limiteurs = new ConcurrentHashMap<>();
+    private final AtomicBoolean enCours = new AtomicBoolean();
+    private ExecutorService executor;
+    private Semaphore connexions;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("email-dispatch-", 0).factory());
+        connexions = new Semaphore(connexionsMax);
+    }
+
+    /**
+     * Met en file les rappels des séances commençant dans la fenêtre et déclenche l'envoi
+     *
+     * @return nombre de rappels ajoutés à la file
+     */
+    public int enfilerRappels(LocalDateTime debut, LocalDateTime fin) {
+        Integer enFile = transactionTemplate.execute(status ->
+                rappelRepository.enfiler(LocalDateTime.now(), debut, fin));
+        declencher();
+        return enFile != null ? enFile : 0;
+    }
+
+    /**
+     * Reprend les rappels dus : nouveaux essais, envois interrompus, redémarrage de l'application
+     */
+    @Scheduled(fixedDelayString = "${app.email.poll-ms:15000}")
+    public void pollPending() {
+        Integer stale = transactionTemplate.execute(status -> rappelRepository.releaseStale(LocalDateTime.now()));
+        if (stale != null && stale > 0) {
+            logger.warn("⚠️ {} rappel(s) interrompu(s) (bail expiré) remis en file", stale);
+        }
+        declencher();
+    }
+
+    /**
+     * Battement de cœur : prolonge le bail des rappels en cours d'envoi dans cette instance
+     */
+    @Scheduled(fixedDelayString = "${app.email.heartbeat-ms:30000}")
+    public void heartbeat() {
+        if (enEnvoi.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(enEnvoi);
+        transactionTemplate.executeWithoutResult(status ->
+                rappelRepository.prolonger(ids, worker, LocalDateTime.now().plusSeconds(bailSecondes)));
+    }
+
+    /**
+     * Vide la file en arrière-plan (un seul passage à la fois), sans bloquer le planificateur
+     */
+    public void declencher() {
+        if (!enCours.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                vider();
+            } catch (RuntimeException e) {
+                logger.error("❌ Erreur lors de l'envoi des rappels: {}", e.getMessage());
+            } finally {
+                enCours.set(false);
+            }
+        });
+    }
+
+    public Map<StatutOutbox, Long> stats() {
+        Map<StatutOutbox, Long> stats = new EnumMap<>(StatutOutbox.class);
+        for (Object[] row : rappelRepository.countByStatut()) {
+            stats.put((StatutOutbox) row[0], (Long) row[1]);
+        }
+        return stats;
+    }
+
+    public int relancerEchecs() {
+        Integer relances = transactionTemplate.execute(status -> rappelRepository.relancerEchecs(LocalDateTime.now()));
+        declencher();
+        return relances != null ? relances : 0;
+    }
+
+    private void vider() {
+        int envoyes = 0;
+        List<Long> ids;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            ids = transactionTemplate.execute(status -> {
+                List<Long> lot = rappelRepository.lockDueIds(now, tailleLot);
+                if (!lot.isEmpty()) {
+                    rappelRepository.claim(lot, worker, now, now.plusSeconds(bailSecondes));
+                }
+                return lot;
+            });
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            enEnvoi.addAll(ids);
+            try {
+                envoyes += envoyerLot(ids);
+            } finally {
+                ids.forEach(enEnvoi::remove);
+            }
+        } while (ids.size() == tailleLot);
+
+        if (envoyes > 0) {
+            logger.info("✅ {} email(s) de rappel envoyé(s)", envoyes);
+        }
+    }
+
+    /**
+     * Envoie un lot pris en charge et attend la fin de tous les envois
+     */
+    private int envoyerLot(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        List<RappelEmail> rappels = rappelRepository.findAEnvoyer(ids, now);
+
+        // Réservation annulée, confirmée ou séance commencée entre-temps : rien à envoyer
+        Set<Long> utiles = rappels.stream().map(RappelEmail::rappelId).collect(Collectors.toSet());
+        List<Long> sansObjet = ids.stream().filter(id -> !utiles.contains(id)).toList();
+        if (!sansObjet.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> rappelRepository.marquerTraites(sansObjet, worker, now));
+        }
+
+        List<Future<Integer>> envois = new ArrayList<>();
+        rappels.stream().collect(Collectors.groupingBy(RappelEmail::domaine)).forEach((domaine, parDomaine) -> {
+            for (int i = 0; i < parDomaine.size(); i += messagesParConnexion) {
+                List<RappelEmail> groupe = parDomaine.subList(i, Math.min(i + messagesParConnexion, parDomaine.size()));
+                envois.add(executor.submit(() -> envoyerGroupe(domaine, groupe)));
+            }
+        });
+
+        int envoyes = 0;
+        for (Future<Integer> envoi : envois) {
+            try {
+                envoyes += envoi.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break; // Les rappels restés EN_COURS seront remis en file à l'expiration du bail
+            } catch (ExecutionException e) {
+                logger.error("❌ Erreur d'envoi d'un groupe de rappels: {}", e.getCause().getMessage());
+            }
+        }
+        return envoyes;
+    }
+
+    /**
+     * Envoie un groupe de rappels d'un même fournisseur sur une seule connexion SMTP
+     */
+    private int envoyerGroupe(String domaine, List<RappelEmail> groupe) throws InterruptedException {
+        DebitLimiteur limiteur = limiteurs.computeIfAbsent(domaine, d -> new DebitLimiteur(debitParFournisseur));
+        Map<MimeMessage, RappelEmail> messages = new IdentityHashMap<>();
+        Map<RappelEmail, Exception> echecs = new LinkedHashMap<>();
+
+        for (RappelEmail rappel : groupe) {
+            try {
+                messages.put(buildMessage(rappel), rappel);
+            } catch (Exception e) {
+                echecs.put(rappel, e);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            for (int i = 0; i < messages.size(); i++) {
+                limiteur.acquerir();
+            }
+            connexions.acquire();
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                // Échecs message par message ; liste vide si la connexion elle-même a échoué
+                Map<Object, Exception> failed = e.getFailedMessages();
+                if (failed.isEmpty()) {
+                    messages.values().forEach(rappel -> echecs.put(rappel, e));
+                } else {
+                    failed.forEach((message, cause) -> {
+                        RappelEmail rappel = messages.get(message);
+                        if (rappel != null) {
+                            echecs.put(rappel, cause);
+                        }
+                    });
+                }
+            } catch (MailException e) {
+                messages.values().forEach(rappel -> echecs.put(rappel, e));
+            } finally {
+                connexions.release();
+            }
+        }
+
+        List<RappelEmail> envoyes = messages.values().stream().filter(rappel -> !echecs.containsKey(rappel)).toList();
+        if (!envoyes.isEmpty()) {
+            marquerEnvoyes(envoyes);
+        }
+        echecs.forEach(this::marquerEchec);
+        return envoyes.size();
+    }
+
+    private MimeMessage buildMessage(RappelEmail rappel) throws Exception {
+        String confirmationLink = String.format("%s/client/reservations/confirm/%s",
+                frontendUrl, rappel.codeReservation());
+        return emailService.buildReservationConfirmationMessage(
+                rappel.email(),
+                rappel.prenom() + " " + rappel.nom(),
+                rappel.filmTitre(),
+                rappel.dateHeure().format(DATE_TIME_FORMATTER),
+                rappel.salleNom(),
+                rappel.nombrePlace(),
+                rappel.codeReservation(),
+                confirmationLink);
+    }
+
+    /**
+     * Marquage idempotent : un rappel renvoyé après reprise ne modifie pas la date d'envoi initiale
+     */
+    private void marquerEnvoyes(List<RappelEmail> envoyes) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> rappelIds = envoyes.stream().map(RappelEmail::rappelId).toList();
+        List<Long> reservationIds = envoyes.stream().map(RappelEmail::reservationId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            rappelRepository.marquerTraites(rappelIds, worker, now);
+            reservationRepository.marquerEmailConfirmationEnvoye(reservationIds, now);
+        });
+    }
+
+    private void marquerEchec(RappelEmail rappel, Exception e) {
+        transactionTemplate.executeWithoutResult(status -> rappelRepository.findById(rappel.rappelId()).ifPresent(r -> {
+            if (r.getStatut() != StatutOutbox.EN_COURS || !worker.equals(r.getVerrouillePar())) {
+                return; // Bail expiré et rappel repris ailleurs
+            }
+            r.setVerrouillePar(null);
+            int tentatives = r.getTentatives() + 1;
+            r.setTentatives(tentatives);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            r.setDerniereErreur(message.length() > 1000 ? message.substring(0, 1000) : message);
+
+            if (tentatives >= maxAttempts) {
+                r.setStatut(StatutOutbox.ECHEC);
+                r.setDateTraitement(LocalDateTime.now());
+                logger.error("❌ Rappel de la réservation {} abandonné après {} tentatives: {}",
+                        rappel.codeReservation(), tentatives, message);
+            } else {
+                // 30s, 1min, 2min... plafonné à 10 min : le rappel doit partir avant la séance
+                long delay = Math.min(backoffSeconds << (tentatives - 1), 600);
+                r.setStatut(StatutOutbox.EN_ATTENTE);
+                r.setProchaineTentative(LocalDateTime.now().plusSeconds(delay));
+                logger.warn("⚠️ Rappel de la réservation {} en échec (tentative {}), nouvel essai dans {}s: {}",
+                        rappel.codeReservation(), tentatives, delay, message);
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
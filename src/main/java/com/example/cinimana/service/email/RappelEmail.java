@@ -0,0 +1,19 @@
+package com.example.cinimana.service.email;
+
+import java.time.LocalDateTime;
+
+/**
+ * Données d'un email de rappel, lues en une requête pour tout un lot
+ */
+public record RappelEmail(Long rappelId, Long reservationId, String email, String prenom, String nom,
+                          String filmTitre, LocalDateTime dateHeure, String salleNom, Integer nombrePlace,
+                          String codeReservation) {
+
+    /**
+     * Fournisseur de messagerie du destinataire (gmail.com, outlook.fr...), clé de limitation de débit
+     */
+    public String domaine() {
+        int arobase = email != null ? email.lastIndexOf('@') : -1;
+        return arobase >= 0 ? email.substring(arobase + 1).toLowerCase() : "";
+    }
+}
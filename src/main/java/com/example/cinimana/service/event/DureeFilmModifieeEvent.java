@@ -0,0 +1,7 @@
+package com.example.cinimana.service.event;
+
+/**
+ * Durée d'un film modifiée : les fins de ses séances programmées changent
+ */
+public record DureeFilmModifieeEvent(String filmId, int duree) {
+}
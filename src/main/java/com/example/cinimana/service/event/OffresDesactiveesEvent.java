@@ -0,0 +1,9 @@
+package com.example.cinimana.service.event;
+
+import java.util.List;
+
+/**
+ * Lot d'offres désactivées en une requête (offres expirées)
+ */
+public record OffresDesactiveesEvent(List<Long> offreIds) {
+}
@@ -0,0 +1,21 @@
+package com.example.cinimana.service.event;
+
+import com.example.cinimana.model.StatutReservation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Réservation annulée par un traitement de masse, avec les données nécessaires aux compteurs
+ * (occupation de la séance, statistiques) et son statut avant annulation
+ */
+public record ReservationAnnulee(
+        Long id,
+        Long seanceId,
+        String filmId,
+        String salleId,
+        Long categorieId,
+        Integer nombrePlace,
+        Double montantTotal,
+        LocalDateTime dateReservation,
+        StatutReservation ancienStatut) {
+}
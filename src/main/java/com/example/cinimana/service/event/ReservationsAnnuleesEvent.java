@@ -0,0 +1,11 @@
+package com.example.cinimana.service.event;
+
+import java.util.List;
+
+/**
+ * Lot de réservations annulées en une requête. Publié dans la transaction du lot : les compteurs
+ * s'y mettent à jour ({@code @EventListener}), les plans de salle après le commit
+ * ({@code @TransactionalEventListener}).
+ */
+public record ReservationsAnnuleesEvent(List<ReservationAnnulee> reservations, List<SiegeLibere> sieges) {
+}
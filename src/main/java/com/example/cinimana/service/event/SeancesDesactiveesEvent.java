@@ -0,0 +1,9 @@
+package com.example.cinimana.service.event;
+
+import java.util.List;
+
+/**
+ * Lot de séances désactivées en une requête (séances passées)
+ */
+public record SeancesDesactiveesEvent(List<Long> seanceIds) {
+}
@@ -0,0 +1,7 @@
+package com.example.cinimana.service.event;
+
+/**
+ * Siège rendu disponible par l'annulation d'une réservation
+ */
+public record SiegeLibere(Long seanceId, Integer rangee, Integer numero) {
+}
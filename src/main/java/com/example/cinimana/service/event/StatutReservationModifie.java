@@ -0,0 +1,9 @@
+package com.example.cinimana.service.event;
+
+import com.example.cinimana.model.StatutReservation;
+
+/**
+ * Changement de statut d'une réservation (création comprise), publié dans la transaction qui l'applique
+ */
+public record StatutReservationModifie(Long reservationId, StatutReservation statut) {
+}
@@ -0,0 +1,68 @@
+package com.example.cinimana.service.export;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Écriture d'un classeur Excel en flux : seules les dernières lignes (fenêtre) restent en mémoire,
+ * les précédentes sont vidées dans un fichier temporaire compressé puis recopiées dans le flux
+ * de sortie. La mémoire utilisée ne dépend pas du nombre de lignes exportées.
+ */
+public final class ExcelStreamWriter implements AutoCloseable {
+
+    public static final int ROW_WINDOW = 200;
+
+    private final SXSSFWorkbook workbook;
+    private final Sheet sheet;
+    private int rowNum;
+
+    public ExcelStreamWriter(String sheetName) {
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet(sheetName);
+    }
+
+    public SXSSFWorkbook getWorkbook() {
+        return workbook;
+    }
+
+    public Sheet getSheet() {
+        return sheet;
+    }
+
+    public Row nextRow() {
+        return sheet.createRow(rowNum++);
+    }
+
+    public void skipRows(int count) {
+        rowNum += count;
+    }
+
+    /**
+     * Largeurs fixes en nombre de caractères (l'ajustement automatique exigerait de mesurer chaque cellule)
+     */
+    public void setColumnWidths(int... widths) {
+        for (int i = 0; i < widths.length; i++) {
+            sheet.setColumnWidth(i, Math.min(widths[i], 255) * 256);
+        }
+    }
+
+    public int getDataRowCount(int headerRows) {
+        return Math.max(rowNum - headerRows, 0);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose(); // Supprime les fichiers temporaires
+        workbook.close();
+    }
+}
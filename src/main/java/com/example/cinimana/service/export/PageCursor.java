@@ -0,0 +1,35 @@
+package com.example.cinimana.service.export;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Curseur de pagination (date, id) des listes triées de la plus récente à la plus ancienne : la page
+ * suivante commence strictement après cette ligne, l'id départageant les lignes de même date.
+ * Transmis au client sous forme opaque (base64 de "date_id").
+ */
+public record PageCursor(LocalDateTime date, Long id) {
+
+    public String encode() {
+        String raw = date + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return le curseur, ou null pour la première page (curseur absent ou vide)
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('_');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+}
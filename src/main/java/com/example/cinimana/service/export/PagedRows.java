@@ -0,0 +1,51 @@
+package com.example.cinimana.service.export;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Parcours page par page d'une requête paginée par curseur : chaque page est lue à partir de la
+ * dernière ligne de la précédente, et une seule page est chargée à la fois
+ */
+public final class PagedRows<T> implements Iterable<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    private final int pageSize;
+    private final Function<T, List<T>> nextPage;
+
+    /**
+     * @param nextPage page suivant la ligne donnée (null pour la première page), au plus pageSize lignes
+     */
+    public PagedRows(int pageSize, Function<T, List<T>> nextPage) {
+        this.pageSize = pageSize;
+        this.nextPage = nextPage;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private List<T> page = nextPage.apply(null);
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index == page.size() && page.size() == pageSize) {
+                    page = nextPage.apply(page.get(pageSize - 1));
+                    index = 0;
+                }
+                return index < page.size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(index++);
+            }
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.cinimana.service.job;
+
+import java.time.LocalDateTime;
+
+/**
+ * Métriques d'un traitement de masse : cumul depuis le démarrage et détail de la dernière exécution
+ */
+public record BulkJobStats(
+        String nom,
+        long executions,
+        long lignesTotal,
+        LocalDateTime derniereExecution,
+        int derniersLots,
+        long dernieresLignes,
+        long derniereDureeMs,
+        String derniereErreur) {
+}
@@ -0,0 +1,86 @@
+package com.example.cinimana.service.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Exécution des traitements de masse par lots : chaque lot (sélection verrouillée de N lignes,
+ * UPDATE ensembliste, événements) est validé dans sa propre transaction, de sorte que les verrous
+ * ne sont tenus que le temps d'un lot. Un lot incomplet termine le passage ; les lignes ignorées
+ * (verrouillées ailleurs) sont reprises au passage suivant.
+ */
+@Component
+public class BulkUpdateJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUpdateJobRunner.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final int tailleLot;
+    private final int maxLots;
+    private final Map<String, BulkJobStats> stats = new ConcurrentHashMap<>();
+
+    public BulkUpdateJobRunner(TransactionTemplate transactionTemplate,
+                               @Value("${app.jobs.chunk-size:500}") int tailleLot,
+                               @Value("${app.jobs.max-chunks:200}") int maxLots) {
+        this.transactionTemplate = transactionTemplate;
+        this.tailleLot = tailleLot;
+        this.maxLots = maxLots;
+    }
+
+    /**
+     * @param lot traite au plus n lignes dans la transaction courante et renvoie le nombre de lignes modifiées
+     * @return nombre total de lignes modifiées
+     */
+    public long run(String nom, IntUnaryOperator lot) {
+        long debut = System.nanoTime();
+        int lots = 0;
+        long lignes = 0;
+        String erreur = null;
+
+        try {
+            while (lots < maxLots) {
+                Integer modifiees = transactionTemplate.execute(status -> lot.applyAsInt(tailleLot));
+                lots++;
+                lignes += modifiees != null ? modifiees : 0;
+                if (modifiees == null || modifiees < tailleLot) {
+                    break;
+                }
+            }
+            if (lots == maxLots) {
+                logger.warn("⚠️ Traitement '{}' interrompu après {} lots, suite au prochain passage", nom, lots);
+            }
+        } catch (RuntimeException e) {
+            // Les lots précédents restent validés
+            erreur = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            logger.error("❌ Traitement '{}' en échec au lot {}: {}", nom, lots + 1, erreur);
+        }
+
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+        record(nom, lots, lignes, dureeMs, erreur);
+        if (lignes > 0) {
+            logger.info("✅ Traitement '{}': {} ligne(s) modifiée(s) en {} lot(s), {} ms", nom, lignes, lots, dureeMs);
+        }
+        return lignes;
+    }
+
+    public List<BulkJobStats> stats() {
+        return stats.values().stream().sorted(Comparator.comparing(BulkJobStats::nom)).toList();
+    }
+
+    private void record(String nom, int lots, long lignes, long dureeMs, String erreur) {
+        stats.compute(nom, (key, previous) -> new BulkJobStats(nom,
+                previous != null ? previous.executions() + 1 : 1,
+                (previous != null ? previous.lignesTotal() : 0) + lignes,
+                LocalDateTime.now(), lots, lignes, dureeMs, erreur));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.cinimana.service.planning;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Utilitaires communs aux contrôles d'occupation des salles (planning, saisie et import des séances)
+ */
+public final class Creneaux {
+
+    private Creneaux() {
+    }
+
+    /**
+     * Minutes depuis l'époque : unité des arbres d'intervalles du planning
+     */
+    public static long minutes(LocalDateTime dateHeure) {
+        return dateHeure.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /**
+     * Refus : la salle est prise par une séance active
+     */
+    public static String salleOccupee(String nomSalle, PlanningSalles.Creneau conflit) {
+        return String.format("La salle %s est déjà occupée de %s à %s (séance ID: %d)",
+                nomSalle, conflit.debut(), conflit.fin(), conflit.seanceId());
+    }
+
+    /**
+     * Refus : la salle est prise par une autre ligne du fichier importé
+     */
+    public static String salleOccupee(String nomSalle, LocalDateTime debut, LocalDateTime fin, int ligne) {
+        return String.format("La salle %s est déjà occupée de %s à %s (ligne %d du fichier)",
+                nomSalle, debut, fin, ligne);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.cinimana.service.planning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Arbre d'intervalles semi-ouverts [debut, fin) : treap ordonné par début, chaque nœud portant
+ * la plus grande fin de son sous-arbre. Insertion, suppression et recherche des chevauchements
+ * en O(log n + k). Non synchronisé : l'appelant protège les accès concurrents.
+ */
+public class IntervalTree<T> {
+
+    public record Intervalle<T>(long debut, long fin, T valeur) {
+    }
+
+    private static final class Noeud<T> {
+        private final long debut;
+        private final long fin;
+        private final T valeur;
+        private final int priorite = ThreadLocalRandom.current().nextInt();
+        private long maxFin;
+        private Noeud<T> gauche;
+        private Noeud<T> droite;
+
+        private Noeud(long debut, long fin, T valeur) {
+            this.debut = debut;
+            this.fin = fin;
+            this.valeur = valeur;
+            this.maxFin = fin;
+        }
+    }
+
+    private Noeud<T> racine;
+    private int taille;
+
+    public void ajouter(long debut, long fin, T valeur) {
+        if (fin <= debut) {
+            throw new IllegalArgumentException("Intervalle vide: [" + debut + ", " + fin + ")");
+        }
+        racine = inserer(racine, new Noeud<>(debut, fin, valeur));
+        taille++;
+    }
+
+    /**
+     * Retire l'intervalle commençant à debut et portant cette valeur
+     */
+    public boolean retirer(long debut, T valeur) {
+        boolean[] trouve = new boolean[1];
+        racine = supprimer(racine, debut, valeur, trouve);
+        if (trouve[0]) {
+            taille--;
+        }
+        return trouve[0];
+    }
+
+    /**
+     * Intervalles qui chevauchent [debut, fin), triés par début
+     */
+    public List<Intervalle<T>> chevauchements(long debut, long fin) {
+        List<Intervalle<T>> resultat = new ArrayList<>();
+        chercher(racine, debut, fin, resultat, Integer.MAX_VALUE);
+        return resultat;
+    }
+
+    /**
+     * Premier intervalle (par début) qui chevauche [debut, fin), ou null
+     */
+    public Intervalle<T> premierChevauchement(long debut, long fin) {
+        List<Intervalle<T>> resultat = new ArrayList<>(1);
+        chercher(racine, debut, fin, resultat, 1);
+        return resultat.isEmpty() ? null : resultat.get(0);
+    }
+
+    public int taille() {
+        return taille;
+    }
+
+    private void chercher(Noeud<T> noeud, long debut, long fin, List<Intervalle<T>> resultat, int limite) {
+        if (noeud == null || noeud.maxFin <= debut || resultat.size() >= limite) {
+            return; // Aucun intervalle du sous-arbre ne se termine après debut
+        }
+        chercher(noeud.gauche, debut, fin, resultat, limite);
+        if (resultat.size() >= limite || noeud.debut >= fin) {
+            return; // Le nœud et tout son sous-arbre droit commencent après fin
+        }
+        if (noeud.fin > debut) {
+            resultat.add(new Intervalle<>(noeud.debut, noeud.fin, noeud.valeur));
+        }
+        chercher(noeud.droite, debut, fin, resultat, limite);
+    }
+
+    private Noeud<T> inserer(Noeud<T> noeud, Noeud<T> nouveau) {
+        if (noeud == null) {
+            return nouveau;
+        }
+        if (nouveau.debut < noeud.debut) {
+            noeud.gauche = inserer(noeud.gauche, nouveau);
+            if (noeud.gauche.priorite > noeud.priorite) {
+                noeud = rotationDroite(noeud);
+            }
+        } else {
+            noeud.droite = inserer(noeud.droite, nouveau);
+            if (noeud.droite.priorite > noeud.priorite) {
+                noeud = rotationGauche(noeud);
+            }
+        }
+        majMaxFin(noeud);
+        return noeud;
+    }
+
+    private Noeud<T> supprimer(Noeud<T> noeud, long debut, T valeur, boolean[] trouve) {
+        if (noeud == null) {
+            return null;
+        }
+        if (debut < noeud.debut) {
+            noeud.gauche = supprimer(noeud.gauche, debut, valeur, trouve);
+        } else if (debut > noeud.debut) {
+            noeud.droite = supprimer(noeud.droite, debut, valeur, trouve);
+        } else if (Objects.equals(noeud.valeur, valeur)) {
+            trouve[0] = true;
+            return fusionner(noeud.gauche, noeud.droite);
+        } else {
+            // Débuts égaux : après rotations, l'intervalle cherché peut être de chaque côté
+            noeud.gauche = supprimer(noeud.gauche, debut, valeur, trouve);
+            if (!trouve[0]) {
+                noeud.droite = supprimer(noeud.droite, debut, valeur, trouve);
+            }
+        }
+        majMaxFin(noeud);
+        return noeud;
+    }
+
+    private Noeud<T> fusionner(Noeud<T> gauche, Noeud<T> droite) {
+        if (gauche == null) {
+            return droite;
+        }
+        if (droite == null) {
+            return gauche;
+        }
+        if (gauche.priorite > droite.priorite) {
+            gauche.droite = fusionner(gauche.droite, droite);
+            majMaxFin(gauche);
+            return gauche;
+        }
+        droite.gauche = fusionner(gauche, droite.gauche);
+        majMaxFin(droite);
+        return droite;
+    }
+
+    private Noeud<T> rotationDroite(Noeud<T> noeud) {
+        Noeud<T> pivot = noeud.gauche;
+        noeud.gauche = pivot.droite;
+        pivot.droite = noeud;
+        majMaxFin(noeud);
+        majMaxFin(pivot);
+        return pivot;
+    }
+
+    private Noeud<T> rotationGauche(Noeud<T> noeud) {
+        Noeud<T> pivot = noeud.droite;
+        noeud.droite = pivot.gauche;
+        pivot.gauche = noeud;
+        majMaxFin(noeud);
+        majMaxFin(pivot);
+        return pivot;
+    }
+
+    private void majMaxFin(Noeud<T> noeud) {
+        long max = noeud.fin;
+        if (noeud.gauche != null) {
+            max = Math.max(max, noeud.gauche.maxFin);
+        }
+        if (noeud.droite != null) {
+            max = Math.max(max, noeud.droite.maxFin);
+        }
+        noeud.maxFin = max;
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.cinimana.service.planning;
+
+import com.example.cinimana.model.Seance;
+import com.example.cinimana.repository.FilmRepository;
+import com.example.cinimana.repository.SalleRepository;
+import com.example.cinimana.repository.SeanceRepository;
+import com.example.cinimana.service.event.DureeFilmModifieeEvent;
+import com.example.cinimana.service.event.SeancesDesactiveesEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index en mémoire de l'occupation des salles : un arbre d'intervalles [début, fin) par salle,
+ * alimenté par les séances actives. Chevauchement et créneaux libres se calculent sans requête
+ * en O(log n). Une séance créée, modifiée ou (dés)activée occupe son créneau dès l'écriture,
+ * contrôle et réservation étant atomiques ; le créneau est rendu si la transaction est annulée.
+ * L'index est rechargé chaque nuit. Il ne voit que les écritures de cette instance : il sert de
+ * pré-contrôle rapide, le contrôle faisant foi (confirmer) relit la BDD sous verrou de la salle
+ * dans la transaction d'écriture. Tant que l'index n'est pas chargé, les chevauchements sont lus en BDD.
+ */
+@Component
+@RequiredArgsConstructor
+public class PlanningSalles implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanningSalles.class);
+    private static final int HORIZON_JOURS = 14;
+
+    /**
+     * Créneau occupé par une séance active
+     */
+    public record Creneau(Long seanceId, String salleId, String filmId, LocalDateTime debut, LocalDateTime fin) {
+    }
+
+    private final SeanceRepository seanceRepository;
+    private final FilmRepository filmRepository;
+    private final SalleRepository salleRepository;
+
+    @Value("${app.planning.heure-ouverture:10}")
+    private int heureOuverture;
+
+    @Value("${app.planning.heure-fermeture:24}")
+    private int heureFermeture;
+
+    @Value("${app.planning.pas-minutes:15}")
+    private int pasMinutes;
+
+    // Accès protégés par le verrou
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private Map<String, IntervalTree<Creneau>> parSalle = new HashMap<>();
+    private Map<Long, Creneau> parSeance = new HashMap<>();
+    private volatile boolean charge;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            recharger();
+        } catch (RuntimeException e) {
+            // Contrôles lus en BDD jusqu'au prochain essai
+            logger.error("❌ Chargement du planning des salles impossible: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Nouvel essai de chargement tant que l'index n'est pas chargé
+     */
+    @Scheduled(fixedDelayString = "${app.planning.index.essai-ms:60000}")
+    public void chargerSiAbsent() {
+        if (!charge) {
+            recharger();
+        }
+    }
+
+    /**
+     * Reconstruit l'index depuis la BDD (séances actives commencées depuis moins d'un jour). Le verrou
+     * est tenu de la requête à la bascule : une écriture validée pendant le chargement est soit lue
+     * par la requête, soit appliquée au nouvel index une fois le verrou rendu.
+     */
+    @Scheduled(cron = "${app.planning.index.cron:0 30 4 * * *}")
+    public void recharger() {
+        long debutChargement = System.currentTimeMillis();
+        Map<String, IntervalTree<Creneau>> salles = new HashMap<>();
+        Map<Long, Creneau> seances = new HashMap<>();
+
+        verrou.writeLock().lock();
+        try {
+            // Lecture non verrouillante : aucune attente sur les transactions de séances en cours
+            for (Object[] row : seanceRepository.findCreneauxActifsDepuis(LocalDateTime.now().minusDays(1))) {
+                LocalDateTime debut = (LocalDateTime) row[3];
+                Creneau creneau = new Creneau((Long) row[0], (String) row[1], (String) row[2], debut,
+                        debut.plusMinutes(((Number) row[4]).intValue()));
+                salles.computeIfAbsent(creneau.salleId(), id -> new IntervalTree<>())
+                        .ajouter(Creneaux.minutes(creneau.debut()), Creneaux.minutes(creneau.fin()), creneau);
+                seances.put(creneau.seanceId(), creneau);
+            }
+            parSalle = salles;
+            parSeance = seances;
+            charge = true;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        logger.info("✅ Planning des salles chargé: {} séance(s) dans {} salle(s) en {} ms", seances.size(),
+                salles.size(), System.currentTimeMillis() - debutChargement);
+    }
+
+    /**
+     * Premier créneau occupé qui chevauche [debut, fin) dans la salle, hors séance exclue (modification)
+     */
+    public Creneau conflit(String salleId, LocalDateTime debut, LocalDateTime fin, Long seanceExclue) {
+        if (!charge) {
+            return conflitEnBase(salleId, debut, fin, seanceExclue);
+        }
+        verrou.readLock().lock();
+        try {
+            return premierConflit(salleId, debut, fin, seanceExclue);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Prochains créneaux libres de la salle pour une séance de cette durée, à partir de apres :
+     * débuts alignés sur le pas, entre l'heure d'ouverture et l'heure de fermeture
+     */
+    public List<Creneau> creneauxLibres(String salleId, LocalDateTime apres, int dureeMinutes, int nombre) {
+        if (dureeMinutes <= 0) {
+            throw new IllegalArgumentException("Durée de séance invalide: " + dureeMinutes);
+        }
+        if (!charge) {
+            throw new RuntimeException("Planning des salles en cours de chargement, réessayez dans une minute.");
+        }
+        List<Creneau> libres = new ArrayList<>(nombre);
+        LocalDateTime limite = apres.plusDays(HORIZON_JOURS);
+        LocalDateTime candidat = ouvert(aligner(apres));
+
+        verrou.readLock().lock();
+        try {
+            IntervalTree<Creneau> arbre = parSalle.get(salleId);
+            while (libres.size() < nombre && candidat.isBefore(limite)) {
+                LocalDateTime fin = candidat.plusMinutes(dureeMinutes);
+                IntervalTree.Intervalle<Creneau> occupe = arbre != null
+                        ? arbre.premierChevauchement(Creneaux.minutes(candidat), Creneaux.minutes(fin))
+                        : null;
+                if (occupe == null) {
+                    libres.add(new Creneau(null, salleId, null, candidat, fin));
+                    candidat = ouvert(aligner(fin));
+                } else {
+                    // Saute directement après la séance qui bloque
+                    candidat = ouvert(aligner(occupe.valeur().fin()));
+                }
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+        return libres;
+    }
+
+    /**
+     * Occupe le créneau de la séance (ou le libère si elle est inactive), à appeler après son
+     * enregistrement. Refuse si la salle est prise ; annulé avec la transaction.
+     */
+    public void occuper(Seance seance) {
+        occuper(List.of(seance));
+    }
+
+    /**
+     * Occupe les créneaux d'un lot de séances, tout ou rien
+     */
+    public void occuper(Collection<Seance> seances) {
+        List<Creneau> anciens = new ArrayList<>();
+        List<Creneau> nouveaux = new ArrayList<>();
+
+        verrou.writeLock().lock();
+        try {
+            for (Seance seance : seances) {
+                Creneau ancien = parSeance.get(seance.getId());
+                if (ancien != null) {
+                    retirer(ancien);
+                    anciens.add(ancien);
+                }
+            }
+            for (Seance seance : seances) {
+                if (!seance.isActif()) {
+                    continue;
+                }
+                Creneau creneau = new Creneau(seance.getId(), seance.getSalle().getId(), seance.getFilm().getId(),
+                        seance.getDateHeure(), seance.getDateHeure().plusMinutes(seance.getFilm().getDuree()));
+                Creneau conflit = premierConflit(creneau.salleId(), creneau.debut(), creneau.fin(), null);
+                if (conflit != null) {
+                    nouveaux.forEach(this::retirer);
+                    anciens.forEach(this::inserer);
+                    throw new RuntimeException(Creneaux.salleOccupee(seance.getSalle().getNom(), conflit));
+                }
+                inserer(creneau);
+                nouveaux.add(creneau);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    verrou.writeLock().lock();
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            // Un rechargement pendant la transaction n'a pas pu voir ces séances
+                            nouveaux.stream().filter(c -> !parSeance.containsKey(c.seanceId()))
+                                    .forEach(PlanningSalles.this::inserer);
+                        } else {
+                            nouveaux.forEach(PlanningSalles.this::retirer);
+                            anciens.stream().filter(c -> !parSeance.containsKey(c.seanceId()))
+                                    .forEach(PlanningSalles.this::inserer);
+                        }
+                    } finally {
+                        verrou.writeLock().unlock();
+                    }
+                }
+            });
+        }
+    }
+
+    @EventListener
+    public void onSeancesDesactivees(SeancesDesactiveesEvent event) {
+        apresCommit(() -> {
+            verrou.writeLock().lock();
+            try {
+                event.seanceIds().stream().map(parSeance::get).filter(Objects::nonNull).forEach(this::retirer);
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        });
+    }
+
+    @EventListener
+    public void onDureeFilmModifiee(DureeFilmModifieeEvent event) {
+        apresCommit(() -> {
+            verrou.writeLock().lock();
+            try {
+                List<Creneau> seances = parSeance.values().stream()
+                        .filter(c -> event.filmId().equals(c.filmId()))
+                        .toList();
+                for (Creneau ancien : seances) {
+                    retirer(ancien);
+                    Creneau creneau = new Creneau(ancien.seanceId(), ancien.salleId(), ancien.filmId(),
+                            ancien.debut(), ancien.debut().plusMinutes(event.duree()));
+                    if (premierConflit(creneau.salleId(), creneau.debut(), creneau.fin(), null) != null) {
+                        logger.warn("⚠️ Séance {} : la nouvelle durée du film {} chevauche la séance suivante",
+                                creneau.seanceId(), event.filmId());
+                    }
+                    inserer(creneau);
+                }
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        });
+    }
+
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return parSeance.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // ==================== BDD ====================
+
+    /**
+     * Contrôle faisant foi, dans la transaction d'écriture et avant l'enregistrement : verrouille la salle
+     * (les écritures de séances d'une salle sont sérialisées, toutes instances confondues) puis relit ses
+     * séances actives
+     */
+    public Creneau confirmer(String salleId, LocalDateTime debut, LocalDateTime fin, Long seanceExclue) {
+        salleRepository.verrouiller(salleId);
+        return conflitEnBase(salleId, debut, fin, seanceExclue);
+    }
+
+    /**
+     * Variante par lot : séances actives de la salle pouvant chevaucher [debut, fin), lues après
+     * verrouillage de la salle. Verrouiller plusieurs salles dans l'ordre de leurs identifiants.
+     */
+    public List<Creneau> verrouillerEtLire(String salleId, LocalDateTime debut, LocalDateTime fin) {
+        salleRepository.verrouiller(salleId);
+        return creneauxEnBase(salleId, debut, fin);
+    }
+
+    private Creneau conflitEnBase(String salleId, LocalDateTime debut, LocalDateTime fin, Long seanceExclue) {
+        return creneauxEnBase(salleId, debut, fin).stream()
+                .filter(c -> c.debut().isBefore(fin) && c.fin().isAfter(debut))
+                .filter(c -> !c.seanceId().equals(seanceExclue))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Séances actives de la salle pouvant chevaucher [debut, fin)
+     */
+    private List<Creneau> creneauxEnBase(String salleId, LocalDateTime debut, LocalDateTime fin) {
+        List<Creneau> creneaux = new ArrayList<>();
+        for (Object[] row : seanceRepository.findCreneauxActifsBySalle(salleId,
+                debut.minusMinutes(filmRepository.findDureeMax()), fin)) {
+            LocalDateTime debutSeance = row[1] instanceof Timestamp t ? t.toLocalDateTime() : (LocalDateTime) row[1];
+            creneaux.add(new Creneau(((Number) row[0]).longValue(), salleId, null, debutSeance,
+                    debutSeance.plusMinutes(((Number) row[2]).intValue())));
+        }
+        return creneaux;
+    }
+
+    // ==================== INTERNE (verrou tenu) ====================
+
+    private Creneau premierConflit(String salleId, LocalDateTime debut, LocalDateTime fin, Long seanceExclue) {
+        IntervalTree<Creneau> arbre = parSalle.get(salleId);
+        if (arbre == null) {
+            return null;
+        }
+        if (seanceExclue == null) {
+            IntervalTree.Intervalle<Creneau> occupe = arbre.premierChevauchement(Creneaux.minutes(debut),
+                    Creneaux.minutes(fin));
+            return occupe != null ? occupe.valeur() : null;
+        }
+        return arbre.chevauchements(Creneaux.minutes(debut), Creneaux.minutes(fin)).stream()
+                .map(IntervalTree.Intervalle::valeur)
+                .filter(c -> !seanceExclue.equals(c.seanceId()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void inserer(Creneau creneau) {
+        parSalle.computeIfAbsent(creneau.salleId(), id -> new IntervalTree<>())
+                .ajouter(Creneaux.minutes(creneau.debut()), Creneaux.minutes(creneau.fin()), creneau);
+        parSeance.put(creneau.seanceId(), creneau);
+    }
+
+    private void retirer(Creneau creneau) {
+        IntervalTree<Creneau> arbre = parSalle.get(creneau.salleId());
+        if (arbre != null) {
+            arbre.retirer(Creneaux.minutes(creneau.debut()), creneau);
+        }
+        parSeance.remove(creneau.seanceId(), creneau);
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    private LocalDateTime aligner(LocalDateTime dateHeure) {
+        LocalDateTime arrondi = dateHeure.withSecond(0).withNano(0);
+        if (arrondi.isBefore(dateHeure)) {
+            arrondi = arrondi.plusMinutes(1);
+        }
+        int reste = arrondi.getMinute() % pasMinutes;
+        return reste == 0 ? arrondi : arrondi.plusMinutes(pasMinutes - reste);
+    }
+
+    /**
+     * Ramène un début hors des heures d'ouverture à la prochaine ouverture
+     */
+    private LocalDateTime ouvert(LocalDateTime dateHeure) {
+        LocalDate jour = dateHeure.toLocalDate();
+        if (dateHeure.getHour() < heureOuverture) {
+            return jour.atTime(heureOuverture, 0);
+        }
+        if (dateHeure.getHour() >= heureFermeture) {
+            return jour.plusDays(1).atTime(heureOuverture, 0);
+        }
+        return dateHeure;
+    }
+
+    private void apresCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.cinimana.service.qr;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+/**
+ * Modules d'un QR code (sans marge), un bit par module : c'est ce qui est mis en cache,
+ * les PNG et les tracés PDF en sont dérivés sans réencoder le contenu.
+ */
+public final class QrMatrix {
+
+    /** Marge blanche réglementaire autour du code, en modules */
+    public static final int QUIET_ZONE = 4;
+
+    private final int size;
+    private final long[] bits;
+
+    private QrMatrix(int size, long[] bits) {
+        this.size = size;
+        this.bits = bits;
+    }
+
+    /**
+     * Encode le contenu (même niveau de correction que QRCodeWriter par défaut)
+     */
+    public static QrMatrix encode(String contents) throws WriterException {
+        return of(Encoder.encode(contents, ErrorCorrectionLevel.L).getMatrix());
+    }
+
+    static QrMatrix of(ByteMatrix matrix) {
+        int size = matrix.getWidth();
+        long[] bits = new long[(size * size + 63) >>> 6];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (matrix.get(x, y) == 1) {
+                    int index = y * size + x;
+                    bits[index >>> 6] |= 1L << index;
+                }
+            }
+        }
+        return new QrMatrix(size, bits);
+    }
+
+    /**
+     * Nombre de modules par côté (hors marge)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isDark(int x, int y) {
+        int index = y * size + x;
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.cinimana.service.qr;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encodeur PNG dédié aux QR codes : image en niveaux de gris 1 bit écrite directement depuis
+ * la matrice de modules, sans BufferedImage ni ImageIO. Les tampons et le CRC sont réutilisés
+ * par thread ; le Deflater, qui tient de la mémoire native, est créé et libéré à chaque appel.
+ */
+public final class QrPngEncoder {
+
+    private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final byte[] IHDR = { 'I', 'H', 'D', 'R' };
+    private static final byte[] IDAT = { 'I', 'D', 'A', 'T' };
+    private static final byte[] IEND = { 'I', 'E', 'N', 'D' };
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private QrPngEncoder() {
+    }
+
+    /**
+     * Rendu au format demandé, même mise à l'échelle que QRCodeWriter de ZXing :
+     * facteur entier, marge de 4 modules minimum, code centré
+     */
+    public static byte[] encode(QrMatrix matrix, int width, int height) {
+        int size = matrix.getSize();
+        int withQuietZone = size + 2 * QrMatrix.QUIET_ZONE;
+        int outputWidth = Math.max(width, withQuietZone);
+        int outputHeight = Math.max(height, withQuietZone);
+        int scale = Math.min(outputWidth / withQuietZone, outputHeight / withQuietZone);
+        int left = (outputWidth - size * scale) / 2;
+        int top = (outputHeight - size * scale) / 2;
+
+        Buffers buffers = BUFFERS.get();
+        int rowBytes = (outputWidth + 7) >>> 3;
+        int rawLength = outputHeight * (rowBytes + 1);
+        byte[] raw = buffers.raw(rawLength);
+
+        // Lignes filtrées (filtre 0) : bit à 1 = blanc, bit à 0 = module sombre
+        byte[] row = buffers.row(rowBytes);
+        int position = 0;
+        int previousModuleRow = -1;
+        for (int y = 0; y < outputHeight; y++) {
+            int moduleRow = y >= top && y < top + size * scale ? (y - top) / scale : -1;
+            if (moduleRow != previousModuleRow || y == 0) {
+                fillRow(row, rowBytes, outputWidth, matrix, moduleRow, left, scale);
+                previousModuleRow = moduleRow;
+            }
+            raw[position++] = 0;
+            System.arraycopy(row, 0, raw, position, rowBytes);
+            position += rowBytes;
+        }
+
+        byte[] compressed = buffers.compressed(rawLength + 64);
+        int compressedLength = 0;
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw, 0, rawLength);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = buffers.growCompressed();
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        byte[] png = new byte[SIGNATURE.length + 25 + 12 + compressedLength + 12];
+        int offset = 0;
+        System.arraycopy(SIGNATURE, 0, png, 0, SIGNATURE.length);
+        offset += SIGNATURE.length;
+
+        byte[] header = buffers.header;
+        writeInt(header, 0, outputWidth);
+        writeInt(header, 4, outputHeight);
+        header[8] = 1;  // 1 bit par pixel
+        header[9] = 0;  // Niveaux de gris
+        header[10] = 0; // Compression deflate
+        header[11] = 0; // Filtrage adaptatif standard
+        header[12] = 0; // Pas d'entrelacement
+        offset = writeChunk(png, offset, IHDR, header, 13, buffers.crc);
+        offset = writeChunk(png, offset, IDAT, compressed, compressedLength, buffers.crc);
+        writeChunk(png, offset, IEND, header, 0, buffers.crc);
+        return png;
+    }
+
+    private static void fillRow(byte[] row, int rowBytes, int outputWidth, QrMatrix matrix, int moduleRow,
+                                int left, int scale) {
+        Arrays.fill(row, 0, rowBytes, (byte) 0xFF);
+        // Bits de remplissage en fin de ligne : laissés à 1 (blanc)
+        if (moduleRow < 0) {
+            return;
+        }
+        int size = matrix.getSize();
+        for (int x = 0; x < size; x++) {
+            if (!matrix.isDark(x, moduleRow)) {
+                continue;
+            }
+            int start = left + x * scale;
+            int end = Math.min(start + scale, outputWidth);
+            for (int px = start; px < end; px++) {
+                row[px >>> 3] &= (byte) ~(0x80 >>> (px & 7));
+            }
+        }
+    }
+
+    private static int writeChunk(byte[] png, int offset, byte[] type, byte[] data, int length, CRC32 crc) {
+        writeInt(png, offset, length);
+        offset += 4;
+        System.arraycopy(type, 0, png, offset, 4);
+        System.arraycopy(data, 0, png, offset + 4, length);
+        crc.reset();
+        crc.update(png, offset, length + 4);
+        offset += 4 + length;
+        writeInt(png, offset, (int) crc.getValue());
+        return offset + 4;
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Tampons réutilisés d'un appel à l'autre sur le même thread
+     */
+    private static final class Buffers {
+        private final CRC32 crc = new CRC32();
+        private final byte[] header = new byte[13];
+        private byte[] raw = new byte[0];
+        private byte[] row = new byte[0];
+        private byte[] compressed = new byte[0];
+
+        byte[] raw(int length) {
+            if (raw.length < length) {
+                raw = new byte[length];
+            }
+            return raw;
+        }
+
+        byte[] row(int length) {
+            if (row.length < length) {
+                row = new byte[length];
+            }
+            return row;
+        }
+
+        byte[] compressed(int length) {
+            if (compressed.length < length) {
+                compressed = new byte[length];
+            }
+            return compressed;
+        }
+
+        byte[] growCompressed() {
+            compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            return compressed;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.cinimana.service.seat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Roue temporelle hachée (hashed timing wheel) : planifie des milliers d'expirations
+ * en O(1) sans scan de base de données.
+ * Un seul thread avance la roue d'une case à chaque tick et exécute les tâches échues.
+ */
+public final class HashedTimingWheel implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timeout>[] buckets;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService worker;
+    private final long startNanos = System.nanoTime();
+    private long tick; // Modifié uniquement par le thread de la roue
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1; // puissance de 2
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = size - 1;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.worker.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Planifie une tâche après le délai donné (précision : un tick)
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long elapsedTicks = (System.nanoTime() - startNanos) / tickNanos;
+        long delayTicks = Math.max(1, (unit.toNanos(delay) + tickNanos - 1) / tickNanos);
+        Timeout timeout = new Timeout(task, elapsedTicks + delayTicks);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    private void advance() {
+        try {
+            // 1. Ranger les nouvelles échéances dans leur case
+            Timeout added;
+            while ((added = pending.poll()) != null) {
+                if (added.cancelled) {
+                    continue;
+                }
+                long deadline = Math.max(added.deadlineTick, tick);
+                added.remainingRounds = (deadline - tick) / buckets.length;
+                buckets[(int) (deadline & mask)].add(added);
+            }
+
+            // 2. Exécuter les échéances de la case courante
+            Iterator<Timeout> it = buckets[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Timeout timeout = it.next();
+                if (timeout.cancelled) {
+                    it.remove();
+                } else if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                } else {
+                    it.remove();
+                    try {
+                        timeout.task.run();
+                    } catch (Exception e) {
+                        logger.error("Erreur lors de l'exécution d'une échéance: {}", e.getMessage(), e);
+                    }
+                }
+            }
+            tick++;
+        } catch (Exception e) {
+            logger.error("Erreur dans la roue temporelle: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Échéance planifiée, annulable
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
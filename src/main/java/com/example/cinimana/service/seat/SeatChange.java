@@ -0,0 +1,10 @@
+package com.example.cinimana.service.seat;
+
+/**
+ * Nature d'une modification du plan de salle, diffusée aux clients connectés
+ */
+public enum SeatChange {
+    CLAIMED, // Sièges posés (réservation ou panier)
+    RELEASED, // Sièges libérés (annulation, panier relâché, transaction échouée)
+    EXPIRED // Panier expiré
+}
@@ -0,0 +1,221 @@
+package com.example.cinimana.service.seat;
+
+import com.example.cinimana.dto.request.SiegeRequest;
+import com.example.cinimana.model.Seance;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Réservations temporaires de sièges (panier) pendant le paiement.
+ * Les sièges sont posés dans le plan de salle en mémoire et relâchés automatiquement
+ * à l'expiration, via une roue temporelle (aucun scan planifié de la BDD).
+ * Chaque transition d'un panier (création, remplacement, libération, consommation, expiration)
+ * passe par compute() sur la clé client/séance : elles sont ordonnées entre elles.
+ */
+@Service
+@RequiredArgsConstructor
+public class SeatHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldService.class);
+
+    private final SeatMapService seatMapService;
+
+    @Value("${app.reservation.hold-minutes:10}")
+    private long holdMinutes;
+
+    @Value("${app.reservation.max-places:10}")
+    private int maxPlaces;
+
+    // Tick d'une seconde, 512 cases : une révolution couvre ~8 minutes, au-delà on compte les tours
+    private final HashedTimingWheel wheel = new HashedTimingWheel("seat-hold-wheel", 1, TimeUnit.SECONDS, 512);
+
+    private final ConcurrentHashMap<String, SeatHold> holds = new ConcurrentHashMap<>();
+    // Un seul panier actif par client et par séance
+    private final ConcurrentHashMap<String, String> holdByClientSeance = new ConcurrentHashMap<>();
+
+    /**
+     * Panier actif : sièges posés jusqu'à expiresAt
+     */
+    public record SeatHold(String holdId, String clientEmail, SeatMap seatMap, int[] indexes,
+                           LocalDateTime expiresAt, HashedTimingWheel.Timeout timeout) {
+
+        public Long seanceId() {
+            return seatMap.getSeanceId();
+        }
+    }
+
+    /**
+     * Pose les sièges pour le client pendant la durée configurée.
+     * Un nouveau panier sur la même séance remplace le précédent, une fois ses propres sièges obtenus :
+     * en cas d'échec, l'ancien panier reste intact.
+     */
+    public SeatHold hold(String clientEmail, Seance seance, List<SiegeRequest> sieges) {
+        if (sieges == null || sieges.isEmpty()) {
+            throw new RuntimeException("Aucun siège sélectionné");
+        }
+        verifierNombreSieges(sieges.size());
+
+        // Plan ouvert jusqu'à la fin du panier (libéré, expiré ou transformé en réservation)
+        SeatMap seatMap = seatMapService.ouvrir(seance);
+        SeatHold[] cree = new SeatHold[1];
+        try {
+            int[] indexes = seatMapService.indexesOf(seatMap, sieges);
+            // compute() : le nouveau panier est posé puis l'ancien libéré d'un seul tenant pour ce client et
+            // cette séance (deux demandes simultanées ne laissent pas deux paniers)
+            holdByClientSeance.compute(key(clientEmail, seance.getId()), (cle, previous) -> {
+                SeatHold ancien = previous != null ? holds.get(previous) : null;
+                boolean memePlan = ancien != null && ancien.seatMap() == seatMap;
+                // Sièges déjà tenus par l'ancien panier : seuls les autres sont à poser
+                if (!seatMap.tryClaim(memePlan ? sauf(indexes, ancien.indexes()) : indexes)) {
+                    return previous;
+                }
+                if (ancien != null) {
+                    holds.remove(previous, ancien);
+                    ancien.timeout().cancel();
+                    // Sièges repris par le nouveau panier : laissés posés
+                    ancien.seatMap().release(memePlan ? sauf(ancien.indexes(), indexes) : ancien.indexes());
+                    seatMapService.fermer(ancien.seatMap());
+                }
+                String holdId = UUID.randomUUID().toString();
+                HashedTimingWheel.Timeout timeout = wheel.schedule(() -> expire(holdId), holdMinutes,
+                        TimeUnit.MINUTES);
+                cree[0] = new SeatHold(holdId, clientEmail, seatMap, indexes,
+                        LocalDateTime.now().plusMinutes(holdMinutes), timeout);
+                holds.put(holdId, cree[0]);
+                return holdId;
+            });
+        } finally {
+            if (cree[0] == null) {
+                seatMapService.fermer(seatMap);
+            }
+        }
+        if (cree[0] == null) {
+            throw new RuntimeException("Un ou plusieurs sièges sélectionnés ne sont plus disponibles");
+        }
+
+        logger.info("Panier {} créé pour {} ({} siège(s), séance {})", cree[0].holdId(), clientEmail,
+                cree[0].indexes().length, seance.getId());
+        return cree[0];
+    }
+
+    /**
+     * Même limite de sièges qu'une réservation
+     */
+    public void verifierNombreSieges(int nombre) {
+        if (nombre > maxPlaces) {
+            throw new RuntimeException("Vous ne pouvez pas réserver plus de " + maxPlaces + " places à la fois");
+        }
+    }
+
+    /**
+     * Libère un panier à la demande du client
+     */
+    public void release(String holdId, String clientEmail) {
+        SeatHold seatHold = holds.get(holdId);
+        if (seatHold == null) {
+            return; // Déjà expiré ou consommé
+        }
+        if (!seatHold.clientEmail().equals(clientEmail)) {
+            throw new RuntimeException("Ce panier n'appartient pas au client connecté");
+        }
+        holdByClientSeance.computeIfPresent(key(clientEmail, seatHold.seanceId()), (cle, actuel) -> {
+            if (!actuel.equals(holdId) || !holds.remove(holdId, seatHold)) {
+                return actuel;
+            }
+            seatHold.timeout().cancel();
+            seatHold.seatMap().release(seatHold.indexes());
+            seatMapService.fermer(seatHold.seatMap());
+            return null;
+        });
+    }
+
+    /**
+     * Transforme le panier en réservation : les sièges restent posés, seule l'expiration est annulée.
+     * Si la transaction de réservation échoue, les sièges sont relâchés.
+     */
+    public void consume(String holdId, String clientEmail, Long seanceId, List<SiegeRequest> sieges) {
+        SeatHold seatHold = holds.get(holdId);
+        if (seatHold == null) {
+            throw new RuntimeException("Votre sélection de sièges a expiré, veuillez recommencer");
+        }
+        if (!seatHold.clientEmail().equals(clientEmail) || !seatHold.seanceId().equals(seanceId)) {
+            throw new RuntimeException("Ce panier ne correspond pas à cette réservation");
+        }
+
+        int[] requested = seatMapService.indexesOf(seatHold.seatMap(), sieges);
+        int[] held = seatHold.indexes().clone();
+        Arrays.sort(requested);
+        Arrays.sort(held);
+        if (!Arrays.equals(requested, held)) {
+            throw new RuntimeException("Les sièges demandés ne correspondent pas à votre sélection");
+        }
+
+        // Soit on consomme le panier, soit l'expiration (ou un remplacement) l'a déjà relâché
+        boolean[] consomme = new boolean[1];
+        holdByClientSeance.computeIfPresent(key(clientEmail, seanceId), (cle, actuel) -> {
+            if (!actuel.equals(holdId) || !holds.remove(holdId, seatHold)) {
+                return actuel;
+            }
+            seatHold.timeout().cancel();
+            consomme[0] = true;
+            return null;
+        });
+        if (!consomme[0]) {
+            throw new RuntimeException("Votre sélection de sièges a expiré, veuillez recommencer");
+        }
+
+        seatMapService.releaseOnRollback(seatHold.seatMap(), seatHold.indexes());
+    }
+
+    public int countActiveHolds() {
+        return holds.size();
+    }
+
+    // Exécuté par la roue temporelle
+    void expire(String holdId) {
+        SeatHold seatHold = holds.get(holdId);
+        if (seatHold == null) {
+            return; // Déjà libéré, consommé ou remplacé
+        }
+        holdByClientSeance.computeIfPresent(key(seatHold.clientEmail(), seatHold.seanceId()), (cle, actuel) -> {
+            if (!actuel.equals(holdId) || !holds.remove(holdId, seatHold)) {
+                return actuel;
+            }
+            seatHold.seatMap().expire(seatHold.indexes());
+            seatMapService.fermer(seatHold.seatMap());
+            logger.info("Panier {} expiré, {} siège(s) libéré(s) pour la séance {}", holdId,
+                    seatHold.indexes().length, seatHold.seanceId());
+            return null;
+        });
+    }
+
+    // Sièges de indexes absents de exclus
+    private static int[] sauf(int[] indexes, int[] exclus) {
+        if (exclus.length == 0) {
+            return indexes;
+        }
+        return Arrays.stream(indexes)
+                .filter(index -> Arrays.stream(exclus).noneMatch(exclu -> exclu == index))
+                .toArray();
+    }
+
+    private String key(String clientEmail, Long seanceId) {
+        return clientEmail + "#" + seanceId;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.cinimana.service.seat;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Plan de salle en mémoire d'une séance : un bit par siège (1 = occupé).
+ * Les sièges sont numérotés à partir de 1 (rangée 1..nombreRangees, numéro 1..siegesParRangee).
+ * Une demande multi-sièges est posée en tout-ou-rien par compare-and-set, mot par mot,
+ * avec retour arrière si l'un des sièges est déjà pris.
+ */
+public final class SeatMap {
+
+    private final Long seanceId;
+    private final String salleId;
+    private final int nombreRangees;
+    private final int siegesParRangee;
+    private final AtomicLongArray bits;
+    private volatile SeatMapListener listener;
+    // Paniers et réservations non validées qui s'appuient sur ce plan : il reste en cache tant qu'il y en a
+    private final AtomicInteger enCours = new AtomicInteger();
+    private volatile boolean evictionDemandee;
+    private volatile long dernierAcces = System.nanoTime();
+
+    public SeatMap(Long seanceId, String salleId, int nombreRangees, int siegesParRangee) {
+        this.seanceId = seanceId;
+        this.salleId = salleId;
+        this.nombreRangees = nombreRangees;
+        this.siegesParRangee = siegesParRangee;
+        this.bits = new AtomicLongArray((nombreRangees * siegesParRangee + 63) >>> 6);
+    }
+
+    public Long getSeanceId() {
+        return seanceId;
+    }
+
+    public String getSalleId() {
+        return salleId;
+    }
+
+    public int getNombreRangees() {
+        return nombreRangees;
+    }
+
+    public int getSiegesParRangee() {
+        return siegesParRangee;
+    }
+
+    void setListener(SeatMapListener listener) {
+        this.listener = listener;
+    }
+
+    int ouvrir() {
+        return enCours.incrementAndGet();
+    }
+
+    int fermer() {
+        return enCours.decrementAndGet();
+    }
+
+    int enCours() {
+        return enCours.get();
+    }
+
+    void demanderEviction() {
+        evictionDemandee = true;
+    }
+
+    boolean evictionDemandee() {
+        return evictionDemandee;
+    }
+
+    void toucher() {
+        dernierAcces = System.nanoTime();
+    }
+
+    long dernierAcces() {
+        return dernierAcces;
+    }
+
+    public int getCapacite() {
+        return nombreRangees * siegesParRangee;
+    }
+
+    /**
+     * Position du siège dans le bitset
+     */
+    public int index(int rangee, int numero) {
+        if (rangee < 1 || rangee > nombreRangees || numero < 1 || numero > siegesParRangee) {
+            throw new IllegalArgumentException(
+                    "Le siège Rangée " + rangee + " Numéro " + numero + " n'existe pas dans cette salle");
+        }
+        return (rangee - 1) * siegesParRangee + (numero - 1);
+    }
+
+    public int rangeeOf(int index) {
+        return index / siegesParRangee + 1;
+    }
+
+    public int numeroOf(int index) {
+        return index % siegesParRangee + 1;
+    }
+
+    public boolean isTaken(int index) {
+        return (bits.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Réserve tous les sièges ou aucun.
+     *
+     * @return false si au moins un siège était déjà occupé (rien n'est modifié)
+     */
+    public boolean tryClaim(int... indexes) {
+        int[] sorted = indexes.clone();
+        Arrays.sort(sorted);
+
+        // Regrouper les sièges par mot de 64 bits (ordre croissant => pas d'interblocage logique)
+        int[] words = new int[sorted.length];
+        long[] masks = new long[sorted.length];
+        int count = 0;
+        for (int index : sorted) {
+            int word = index >>> 6;
+            if (count > 0 && words[count - 1] == word) {
+                masks[count - 1] |= 1L << index;
+            } else {
+                words[count] = word;
+                masks[count] = 1L << index;
+                count++;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            while (true) {
+                long current = bits.get(words[i]);
+                if ((current & masks[i]) != 0) {
+                    // Conflit : on relâche les mots déjà posés
+                    for (int j = 0; j < i; j++) {
+                        clear(words[j], masks[j]);
+                    }
+                    return false;
+                }
+                if (bits.compareAndSet(words[i], current, current | masks[i])) {
+                    break;
+                }
+            }
+        }
+        notifyChange(SeatChange.CLAIMED, indexes);
+        return true;
+    }
+
+    /**
+     * Marque des sièges comme occupés sans contrôle (chargement initial depuis la BDD)
+     */
+    public void forceClaim(int index) {
+        bits.getAndAccumulate(index >>> 6, 1L << index, (a, b) -> a | b);
+    }
+
+    public void release(int... indexes) {
+        release(SeatChange.RELEASED, indexes);
+    }
+
+    /**
+     * Libère les sièges d'un panier arrivé à expiration
+     */
+    public void expire(int... indexes) {
+        release(SeatChange.EXPIRED, indexes);
+    }
+
+    private void release(SeatChange change, int[] indexes) {
+        for (int index : indexes) {
+            clear(index >>> 6, 1L << index);
+        }
+        notifyChange(change, indexes);
+    }
+
+    public int countTaken() {
+        int total = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            total += Long.bitCount(bits.get(i));
+        }
+        return total;
+    }
+
+    /**
+     * Copie instantanée du bitset (lecture seule)
+     */
+    public long[] snapshot() {
+        long[] copy = new long[bits.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = bits.get(i);
+        }
+        return copy;
+    }
+
+    private void notifyChange(SeatChange change, int[] indexes) {
+        SeatMapListener current = listener;
+        if (current != null && indexes.length > 0) {
+            current.onChange(this, change, indexes);
+        }
+    }
+
+    private void clear(int word, long mask) {
+        bits.getAndAccumulate(word, ~mask, (a, b) -> a & b);
+    }
+}
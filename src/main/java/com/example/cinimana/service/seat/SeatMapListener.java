@@ -0,0 +1,14 @@
+package com.example.cinimana.service.seat;
+
+/**
+ * Observateur des modifications des plans de salle.
+ * Appelé sur le thread qui modifie le plan : l'implémentation doit rester non bloquante.
+ */
+public interface SeatMapListener {
+
+    void onChange(SeatMap seatMap, SeatChange change, int[] indexes);
+
+    // Plan retiré du cache (séance terminée, salle modifiée)
+    default void onEvict(Long seanceId) {
+    }
+}
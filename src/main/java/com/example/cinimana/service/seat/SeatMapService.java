@@ -0,0 +1,367 @@
+package com.example.cinimana.service.seat;
+
+import com.example.cinimana.dto.request.SiegeRequest;
+import com.example.cinimana.model.Reservation;
+import com.example.cinimana.model.Salle;
+import com.example.cinimana.model.Seance;
+import com.example.cinimana.model.SiegeReserve;
+import com.example.cinimana.repository.SeanceRepository;
+import com.example.cinimana.repository.SiegeReserveRepository;
+import com.example.cinimana.service.event.ReservationsAnnuleesEvent;
+import com.example.cinimana.service.event.SeancesDesactiveesEvent;
+import com.example.cinimana.service.event.SiegeLibere;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moteur de plans de salle en mémoire : un {@link SeatMap} par séance à venir.
+ * Le plan est chargé à la première demande depuis les sièges réservés en BDD,
+ * puis sert de référence pour les demandes de sièges (plus de requête par siège).
+ * Un plan n'est retiré du cache (séance terminée, salle modifiée, limite atteinte) qu'une fois
+ * ses paniers et réservations en cours terminés : rechargé plus tôt, il les perdrait.
+ * Le chargement se fait hors de la map : aucune requête n'est exécutée sous le verrou d'une case.
+ */
+@Service
+@RequiredArgsConstructor
+public class SeatMapService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatMapService.class);
+
+    private final SeanceRepository seanceRepository;
+    private final SiegeReserveRepository siegeReserveRepository;
+
+    // Au-delà, les plans les moins récemment utilisés (sans panier ni réservation en cours) sont retirés
+    @Value("${app.seats.max-plans:2000}")
+    private int maxPlans;
+
+    private final ConcurrentHashMap<Long, SeatMap> seatMaps = new ConcurrentHashMap<>();
+    // Incrémenté à chaque invalidation : un plan lu avant ne doit pas être publié après
+    private final AtomicLong invalidations = new AtomicLong();
+    private final List<SeatMapListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Diffuse chaque modification à tous les observateurs enregistrés
+    private final SeatMapListener dispatcher = new SeatMapListener() {
+        @Override
+        public void onChange(SeatMap seatMap, SeatChange change, int[] indexes) {
+            for (SeatMapListener listener : listeners) {
+                try {
+                    listener.onChange(seatMap, change, indexes);
+                } catch (Exception e) {
+                    logger.warn("Erreur d'un observateur du plan de salle: {}", e.getMessage());
+                }
+            }
+        }
+    };
+
+    public void addListener(SeatMapListener listener) {
+        listeners.add(listener);
+    }
+
+    public SeatMap getSeatMap(Long seanceId) {
+        SeatMap seatMap = seatMaps.get(seanceId);
+        if (seatMap != null) {
+            seatMap.toucher();
+            return seatMap;
+        }
+        Seance seance = seanceRepository.findById(seanceId)
+                .orElseThrow(() -> new RuntimeException("Séance non trouvée"));
+        if (!seance.isActif() || !seance.getDateHeure().isAfter(LocalDateTime.now())) {
+            // Séance passée ou désactivée : lu depuis la BDD, pas gardé en mémoire
+            return readSeatMap(seance);
+        }
+        return getSeatMap(seance);
+    }
+
+    public SeatMap getSeatMap(Seance seance) {
+        SeatMap seatMap = seatMaps.get(seance.getId());
+        if (seatMap == null) {
+            seatMap = publier(seance);
+        }
+        seatMap.toucher();
+        limiter();
+        return seatMap;
+    }
+
+    /**
+     * Plan de la séance pour un panier ou une réservation : il reste en cache jusqu'à {@link #fermer(SeatMap)}.
+     * computeIfPresent() ordonne l'ouverture avec les évictions de la même séance.
+     */
+    SeatMap ouvrir(Seance seance) {
+        SeatMap seatMap = null;
+        while (seatMap == null) {
+            seatMap = seatMaps.computeIfPresent(seance.getId(), (id, plan) -> {
+                plan.ouvrir();
+                return plan;
+            });
+            if (seatMap == null) {
+                publier(seance); // Retiré entre la publication et l'ouverture : on recommence
+            }
+        }
+        seatMap.toucher();
+        limiter();
+        return seatMap;
+    }
+
+    /**
+     * Panier ou réservation terminé : l'éviction différée du plan a lieu avec le dernier
+     */
+    void fermer(SeatMap seatMap) {
+        if (seatMap.fermer() == 0 && seatMap.evictionDemandee()) {
+            evict(seatMap.getSeanceId());
+        }
+    }
+
+    /**
+     * Réserve atomiquement les sièges demandés pour la séance.
+     * Si une transaction est en cours, les sièges sont relâchés automatiquement en cas de rollback.
+     */
+    public void claim(Seance seance, List<SiegeRequest> sieges) {
+        if (sieges == null || sieges.isEmpty()) {
+            throw new RuntimeException("Aucun siège sélectionné");
+        }
+
+        SeatMap seatMap = ouvrir(seance);
+        int[] indexes;
+        try {
+            indexes = indexesOf(seatMap, sieges);
+        } catch (RuntimeException e) {
+            fermer(seatMap);
+            throw e;
+        }
+
+        if (!seatMap.tryClaim(indexes)) {
+            fermer(seatMap);
+            for (int index : indexes) {
+                if (seatMap.isTaken(index)) {
+                    throw new RuntimeException("Le siège Rangée " + seatMap.rangeeOf(index) + " Numéro "
+                            + seatMap.numeroOf(index) + " est déjà réservé");
+                }
+            }
+            // Le siège en conflit vient d'être relâché entre-temps
+            throw new RuntimeException("Un des sièges sélectionnés vient d'être réservé, veuillez réessayer");
+        }
+
+        releaseOnRollback(seatMap, indexes);
+    }
+
+    /**
+     * Relâche des sièges déjà posés (plan ouvert) si la transaction courante n'est pas validée,
+     * puis ferme le plan : après le commit, les sièges sont en BDD et un rechargement les retrouve
+     */
+    void releaseOnRollback(SeatMap seatMap, int[] indexes) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        seatMap.release(indexes);
+                    }
+                    fermer(seatMap);
+                }
+            });
+        } else {
+            fermer(seatMap);
+        }
+    }
+
+    /**
+     * Libère les sièges d'une réservation annulée, après le commit de l'annulation
+     */
+    public void releaseAfterCommit(Reservation reservation) {
+        Long seanceId = reservation.getSeance().getId();
+        List<int[]> seats = reservation.getSieges().stream()
+                .map(s -> new int[] { s.getRangee(), s.getNumero() })
+                .toList();
+
+        Runnable release = () -> release(seanceId, seats);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release.run();
+                }
+            });
+        } else {
+            release.run();
+        }
+    }
+
+    /**
+     * Annulations de masse : sièges libérés dans les plans chargés après le commit du lot
+     */
+    @EventListener
+    public void onReservationsAnnulees(ReservationsAnnuleesEvent event) {
+        Map<Long, List<int[]>> seatsBySeance = new HashMap<>();
+        for (SiegeLibere siege : event.sieges()) {
+            seatsBySeance.computeIfAbsent(siege.seanceId(), id -> new ArrayList<>())
+                    .add(new int[] { siege.rangee(), siege.numero() });
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                seatsBySeance.forEach(SeatMapService.this::release);
+            }
+        });
+    }
+
+    @EventListener
+    public void onSeancesDesactivees(SeancesDesactiveesEvent event) {
+        // Les plans de salle des séances passées ne sont plus utiles en mémoire
+        evictAll(event.seanceIds());
+    }
+
+    private void release(Long seanceId, List<int[]> seats) {
+        SeatMap seatMap = seatMaps.get(seanceId);
+        if (seatMap == null) {
+            return; // Pas encore chargé : il sera construit depuis la BDD à jour
+        }
+        for (int[] seat : seats) {
+            try {
+                seatMap.release(seatMap.index(seat[0], seat[1]));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Siège hors plan ignoré pour la séance {}: {}", seanceId, e.getMessage());
+            }
+        }
+    }
+
+    public void evict(Long seanceId) {
+        invalidations.incrementAndGet();
+        retirer(seanceId);
+    }
+
+    private void retirer(Long seanceId) {
+        SeatMap[] retire = new SeatMap[1];
+        SeatMap garde = seatMaps.computeIfPresent(seanceId, (id, plan) -> {
+            if (plan.enCours() > 0) {
+                plan.demanderEviction();
+                return plan;
+            }
+            retire[0] = plan;
+            return null;
+        });
+        if (retire[0] != null) {
+            listeners.forEach(listener -> listener.onEvict(seanceId));
+        } else if (garde != null) {
+            logger.debug("Éviction du plan de la séance {} différée ({} panier(s)/réservation(s) en cours)",
+                    seanceId, garde.enCours());
+        }
+    }
+
+    public void evictAll(Collection<Long> seanceIds) {
+        seanceIds.forEach(this::evict);
+    }
+
+    /**
+     * À appeler quand la configuration des sièges d'une salle change : les plans sont retirés après
+     * le commit, sinon un rechargement concurrent remettrait en cache l'ancienne configuration
+     */
+    public void evictSalle(String salleId) {
+        Runnable eviction = () -> {
+            invalidations.incrementAndGet();
+            seatMaps.values().stream()
+                    .filter(map -> map.getSalleId().equals(salleId))
+                    .map(SeatMap::getSeanceId)
+                    .toList()
+                    .forEach(this::evict);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    private void limiter() {
+        int excedent = seatMaps.size() - maxPlans;
+        if (excedent <= 0) {
+            return;
+        }
+        seatMaps.values().stream()
+                .filter(plan -> plan.enCours() == 0)
+                .sorted(Comparator.comparingLong(SeatMap::dernierAcces))
+                .limit(excedent)
+                .map(SeatMap::getSeanceId)
+                .toList()
+                .forEach(this::retirer); // Plans à jour : pas d'invalidation des chargements en cours
+    }
+
+    /**
+     * Charge le plan hors de la map puis le publie, sauf si un autre plan l'a été entre-temps (il est
+     * gardé) ou si une invalidation a eu lieu pendant la lecture (le chargement recommence)
+     */
+    private SeatMap publier(Seance seance) {
+        while (true) {
+            long generation = invalidations.get();
+            SeatMap charge = loadSeatMap(seance);
+            SeatMap publie = seatMaps.compute(seance.getId(), (id, actuel) -> {
+                if (actuel != null) {
+                    return actuel;
+                }
+                return invalidations.get() == generation ? charge : null;
+            });
+            if (publie != null) {
+                return publie;
+            }
+        }
+    }
+
+    private SeatMap loadSeatMap(Seance seance) {
+        SeatMap seatMap = readSeatMap(seance);
+        seatMap.setListener(dispatcher);
+
+        logger.info("Plan de salle chargé pour la séance {} ({} siège(s) occupé(s))", seance.getId(),
+                seatMap.countTaken());
+        return seatMap;
+    }
+
+    private SeatMap readSeatMap(Seance seance) {
+        Salle salle = seance.getSalle();
+        SeatMap seatMap = new SeatMap(seance.getId(), salle.getId(), salle.getNombreRangees(),
+                salle.getSiegesParRangee());
+
+        List<SiegeReserve> reserved = siegeReserveRepository.findReservedSeatsForSeance(seance.getId());
+        for (SiegeReserve siege : reserved) {
+            try {
+                seatMap.forceClaim(seatMap.index(siege.getRangee(), siege.getNumero()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Siège réservé hors plan pour la séance {}: {}", seance.getId(), e.getMessage());
+            }
+        }
+        return seatMap;
+    }
+
+    public int[] indexesOf(SeatMap seatMap, List<SiegeRequest> sieges) {
+        int[] indexes = new int[sieges.size()];
+        for (int i = 0; i < sieges.size(); i++) {
+            SiegeRequest siege = sieges.get(i);
+            if (siege.getRangee() == null || siege.getNumero() == null) {
+                throw new IllegalArgumentException("Siège incomplet (rangée et numéro obligatoires)");
+            }
+            indexes[i] = seatMap.index(siege.getRangee(), siege.getNumero());
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.cinimana.service.seat;
+
+import com.example.cinimana.dto.response.SeatDeltaDTO;
+import com.example.cinimana.dto.response.SeatMapSnapshotDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffusion en direct des plans de salle (Server-Sent Events) : le client reçoit l'état complet
+ * une fois, puis uniquement les modifications (sièges posés, libérés, paniers expirés).
+ * Chaque connexion est servie par son propre thread virtuel avec une file bornée :
+ * un navigateur lent ne ralentit ni les autres abonnés ni les réservations.
+ */
+@Service
+@RequiredArgsConstructor
+public class SeatMapStreamService implements SeatMapListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatMapStreamService.class);
+
+    private final SeatMapService seatMapService;
+
+    @Value("${app.seats.stream-timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${app.seats.stream-heartbeat-seconds:25}")
+    private long heartbeatSeconds;
+
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    public void init() {
+        seatMapService.addListener(this);
+    }
+
+    /**
+     * Ouvre un flux pour la séance : snapshot puis deltas
+     */
+    public SseEmitter subscribe(Long seanceId) {
+        SeatMap seatMap = seatMapService.getSeatMap(seanceId); // Vérifie l'existence de la séance
+
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(seanceId, emitter);
+
+        // Enregistré avant le snapshot : aucun delta n'est perdu entre les deux.
+        // Un delta antérieur au snapshot rejoué ensuite est sans effet (chaque delta fixe l'état des sièges).
+        subscribers.computeIfAbsent(seanceId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        executor.execute(() -> subscriber.run(seatMap));
+        return emitter;
+    }
+
+    @Override
+    public void onChange(SeatMap seatMap, SeatChange change, int[] indexes) {
+        Set<Subscriber> targets = subscribers.get(seatMap.getSeanceId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+
+        List<SeatDeltaDTO.SiegeInfo> sieges = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            sieges.add(new SeatDeltaDTO.SiegeInfo(seatMap.rangeeOf(index), seatMap.numeroOf(index)));
+        }
+        SeatDeltaDTO delta = new SeatDeltaDTO(seatMap.getSeanceId(), change.name(), sieges);
+
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(delta);
+        }
+    }
+
+    @Override
+    public void onEvict(Long seanceId) {
+        // Le plan sera rechargé : les clients se reconnectent et reçoivent un nouveau snapshot
+        Set<Subscriber> targets = subscribers.remove(seanceId);
+        if (targets != null) {
+            targets.forEach(Subscriber::close);
+        }
+    }
+
+    public int countSubscribers() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        Set<Subscriber> targets = subscribers.get(subscriber.seanceId);
+        if (targets != null) {
+            targets.remove(subscriber);
+        }
+    }
+
+    private static SeatMapSnapshotDTO toSnapshot(SeatMap seatMap) {
+        long[] words = seatMap.snapshot();
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int occupes = 0;
+        for (long word : words) {
+            buffer.putLong(word);
+            occupes += Long.bitCount(word);
+        }
+        int bytes = (seatMap.getCapacite() + 7) / 8;
+        String bitmap = Base64.getEncoder().encodeToString(java.util.Arrays.copyOf(buffer.array(), bytes));
+        return new SeatMapSnapshotDTO(seatMap.getSeanceId(), seatMap.getNombreRangees(),
+                seatMap.getSiegesParRangee(), occupes, bitmap);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(targets -> targets.forEach(Subscriber::close));
+        subscribers.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Connexion d'un navigateur : file de deltas vidée par un thread virtuel dédié
+     */
+    private final class Subscriber {
+        private static final Object CLOSE = new Object();
+
+        private final Long seanceId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(256);
+        private volatile boolean closed;
+
+        private Subscriber(Long seanceId, SseEmitter emitter) {
+            this.seanceId = seanceId;
+            this.emitter = emitter;
+        }
+
+        void offer(SeatDeltaDTO delta) {
+            if (!queue.offer(delta)) {
+                // Client trop lent : on coupe, il se reconnectera avec un snapshot à jour
+                logger.debug("File du flux pleine pour la séance {}, fermeture de la connexion", seanceId);
+                close();
+            }
+        }
+
+        void close() {
+            closed = true;
+            queue.clear();
+            queue.offer(CLOSE);
+        }
+
+        void run(SeatMap seatMap) {
+            try {
+                emitter.send(SseEmitter.event().name("snapshot").data(toSnapshot(seatMap), MediaType.APPLICATION_JSON));
+
+                while (!closed) {
+                    Object next = queue.poll(heartbeatSeconds, TimeUnit.SECONDS);
+                    if (next == CLOSE) {
+                        break;
+                    }
+                    if (next == null) {
+                        emitter.send(SseEmitter.event().comment("ping")); // Garde la connexion ouverte
+                    } else {
+                        emitter.send(SseEmitter.event().name("delta").data(next, MediaType.APPLICATION_JSON));
+                    }
+                }
+                emitter.complete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } catch (Exception e) {
+                // Navigateur déconnecté
+                emitter.completeWithError(e);
+            } finally {
+                unsubscribe(this);
+            }
+        }
+    }
+}
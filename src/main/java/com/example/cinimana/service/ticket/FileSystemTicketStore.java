@@ -0,0 +1,214 @@
+package com.example.cinimana.service.ticket;
+
+import com.example.cinimana.model.Reservation;
+import com.example.cinimana.model.TicketFichier;
+import com.example.cinimana.repository.ReservationRepository;
+import com.example.cinimana.repository.TicketFichierRepository;
+import com.example.cinimana.service.PDFService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Billets stockés sur disque dans des sous-répertoires dérivés d'un hash du code de réservation
+ * (tickets/ab/cd/ticket_<code>.pdf) : le chemin se calcule sans requête et aucun répertoire
+ * ne contient plus de quelques milliers de fichiers. Le billet est généré au premier accès, hors
+ * transaction : seul l'enregistrement dans l'index en ouvre une.
+ */
+@Service
+@RequiredArgsConstructor
+public class FileSystemTicketStore implements TicketStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemTicketStore.class);
+    private static final int PURGE_BATCH_SIZE = 500;
+
+    private final TicketFichierRepository ticketFichierRepository;
+    private final ReservationRepository reservationRepository;
+    private final PDFService pdfService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.tickets.dir:tickets}")
+    private String ticketsDir;
+
+    @Value("${app.tickets.retention-days:30}")
+    private long retentionDays;
+
+    @Override
+    public Path getOrRender(Reservation reservation) {
+        Path path = pathFor(reservation.getCodeReservation());
+        if (Files.exists(path)) {
+            return path;
+        }
+        // Billets écrits avant le stockage par sous-répertoires
+        if (reservation.getTicketPdfPath() != null) {
+            Path legacy = Paths.get(reservation.getTicketPdfPath());
+            if (Files.exists(legacy)) {
+                return legacy;
+            }
+        }
+
+        byte[] pdf = pdfService.generateReservationTicket(reservation);
+        try {
+            Files.createDirectories(path.getParent());
+            // Écriture dans un fichier temporaire puis déplacement atomique : jamais de billet tronqué servi
+            Path tmp = Files.createTempFile(path.getParent(), "ticket_", ".tmp");
+            Files.write(tmp, pdf);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors du stockage du PDF: " + e.getMessage(), e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        boolean nouveauChemin = !path.toString().equals(reservation.getTicketPdfPath());
+        transactionTemplate.executeWithoutResult(status -> {
+            ticketFichierRepository.insertIfAbsent(reservation.getCodeReservation(), path.toString(), pdf.length,
+                    now, now.plusDays(retentionDays));
+            if (nouveauChemin) {
+                reservationRepository.majTicketPdfPath(reservation.getId(), path.toString());
+            }
+        });
+        reservation.setTicketPdfPath(path.toString());
+        return path;
+    }
+
+    @Override
+    public byte[] readOrRender(Reservation reservation) {
+        try {
+            return Files.readAllBytes(getOrRender(reservation));
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lecture PDF stocké: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long transferTo(Path ticket, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(ticket, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Purge par lots depuis l'index (aucun parcours du répertoire). Seules les lignes dont le fichier
+     * a bien été supprimé quittent l'index : les autres sont retentées à la purge suivante.
+     */
+    @Override
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = 0;
+        List<TicketFichier> batch;
+        List<TicketFichier> supprimes;
+        do {
+            batch = ticketFichierRepository.findByDateExpirationBefore(now, PageRequest.of(0, PURGE_BATCH_SIZE));
+            supprimes = new ArrayList<>(batch.size());
+            for (TicketFichier fichier : batch) {
+                try {
+                    Files.deleteIfExists(Paths.get(fichier.getChemin()));
+                    supprimes.add(fichier);
+                } catch (IOException e) {
+                    logger.error("❌ Impossible de supprimer le fichier {}: {}", fichier.getChemin(), e.getMessage());
+                }
+            }
+            if (supprimes.isEmpty()) {
+                break; // Aucun fichier supprimable dans ce lot : relire la même page ne ferait pas avancer la purge
+            }
+            List<TicketFichier> lot = supprimes;
+            transactionTemplate.executeWithoutResult(status -> {
+                reservationRepository.clearTicketPdfPath(lot.stream().map(TicketFichier::getCodeReservation).toList());
+                ticketFichierRepository.deleteAllInBatch(lot);
+            });
+            deleted += supprimes.size();
+        } while (batch.size() == PURGE_BATCH_SIZE);
+        return deleted;
+    }
+
+    /**
+     * Reprise des billets écrits avant l'index (tickets/ticket_<code>.pdf, à plat) : sans ligne dans
+     * ticket_fichier, la purge ne les verrait jamais. Chaque billet est indexé à son chemin actuel,
+     * avec une expiration calculée depuis la date du fichier ; un chemin dont le fichier a disparu
+     * est effacé de la réservation. Idempotent : les billets déjà indexés ne sont plus relus.
+     *
+     * @return nombre de billets indexés
+     */
+    public int indexerAnciensBillets() {
+        int indexes = 0;
+        long apresId = 0;
+        List<Object[]> batch;
+        do {
+            batch = reservationRepository.findTicketsHorsIndex(apresId, PageRequest.of(0, PURGE_BATCH_SIZE));
+            List<TicketFichier> fichiers = new ArrayList<>(batch.size());
+            List<String> disparus = new ArrayList<>();
+            for (Object[] ligne : batch) {
+                apresId = (Long) ligne[0];
+                String code = (String) ligne[1];
+                Path chemin = Paths.get((String) ligne[2]);
+                try {
+                    LocalDateTime creation = LocalDateTime.ofInstant(
+                            Files.getLastModifiedTime(chemin).toInstant(), ZoneId.systemDefault());
+                    fichiers.add(new TicketFichier(null, code, chemin.toString(), Files.size(chemin),
+                            creation, creation.plusDays(retentionDays)));
+                } catch (NoSuchFileException e) {
+                    disparus.add(code);
+                } catch (IOException e) {
+                    logger.error("❌ Impossible de lire le billet {}: {}", chemin, e.getMessage());
+                }
+            }
+            if (fichiers.isEmpty() && disparus.isEmpty()) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                fichiers.forEach(f -> ticketFichierRepository.insertIfAbsent(f.getCodeReservation(), f.getChemin(),
+                        f.getTaille(), f.getDateCreation(), f.getDateExpiration()));
+                if (!disparus.isEmpty()) {
+                    reservationRepository.clearTicketPdfPath(disparus);
+                }
+            });
+            indexes += fichiers.size();
+        } while (batch.size() == PURGE_BATCH_SIZE);
+        return indexes;
+    }
+
+    private Path pathFor(String codeReservation) {
+        String hash = sha256(codeReservation);
+        return Paths.get(ticketsDir, hash.substring(0, 2), hash.substring(2, 4),
+                "ticket_" + codeReservation + ".pdf");
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
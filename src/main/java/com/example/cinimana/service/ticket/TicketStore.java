@@ -0,0 +1,35 @@
+package com.example.cinimana.service.ticket;
+
+import com.example.cinimana.model.Reservation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Stockage des billets PDF
+ */
+public interface TicketStore {
+
+    /**
+     * Chemin du billet, généré et stocké au premier accès s'il n'existe pas encore
+     */
+    Path getOrRender(Reservation reservation);
+
+    /**
+     * Contenu du billet (pièce jointe email), généré au besoin
+     */
+    byte[] readOrRender(Reservation reservation);
+
+    /**
+     * Copie le fichier vers le flux de sortie sans passer par un tableau d'octets
+     */
+    long transferTo(Path ticket, OutputStream out) throws IOException;
+
+    /**
+     * Supprime les billets arrivés à expiration
+     *
+     * @return nombre de billets supprimés
+     */
+    int purgeExpired();
+}
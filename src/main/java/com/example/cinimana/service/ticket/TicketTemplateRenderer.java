@@ -0,0 +1,336 @@
+package com.example.cinimana.service.ticket;
+
+import com.example.cinimana.model.Reservation;
+import com.example.cinimana.service.QRCodeService;
+import com.example.cinimana.service.qr.QrMatrix;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.layout.LayoutArea;
+import com.itextpdf.layout.layout.LayoutContext;
+import com.itextpdf.layout.layout.LayoutResult;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.renderer.CanvasRenderer;
+import com.itextpdf.layout.renderer.IRenderer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rendu des billets par gabarit : toute la partie fixe du billet "Premium" (bandeaux, cadres,
+ * libellés, ligne de découpe) est dessinée une seule fois au démarrage, puis gardée analysée en mémoire.
+ * Pour chaque billet, la page du gabarit est copiée comme Form XObject dans un nouveau document
+ * (sans relecture du PDF) et on n'écrit que les champs variables (film, date, salle, sièges, prix,
+ * QR code vectoriel) à des positions fixes.
+ * Un titre ou une liste de sièges trop longs pour leur zone sont réduits ; au-delà de la taille
+ * minimale, le rendu échoue et PDFService repasse par la mise en page complète.
+ */
+@Service
+@RequiredArgsConstructor
+public class TicketTemplateRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketTemplateRenderer.class);
+
+    private static final DeviceRgb RED_COLOR = new DeviceRgb(220, 38, 38); // Rouge Cinémana
+    private static final DeviceRgb LIGHT_RED = new DeviceRgb(254, 202, 202);
+    private static final DeviceRgb ZINC_900 = new DeviceRgb(24, 24, 27);
+    private static final DeviceRgb CELL_BACKGROUND = new DeviceRgb(252, 252, 252);
+    private static final DeviceRgb CELL_BORDER = new DeviceRgb(240, 240, 240);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd MMMM yyyy");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter GENERATED_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    // === Géométrie du billet (A4, origine en bas à gauche) ===
+    private static final PageSize PAGE = PageSize.A4;
+    private static final float MARGIN = 50;
+    private static final float CONTENT_WIDTH = PAGE.getWidth() - 2 * MARGIN;
+    private static final float HEADER_HEIGHT = 100;
+    private static final float FOOTER_HEIGHT = 90;
+    private static final float GRID_Y = 515;
+    private static final float GRID_HEIGHT = 60;
+    private static final float GRID_CELL_WIDTH = CONTENT_WIDTH / 4;
+    private static final float TEAR_OFF_Y = 395;
+    private static final float QR_SIZE = 110;
+    private static final float QR_Y = 245;
+    private static final float VALIDATION_X = MARGIN + QR_SIZE + 20;
+    private static final String[] GRID_LABELS = { "DATE", "HEURE", "SALLE", "EXPÉRIENCE" };
+
+    // === Zones des champs variables ===
+    private static final Rectangle TITLE_AREA = new Rectangle(MARGIN, 605, CONTENT_WIDTH, 90);
+    private static final Rectangle SPECS_AREA = new Rectangle(MARGIN, 585, CONTENT_WIDTH, 18);
+    private static final Rectangle SEATS_AREA = new Rectangle(MARGIN, 420, CONTENT_WIDTH * 2 / 3, 60);
+    private static final Rectangle PRICE_AREA = new Rectangle(MARGIN + CONTENT_WIDTH * 2 / 3, 445, CONTENT_WIDTH / 3, 35);
+    private static final Rectangle QR_AREA = new Rectangle(MARGIN, QR_Y, QR_SIZE, QR_SIZE);
+    private static final Rectangle CODE_AREA = new Rectangle(VALIDATION_X, 318, CONTENT_WIDTH - QR_SIZE - 20, 18);
+    private static final Rectangle GENERATED_AREA = new Rectangle(0, 50, PAGE.getWidth(), 14);
+
+    private final QRCodeService qrCodeService;
+
+    // Gabarit analysé une fois, en lecture seule ; la copie de sa page est synchronisée (PdfDocument
+    // n'est pas thread-safe)
+    private PdfDocument template;
+    // Programme de la police des champs variables, chargé une fois ; chaque document en a sa propre instance
+    private FontProgram boldProgram;
+    private int templateSize;
+
+    @PostConstruct
+    public void compile() {
+        byte[] compiled = compileTemplate();
+        try {
+            this.template = new PdfDocument(new PdfReader(new ByteArrayInputStream(compiled)));
+            this.boldProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors du chargement du gabarit de billet: " + e.getMessage(), e);
+        }
+        this.templateSize = compiled.length;
+        logger.info("✅ Gabarit des billets compilé ({} octets)", templateSize);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (template != null) {
+            template.close();
+        }
+    }
+
+    /**
+     * Génère le billet d'une réservation à partir du gabarit compilé
+     */
+    public byte[] render(Reservation reservation) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(templateSize + 16_384);
+        try (PdfDocument pdf = new PdfDocument(new PdfWriter(outputStream))) {
+            PdfFormXObject background;
+            synchronized (template) {
+                background = template.getFirstPage().copyAsFormXObject(pdf);
+            }
+            PdfCanvas canvas = new PdfCanvas(pdf.addNewPage(PAGE));
+            canvas.addXObjectAt(background, 0, 0);
+            PdfFont bold = PdfFontFactory.createFont(boldProgram, PdfEncodings.WINANSI);
+            stampVariableFields(canvas, bold, reservation);
+        } catch (Exception e) {
+            throw new RuntimeException("Erreur lors de la génération du billet: " + e.getMessage(), e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private void stampVariableFields(PdfCanvas canvas, PdfFont bold, Reservation reservation) {
+        var seance = reservation.getSeance();
+        var film = seance.getFilm();
+
+        // === FILM ===
+        String titre = film.getTitre().toUpperCase();
+        float titleSize = titre.length() > 40 ? 22 : 30;
+        fillAjuste(canvas, TITLE_AREA, titleSize, 14,
+                size -> text(titre, bold, size, ZINC_900).setFixedLeading(size - 2));
+
+        String filmSpecs = String.format("%s  •  %d MINUTES  •  %s",
+                film.getGenre().toUpperCase(),
+                film.getDuree(),
+                film.getAgeLimite() != null ? "AGE: " + film.getAgeLimite() : "TOUT PUBLIC");
+        fill(canvas, SPECS_AREA, text(filmSpecs, bold, 9, ColorConstants.GRAY));
+
+        // === GRILLE DE DÉTAILS ===
+        String[] values = {
+                seance.getDateHeure().format(DATE_FORMATTER).toUpperCase(),
+                seance.getDateHeure().format(TIME_FORMATTER),
+                seance.getSalle().getNom().toUpperCase(),
+                (seance.getCategorie() != null ? seance.getCategorie().getNom() : "STANDARD").toUpperCase()
+        };
+        for (int i = 0; i < values.length; i++) {
+            Rectangle valueArea = new Rectangle(MARGIN + i * GRID_CELL_WIDTH + 12, GRID_Y + 8,
+                    GRID_CELL_WIDTH - 24, 24);
+            fill(canvas, valueArea, text(values[i], bold, 10, ZINC_900));
+        }
+
+        // === SIÈGES & PRIX ===
+        String seatsList = reservation.getSieges().stream()
+                .map(s -> String.format("R%d-S%d", s.getRangee(), s.getNumero()))
+                .collect(Collectors.joining(", "));
+        fillAjuste(canvas, SEATS_AREA, 16, 8, size -> text(seatsList, bold, size, ZINC_900));
+        fill(canvas, PRICE_AREA, text(String.format("%.2f MAD", reservation.getMontantTotal()), bold, 22, RED_COLOR)
+                .setTextAlignment(TextAlignment.RIGHT));
+
+        // === QR CODE & VALIDATION ===
+        try {
+            drawQrCode(canvas, qrCodeService.getMatrix(reservation.getCodeReservation()), QR_AREA);
+        } catch (Exception e) {
+            fill(canvas, QR_AREA, text("[ERREUR QR]", bold, 10, ZINC_900));
+        }
+        fill(canvas, CODE_AREA, text(reservation.getCodeReservation(), bold, 10, ZINC_900));
+
+        // === PIED DE PAGE ===
+        String reservedAt = reservation.getDateReservation().format(GENERATED_FORMATTER);
+        fill(canvas, GENERATED_AREA, text("© 2025 CINÉMANA  |  BILLET GÉNÉRÉ LE " + reservedAt, bold, 6,
+                ColorConstants.LIGHT_GRAY).setTextAlignment(TextAlignment.CENTER));
+    }
+
+    /**
+     * QR code tracé en vectoriel (un rectangle par suite de modules sombres) : net à toute échelle,
+     * sans image à encoder ni à décoder
+     */
+    private static void drawQrCode(PdfCanvas canvas, QrMatrix matrix, Rectangle area) {
+        int size = matrix.getSize();
+        float module = Math.min(area.getWidth(), area.getHeight()) / (size + 2 * QrMatrix.QUIET_ZONE);
+        float left = area.getX() + QrMatrix.QUIET_ZONE * module;
+        float top = area.getY() + area.getHeight() - QrMatrix.QUIET_ZONE * module;
+
+        canvas.saveState().setFillColor(ColorConstants.BLACK);
+        for (int y = 0; y < size; y++) {
+            int x = 0;
+            while (x < size) {
+                if (!matrix.isDark(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < size && matrix.isDark(x, y)) {
+                    x++;
+                }
+                canvas.rectangle(left + start * module, top - (y + 1) * module, (x - start) * module, module);
+            }
+        }
+        canvas.fill().restoreState();
+    }
+
+    /**
+     * Dessine la partie fixe du billet dans un Form XObject, posé sur l'unique page du gabarit
+     */
+    private byte[] compileTemplate() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (PdfDocument pdf = new PdfDocument(new PdfWriter(outputStream))) {
+            PdfPage page = pdf.addNewPage(PAGE);
+            PdfFormXObject layer = new PdfFormXObject(PAGE);
+            PdfFont bold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+            PdfFont regular = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+
+            drawShapes(new PdfCanvas(layer, pdf));
+            try (Canvas canvas = new Canvas(layer, pdf)) {
+                drawLabels(canvas, bold, regular);
+            }
+
+            new PdfCanvas(page).addXObjectAt(layer, 0, 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la compilation du gabarit de billet: " + e.getMessage(), e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private void drawShapes(PdfCanvas canvas) {
+        float width = PAGE.getWidth();
+        float height = PAGE.getHeight();
+
+        // Bandeaux rouge (en-tête) et sombre (pied de page)
+        canvas.saveState()
+                .setFillColor(RED_COLOR).rectangle(0, height - HEADER_HEIGHT, width, HEADER_HEIGHT).fill()
+                .setFillColor(ZINC_900).rectangle(0, 0, width, FOOTER_HEIGHT).fill()
+                .restoreState();
+
+        // Cadres de la grille de détails
+        canvas.saveState().setFillColor(CELL_BACKGROUND).setStrokeColor(CELL_BORDER).setLineWidth(1);
+        for (int i = 0; i < GRID_LABELS.length; i++) {
+            canvas.rectangle(MARGIN + i * GRID_CELL_WIDTH, GRID_Y, GRID_CELL_WIDTH, GRID_HEIGHT);
+        }
+        canvas.fillStroke().restoreState();
+
+        // Ligne de découpe
+        canvas.saveState()
+                .setStrokeColor(ColorConstants.GRAY).setLineWidth(1).setLineDash(3, 3)
+                .moveTo(MARGIN - 20, TEAR_OFF_Y).lineTo(width - MARGIN + 20, TEAR_OFF_Y).stroke()
+                .restoreState();
+    }
+
+    private void drawLabels(Canvas canvas, PdfFont bold, PdfFont regular) {
+        float center = PAGE.getWidth() / 2;
+        float top = PAGE.getHeight();
+
+        // === EN-TÊTE ===
+        canvas.showTextAligned(text("CINÉMANA", bold, 24, ColorConstants.WHITE), center, top - 55, TextAlignment.CENTER);
+        canvas.showTextAligned(text("L'EXPÉRIENCE ULTIME DU CINÉMA", bold, 7, LIGHT_RED).setCharacterSpacing(3),
+                center, top - 72, TextAlignment.CENTER);
+
+        // === FILM ===
+        canvas.showTextAligned(text("SÉANCE RÉSERVÉE", bold, 8, RED_COLOR).setCharacterSpacing(2),
+                MARGIN, 705, TextAlignment.LEFT);
+
+        // === GRILLE ===
+        for (int i = 0; i < GRID_LABELS.length; i++) {
+            canvas.showTextAligned(text(GRID_LABELS[i], bold, 7, RED_COLOR),
+                    MARGIN + i * GRID_CELL_WIDTH + 12, GRID_Y + GRID_HEIGHT - 18, TextAlignment.LEFT);
+        }
+
+        // === SIÈGES & PRIX ===
+        canvas.showTextAligned(text("EMPLACEMENTS RÉSERVÉS", bold, 8, ColorConstants.GRAY).setCharacterSpacing(1),
+                MARGIN, 485, TextAlignment.LEFT);
+        canvas.showTextAligned(text("TOTAL RÉGLÉ", bold, 8, ColorConstants.GRAY),
+                PAGE.getWidth() - MARGIN, 485, TextAlignment.RIGHT);
+
+        // === VALIDATION ===
+        canvas.showTextAligned(text("CODE DE RÉSERVATION", bold, 8, ColorConstants.GRAY),
+                VALIDATION_X, 340, TextAlignment.LEFT);
+        canvas.showTextAligned(text("ACCÈS SALLE", bold, 18, RED_COLOR), VALIDATION_X, 292, TextAlignment.LEFT);
+        canvas.add(text("PRÉSENTEZ CE BILLET À L'ENTRÉE. LE SCAN DU QR CODE EST OBLIGATOIRE POUR VALIDER VOTRE PRÉSENCE.",
+                regular, 7, ColorConstants.GRAY)
+                .setFixedPosition(VALIDATION_X, 262, CONTENT_WIDTH - QR_SIZE - 20));
+
+        // === PIED DE PAGE ===
+        canvas.showTextAligned(text("MERCI D'AVOIR CHOISI CINÉMANA. PROFITEZ BIEN DE VOTRE SÉANCE !", bold, 8,
+                ColorConstants.WHITE), center, 30, TextAlignment.CENTER);
+    }
+
+    private static Paragraph text(String value, PdfFont font, float size, Color color) {
+        return new Paragraph(value).setFont(font).setFontSize(size).setFontColor(color).setMargin(0);
+    }
+
+    private static void fill(PdfCanvas canvas, Rectangle area, Paragraph paragraph) {
+        try (Canvas zone = new Canvas(canvas, area)) {
+            zone.add(paragraph);
+        }
+    }
+
+    /**
+     * Remplit une zone en réduisant la police (2 pt par essai) jusqu'à ce que le texte y tienne :
+     * Canvas abandonne sans erreur ce qui dépasse de sa zone
+     */
+    private static void fillAjuste(PdfCanvas canvas, Rectangle area, float size, float minSize,
+                                   Function<Float, Paragraph> paragraph) {
+        try (Canvas zone = new Canvas(canvas, area)) {
+            CanvasRenderer root = new CanvasRenderer(zone);
+            for (float current = size; current >= minSize; current -= 2) {
+                Paragraph candidate = paragraph.apply(current);
+                IRenderer renderer = candidate.createRendererSubTree().setParent(root);
+                LayoutResult result = renderer.layout(new LayoutContext(new LayoutArea(1, area.clone())));
+                if (result.getStatus() == LayoutResult.FULL) {
+                    zone.add(candidate);
+                    return;
+                }
+            }
+        }
+        throw new RuntimeException("Texte trop long pour le gabarit du billet");
+    }
+}
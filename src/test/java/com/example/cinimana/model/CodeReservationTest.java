@@ -0,0 +1,88 @@
+package com.example.cinimana.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodeReservationTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    @Test
+    void formaterPuisLireRendLesMemesOctets() {
+        for (int i = 0; i < 1000; i++) {
+            byte[] code = CodeReservation.nouveau();
+            String texte = CodeReservation.formater(code);
+
+            assertEquals(CodeReservation.LONGUEUR, texte.length());
+            assertTrue(texte.chars().allMatch(c -> ALPHABET.indexOf(c) >= 0), texte);
+            assertArrayEquals(code, CodeReservation.lire(texte));
+        }
+    }
+
+    @Test
+    void valeursExtremesSontLisibles() {
+        byte[] zeros = new byte[16];
+        byte[] uns = new byte[16];
+        java.util.Arrays.fill(uns, (byte) 0xFF);
+
+        assertArrayEquals(zeros, CodeReservation.lire(CodeReservation.formater(zeros)));
+        assertArrayEquals(uns, CodeReservation.lire(CodeReservation.formater(uns)));
+    }
+
+    @Test
+    void toutChangementDUnCaractereEstRejete() {
+        String texte = CodeReservation.formater(CodeReservation.nouveau());
+        for (int position = 0; position < texte.length(); position++) {
+            for (char remplacement : ALPHABET.toCharArray()) {
+                if (remplacement == texte.charAt(position)) {
+                    continue;
+                }
+                String modifie = texte.substring(0, position) + remplacement + texte.substring(position + 1);
+                assertNull(CodeReservation.lire(modifie), modifie);
+            }
+        }
+    }
+
+    @Test
+    void ancienCodeUuidDonneLesMemesOctets() {
+        UUID uuid = UUID.randomUUID();
+        byte[] attendu = ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+
+        assertArrayEquals(attendu, CodeReservation.lire(uuid.toString()));
+        assertArrayEquals(attendu, CodeReservation.lire(uuid.toString().toUpperCase()));
+        // Un billet UUID déjà émis se réaffiche au format compact
+        assertArrayEquals(attendu, CodeReservation.lire(CodeReservation.formater(attendu)));
+    }
+
+    @Test
+    void saisieEnMinusculesAvecTiretsEtEspacesEstAcceptee() {
+        byte[] code = CodeReservation.nouveau();
+        String texte = CodeReservation.formater(code);
+        String saisie = " " + texte.substring(0, 9).toLowerCase() + "-" + texte.substring(9, 18).toLowerCase()
+                + " " + texte.substring(18).toLowerCase() + " ";
+
+        assertArrayEquals(code, CodeReservation.lire(saisie));
+    }
+
+    @Test
+    void texteInvalideEstRejete() {
+        String texte = CodeReservation.formater(CodeReservation.nouveau());
+
+        assertNull(CodeReservation.lire(null));
+        assertNull(CodeReservation.lire(""));
+        assertNull(CodeReservation.lire(texte.substring(1)));
+        assertNull(CodeReservation.lire(texte + "0"));
+        assertNull(CodeReservation.lire(texte.substring(0, 5) + "U" + texte.substring(6)));
+        assertNull(CodeReservation.lire("zzzzzzzz-zzzz-zzzz-zzzz-zzzzzzzzzzzz"));
+    }
+}
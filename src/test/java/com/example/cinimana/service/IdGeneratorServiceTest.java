@@ -0,0 +1,97 @@
+package com.example.cinimana.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdGeneratorServiceTest {
+
+    private static final int TAILLE_BLOC = 5;
+
+    private JdbcTemplate jdbcTemplate;
+    private IdGeneratorService idGeneratorService;
+
+    @BeforeEach
+    void init() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        idGeneratorService = new IdGeneratorService(jdbcTemplate, mock(PlatformTransactionManager.class), TAILLE_BLOC);
+    }
+
+    @Test
+    void encodageInjectifSurDesBlocsConsecutifs() {
+        // Premiers blocs, puis blocs d'un compteur avancé : jamais deux fois le même identifiant
+        Set<String> ids = new HashSet<>();
+        for (long valeur = 0; valeur < 200_000; valeur++) {
+            assertTrue(ids.add(IdGeneratorService.encode(valeur)), "doublon pour " + valeur);
+        }
+        for (long valeur = 3_000_000_000L; valeur < 3_000_100_000L; valeur++) {
+            assertTrue(ids.add(IdGeneratorService.encode(valeur)), "doublon pour " + valeur);
+        }
+    }
+
+    @Test
+    void identifiantsTiennentDansLaColonneDeDixCaracteres() {
+        long espace = 3_656_158_440_062_976L; // 36^10
+        for (long valeur : new long[] { 0, 1, 99, 100, 1_000_000, espace - 1, espace, Long.MAX_VALUE / 2 }) {
+            String id = IdGeneratorService.encode(valeur);
+            assertEquals(10, id.length(), id);
+            assertTrue(id.chars().allMatch(c -> (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')), id);
+        }
+        // Bijection de [0, 36^10) : le compteur ne revient sur ses pas qu'après 36^10 valeurs
+        assertEquals(IdGeneratorService.encode(7), IdGeneratorService.encode(espace + 7));
+    }
+
+    @Test
+    void anciensIdentifiantsDuBlocSontEcartes() {
+        // Blocs [0, 5) puis [5, 10) ; encode(2) et encode(5) existent déjà en base (anciens identifiants aléatoires)
+        when(jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class)).thenReturn(5L, 10L);
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM utilisateur WHERE id IN"), eq(String.class),
+                any(Object[].class)))
+                .thenReturn(List.of(IdGeneratorService.encode(2)), List.of(IdGeneratorService.encode(5)));
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(idGeneratorService.generateUniqueIdForUtilisateur());
+        }
+
+        assertEquals(List.of(IdGeneratorService.encode(0), IdGeneratorService.encode(1), IdGeneratorService.encode(3),
+                IdGeneratorService.encode(4), IdGeneratorService.encode(6), IdGeneratorService.encode(7),
+                IdGeneratorService.encode(8)), ids);
+    }
+
+    @Test
+    void tableSansClePrimaireBloqueLeDemarrage() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*) FROM information_schema.statistics"),
+                eq(Integer.class))).thenReturn(0);
+
+        IllegalStateException erreur = assertThrows(IllegalStateException.class,
+                () -> idGeneratorService.afterSingletonsInstantiated());
+        assertEquals("La table id_generator n'a pas de clé primaire sur gen_name", erreur.getMessage());
+    }
+
+    @Test
+    void tableCreeeOuPresenteAvecSaCle() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(1);
+
+        assertDoesNotThrow(() -> idGeneratorService.afterSingletonsInstantiated());
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS id_generator"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.cinimana.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TtlCacheTest {
+
+    private final List<String> chargements = new ArrayList<>();
+
+    @Test
+    void valeurChargeeUneSeuleFoisPendantSaDureeDeVie() {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60);
+
+        assertEquals("valeur-a", cache.get("a", this::charger));
+        assertEquals("valeur-a", cache.get("a", this::charger));
+
+        assertEquals(List.of("a"), chargements);
+        TtlCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void valeurExpireeEstRechargee() {
+        // TTL nul : chaque entrée est expirée dès sa lecture suivante
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 0);
+
+        cache.get("a", this::charger);
+        cache.get("a", this::charger);
+
+        assertEquals(List.of("a", "a"), chargements);
+        assertEquals(0, cache.stats().hits());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void entreeLaMoinsRecemmentLueEstEvincee() {
+        TtlCache<String, String> cache = new TtlCache<>("test", 2, 60);
+        cache.get("a", this::charger);
+        cache.get("b", this::charger);
+
+        // "a" relue : "b" devient la plus ancienne
+        cache.get("a", this::charger);
+        cache.get("c", this::charger);
+        chargements.clear();
+
+        cache.get("a", this::charger);
+        cache.get("c", this::charger);
+        cache.get("b", this::charger);
+
+        assertEquals(List.of("b"), chargements);
+        assertEquals(2, cache.stats().size());
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    @Test
+    void valeurChargeePendantUneInvalidationNEstPasConservee() {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60);
+
+        // Une écriture invalide le cache pendant que la lecture charge l'ancien état
+        assertEquals("valeur-a", cache.get("a", key -> {
+            cache.invalidateAll();
+            return charger(key);
+        }));
+        cache.get("a", this::charger);
+
+        assertEquals(List.of("a", "a"), chargements);
+        assertEquals(1, cache.stats().size());
+    }
+
+    @Test
+    void invalidationDUneAutreCleEmpecheAussiLaPublication() {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60);
+
+        cache.get("a", key -> {
+            cache.invalidate("b");
+            return charger(key);
+        });
+
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void invalidationCibleeNeRetireQueLesEntreesConcernees() {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60);
+        cache.get("a", this::charger);
+        cache.get("b", this::charger);
+
+        cache.invalidateIf((key, valeur) -> valeur.endsWith("b"));
+        chargements.clear();
+        cache.get("a", this::charger);
+        cache.get("b", this::charger);
+
+        assertEquals(List.of("b"), chargements);
+    }
+
+    @Test
+    void valeurNulleNEstPasMiseEnCache() {
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, 60);
+
+        assertNull(cache.get("a", key -> null));
+
+        assertEquals(0, cache.stats().size());
+    }
+
+    private String charger(String key) {
+        chargements.add(key);
+        return "valeur-" + key;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.cinimana.service.caissier;
+
+import com.example.cinimana.model.CodeReservation;
+import com.example.cinimana.model.StatutReservation;
+import com.example.cinimana.repository.CaissierRepository;
+import com.example.cinimana.repository.ReservationRepository;
+import com.example.cinimana.repository.SiegeReserveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BilletIndexTest {
+
+    private static final String UUID_ANCIEN = "3f2a9c1e-7b4d-4e8a-9f01-5c6d7e8f9a0b";
+
+    private ReservationRepository reservationRepo;
+    private BilletIndex billetIndex;
+    private String codeCompact;
+
+    @BeforeEach
+    void init() {
+        reservationRepo = mock(ReservationRepository.class);
+        billetIndex = new BilletIndex(reservationRepo, mock(SiegeReserveRepository.class), mock(CaissierRepository.class));
+        ReflectionTestUtils.setField(billetIndex, "heureDebutJournee", 6);
+
+        codeCompact = CodeReservation.formater(CodeReservation.nouveau());
+        when(reservationRepo.findBilletsBySeanceBetween(any(), any()))
+                .thenReturn(List.of(ligne(1L, codeCompact), ligne(2L, UUID_ANCIEN)));
+        billetIndex.recharger();
+    }
+
+    @Test
+    void codeCompactTrouveQuelleQueSoitLaSaisie() {
+        BilletIndex.Billet billet = billetIndex.trouver(codeCompact);
+
+        assertEquals(1L, billet.vue().id());
+        assertSame(billet, billetIndex.trouver(codeCompact.toLowerCase()));
+        assertSame(billet, billetIndex.trouver(" " + codeCompact.substring(0, 9) + "-" + codeCompact.substring(9) + " "));
+        verify(reservationRepo, never()).findBilletByCodeBinaire(any());
+    }
+
+    @Test
+    void ancienCodeUuidTrouveSousSesDeuxFormes() {
+        BilletIndex.Billet billet = billetIndex.trouver(UUID_ANCIEN);
+
+        assertEquals(2L, billet.vue().id());
+        assertSame(billet, billetIndex.trouver(UUID_ANCIEN.toUpperCase()));
+        // Le même billet réimprimé avec le code compact
+        assertSame(billet, billetIndex.trouver(CodeReservation.formater(CodeReservation.lire(UUID_ANCIEN))));
+        verify(reservationRepo, never()).findBilletByCodeBinaire(any());
+    }
+
+    @Test
+    void codeHorsIndexLuUneSeuleFoisEnBdd() {
+        String uuid = UUID.randomUUID().toString();
+        when(reservationRepo.findBilletByCodeBinaire(any())).thenReturn(Optional.of(ligne(3L, uuid)));
+
+        BilletIndex.Billet billet = billetIndex.trouver(uuid);
+
+        assertEquals(3L, billet.vue().id());
+        assertSame(billet, billetIndex.trouver(CodeReservation.formater(CodeReservation.lire(uuid))));
+        verify(reservationRepo, times(1)).findBilletByCodeBinaire(any());
+    }
+
+    @Test
+    void codeIllisibleNInterrogePasLaBdd() {
+        assertNull(billetIndex.trouver("PAS-UN-CODE"));
+        assertNull(billetIndex.trouver(null));
+        verify(reservationRepo, never()).findBilletByCodeBinaire(any());
+    }
+
+    private static BilletLigne ligne(Long id, String code) {
+        LocalDateTime seance = LocalDateTime.now().plusHours(2);
+        return new BilletLigne(id, code, StatutReservation.CONFIRMEE_CLIENT, "Alaoui", "Sara", "sara@cinimana.ma",
+                "Inception", seance, "Salle 1", 2, 90.0, seance.minusDays(1), null, null, null, null, null,
+                "Standard", 45.0);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.cinimana.service.commercial;
+
+import com.example.cinimana.dto.commercial.response.ReservationPageDTO;
+import com.example.cinimana.dto.commercial.response.ReservationSimpleDTO;
+import com.example.cinimana.model.StatutReservation;
+import com.example.cinimana.repository.CategorieRepository;
+import com.example.cinimana.repository.CommercialRepository;
+import com.example.cinimana.repository.FilmRepository;
+import com.example.cinimana.repository.HistoriqueSeanceRepository;
+import com.example.cinimana.repository.ReservationRepository;
+import com.example.cinimana.repository.SalleRepository;
+import com.example.cinimana.repository.SeanceRepository;
+import com.example.cinimana.repository.StatistiqueReservationRepository;
+import com.example.cinimana.service.JournalActiviteService;
+import com.example.cinimana.service.SeanceOccupationService;
+import com.example.cinimana.service.cache.CatalogueCacheService;
+import com.example.cinimana.service.planning.PlanningSalles;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommercialSeanceServiceTest {
+
+    private static final LocalDateTime MIDI = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private final List<ReservationSimpleDTO> reservations = new ArrayList<>();
+    private CommercialSeanceService service;
+
+    @BeforeEach
+    void init() {
+        // Réservations enregistrées dans la même seconde (réservations de groupe, import) : ids non contigus
+        reservation(17L, MIDI.plusMinutes(5));
+        for (long id : new long[] { 3L, 8L, 9L, 12L, 15L, 21L }) {
+            reservation(id, MIDI);
+        }
+        reservation(4L, MIDI.minusMinutes(1));
+        reservation(30L, MIDI.minusMinutes(1));
+        reservation(2L, MIDI.minusDays(1));
+
+        // Même sémantique que les requêtes JPQL : tri (date, id) décroissant, lignes strictement après le curseur
+        ReservationRepository reservationRepository = mock(ReservationRepository.class);
+        when(reservationRepository.findSimpleFirstPage(any(), any(), any(), any())).thenAnswer(invocation ->
+                page(r -> true, invocation.getArgument(3)));
+        when(reservationRepository.findSimplePageAfter(any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            LocalDateTime apresDate = invocation.getArgument(3);
+            Long apresId = invocation.getArgument(4);
+            return page(r -> r.dateReservation().isBefore(apresDate)
+                    || (r.dateReservation().isEqual(apresDate) && r.id() < apresId), invocation.getArgument(5));
+        });
+
+        service = new CommercialSeanceService(mock(SeanceRepository.class), mock(FilmRepository.class),
+                mock(SalleRepository.class), mock(CategorieRepository.class), reservationRepository,
+                mock(HistoriqueSeanceRepository.class), mock(CommercialRepository.class),
+                mock(SeanceOccupationService.class), mock(CatalogueCacheService.class),
+                mock(StatistiqueReservationRepository.class), mock(JournalActiviteService.class),
+                mock(PlanningSalles.class));
+    }
+
+    @Test
+    void pagesSurDesDatesEgalesNiSautNiDoublon() {
+        for (int taille = 1; taille <= reservations.size() + 1; taille++) {
+            List<Long> lus = new ArrayList<>();
+            String curseur = null;
+            int pages = 0;
+            do {
+                ReservationPageDTO page = service.getReservationsPage(curseur, taille, null, null, null);
+                page.items().forEach(r -> lus.add(r.id()));
+                assertEquals(page.hasMore(), page.nextCursor() != null);
+                curseur = page.nextCursor();
+                pages++;
+            } while (curseur != null && pages <= reservations.size());
+
+            assertEquals(List.of(17L, 21L, 15L, 12L, 9L, 8L, 3L, 30L, 4L, 2L), lus, "pages de " + taille);
+        }
+    }
+
+    @Test
+    void derniereLigneDePageSurUneDateEgaleDonneLaSuite() {
+        ReservationPageDTO premiere = service.getReservationsPage(null, 3, null, null, null);
+        ReservationPageDTO seconde = service.getReservationsPage(premiere.nextCursor(), 3, null, null, null);
+
+        // La première page s'arrête au milieu des réservations de midi
+        assertEquals(List.of(17L, 21L, 15L), premiere.items().stream().map(ReservationSimpleDTO::id).toList());
+        assertEquals(List.of(12L, 9L, 8L), seconde.items().stream().map(ReservationSimpleDTO::id).toList());
+        assertTrue(seconde.hasMore());
+    }
+
+    @Test
+    void dernierePageSansCurseur() {
+        ReservationPageDTO page = service.getReservationsPage(null, reservations.size(), null, null, null);
+
+        assertEquals(reservations.size(), page.items().size());
+        assertFalse(page.hasMore());
+        assertNull(page.nextCursor());
+    }
+
+    private List<ReservationSimpleDTO> page(Predicate<ReservationSimpleDTO> apres, Pageable pageable) {
+        return reservations.stream()
+                .filter(apres)
+                .sorted(Comparator.comparing(ReservationSimpleDTO::dateReservation)
+                        .thenComparing(ReservationSimpleDTO::id).reversed())
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    private void reservation(Long id, LocalDateTime date) {
+        reservations.add(new ReservationSimpleDTO(id, 2, date, StatutReservation.EN_ATTENTE, 90.0, null, null,
+                1L, "Alaoui", "Sara", "sara@cinimana.ma", 1L, date.plusDays(2), "Dune"));
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.cinimana.service.commercial;
+
+import com.example.cinimana.service.commercial.ProgrammeFichierReader.LigneProgramme;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProgrammeFichierReaderTest {
+
+    @Test
+    void csvPointVirguleAvecBomEtChampEntreGuillemets() throws IOException {
+        String csv = "\uFEFFDate;Heure;Salle;Film;Catégorie;Remarque\n"
+                + "14/06/2026;20:30;Salle 1;\"Fast; Furious\";Standard;avant-première\n"
+                + "\n"
+                + "15/06/2026;14h;SAL0000002;Dune;IMAX;\n";
+
+        List<LigneProgramme> lignes = ProgrammeFichierReader.lire(fichier("programme.csv", csv), 100);
+
+        assertEquals(List.of(
+                new LigneProgramme(2, "14/06/2026", "20:30", "Salle 1", "Fast; Furious", "Standard"),
+                new LigneProgramme(4, "15/06/2026", "14h", "SAL0000002", "Dune", "IMAX")), lignes);
+    }
+
+    @Test
+    void csvVirguleAvecColonneDateHeureUnique() throws IOException {
+        String csv = "date_heure,salle_id,titre,categorie\n"
+                + "2026-06-14T20:30,Salle 1,\"Le Bon, la Brute et le Truand\",Standard\n"
+                + "2026-06-14 23:15,Salle 1,\"Il était une fois \"\"dans l'Ouest\"\"\",Standard\n";
+
+        List<LigneProgramme> lignes = ProgrammeFichierReader.lire(fichier("programme.csv", csv), 100);
+
+        assertEquals(List.of(
+                new LigneProgramme(2, "2026-06-14T20:30", null, "Salle 1", "Le Bon, la Brute et le Truand", "Standard"),
+                new LigneProgramme(3, "2026-06-14 23:15", null, "Salle 1", "Il était une fois \"dans l'Ouest\"",
+                        "Standard")), lignes);
+    }
+
+    @Test
+    void colonnesManquantesSontListees() {
+        String csv = "date;salle;film\n14/06/2026;Salle 1;Dune\n";
+
+        IllegalArgumentException erreur = assertThrows(IllegalArgumentException.class,
+                () -> ProgrammeFichierReader.lire(fichier("programme.csv", csv), 100));
+
+        assertEquals("Colonne(s) absente(s) de l'en-tête: date et heure (ou date_heure), categorie",
+                erreur.getMessage());
+    }
+
+    @Test
+    void programmeTropLongEstRefuse() {
+        StringBuilder csv = new StringBuilder("date_heure;salle;film;categorie\n");
+        for (int i = 0; i < 3; i++) {
+            csv.append("2026-06-14T20:30;Salle 1;Dune;Standard\n");
+        }
+
+        IllegalArgumentException erreur = assertThrows(IllegalArgumentException.class,
+                () -> ProgrammeFichierReader.lire(fichier("programme.csv", csv.toString()), 2));
+
+        assertTrue(erreur.getMessage().contains("2 séances"), erreur.getMessage());
+    }
+
+    @Test
+    void excelSeanceAMinuitGardeSonHeure() throws IOException {
+        byte[] xlsx;
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            short formatDateHeure = workbook.createDataFormat().getFormat("dd/mm/yyyy hh:mm");
+            short formatDate = workbook.createDataFormat().getFormat("dd/mm/yyyy");
+            short formatHeure = workbook.createDataFormat().getFormat("hh:mm");
+            CellStyle dateHeure = workbook.createCellStyle();
+            dateHeure.setDataFormat(formatDateHeure);
+            CellStyle date = workbook.createCellStyle();
+            date.setDataFormat(formatDate);
+            CellStyle heure = workbook.createCellStyle();
+            heure.setDataFormat(formatHeure);
+
+            Sheet sheet = workbook.createSheet("Programme");
+            Row entete = sheet.createRow(0);
+            String[] titres = { "Date_Heure", "Salle", "Film", "Catégorie", "Date", "Heure" };
+            for (int c = 0; c < titres.length; c++) {
+                entete.createCell(c).setCellValue(titres[c]);
+            }
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue(LocalDateTime.of(2026, 6, 15, 0, 0));
+            row.getCell(0).setCellStyle(dateHeure);
+            row.createCell(1).setCellValue("Salle 1");
+            row.createCell(2).setCellValue("Dune");
+            row.createCell(3).setCellValue("Standard");
+            row.createCell(4).setCellValue(LocalDateTime.of(2026, 6, 15, 0, 0));
+            row.getCell(4).setCellStyle(date);
+            row.createCell(5).setCellValue(0.875); // 21h00
+            row.getCell(5).setCellStyle(heure);
+            workbook.write(out);
+            xlsx = out.toByteArray();
+        }
+
+        List<LigneProgramme> lignes = ProgrammeFichierReader.lire(
+                new MockMultipartFile("fichier", "Programme.XLSX", null, xlsx), 100);
+
+        // La colonne unique date et heure prime sur les colonnes séparées
+        assertEquals(List.of(new LigneProgramme(2, "2026-06-15T00:00", null, "Salle 1", "Dune", "Standard")), lignes);
+    }
+
+    @Test
+    void excelDateEtHeureEnColonnesSeparees() throws IOException {
+        byte[] xlsx;
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            CellStyle date = workbook.createCellStyle();
+            date.setDataFormat(workbook.createDataFormat().getFormat("dd/mm/yyyy"));
+            CellStyle heure = workbook.createCellStyle();
+            heure.setDataFormat(workbook.createDataFormat().getFormat("hh:mm"));
+
+            Sheet sheet = workbook.createSheet("Programme");
+            Row entete = sheet.createRow(0);
+            String[] titres = { "Date", "Heure", "Salle", "Film", "Catégorie" };
+            for (int c = 0; c < titres.length; c++) {
+                entete.createCell(c).setCellValue(titres[c]);
+            }
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue(LocalDateTime.of(2026, 6, 15, 0, 0));
+            row.getCell(0).setCellStyle(date);
+            row.createCell(1).setCellValue(0.0); // Minuit
+            row.getCell(1).setCellStyle(heure);
+            row.createCell(2).setCellValue("Salle 1");
+            row.createCell(3).setCellValue("Dune");
+            row.createCell(4).setCellValue("Standard");
+            workbook.write(out);
+            xlsx = out.toByteArray();
+        }
+
+        List<LigneProgramme> lignes = ProgrammeFichierReader.lire(
+                new MockMultipartFile("fichier", "programme.xlsx", null, xlsx), 100);
+
+        assertEquals(List.of(new LigneProgramme(2, "2026-06-15", "00:00", "Salle 1", "Dune", "Standard")), lignes);
+    }
+
+    private static MockMultipartFile fichier(String nom, String contenu) {
+        return new MockMultipartFile("fichier", nom, "text/csv", contenu.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.cinimana.service.commercial;
+
+import com.example.cinimana.dto.commercial.response.ProgrammeImportErreurDTO;
+import com.example.cinimana.dto.commercial.response.ProgrammeImportResultDTO;
+import com.example.cinimana.model.Categorie;
+import com.example.cinimana.model.Commercial;
+import com.example.cinimana.model.Film;
+import com.example.cinimana.model.Salle;
+import com.example.cinimana.repository.CategorieRepository;
+import com.example.cinimana.repository.CommercialRepository;
+import com.example.cinimana.repository.FilmRepository;
+import com.example.cinimana.repository.SalleRepository;
+import com.example.cinimana.repository.SeanceRepository;
+import com.example.cinimana.service.JournalActiviteService;
+import com.example.cinimana.service.cache.CatalogueCacheService;
+import com.example.cinimana.service.planning.PlanningSalles;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProgrammeImportServiceTest {
+
+    private static final String EMAIL = "commercial@cinimana.ma";
+    private static final LocalDate JOUR = LocalDate.now().plusDays(5);
+
+    private final List<Object[]> seancesExistantes = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ProgrammeImportService importService;
+
+    @BeforeEach
+    void init() {
+        FilmRepository filmRepository = mock(FilmRepository.class);
+        SalleRepository salleRepository = mock(SalleRepository.class);
+        CategorieRepository categorieRepository = mock(CategorieRepository.class);
+        CommercialRepository commercialRepository = mock(CommercialRepository.class);
+        SeanceRepository seanceRepository = mock(SeanceRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+
+        Film film = new Film();
+        film.setId("FLM0000001");
+        film.setTitre("Dune");
+        film.setDuree(150);
+        when(filmRepository.findAll()).thenReturn(List.of(film));
+        when(salleRepository.findAll())
+                .thenReturn(List.of(salle("SAL0000001", "Salle 1"), salle("SAL0000002", "Salle 2")));
+        Categorie categorie = new Categorie();
+        categorie.setId(1L);
+        categorie.setNom("Standard");
+        when(categorieRepository.findAll()).thenReturn(List.of(categorie));
+        when(commercialRepository.findByEmail(EMAIL)).thenReturn(Optional.of(new Commercial()));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(EMAIL, null));
+
+        // Séance déjà programmée en Salle 1 de 14h00 à 16h30
+        seancesExistantes.add(new Object[] { 1L, "SAL0000001", "FLM0000001", JOUR.atTime(14, 0), 150 });
+        when(seanceRepository.findCreneauxActifsDepuis(any())).thenReturn(seancesExistantes);
+        PlanningSalles planning = new PlanningSalles(seanceRepository, filmRepository, salleRepository);
+        ReflectionTestUtils.setField(planning, "heureOuverture", 10);
+        ReflectionTestUtils.setField(planning, "heureFermeture", 24);
+        ReflectionTestUtils.setField(planning, "pasMinutes", 15);
+        planning.recharger();
+
+        importService = new ProgrammeImportService(filmRepository, salleRepository, categorieRepository,
+                commercialRepository, jdbcTemplate, mock(CatalogueCacheService.class),
+                mock(JournalActiviteService.class), planning, transactionTemplate);
+    }
+
+    @AfterEach
+    void fermer() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void chevauchementsContreLePlanningEtEntreLignesDuFichier() {
+        ProgrammeImportResultDTO resultat = importService.importer(programme(
+                ligne(10, 0, "Salle 1"),    // 2 : 10h00-12h30
+                ligne(12, 0, "Salle 1"),    // 3 : chevauche la ligne 2
+                ligne(15, 0, "Salle 1"),    // 4 : chevauche la séance existante
+                ligne(12, 0, "Salle 2"),    // 5 : autre salle
+                ligne(16, 30, "Salle 1"),   // 6 : commence à la fin de la séance existante
+                ligne(18, 0, "Salle 1"),    // 7 : chevauche la ligne 6
+                ligne(12, 30, "Salle 1")    // 8 : suit la ligne 2 mais chevauche la séance existante
+        ), true);
+
+        assertEquals(List.of(
+                new ProgrammeImportErreurDTO(3, String.format(
+                        "La salle Salle 1 est déjà occupée de %s à %s (ligne 2 du fichier)",
+                        JOUR.atTime(10, 0), JOUR.atTime(12, 30))),
+                new ProgrammeImportErreurDTO(4, String.format(
+                        "La salle Salle 1 est déjà occupée de %s à %s (séance ID: 1)",
+                        JOUR.atTime(14, 0), JOUR.atTime(16, 30))),
+                new ProgrammeImportErreurDTO(7, String.format(
+                        "La salle Salle 1 est déjà occupée de %s à %s (ligne 6 du fichier)",
+                        JOUR.atTime(16, 30), JOUR.atTime(19, 0))),
+                new ProgrammeImportErreurDTO(8, String.format(
+                        "La salle Salle 1 est déjà occupée de %s à %s (séance ID: 1)",
+                        JOUR.atTime(14, 0), JOUR.atTime(16, 30)))), resultat.erreurs());
+        assertEquals(7, resultat.lignesLues());
+        assertEquals(0, resultat.seancesCreees());
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+
+    @Test
+    void ligneRefuseeNeBloquePasLesSuivantes() {
+        ProgrammeImportResultDTO resultat = importService.importer(programme(
+                ligne(13, 0, "Salle 1"),    // 2 : chevauche la séance existante, non retenue
+                ligne(11, 0, "Salle 1"),    // 3 : 11h00-13h30, chevaucherait la ligne 2 si elle était retenue
+                ligne(13, 30, "Salle 2")    // 4 : autre salle
+        ), true);
+
+        assertEquals(1, resultat.erreurs().size());
+        assertEquals(2, resultat.erreurs().get(0).ligne());
+        assertTrue(resultat.erreurs().get(0).message().endsWith("(séance ID: 1)"));
+    }
+
+    @Test
+    void simulationSansChevauchementNEcritRien() {
+        ProgrammeImportResultDTO resultat = importService.importer(programme(
+                ligne(10, 0, "Salle 1"),
+                ligne(16, 30, "Salle 1"),
+                ligne(10, 0, "SAL0000002")
+        ), true);
+
+        assertEquals(List.of(), resultat.erreurs());
+        assertEquals(3, resultat.lignesLues());
+        assertTrue(resultat.simulation());
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+
+    private static String ligne(int heure, int minute, String salle) {
+        LocalDateTime debut = JOUR.atTime(heure, minute);
+        return debut + ";" + salle + ";Dune;Standard";
+    }
+
+    private static MockMultipartFile programme(String... lignes) {
+        String csv = "date_heure;salle;film;categorie\n" + String.join("\n", lignes) + "\n";
+        return new MockMultipartFile("fichier", "programme.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Salle salle(String id, String nom) {
+        Salle salle = new Salle();
+        salle.setId(id);
+        salle.setNom(nom);
+        return salle;
+    }
+}
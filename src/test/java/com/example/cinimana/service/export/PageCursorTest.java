@@ -0,0 +1,42 @@
+package com.example.cinimana.service.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageCursorTest {
+
+    @Test
+    void encoderPuisDecoderRendLeMemeCurseur() {
+        for (LocalDateTime date : new LocalDateTime[] {
+                LocalDateTime.of(2026, 3, 1, 20, 30),
+                LocalDateTime.of(2026, 3, 1, 0, 0, 0),
+                LocalDateTime.of(2026, 3, 1, 20, 30, 15, 123_456_000) }) {
+            PageCursor curseur = new PageCursor(date, 4_200_000_000L);
+
+            String texte = curseur.encode();
+
+            assertTrue(texte.matches("[A-Za-z0-9_-]+"), texte);
+            assertEquals(curseur, PageCursor.decode(texte));
+        }
+    }
+
+    @Test
+    void curseurAbsentDesigneLaPremierePage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(" "));
+    }
+
+    @Test
+    void curseurIllisibleEstRefuse() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("pas un curseur"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("MjAyNi0wMy0wMVQyMDozMA"));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageCursor.decode(new PageCursor(LocalDateTime.of(2026, 3, 1, 20, 30), 1L).encode() + "x"));
+    }
+}
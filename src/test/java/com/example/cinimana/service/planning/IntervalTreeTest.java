@@ -0,0 +1,146 @@
+package com.example.cinimana.service.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalTreeTest {
+
+    private static final Comparator<IntervalTree.Intervalle<Integer>> ORDRE =
+            Comparator.<IntervalTree.Intervalle<Integer>>comparingLong(IntervalTree.Intervalle::debut)
+                    .thenComparing(IntervalTree.Intervalle::valeur);
+
+    @Test
+    void intervallesQuiSeTouchentNeSeChevauchentPas() {
+        IntervalTree<Integer> arbre = new IntervalTree<>();
+        arbre.ajouter(600, 720, 1);
+
+        assertNull(arbre.premierChevauchement(480, 600));
+        assertNull(arbre.premierChevauchement(720, 840));
+        assertEquals(600, arbre.premierChevauchement(719, 720).debut());
+        assertEquals(720, arbre.premierChevauchement(500, 601).fin());
+    }
+
+    @Test
+    void intervalleVideEstRefuse() {
+        IntervalTree<Integer> arbre = new IntervalTree<>();
+
+        assertThrows(IllegalArgumentException.class, () -> arbre.ajouter(10, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> arbre.ajouter(10, 5, 1));
+        assertEquals(0, arbre.taille());
+    }
+
+    @Test
+    void suppressionParmiDesDebutsEgauxRetireLaBonneValeur() {
+        // Beaucoup de débuts égaux : les rotations répartissent les doublons des deux côtés d'un nœud
+        for (int essai = 0; essai < 50; essai++) {
+            Random random = new Random(essai);
+            IntervalTree<Integer> arbre = new IntervalTree<>();
+            List<IntervalTree.Intervalle<Integer>> attendus = new ArrayList<>();
+            for (int valeur = 0; valeur < 200; valeur++) {
+                long debut = random.nextInt(5) * 60L;
+                long fin = debut + 1 + random.nextInt(300);
+                arbre.ajouter(debut, fin, valeur);
+                attendus.add(new IntervalTree.Intervalle<>(debut, fin, valeur));
+            }
+
+            Collections.shuffle(attendus, random);
+            while (!attendus.isEmpty()) {
+                IntervalTree.Intervalle<Integer> retire = attendus.remove(attendus.size() - 1);
+                assertTrue(arbre.retirer(retire.debut(), retire.valeur()), "valeur " + retire.valeur());
+                assertFalse(arbre.retirer(retire.debut(), retire.valeur()));
+                assertEquals(attendus.size(), arbre.taille());
+                if (attendus.size() % 20 == 0) {
+                    verifier(arbre, attendus, Long.MIN_VALUE / 2, Long.MAX_VALUE / 2);
+                }
+            }
+        }
+    }
+
+    @Test
+    void maxFinResteJusteApresInsertionsEtSuppressions() {
+        // Un maxFin périmé (trop petit) ferait manquer des chevauchements : comparaison à une recherche exhaustive
+        Random random = new Random(42);
+        IntervalTree<Integer> arbre = new IntervalTree<>();
+        List<IntervalTree.Intervalle<Integer>> attendus = new ArrayList<>();
+        for (int operation = 0; operation < 5000; operation++) {
+            if (attendus.isEmpty() || random.nextInt(3) > 0) {
+                long debut = random.nextInt(10_000);
+                long fin = debut + 1 + (random.nextInt(10) == 0 ? random.nextInt(5_000) : random.nextInt(200));
+                arbre.ajouter(debut, fin, operation);
+                attendus.add(new IntervalTree.Intervalle<>(debut, fin, operation));
+            } else {
+                IntervalTree.Intervalle<Integer> retire = attendus.remove(random.nextInt(attendus.size()));
+                assertTrue(arbre.retirer(retire.debut(), retire.valeur()));
+            }
+            long debut = random.nextInt(11_000);
+            verifier(arbre, attendus, debut, debut + 1 + random.nextInt(300));
+        }
+    }
+
+    @Test
+    void premierChevauchementEstCeluiQuiCommenceLePlusTot() {
+        Random random = new Random(7);
+        IntervalTree<Integer> arbre = new IntervalTree<>();
+        List<IntervalTree.Intervalle<Integer>> attendus = new ArrayList<>();
+        for (int valeur = 0; valeur < 500; valeur++) {
+            long debut = random.nextInt(20_000);
+            long fin = debut + 30 + random.nextInt(180);
+            arbre.ajouter(debut, fin, valeur);
+            attendus.add(new IntervalTree.Intervalle<>(debut, fin, valeur));
+        }
+
+        for (int requete = 0; requete < 2000; requete++) {
+            long debut = random.nextInt(21_000);
+            long fin = debut + 1 + random.nextInt(120);
+            IntervalTree.Intervalle<Integer> premier = arbre.premierChevauchement(debut, fin);
+            List<IntervalTree.Intervalle<Integer>> exhaustif = exhaustif(attendus, debut, fin);
+            if (exhaustif.isEmpty()) {
+                assertNull(premier);
+            } else {
+                assertEquals(exhaustif.get(0).debut(), premier.debut());
+                assertTrue(premier.debut() < fin && premier.fin() > debut);
+            }
+        }
+    }
+
+    @Test
+    void retirerUneValeurAbsenteNeModifieRien() {
+        IntervalTree<Integer> arbre = new IntervalTree<>();
+        arbre.ajouter(0, 60, 1);
+        arbre.ajouter(0, 90, 2);
+
+        assertFalse(arbre.retirer(0, 3));
+        assertFalse(arbre.retirer(30, 1));
+        assertEquals(2, arbre.taille());
+        assertEquals(2, arbre.chevauchements(0, 100).size());
+    }
+
+    private static void verifier(IntervalTree<Integer> arbre, List<IntervalTree.Intervalle<Integer>> attendus,
+                                 long debut, long fin) {
+        List<IntervalTree.Intervalle<Integer>> trouves = new ArrayList<>(arbre.chevauchements(debut, fin));
+        for (int i = 1; i < trouves.size(); i++) {
+            assertTrue(trouves.get(i - 1).debut() <= trouves.get(i).debut(), "résultats non triés par début");
+        }
+        trouves.sort(ORDRE);
+        assertEquals(exhaustif(attendus, debut, fin), trouves);
+    }
+
+    private static List<IntervalTree.Intervalle<Integer>> exhaustif(List<IntervalTree.Intervalle<Integer>> intervalles,
+                                                                    long debut, long fin) {
+        return intervalles.stream()
+                .filter(i -> i.debut() < fin && i.fin() > debut)
+                .sorted(ORDRE)
+                .toList();
+    }
+}
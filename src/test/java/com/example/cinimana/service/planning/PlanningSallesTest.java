@@ -0,0 +1,156 @@
+package com.example.cinimana.service.planning;
+
+import com.example.cinimana.model.Film;
+import com.example.cinimana.model.Salle;
+import com.example.cinimana.model.Seance;
+import com.example.cinimana.repository.FilmRepository;
+import com.example.cinimana.repository.SalleRepository;
+import com.example.cinimana.repository.SeanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PlanningSallesTest {
+
+    private static final String SALLE = "SAL0000001";
+    private static final LocalDate JOUR = LocalDate.now().plusDays(3);
+
+    private SeanceRepository seanceRepository;
+    private PlanningSalles planning;
+    private final List<Object[]> seances = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        seanceRepository = mock(SeanceRepository.class);
+        when(seanceRepository.findCreneauxActifsDepuis(any())).thenReturn(seances);
+        planning = new PlanningSalles(seanceRepository, mock(FilmRepository.class), mock(SalleRepository.class));
+        // Ouverture 10h, dernière séance commençant avant 23h, débuts au quart d'heure
+        ReflectionTestUtils.setField(planning, "heureOuverture", 10);
+        ReflectionTestUtils.setField(planning, "heureFermeture", 23);
+        ReflectionTestUtils.setField(planning, "pasMinutes", 15);
+    }
+
+    @Test
+    void avantLOuvertureLePremierCreneauEstALOuverture() {
+        planning.recharger();
+
+        List<PlanningSalles.Creneau> libres = planning.creneauxLibres(SALLE, JOUR.atTime(7, 20), 120, 3);
+
+        assertEquals(List.of(JOUR.atTime(10, 0), JOUR.atTime(12, 0), JOUR.atTime(14, 0)), debuts(libres));
+        assertEquals(JOUR.atTime(12, 0), libres.get(0).fin());
+    }
+
+    @Test
+    void aLHeureDeFermetureLeCreneauPasseAuLendemain() {
+        planning.recharger();
+
+        // 22h45 est encore ouvert ; 22h50 s'aligne sur 23h, heure de fermeture
+        assertEquals(JOUR.atTime(22, 45), planning.creneauxLibres(SALLE, JOUR.atTime(22, 45), 90, 1).get(0).debut());
+        assertEquals(JOUR.plusDays(1).atTime(10, 0),
+                planning.creneauxLibres(SALLE, JOUR.atTime(22, 50), 90, 1).get(0).debut());
+        assertEquals(JOUR.plusDays(1).atTime(10, 0),
+                planning.creneauxLibres(SALLE, JOUR.atTime(23, 30), 90, 1).get(0).debut());
+    }
+
+    @Test
+    void seanceALOuvertureRepousseAuQuartDHeureQuiSuitSaFin() {
+        seance(1L, JOUR.atTime(10, 0), 125);
+        planning.recharger();
+
+        List<PlanningSalles.Creneau> libres = planning.creneauxLibres(SALLE, JOUR.atTime(9, 0), 60, 1);
+
+        // Fin à 12h05 : prochain début aligné à 12h15
+        assertEquals(List.of(JOUR.atTime(12, 15)), debuts(libres));
+    }
+
+    @Test
+    void seancesBoutABoutNeSeChevauchentPas() {
+        seance(1L, JOUR.atTime(10, 0), 120);
+        seance(2L, JOUR.atTime(14, 0), 120);
+        planning.recharger();
+
+        List<PlanningSalles.Creneau> libres = planning.creneauxLibres(SALLE, JOUR.atTime(10, 0), 120, 2);
+
+        // 12h-14h tient exactement entre les deux séances, 14h-16h est pris
+        assertEquals(List.of(JOUR.atTime(12, 0), JOUR.atTime(16, 0)), debuts(libres));
+        assertNull(planning.conflit(SALLE, JOUR.atTime(12, 0), JOUR.atTime(14, 0), null));
+    }
+
+    @Test
+    void derniereSeanceQuiDepasseMinuitRepousseAuLendemain() {
+        seance(1L, JOUR.atTime(22, 30), 150);
+        planning.recharger();
+
+        List<PlanningSalles.Creneau> libres = planning.creneauxLibres(SALLE, JOUR.atTime(22, 0), 120, 1);
+
+        assertEquals(List.of(JOUR.plusDays(1).atTime(10, 0)), debuts(libres));
+    }
+
+    @Test
+    void conflitIgnoreLaSeanceModifiee() {
+        seance(1L, JOUR.atTime(14, 0), 120);
+        planning.recharger();
+
+        assertEquals(1L, planning.conflit(SALLE, JOUR.atTime(15, 0), JOUR.atTime(17, 0), null).seanceId());
+        assertNull(planning.conflit(SALLE, JOUR.atTime(15, 0), JOUR.atTime(17, 0), 1L));
+        assertNull(planning.conflit("SAL0000002", JOUR.atTime(15, 0), JOUR.atTime(17, 0), null));
+    }
+
+    @Test
+    void lotEnConflitNOccupeAucunCreneau() {
+        seance(1L, JOUR.atTime(18, 0), 120);
+        planning.recharger();
+
+        RuntimeException refus = assertThrows(RuntimeException.class, () -> planning.occuper(List.of(
+                nouvelleSeance(10L, JOUR.atTime(10, 0), 120),
+                nouvelleSeance(11L, JOUR.atTime(19, 0), 120))));
+
+        assertEquals(String.format("La salle Salle 1 est déjà occupée de %s à %s (séance ID: 1)",
+                JOUR.atTime(18, 0), JOUR.atTime(20, 0)), refus.getMessage());
+        assertEquals(1, planning.taille());
+        assertNull(planning.conflit(SALLE, JOUR.atTime(10, 0), JOUR.atTime(12, 0), null));
+    }
+
+    @Test
+    void dureeInvalideEstRefusee() {
+        planning.recharger();
+
+        assertThrows(IllegalArgumentException.class, () -> planning.creneauxLibres(SALLE, JOUR.atTime(10, 0), 0, 1));
+    }
+
+    private void seance(Long id, LocalDateTime debut, int duree) {
+        seances.add(new Object[] { id, SALLE, "FLM0000001", debut, duree });
+    }
+
+    private static Seance nouvelleSeance(Long id, LocalDateTime debut, int duree) {
+        Salle salle = new Salle();
+        salle.setId(SALLE);
+        salle.setNom("Salle 1");
+        Film film = new Film();
+        film.setId("FLM0000002");
+        film.setDuree(duree);
+        Seance seance = new Seance();
+        seance.setId(id);
+        seance.setSalle(salle);
+        seance.setFilm(film);
+        seance.setDateHeure(debut);
+        seance.setActif(true);
+        return seance;
+    }
+
+    private static List<LocalDateTime> debuts(List<PlanningSalles.Creneau> creneaux) {
+        return creneaux.stream().map(PlanningSalles.Creneau::debut).toList();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.cinimana.service.seat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+
+    // Tick de 10 ms sur 4 cases : une révolution dure 40 ms, les délais plus longs comptent les tours
+    private final HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", 10, TimeUnit.MILLISECONDS, 4);
+
+    @AfterEach
+    void fermer() {
+        wheel.close();
+    }
+
+    @Test
+    void echeanceSurPlusieursToursNExpirePasAvantSonDelai() throws InterruptedException {
+        long debut = System.nanoTime();
+        AtomicLong ecoule = new AtomicLong();
+        CountDownLatch execute = new CountDownLatch(1);
+
+        wheel.schedule(() -> {
+            ecoule.set(System.nanoTime() - debut);
+            execute.countDown();
+        }, 130, TimeUnit.MILLISECONDS);
+
+        assertTrue(execute.await(2, TimeUnit.SECONDS), "échéance jamais exécutée");
+        assertTrue(ecoule.get() >= TimeUnit.MILLISECONDS.toNanos(130),
+                "exécutée après " + TimeUnit.NANOSECONDS.toMillis(ecoule.get()) + " ms");
+    }
+
+    @Test
+    void echeancesDeLaMemeCaseSeparentParTour() throws InterruptedException {
+        // 40 ms et 80 ms tombent dans la même case, à un tour d'écart
+        AtomicInteger ordre = new AtomicInteger();
+        AtomicInteger premier = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        CountDownLatch executes = new CountDownLatch(2);
+
+        wheel.schedule(() -> {
+            second.set(ordre.incrementAndGet());
+            executes.countDown();
+        }, 80, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> {
+            premier.set(ordre.incrementAndGet());
+            executes.countDown();
+        }, 40, TimeUnit.MILLISECONDS);
+
+        assertTrue(executes.await(2, TimeUnit.SECONDS));
+        assertEquals(1, premier.get());
+        assertEquals(2, second.get());
+    }
+
+    @Test
+    void echeanceAnnuleeApresUnTourNEstPasExecutee() throws InterruptedException {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch temoin = new CountDownLatch(1);
+
+        HashedTimingWheel.Timeout annulee = wheel.schedule(executions::incrementAndGet, 150, TimeUnit.MILLISECONDS);
+        wheel.schedule(temoin::countDown, 250, TimeUnit.MILLISECONDS);
+
+        // Annulée alors que la roue a déjà fait plus d'un tour depuis sa planification
+        Thread.sleep(60);
+        annulee.cancel();
+
+        assertTrue(temoin.await(2, TimeUnit.SECONDS));
+        assertTrue(annulee.isCancelled());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void echeanceAnnuleeAvantRangementNEstPasExecutee() throws InterruptedException {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch temoin = new CountDownLatch(1);
+
+        wheel.schedule(executions::incrementAndGet, 20, TimeUnit.MILLISECONDS).cancel();
+        wheel.schedule(temoin::countDown, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(temoin.await(2, TimeUnit.SECONDS));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void uneErreurDansUneTacheNArretePasLaRoue() throws InterruptedException {
+        CountDownLatch suivante = new CountDownLatch(1);
+
+        wheel.schedule(() -> {
+            throw new IllegalStateException("échec volontaire");
+        }, 10, TimeUnit.MILLISECONDS);
+        wheel.schedule(suivante::countDown, 60, TimeUnit.MILLISECONDS);
+
+        assertTrue(suivante.await(2, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.cinimana.service.seat;
+
+import com.example.cinimana.dto.request.SiegeRequest;
+import com.example.cinimana.model.Salle;
+import com.example.cinimana.model.Seance;
+import com.example.cinimana.repository.SeanceRepository;
+import com.example.cinimana.repository.SiegeReserveRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class SeatHoldServiceTest {
+
+    private static final String CLIENT = "client@cinimana.ma";
+    private static final String AUTRE_CLIENT = "autre@cinimana.ma";
+
+    private SeatMapService seatMapService;
+    private SeatHoldService seatHoldService;
+    private Seance seance;
+
+    @BeforeEach
+    void init() {
+        // Aucun siège réservé en base : le plan part vide
+        seatMapService = new SeatMapService(mock(SeanceRepository.class), mock(SiegeReserveRepository.class));
+        ReflectionTestUtils.setField(seatMapService, "maxPlans", 100);
+        seatHoldService = new SeatHoldService(seatMapService);
+        ReflectionTestUtils.setField(seatHoldService, "holdMinutes", 10L);
+        ReflectionTestUtils.setField(seatHoldService, "maxPlaces", 10);
+
+        Salle salle = new Salle();
+        salle.setId("SAL0000001");
+        salle.setNombreRangees(5);
+        salle.setSiegesParRangee(10);
+        seance = new Seance();
+        seance.setId(1L);
+        seance.setSalle(salle);
+        seance.setDateHeure(LocalDateTime.now().plusDays(1));
+    }
+
+    @AfterEach
+    void fermer() {
+        seatHoldService.shutdown();
+    }
+
+    @Test
+    void nouveauPanierRemplaceLAncienEtGardeLesSiegesCommuns() {
+        SeatHoldService.SeatHold ancien = seatHoldService.hold(CLIENT, seance, List.of(siege(1, 1), siege(1, 2)));
+        SeatHoldService.SeatHold nouveau = seatHoldService.hold(CLIENT, seance, List.of(siege(1, 2), siege(1, 3)));
+
+        assertFalse(occupe(1, 1));
+        assertTrue(occupe(1, 2));
+        assertTrue(occupe(1, 3));
+        assertEquals(1, seatHoldService.countActiveHolds());
+        assertTrue(ancien.timeout().isCancelled());
+        assertFalse(nouveau.timeout().isCancelled());
+        assertEquals(1, nouveau.seatMap().enCours());
+        assertThrows(RuntimeException.class,
+                () -> seatHoldService.consume(ancien.holdId(), CLIENT, 1L, List.of(siege(1, 1), siege(1, 2))));
+    }
+
+    @Test
+    void remplacementImpossibleConserveLAncienPanier() {
+        seatHoldService.hold(AUTRE_CLIENT, seance, List.of(siege(1, 3)));
+        SeatHoldService.SeatHold ancien = seatHoldService.hold(CLIENT, seance, List.of(siege(1, 1), siege(1, 2)));
+
+        RuntimeException refus = assertThrows(RuntimeException.class,
+                () -> seatHoldService.hold(CLIENT, seance, List.of(siege(1, 2), siege(1, 3))));
+
+        assertEquals("Un ou plusieurs sièges sélectionnés ne sont plus disponibles", refus.getMessage());
+        assertTrue(occupe(1, 1));
+        assertTrue(occupe(1, 2));
+        assertTrue(occupe(1, 3));
+        assertEquals(2, seatHoldService.countActiveHolds());
+        assertFalse(ancien.timeout().isCancelled());
+        assertEquals(2, ancien.seatMap().enCours());
+        assertDoesNotThrow(
+                () -> seatHoldService.consume(ancien.holdId(), CLIENT, 1L, List.of(siege(1, 2), siege(1, 1))));
+    }
+
+    @Test
+    void liberationRendLesSiegesEtLePlan() {
+        SeatHoldService.SeatHold hold = seatHoldService.hold(CLIENT, seance, List.of(siege(2, 1), siege(2, 2)));
+
+        seatHoldService.release(hold.holdId(), CLIENT);
+
+        assertFalse(occupe(2, 1));
+        assertFalse(occupe(2, 2));
+        assertEquals(0, seatHoldService.countActiveHolds());
+        assertTrue(hold.timeout().isCancelled());
+        assertEquals(0, hold.seatMap().enCours());
+    }
+
+    @Test
+    void liberationParUnAutreClientEstRefusee() {
+        SeatHoldService.SeatHold hold = seatHoldService.hold(CLIENT, seance, List.of(siege(2, 1)));
+
+        assertThrows(RuntimeException.class, () -> seatHoldService.release(hold.holdId(), AUTRE_CLIENT));
+        assertTrue(occupe(2, 1));
+        assertEquals(1, seatHoldService.countActiveHolds());
+    }
+
+    @Test
+    void expirationRendLesSiegesEtEmpecheLaConsommation() {
+        SeatHoldService.SeatHold hold = seatHoldService.hold(CLIENT, seance, List.of(siege(3, 4)));
+
+        seatHoldService.expire(hold.holdId());
+
+        assertFalse(occupe(3, 4));
+        assertEquals(0, seatHoldService.countActiveHolds());
+        assertEquals(0, hold.seatMap().enCours());
+        assertThrows(RuntimeException.class,
+                () -> seatHoldService.consume(hold.holdId(), CLIENT, 1L, List.of(siege(3, 4))));
+    }
+
+    @Test
+    void expirationDUnPanierRemplaceEstSansEffet() {
+        SeatHoldService.SeatHold ancien = seatHoldService.hold(CLIENT, seance, List.of(siege(3, 4)));
+        SeatHoldService.SeatHold nouveau = seatHoldService.hold(CLIENT, seance, List.of(siege(3, 4), siege(3, 5)));
+
+        seatHoldService.expire(ancien.holdId());
+
+        assertTrue(occupe(3, 4));
+        assertTrue(occupe(3, 5));
+        assertEquals(1, seatHoldService.countActiveHolds());
+        assertDoesNotThrow(
+                () -> seatHoldService.consume(nouveau.holdId(), CLIENT, 1L, List.of(siege(3, 4), siege(3, 5))));
+    }
+
+    @Test
+    void tropDeSiegesSontRefuses() {
+        List<SiegeRequest> sieges = java.util.stream.IntStream.rangeClosed(1, 11).mapToObj(n -> siege(4, n)).toList();
+
+        assertThrows(RuntimeException.class, () -> seatHoldService.hold(CLIENT, seance, sieges));
+        assertEquals(0, seatMapService.getSeatMap(seance).countTaken());
+    }
+
+    private boolean occupe(int rangee, int numero) {
+        SeatMap seatMap = seatMapService.getSeatMap(seance);
+        return seatMap.isTaken(seatMap.index(rangee, numero));
+    }
+
+    private static SiegeRequest siege(int rangee, int numero) {
+        SiegeRequest siege = new SiegeRequest();
+        siege.setRangee(rangee);
+        siege.setNumero(numero);
+        return siege;
+    }
+}
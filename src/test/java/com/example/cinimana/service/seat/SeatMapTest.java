@@ -0,0 +1,128 @@
+package com.example.cinimana.service.seat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatMapTest {
+
+    @Test
+    void demandeEnConflitNePoseAucunSiege() {
+        SeatMap seatMap = new SeatMap(1L, "SAL0000001", 10, 20);
+
+        assertTrue(seatMap.tryClaim(1, 2));
+        assertFalse(seatMap.tryClaim(2, 3));
+
+        assertTrue(seatMap.isTaken(1));
+        assertTrue(seatMap.isTaken(2));
+        assertFalse(seatMap.isTaken(3));
+        assertEquals(2, seatMap.countTaken());
+    }
+
+    @Test
+    void conflitSurUnMotSuivantRelacheLesMotsDejaPoses() {
+        SeatMap seatMap = new SeatMap(1L, "SAL0000001", 10, 20);
+        assertTrue(seatMap.tryClaim(130));
+
+        // Sièges sur trois mots de 64 bits : les deux premiers sont posés puis relâchés
+        assertFalse(seatMap.tryClaim(130, 5, 64));
+
+        assertFalse(seatMap.isTaken(5));
+        assertFalse(seatMap.isTaken(64));
+        assertEquals(1, seatMap.countTaken());
+        assertTrue(seatMap.tryClaim(5, 64));
+    }
+
+    @Test
+    void liberationRendLesSieges() {
+        SeatMap seatMap = new SeatMap(1L, "SAL0000001", 10, 20);
+        seatMap.tryClaim(10, 70, 150);
+
+        seatMap.release(10, 150);
+
+        assertFalse(seatMap.isTaken(10));
+        assertTrue(seatMap.isTaken(70));
+        assertFalse(seatMap.isTaken(150));
+    }
+
+    @Test
+    void siegeHorsPlanEstRefuse() {
+        SeatMap seatMap = new SeatMap(1L, "SAL0000001", 10, 20);
+
+        assertThrows(IllegalArgumentException.class, () -> seatMap.index(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> seatMap.index(11, 1));
+        assertThrows(IllegalArgumentException.class, () -> seatMap.index(1, 21));
+        assertEquals(199, seatMap.index(10, 20));
+        assertEquals(10, seatMap.rangeeOf(199));
+        assertEquals(20, seatMap.numeroOf(199));
+    }
+
+    @Test
+    void demandesConcurrentesQuiSeChevauchentNeDonnentJamaisUnSiegeDeuxFois() throws Exception {
+        int capacite = 200;
+        int threads = 8;
+        SeatMap seatMap = new SeatMap(1L, "SAL0000001", 10, 20);
+        AtomicInteger notifications = new AtomicInteger();
+        seatMap.setListener((plan, change, indexes) -> {
+            if (change == SeatChange.CLAIMED) {
+                notifications.incrementAndGet();
+            }
+        });
+
+        // Tous les threads tentent les mêmes groupes de trois sièges répartis sur plusieurs mots,
+        // chaque groupe chevauchant ses voisins
+        CyclicBarrier depart = new CyclicBarrier(threads);
+        List<List<int[]>> obtenus = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<int[]> succes = new ArrayList<>();
+            obtenus.add(succes);
+            int decalage = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    depart.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                for (int i = 0; i < capacite; i++) {
+                    int k = (i + decalage * 25) % capacite;
+                    int[] groupe = { k, (k + 61) % capacite, (k + 127) % capacite };
+                    if (seatMap.tryClaim(groupe)) {
+                        succes.add(groupe);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        int[] attributions = new int[capacite];
+        int groupes = 0;
+        for (List<int[]> succes : obtenus) {
+            for (int[] groupe : succes) {
+                groupes++;
+                for (int index : groupe) {
+                    attributions[index]++;
+                }
+            }
+        }
+        for (int index = 0; index < capacite; index++) {
+            assertTrue(attributions[index] <= 1, "siège " + index + " attribué " + attributions[index] + " fois");
+            assertEquals(attributions[index] == 1, seatMap.isTaken(index), "siège " + index);
+        }
+        assertTrue(groupes > 0);
+        assertEquals(groupes * 3, seatMap.countTaken());
+        assertEquals(groupes, notifications.get());
+    }
+}
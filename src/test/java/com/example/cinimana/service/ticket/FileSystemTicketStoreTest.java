@@ -0,0 +1,82 @@
+package com.example.cinimana.service.ticket;
+
+import com.example.cinimana.repository.ReservationRepository;
+import com.example.cinimana.repository.TicketFichierRepository;
+import com.example.cinimana.service.PDFService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileSystemTicketStoreTest {
+
+    @TempDir
+    Path ticketsDir;
+
+    private ReservationRepository reservationRepository;
+    private TicketFichierRepository ticketFichierRepository;
+    private FileSystemTicketStore ticketStore;
+
+    @BeforeEach
+    void init() {
+        reservationRepository = mock(ReservationRepository.class);
+        ticketFichierRepository = mock(TicketFichierRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        ticketStore = new FileSystemTicketStore(ticketFichierRepository, reservationRepository,
+                mock(PDFService.class), transactionTemplate);
+        ReflectionTestUtils.setField(ticketStore, "ticketsDir", ticketsDir.toString());
+        ReflectionTestUtils.setField(ticketStore, "retentionDays", 30L);
+    }
+
+    @Test
+    void anciensBilletsIndexesAvecLaDateDuFichier() throws Exception {
+        LocalDateTime ecrit = LocalDateTime.of(2026, 1, 10, 9, 30);
+        Path ancien = Files.write(ticketsDir.resolve("ticket_ABC.pdf"), new byte[] { 1, 2, 3 });
+        Files.setLastModifiedTime(ancien, FileTime.from(ecrit.atZone(ZoneId.systemDefault()).toInstant()));
+        when(reservationRepository.findTicketsHorsIndex(eq(0L), any()))
+                .thenReturn(List.<Object[]>of(new Object[] { 4L, "ABC", ancien.toString() }));
+
+        assertEquals(1, ticketStore.indexerAnciensBillets());
+
+        // Expiré depuis longtemps : la prochaine purge le supprime comme un billet récent
+        verify(ticketFichierRepository).insertIfAbsent("ABC", ancien.toString(), 3, ecrit, ecrit.plusDays(30));
+        verify(reservationRepository, never()).clearTicketPdfPath(any());
+    }
+
+    @Test
+    void cheminSansFichierEffaceDeLaReservation() {
+        when(reservationRepository.findTicketsHorsIndex(eq(0L), any()))
+                .thenReturn(List.<Object[]>of(new Object[] { 7L, "XYZ", ticketsDir.resolve("ticket_XYZ.pdf").toString() }));
+
+        assertEquals(0, ticketStore.indexerAnciensBillets());
+
+        verify(reservationRepository).clearTicketPdfPath(List.of("XYZ"));
+        verify(ticketFichierRepository, never()).insertIfAbsent(anyString(), anyString(), anyLong(), any(), any());
+    }
+}
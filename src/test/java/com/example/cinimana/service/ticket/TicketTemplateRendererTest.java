@@ -0,0 +1,162 @@
+package com.example.cinimana.service.ticket;
+
+import com.example.cinimana.model.Categorie;
+import com.example.cinimana.model.CodeReservation;
+import com.example.cinimana.model.Film;
+import com.example.cinimana.model.Reservation;
+import com.example.cinimana.model.Salle;
+import com.example.cinimana.model.Seance;
+import com.example.cinimana.model.SiegeReserve;
+import com.example.cinimana.service.PDFService;
+import com.example.cinimana.service.QRCodeService;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketTemplateRendererTest {
+
+    private static final Pattern RECTANGLE = Pattern.compile("\\sre\\s");
+
+    private TicketTemplateRenderer templateRenderer;
+    private PDFService pdfService;
+
+    @BeforeEach
+    void init() {
+        QRCodeService qrCodeService = new QRCodeService(100, 3600);
+        templateRenderer = new TicketTemplateRenderer(qrCodeService);
+        templateRenderer.compile();
+        pdfService = new PDFService(qrCodeService, templateRenderer);
+    }
+
+    @AfterEach
+    void fermer() {
+        templateRenderer.close();
+    }
+
+    @Test
+    void billetParGabaritTientSurUnePageAvecTexteEtQrCode() throws IOException {
+        Reservation reservation = reservation("Inception", 4);
+
+        try (PdfDocument pdf = lire(templateRenderer.render(reservation))) {
+            assertEquals(1, pdf.getNumberOfPages());
+            String texte = PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+            // Partie fixe (gabarit) et champs variables
+            assertTrue(texte.contains("CODE DE RÉSERVATION"), texte);
+            assertTrue(texte.contains("INCEPTION"), texte);
+            assertTrue(texte.contains("R7-S5, R7-S6, R7-S7, R7-S8"), texte);
+            assertTrue(texte.contains("180.00 MAD") || texte.contains("180,00 MAD"), texte);
+            assertTrue(texte.contains(reservation.getCodeReservation()), texte);
+            // QR code vectoriel : un rectangle par suite de modules sombres, hors gabarit
+            assertTrue(rectangles(pdf) > 50, "QR code absent");
+        }
+    }
+
+    @Test
+    void rendusSuccessifsSontIndependants() throws IOException {
+        Reservation premiere = reservation("Inception", 2);
+        Reservation seconde = reservation("Dune", 2);
+
+        byte[] pdfPremiere = templateRenderer.render(premiere);
+        byte[] pdfSeconde = templateRenderer.render(seconde);
+
+        try (PdfDocument pdf = lire(pdfSeconde)) {
+            String texte = PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+            assertTrue(texte.contains("DUNE"), texte);
+            assertTrue(texte.contains(seconde.getCodeReservation()), texte);
+            assertFalse(texte.contains(premiere.getCodeReservation()), texte);
+        }
+        try (PdfDocument pdf = lire(pdfPremiere)) {
+            assertTrue(PdfTextExtractor.getTextFromPage(pdf.getFirstPage()).contains("INCEPTION"));
+        }
+    }
+
+    @Test
+    void groupeNombreuxResteDansLeGabaritAvecUnePolicePlusPetite() throws IOException {
+        Reservation groupe = reservation("Inception", 40);
+
+        try (PdfDocument pdf = lire(templateRenderer.render(groupe))) {
+            assertEquals(1, pdf.getNumberOfPages());
+            String texte = PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+            assertTrue(texte.contains("R7-S5"), texte);
+            assertTrue(texte.contains("R10-S8"), texte);
+        }
+    }
+
+    @Test
+    void texteTropLongRepasseParLaMiseEnPageComplete() throws IOException {
+        Reservation reservation = reservation("La très longue histoire ".repeat(30).trim(), 2);
+
+        assertThrows(RuntimeException.class, () -> templateRenderer.render(reservation));
+
+        try (PdfDocument pdf = lire(pdfService.generateReservationTicket(reservation))) {
+            StringBuilder texte = new StringBuilder();
+            for (int i = 1; i <= pdf.getNumberOfPages(); i++) {
+                texte.append(PdfTextExtractor.getTextFromPage(pdf.getPage(i)));
+            }
+            assertTrue(texte.toString().contains("LA TRÈS LONGUE HISTOIRE"), texte.toString());
+            assertTrue(texte.toString().contains(reservation.getCodeReservation()), texte.toString());
+        }
+    }
+
+    private static PdfDocument lire(byte[] pdf) throws IOException {
+        return new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+    }
+
+    private static int rectangles(PdfDocument pdf) {
+        String contenu = new String(pdf.getFirstPage().getContentBytes(), StandardCharsets.ISO_8859_1);
+        Matcher matcher = RECTANGLE.matcher(contenu);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static Reservation reservation(String titre, int sieges) {
+        Film film = new Film();
+        film.setTitre(titre);
+        film.setGenre("Science-fiction");
+        film.setDuree(148);
+        film.setAgeLimite("12");
+
+        Salle salle = new Salle();
+        salle.setNom("Salle IMAX");
+
+        Categorie categorie = new Categorie();
+        categorie.setNom("IMAX 3D");
+
+        Seance seance = new Seance();
+        seance.setFilm(film);
+        seance.setSalle(salle);
+        seance.setCategorie(categorie);
+        seance.setDateHeure(LocalDateTime.now().plusDays(2));
+
+        Reservation reservation = new Reservation();
+        reservation.setCodeReservation(CodeReservation.formater(CodeReservation.nouveau()));
+        reservation.setDateReservation(LocalDateTime.now());
+        reservation.setMontantTotal(180.0);
+        reservation.setSeance(seance);
+        for (int i = 0; i < sieges; i++) {
+            SiegeReserve siege = new SiegeReserve();
+            siege.setRangee(7 + i / 12);
+            siege.setNumero(5 + i % 12);
+            reservation.getSieges().add(siege);
+        }
+        return reservation;
+    }
+}